@@ -0,0 +1,110 @@
+package edu.iris.dmc.seedcodec.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.iris.dmc.seedcodec.B1000Types;
+import edu.iris.dmc.seedcodec.Codec;
+import edu.iris.dmc.seedcodec.CodecException;
+import edu.iris.dmc.seedcodec.DecompressedData;
+import edu.iris.dmc.seedcodec.SteimFrameBlock;
+
+/**
+ * Throughput of {@link Codec#decompress} for each supported blockette 1000
+ * encoding, one record per invocation, both through the allocating byte
+ * array entry point and into reused caller arrays from a ByteBuffer.
+ *
+ * @version 10/16/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark implements B1000Types {
+
+	/** blockette 1000 encoding format */
+	@Param({"1", "2", "3", "4", "5", "10", "11", "15", "16", "30", "32"})
+	public int type;
+
+	@Param({"512", "4096"})
+	public int recordLength;
+
+	@Param({"BIG_ENDIAN", "LITTLE_ENDIAN"})
+	public String byteOrder;
+
+	private final Codec codec = new Codec();
+	private byte[] encoded;
+	private ByteBuffer encodedBuffer;
+	private boolean swapBytes;
+	private int numSamples;
+	private int decompressedType;
+	private int[] intOut;
+	private float[] floatOut;
+	private double[] doubleOut;
+
+	@Setup(Level.Trial)
+	public void setUp() throws CodecException, IOException {
+		swapBytes = ByteOrder.LITTLE_ENDIAN.toString().equals(byteOrder);
+		ByteOrder order = swapBytes ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+		int[] samples = SyntheticData.randomWalk(8192, 12, 42L);
+		if (type == STEIM1 || type == STEIM2) {
+			int steimVersion = (type == STEIM1) ? 1 : 2;
+			SteimFrameBlock block = SyntheticData.encodeSteim(steimVersion, samples, recordLength);
+			numSamples = block.getNumSamples();
+			// Codec always reads Steim frames big-endian, as SEED requires
+			encoded = block.getEncodedData();
+		} else if (type == USNSN) {
+			encoded = SyntheticData.encodeUsnsn(samples, recordLength, ByteOrder.BIG_ENDIAN);
+			numSamples = SyntheticData.usnsnSamples(encoded);
+			encoded = SyntheticData.encodeUsnsn(samples, recordLength, order);
+		} else {
+			numSamples = SyntheticData.fixedSamples(type, recordLength);
+			encoded = SyntheticData.encodeFixed(type, samples, recordLength, order);
+		}
+		encodedBuffer = ByteBuffer.wrap(encoded).order(order);
+		decompressedType = codec.getDecompressedType(type);
+		intOut = new int[numSamples];
+		floatOut = new float[numSamples];
+		doubleOut = new double[numSamples];
+	}
+
+	/** decompress a byte array into a new DecompressedData */
+	@Benchmark
+	public DecompressedData decompress() throws CodecException {
+		return codec.decompress(type, encoded, numSamples, swapBytes);
+	}
+
+	/** decompress a buffer into the reused array of the natural primitive type */
+	@Benchmark
+	public Object decompressInto() throws CodecException {
+		encodedBuffer.rewind();
+		switch (decompressedType) {
+		case FLOAT:
+			codec.decompress(type, encodedBuffer, numSamples, swapBytes, floatOut, 0);
+			return floatOut;
+		case DOUBLE:
+			codec.decompress(type, encodedBuffer, numSamples, swapBytes, doubleOut, 0);
+			return doubleOut;
+		default:
+			codec.decompress(type, encodedBuffer, numSamples, swapBytes, intOut, 0);
+			return intOut;
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package edu.iris.dmc.seedcodec.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.iris.dmc.seedcodec.DecompressedData;
+
+/**
+ * Cost of the {@link DecompressedData} widening conversions for one record
+ * of samples.  The getAs methods return a new array on each call; the
+ * viewAs methods cache the conversion per instance, so the view benchmarks
+ * wrap the source array in a new DecompressedData to measure the first,
+ * converting call, and cachedViewAsDouble measures the cache hit.
+ *
+ * @version 10/16/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecompressedDataBenchmark {
+
+	/** samples in one record: 16 bit values fill a 512 or 4096 byte record */
+	@Param({"224", "2016"})
+	public int numSamples;
+
+	@Param({"4", "20"})
+	public int entropy;
+
+	private short[] shorts;
+	private int[] ints;
+	private float[] floats;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		ints = SyntheticData.randomWalk(numSamples, entropy, 42L);
+		shorts = new short[numSamples];
+		floats = new float[numSamples];
+		for (int i = 0; i < numSamples; i++) {
+			shorts[i] = (short) ints[i];
+			floats[i] = ints[i];
+		}
+	}
+
+	@Benchmark
+	public int[] shortAsInt() {
+		return new DecompressedData(shorts).getAsInt();
+	}
+
+	@Benchmark
+	public float[] intAsFloat() {
+		return new DecompressedData(ints).getAsFloat();
+	}
+
+	@Benchmark
+	public double[] intAsDouble() {
+		return new DecompressedData(ints).getAsDouble();
+	}
+
+	@Benchmark
+	public double[] floatAsDouble() {
+		return new DecompressedData(floats).getAsDouble();
+	}
+
+	@Benchmark
+	public double[] intViewAsDouble() {
+		return new DecompressedData(ints).viewAsDouble();
+	}
+
+	/** repeated copy of the same data, converted once */
+	@Benchmark
+	public double[] cachedAsDouble(CachedState state) {
+		return state.data.getAsDouble();
+	}
+
+	/** repeated view of the same data, served from the cache */
+	@Benchmark
+	public double[] cachedViewAsDouble(CachedState state) {
+		return state.data.viewAsDouble();
+	}
+
+	@State(Scope.Thread)
+	public static class CachedState {
+		DecompressedData data;
+
+		@Setup(Level.Trial)
+		public void setUp(DecompressedDataBenchmark benchmark) {
+			data = new DecompressedData(benchmark.ints);
+		}
+	}
+}
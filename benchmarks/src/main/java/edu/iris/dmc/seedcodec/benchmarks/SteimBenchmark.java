@@ -0,0 +1,123 @@
+package edu.iris.dmc.seedcodec.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.iris.dmc.seedcodec.Steim1;
+import edu.iris.dmc.seedcodec.Steim2;
+import edu.iris.dmc.seedcodec.SteimException;
+import edu.iris.dmc.seedcodec.SteimFrameBlock;
+
+/**
+ * Encode and decode throughput of one record's worth of Steim1 and Steim2
+ * frames.  Each invocation handles a single record, so the score is the
+ * cost per record at the given record length.
+ *
+ * @version 10/16/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SteimBenchmark {
+
+	@Param({"1", "2"})
+	public int steimVersion;
+
+	@Param({"512", "4096"})
+	public int recordLength;
+
+	/** significant bits per sample-to-sample difference */
+	@Param({"4", "12", "20"})
+	public int entropy;
+
+	@Param({"BIG_ENDIAN", "LITTLE_ENDIAN"})
+	public String byteOrder;
+
+	private int[] samples;
+	private int frames;
+	private byte[] encoded;
+	private ByteBuffer encodedBuffer;
+	private boolean swapBytes;
+	private int numSamples;
+	private int[] decoded;
+	private SteimFrameBlock reusedBlock;
+	private byte[] record;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SteimException, IOException {
+		// enough for 63 frames of 7 four bit differences per word
+		samples = SyntheticData.randomWalk(8192, entropy, 42L);
+		frames = SyntheticData.steimFrames(recordLength);
+		SteimFrameBlock block = SyntheticData.encodeSteim(steimVersion, samples, recordLength);
+		numSamples = block.getNumSamples();
+		swapBytes = ByteOrder.LITTLE_ENDIAN.toString().equals(byteOrder);
+		encoded = block.getEncodedData();
+		if (swapBytes) {
+			encoded = SyntheticData.swapSteim(steimVersion, encoded);
+		}
+		encodedBuffer = ByteBuffer.wrap(encoded)
+				.order(swapBytes ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+		decoded = new int[numSamples];
+		reusedBlock = new SteimFrameBlock(frames, steimVersion);
+		record = new byte[recordLength];
+	}
+
+	/** encode one record into a newly allocated frame block */
+	@Benchmark
+	public SteimFrameBlock encode() throws SteimException {
+		if (steimVersion == 1) {
+			return Steim1.encode(samples, 0, samples.length, frames, 0);
+		}
+		return Steim2.encode(samples, 0, samples.length, frames, 0);
+	}
+
+	/** encode one record into a reused frame block and write it into a record */
+	@Benchmark
+	public byte[] encodeInto() throws SteimException {
+		if (steimVersion == 1) {
+			Steim1.encode(samples, 0, samples.length, 0, reusedBlock);
+		} else {
+			Steim2.encode(samples, 0, samples.length, 0, reusedBlock);
+		}
+		reusedBlock.writeTo(record, SyntheticData.DATA_OFFSET);
+		return record;
+	}
+
+	/** decode one record into a newly allocated array */
+	@Benchmark
+	public int[] decode() throws SteimException {
+		if (steimVersion == 1) {
+			return Steim1.decode(encoded, numSamples, swapBytes, 0);
+		}
+		return Steim2.decode(encoded, numSamples, swapBytes, 0);
+	}
+
+	/** decode one record into a caller array that is reused every time */
+	@Benchmark
+	public int[] decodeInto() throws SteimException {
+		if (steimVersion == 1) {
+			Steim1.decode(encodedBuffer, numSamples, 0, decoded, 0);
+		} else {
+			Steim2.decode(encodedBuffer, numSamples, 0, decoded, 0);
+		}
+		return decoded;
+	}
+}
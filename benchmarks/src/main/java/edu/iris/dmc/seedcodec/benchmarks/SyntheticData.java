@@ -0,0 +1,289 @@
+package edu.iris.dmc.seedcodec.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import edu.iris.dmc.seedcodec.B1000Types;
+import edu.iris.dmc.seedcodec.Steim1;
+import edu.iris.dmc.seedcodec.Steim2;
+import edu.iris.dmc.seedcodec.SteimException;
+import edu.iris.dmc.seedcodec.SteimFrameBlock;
+
+/**
+ * Generates reproducible sample series and encoded record payloads for the
+ * benchmarks, so that they run without any SEED volumes on hand.
+ * <p>
+ * Sample entropy is expressed as the number of significant bits in each
+ * sample-to-sample difference: a quiet station produces differences of a
+ * few bits, a noisy or strong-motion channel differences of 20 bits or more.
+ *
+ * @version 10/16/2026
+ */
+public final class SyntheticData implements B1000Types {
+
+	/** size of the fixed section data header and blockettes ahead of the data */
+	public static final int DATA_OFFSET = 64;
+
+	private SyntheticData() {}
+
+	/**
+	 * Generate a random walk whose differences are uniformly distributed
+	 * signed values of <b>bits</b> significant bits.
+	 * @param numSamples the number of samples to generate
+	 * @param bits significant bits per difference, 1 to 30
+	 * @param seed random seed, so that runs are comparable
+	 * @return the generated samples
+	 */
+	public static int[] randomWalk(int numSamples, int bits, long seed) {
+		Random random = new Random(seed);
+		int[] samples = new int[numSamples];
+		int range = 1 << (bits - 1);
+		int value = 0;
+		for (int i = 0; i < numSamples; i++) {
+			value += random.nextInt(2 * range) - range;
+			// keep the walk near zero so long series never overflow
+			if (value > (1 << 29) || value < -(1 << 29)) {
+				value /= 2;
+			}
+			samples[i] = value;
+		}
+		return samples;
+	}
+
+	/**
+	 * Return the number of 64-byte Steim frames that fit in the data section
+	 * of a record of the given length.
+	 * @param recordLength logical record length in bytes
+	 * @return number of frames, at most 63
+	 */
+	public static int steimFrames(int recordLength) {
+		return Math.min((recordLength - DATA_OFFSET) / 64, 63);
+	}
+
+	/**
+	 * Encode as many of the samples as fit into one record's worth of Steim
+	 * frames.
+	 * @param steimVersion 1 or 2
+	 * @param samples the values to encode, starting at index 0
+	 * @param recordLength logical record length in bytes
+	 * @return the filled frame block
+	 * @throws SteimException from the Steim encoder
+	 */
+	public static SteimFrameBlock encodeSteim(int steimVersion, int[] samples, int recordLength)
+			throws SteimException {
+		int frames = steimFrames(recordLength);
+		if (steimVersion == 1) {
+			return Steim1.encode(samples, 0, samples.length, frames, 0);
+		}
+		return Steim2.encode(samples, 0, samples.length, frames, 0);
+	}
+
+	/**
+	 * Rewrite big-endian Steim frames in VAX/8086 word order, the way the
+	 * decoders expect them when asked to swap bytes.  One byte differences
+	 * are left alone and Steim1 two byte differences are swapped in halves.
+	 * @param steimVersion 1 or 2
+	 * @param frames big-endian encoded frames
+	 * @return a swapped copy of <b>frames</b>
+	 */
+	public static byte[] swapSteim(int steimVersion, byte[] frames) {
+		ByteBuffer in = ByteBuffer.wrap(frames);
+		ByteBuffer out = ByteBuffer.allocate(frames.length).order(ByteOrder.LITTLE_ENDIAN);
+		for (int frame = 0; frame < frames.length; frame += 64) {
+			int nibbles = in.getInt(frame);
+			for (int word = 0; word < 16; word++) {
+				int pos = frame + 4 * word;
+				int nibble = (nibbles >>> (30 - 2 * word)) & 0x03;
+				if (nibble == 1) {
+					out.putInt(pos, Integer.reverseBytes(in.getInt(pos)));
+				} else if (nibble == 2 && steimVersion == 1) {
+					out.putShort(pos, in.getShort(pos));
+					out.putShort(pos + 2, in.getShort(pos + 2));
+				} else {
+					out.putInt(pos, in.getInt(pos));
+				}
+			}
+		}
+		return out.array();
+	}
+
+	/**
+	 * Compress as many differences of the samples as fit into one record in
+	 * the US National Network (NSN) format, choosing for each field the
+	 * narrowest key that holds its differences.  The record is written as
+	 * the last of its series, so it carries the reverse integration constant.
+	 * @param samples the values to encode; samples[0] is the forward
+	 * integration constant
+	 * @param recordLength logical record length in bytes
+	 * @param order byte order of the 32 bit words of the record
+	 * @return the compressed payload, filling the data section of the record
+	 */
+	public static byte[] encodeUsnsn(int[] samples, int recordLength, ByteOrder order) {
+		int length = recordLength - DATA_OFFSET;
+		byte[] record = new byte[length];
+		// leave room for the key, the largest field pair, both trailer
+		// bytes and the reverse integration constant
+		int limit = (length - 4 - 2 - 1 - 2 * 16) * 8;
+		int bit = 48;
+		int mark = 5;
+		int index = 1;
+		int frame = 0;
+		while (index < samples.length && bit < limit) {
+			frame++;
+			int keyPos = bit >> 3;
+			bit += 8;
+			int frameCount = 0;
+			int key = 0;
+			for (int j = 0; j < 2; j++) {
+				int k = usnsnKey(samples, index);
+				int count = Math.min(USNSN_NIB[1][k], samples.length - index);
+				for (int i = 0; i < count; i++, index++) {
+					putBits(record, bit + i * USNSN_NIB[0][k], samples[index] - samples[index - 1],
+							USNSN_NIB[0][k]);
+				}
+				bit += 8 * USNSN_NIB[2][k];
+				frameCount += count;
+				key = (key << 4) | k;
+			}
+			record[keyPos] = (byte) key;
+			boolean fin = (index >= samples.length || bit >= limit);
+			if (fin || frame % 7 == 0) {
+				// back pointer, then for the last frame its sample count
+				record[bit >> 3] = (byte) ((bit >> 3) - mark);
+				mark = bit >> 3;
+				bit += 8;
+				if (fin) {
+					record[bit >> 3] = (byte) frameCount;
+				}
+			}
+		}
+		putBits(record, 0, samples[0], 32);
+		putBits(record, 32, index - 1, 16);
+		putBits(record, (length - 4) * 8, samples[index - 1], 32);
+		if (order == ByteOrder.LITTLE_ENDIAN) {
+			ByteBuffer b = ByteBuffer.wrap(record);
+			for (int i = 0; i < length; i += 4) {
+				b.putInt(i, Integer.reverseBytes(b.getInt(i)));
+			}
+		}
+		return record;
+	}
+
+	/**
+	 * Return the number of samples, including the forward integration
+	 * constant, held by a record written by {@link #encodeUsnsn}.
+	 * @param record compressed payload in big-endian word order
+	 * @return number of samples
+	 */
+	public static int usnsnSamples(byte[] record) {
+		return (ByteBuffer.wrap(record).getShort(4) & 0xffff) + 1;
+	}
+
+	/** pick the narrowest NSN key whose field holds the next differences */
+	private static int usnsnKey(int[] samples, int index) {
+		for (int k = 0; k < 15; k++) {
+			int count = Math.min(USNSN_NIB[1][k], samples.length - index);
+			int range = 1 << (USNSN_NIB[0][k] - 1);
+			boolean fits = true;
+			for (int i = 0; i < count && fits; i++) {
+				int d = samples[index + i] - samples[index + i - 1];
+				fits = (d >= -range && d < range);
+			}
+			if (fits) {
+				return k;
+			}
+		}
+		return 15;
+	}
+
+	/** write the low <b>bits</b> of a value MSB first at a bit offset */
+	private static void putBits(byte[] b, int bit, int value, int bits) {
+		for (int i = bits - 1; i >= 0; i--, bit++) {
+			if (((value >>> i) & 1) != 0) {
+				b[bit >> 3] |= (byte) (0x80 >>> (bit & 7));
+			}
+		}
+	}
+
+	/** NSN key table: bits per difference, differences and bytes per field */
+	private static final int[][] USNSN_NIB = {
+		{4, 4, 4, 6, 6, 8, 8, 10, 10, 12, 14, 16, 20, 24, 28, 32},
+		{4, 8, 12, 4, 8, 4, 8, 4, 8, 4, 4, 4, 4, 4, 4, 4},
+		{2, 4, 6, 3, 6, 4, 8, 5, 10, 6, 7, 8, 10, 12, 14, 16}};
+
+	/**
+	 * Encode samples as one record's worth of a fixed width or gain ranged
+	 * data type.  Values are truncated to the width of the type; CDSN and SRO
+	 * payloads are random words, since every bit pattern is a valid sample.
+	 * @param type B1000 encoding type, not Steim
+	 * @param samples the values to encode
+	 * @param recordLength logical record length in bytes
+	 * @param order byte order of the payload
+	 * @return the encoded payload, filling the data section of the record
+	 */
+	public static byte[] encodeFixed(int type, int[] samples, int recordLength, ByteOrder order) {
+		int numSamples = fixedSamples(type, recordLength);
+		ByteBuffer b = ByteBuffer.allocate(recordLength - DATA_OFFSET).order(order);
+		Random random = new Random(type);
+		for (int i = 0; i < numSamples; i++) {
+			int value = samples[i];
+			switch (type) {
+			case SHORT:
+			case DWWSSN:
+				b.putShort((short) value);
+				break;
+			case CDSN:
+			case SRO:
+				b.putShort((short) random.nextInt());
+				break;
+			case INT24:
+				if (order == ByteOrder.BIG_ENDIAN) {
+					b.put((byte) (value >> 16)).put((byte) (value >> 8)).put((byte) value);
+				} else {
+					b.put((byte) value).put((byte) (value >> 8)).put((byte) (value >> 16));
+				}
+				break;
+			case INTEGER:
+				b.putInt(value);
+				break;
+			case FLOAT:
+				b.putFloat(value);
+				break;
+			case DOUBLE:
+				b.putDouble(value);
+				break;
+			default:
+				throw new IllegalArgumentException("not a fixed width type: " + type);
+			}
+		}
+		return b.array();
+	}
+
+	/**
+	 * Return the number of samples of a fixed width or gain ranged data type
+	 * that fill the data section of a record.
+	 * @param type B1000 encoding type, not Steim
+	 * @param recordLength logical record length in bytes
+	 * @return number of samples
+	 */
+	public static int fixedSamples(int type, int recordLength) {
+		int bytes = recordLength - DATA_OFFSET;
+		switch (type) {
+		case SHORT:
+		case DWWSSN:
+		case CDSN:
+		case SRO:
+			return bytes / 2;
+		case INT24:
+			return bytes / 3;
+		case INTEGER:
+		case FLOAT:
+			return bytes / 4;
+		case DOUBLE:
+			return bytes / 8;
+		default:
+			throw new IllegalArgumentException("not a fixed width type: " + type);
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package edu.iris.dmc.seedcodec.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.iris.dmc.seedcodec.CodecException;
+import edu.iris.dmc.seedcodec.USNSN;
+
+/**
+ * Decode throughput of one record of US National Network compressed data.
+ *
+ * @version 10/16/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class USNSNBenchmark {
+
+	@Param({"512", "4096"})
+	public int recordLength;
+
+	/** significant bits per sample-to-sample difference */
+	@Param({"4", "12", "20"})
+	public int entropy;
+
+	@Param({"BIG_ENDIAN", "LITTLE_ENDIAN"})
+	public String byteOrder;
+
+	private byte[] encoded;
+	private ByteBuffer encodedBuffer;
+	private boolean swapBytes;
+	private int numSamples;
+	private int[] decoded;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		int[] samples = SyntheticData.randomWalk(8192, entropy, 42L);
+		swapBytes = ByteOrder.LITTLE_ENDIAN.toString().equals(byteOrder);
+		ByteOrder order = swapBytes ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+		numSamples = SyntheticData.usnsnSamples(
+				SyntheticData.encodeUsnsn(samples, recordLength, ByteOrder.BIG_ENDIAN));
+		encoded = SyntheticData.encodeUsnsn(samples, recordLength, order);
+		encodedBuffer = ByteBuffer.wrap(encoded).order(order);
+		decoded = new int[numSamples];
+	}
+
+	/** decode one record into a newly allocated array */
+	@Benchmark
+	public int[] decode() throws CodecException {
+		return USNSN.decode(encoded, numSamples, swapBytes, 0);
+	}
+
+	/** decode one record into a caller array that is reused every time */
+	@Benchmark
+	public int[] decodeInto() throws CodecException {
+		USNSN.decode(encodedBuffer, numSamples, decoded, 0);
+		return decoded;
+	}
+}
@@ -314,10 +314,12 @@ public class JseedrTest  {
        dataBlk.removeWaveform();
        wf = null;
        wf = new Waveform(data,
+                         0,
+                         data.length,
                          maxByteLen,
                          STEIM1_ENCODING_METHOD,
                          lastEncodedValue);
-       lastEncodedValue = data[data.length - 1];
+       lastEncodedValue = data[wf.getNumSamples() - 1];
        dataBlk.attachWaveform(wf);
      }
      if (blocketteCounter != numBlockettes)
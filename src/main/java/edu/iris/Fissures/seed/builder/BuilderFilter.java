@@ -155,7 +155,7 @@ public abstract class BuilderFilter {
 			if (criteria.charAt(j) == '*') {
 				j++;
 				if (j >= criteria.length()) return true;
-				while (criteria.charAt(j) != value.charAt(i) && i < value.length()) i++;
+				while (i < value.length() && criteria.charAt(j) != value.charAt(i)) i++;
 				if (i >= value.length()) return false;
 				else {
 					j++;
@@ -0,0 +1,161 @@
+package edu.iris.Fissures.seed.builder;
+
+import java.util.*;
+
+/**
+ * The tests that a SeedBuilderFilter makes of a data record's Fixed Section
+ * of Data Header (FSDH), compiled to run straight against the header bytes
+ * of the raw record.<br>
+ * The quality, station, location, channel, network, start_time/end_time and
+ * min_sample/max_sample parameters are compiled into GlobMatchers and
+ * RangeMatchers once, and each record is then matched without building its
+ * blockette 999, so a record the filter rejects can be passed over without
+ * parsing it or copying its waveform.<br>
+ * The match follows SeedBuilderFilter.qualify() exactly.  Where the bytes
+ * would not read back as plain field values, or a comparison has to be
+ * made with the formatted field value, the outcome is UNKNOWN and the
+ * record must be built and filtered as usual.  Parameters added to the
+ * filter afterwards are not seen; SeedBuilderFilter.getFsdhMatcher()
+ * compiles a fresh matcher when they change.
+ * @version 10/16/2026
+ */
+public class FsdhMatcher {
+
+	/**
+	 * Compile the FSDH tests of <b>filter</b>.
+	 * @param filter the filter to match as
+	 */
+	public FsdhMatcher (SeedBuilderFilter filter) {
+		quality = new byte[128];
+		Vector<?> qualityParams = filter.getParameter("quality");
+		GlobMatcher qualityGlobs = qualityParams == null ? null : new GlobMatcher(qualityParams);
+		for (int c = 0; c < quality.length; c++) {
+			if (qualityGlobs == null) {
+				quality[c] = ACCEPT;
+			} else if (isUpperOrDigit(c)) {
+				quality[c] = (byte) (qualityGlobs.matches(String.valueOf((char) c)) ? ACCEPT : REJECT);
+			} else {
+				quality[c] = UNKNOWN;  // lenient parsing would substitute the flag
+			}
+		}
+		station = globs(filter.getParameter("station"));
+		location = globs(filter.getParameter("location"));
+		channel = globs(filter.getParameter("channel"));
+		network = globs(filter.getParameter("network"));
+		time = new RangeMatcher(filter, "start_time", "end_time");
+		samples = new RangeMatcher(filter, "min_sample", "max_sample");
+	}
+
+	// Public methods
+
+	/**
+	 * Match the FSDH of a data record of type <b>recordType</b> whose field 4,
+	 * the station identifier, starts at index <b>offset</b> of <b>record</b>;
+	 * the 24 bytes from there up to the beginning of data field are read.
+	 * <b>testNetwork</b> tells whether the network code is tested, which
+	 * qualify() does for SEED versions 2.3 and later.
+	 * @return REJECT if qualify() would reject the FSDH, ACCEPT if it would
+	 * accept it, or UNKNOWN if the header must be built to tell
+	 */
+	public int match (byte[] record, int offset, char recordType, boolean testNetwork) {
+		// quality is tested first, and decides alone when it fails
+		int result = recordType < quality.length ? quality[recordType] : UNKNOWN;
+		if (result != ACCEPT) return result;
+		// the remaining tests are all made before qualify() answers
+		result = matchField(station, record, offset, 5, STATION_MASK);
+		result = and(result, matchField(location, record, offset + 5, 2, LOCATION_MASK));
+		result = and(result, matchField(channel, record, offset + 7, 3, STATION_MASK));
+		if (testNetwork) {
+			result = and(result, matchField(network, record, offset + 10, 2, NETWORK_MASK));
+		}
+		// record start time and number of samples, binary in the record word order
+		int year = getWord(record, offset + 12, false);
+		boolean swapFlag = year < 1900 || year > 2050;  // VAX/8086 word order, as Btime decides
+		result = and(result, time.matchTime(getWord(record, offset + 12, swapFlag),
+				getWord(record, offset + 14, swapFlag), record[offset + 16] & 0xff, record[offset + 17] & 0xff,
+				record[offset + 18] & 0xff, getWord(record, offset + 20, swapFlag)));
+		result = and(result, samples.matchInteger(getWord(record, offset + 22, swapFlag)));
+		return result;
+	}
+
+	// Private methods
+
+	/**
+	 * Combine two test outcomes, all of which must accept.  An UNKNOWN
+	 * outcome wins over a rejection, since that test has to be made on the
+	 * built blockette, which may throw.
+	 */
+	private static int and (int a, int b) {
+		if (a == UNKNOWN || b == UNKNOWN) return UNKNOWN;
+		if (a == REJECT || b == REJECT) return REJECT;
+		return ACCEPT;
+	}
+
+	/**
+	 * Glob-match the alphanumeric field of <b>length</b> bytes at <b>offset</b>
+	 * against <b>criteria</b>, as testCompare() would against the field's
+	 * value.  Only fields that read back as their trimmed bytes, with no
+	 * character substitution by the field mask, are matched.
+	 */
+	private static int matchField (GlobMatcher criteria, byte[] record, int offset, int length, int mask) {
+		if (criteria == null) return ACCEPT;  // not being used in the filter
+		int start = offset;
+		int end = offset + length;
+		while (start < end && (record[start] & 0xff) <= ' ') start++;
+		while (end > start && (record[end - 1] & 0xff) <= ' ') end--;
+		if (start == end) {
+			// the field is left untrimmed when blank
+			start = offset;
+			end = offset + length;
+		}
+		for (int i = start; i < end; i++) {
+			int c = record[i] & 0xff;
+			if (isUpperOrDigit(c)) continue;
+			if (c == ' ' && mask != STATION_MASK) continue;
+			if (c > ' ' && c < 127 && mask == NETWORK_MASK) continue;
+			return UNKNOWN;
+		}
+		return criteria.matches(record, start, end - start) ? ACCEPT : REJECT;
+	}
+
+	private static GlobMatcher globs (Vector<?> params) {
+		return params == null ? null : new GlobMatcher(params);
+	}
+
+	private static int getWord (byte[] record, int offset, boolean swapFlag) {
+		if (swapFlag) return (record[offset] & 0xff) | (record[offset + 1] & 0xff) << 8;
+		return (record[offset] & 0xff) << 8 | (record[offset + 1] & 0xff);
+	}
+
+	private static boolean isUpperOrDigit (int c) {
+		return (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+	}
+
+	// Instance variables
+
+	private final byte[] quality;          // outcome of the quality test by record type
+	private final GlobMatcher station;     // station criteria, or null to accept all
+	private final GlobMatcher location;    // location criteria, or null to accept all
+	private final GlobMatcher channel;     // channel criteria, or null to accept all
+	private final GlobMatcher network;     // network criteria, or null to accept all
+	private final RangeMatcher time;       // record start time range
+	private final RangeMatcher samples;    // number of samples range
+
+	/**
+	 * qualify() would reject the FSDH
+	 */
+	public static final int REJECT = 0;
+	/**
+	 * qualify() would accept the FSDH
+	 */
+	public static final int ACCEPT = 1;
+	/**
+	 * the FSDH has to be built to tell
+	 */
+	public static final int UNKNOWN = 2;
+
+	private static final int STATION_MASK = 0;   // field mask [UN]
+	private static final int LOCATION_MASK = 1;  // field mask [UNS]
+	private static final int NETWORK_MASK = 2;   // field mask [], anything goes
+
+}
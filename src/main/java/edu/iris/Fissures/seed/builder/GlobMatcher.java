@@ -0,0 +1,185 @@
+package edu.iris.Fissures.seed.builder;
+
+import java.util.*;
+
+/**
+ * The values of one BuilderFilter parameter, compiled for matching
+ * against many field values.<br>
+ * A field value matches if BuilderFilter.globMatch() would match it to any
+ * one of the parameter values.  Parameter values without wildcards are held
+ * in a hash table, so a list of hundreds of station codes costs one lookup
+ * per field value.  Those with wildcards are compiled into a sequence of
+ * matching steps, one per character or '*' and the character after it,
+ * so the criteria strings are not re-read for every field value.  Field
+ * values held as bytes, one character per byte, can be matched in place.
+ * @version 10/16/2026
+ */
+public class GlobMatcher {
+
+	/**
+	 * Compile the parameter values in <b>criteria</b>.  Null entries never
+	 * match.
+	 * @param criteria list of parameter values, with any wildcards
+	 */
+	public GlobMatcher (List<?> criteria) {
+		ArrayList<String> literals = new ArrayList<String>();
+		ArrayList<Pattern> patterns = new ArrayList<Pattern>();
+		for (int i = 0; i < criteria.size(); i++) {
+			Object entry = criteria.get(i);
+			if (entry == null) continue;
+			String criterion = entry.toString();
+			int length = criterion.length();
+			while (--length >= 0 && criterion.charAt(length) == '*'); // back up over all stars at the end
+			if (length < 0) {
+				matchAll = true;  // nothing but stars matches anything
+				continue;
+			}
+			length++;
+			if (length == criterion.length() && criterion.indexOf('*') < 0 && criterion.indexOf('?') < 0) {
+				literals.add(criterion);
+			} else {
+				patterns.add(new Pattern(criterion, length));
+			}
+		}
+		// open addressing table of at most half load
+		int tableSize = 2;
+		while (tableSize < literals.size() * 2) tableSize <<= 1;
+		literalTable = new String[tableSize];
+		for (String literal : literals) {
+			int slot = spread(literal.hashCode()) & (tableSize - 1);
+			while (literalTable[slot] != null && !literalTable[slot].equals(literal)) {
+				slot = (slot + 1) & (tableSize - 1);
+			}
+			literalTable[slot] = literal;
+		}
+		this.patterns = patterns.toArray(new Pattern[patterns.size()]);
+	}
+
+	// Public methods
+
+	/**
+	 * Return true if <b>value</b> matches any of the criteria.
+	 * @param value field value
+	 * @return true if the match is successful
+	 */
+	public boolean matches (String value) {
+		if (value == null) return false;  // graceful handling of null
+		if (matchAll) return true;
+		int slot = spread(value.hashCode()) & (literalTable.length - 1);
+		for (String literal; (literal = literalTable[slot]) != null; slot = (slot + 1) & (literalTable.length - 1)) {
+			if (literal.equals(value)) return true;
+		}
+		for (int i = 0; i < patterns.length; i++) {
+			if (patterns[i].matches(value, null, 0, value.length())) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Return true if the field value made of the <b>length</b> bytes of
+	 * <b>value</b> from index <b>start</b>, one character per byte, matches
+	 * any of the criteria.
+	 * @param value array holding the field value
+	 * @param start index of the first character
+	 * @param length number of characters
+	 * @return true if the match is successful
+	 */
+	public boolean matches (byte[] value, int start, int length) {
+		if (matchAll) return true;
+		int hash = 0;  // as String.hashCode()
+		for (int i = 0; i < length; i++) hash = 31 * hash + (value[start + i] & 0xff);
+		int slot = spread(hash) & (literalTable.length - 1);
+		for (String literal; (literal = literalTable[slot]) != null; slot = (slot + 1) & (literalTable.length - 1)) {
+			if (literal.length() == length && regionMatches(literal, value, start)) return true;
+		}
+		for (int i = 0; i < patterns.length; i++) {
+			if (patterns[i].matches(null, value, start, length)) return true;
+		}
+		return false;
+	}
+
+	// Private methods
+
+	private static int spread (int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	private static boolean regionMatches (String literal, byte[] value, int start) {
+		for (int i = 0; i < literal.length(); i++) {
+			if (literal.charAt(i) != (value[start + i] & 0xff)) return false;
+		}
+		return true;
+	}
+
+	// Inner classes
+
+	/**
+	 * One criterion with wildcards as a sequence of steps, each matching
+	 * one character of the value: a given character, any character ('?'),
+	 * or skipping up to the first occurrence of the character that follows
+	 * a '*'.  Stars at the end mean the value may run on past the steps.
+	 */
+	private static class Pattern {
+
+		Pattern (String criterion, int length) {
+			StringBuilder chars = new StringBuilder(length);
+			StringBuilder kinds = new StringBuilder(length);
+			for (int j = 0; j < length; j++) {
+				char c = criterion.charAt(j);
+				if (c == '*') {
+					// the next character is never a trailing star
+					kinds.append(SKIP_TO);
+					chars.append(criterion.charAt(++j));
+				} else if (c == '?') {
+					kinds.append(ANY);
+					chars.append(c);
+				} else {
+					kinds.append(LITERAL);
+					chars.append(c);
+				}
+			}
+			this.chars = chars.toString().toCharArray();
+			this.kinds = kinds.toString().toCharArray();
+			starEnd = length < criterion.length();
+		}
+
+		/**
+		 * Match the characters of <b>string</b>, or if it is null, the
+		 * <b>length</b> bytes of <b>bytes</b> from <b>start</b>.
+		 */
+		boolean matches (String string, byte[] bytes, int start, int length) {
+			int i = 0;
+			int step = 0;
+			while (i < length) {
+				if (step >= kinds.length) return starEnd;
+				char c = string != null ? string.charAt(i) : (char) (bytes[start + i] & 0xff);
+				if (kinds[step] == SKIP_TO) {
+					while (c != chars[step]) {
+						if (++i >= length) return false;
+						c = string != null ? string.charAt(i) : (char) (bytes[start + i] & 0xff);
+					}
+				} else if (kinds[step] == LITERAL && c != chars[step]) {
+					return false;
+				}
+				i++;
+				step++;
+			}
+			return step >= kinds.length;
+		}
+
+		private final char[] chars;     // character matched or skipped to by each step
+		private final char[] kinds;     // LITERAL, ANY or SKIP_TO for each step
+		private final boolean starEnd;  // true if the criterion ends with stars
+	}
+
+	// Instance variables
+
+	private boolean matchAll = false;     // a criterion of only stars matches anything
+	private final String[] literalTable;  // criteria without wildcards, hashed
+	private final Pattern[] patterns;     // criteria with wildcards
+
+	private static final char LITERAL = 'L';
+	private static final char ANY = '?';
+	private static final char SKIP_TO = '*';
+
+}
@@ -181,7 +181,22 @@ public abstract class ObjectBuilder {
      * from the record.
      */
     public abstract int build(byte[] record) throws Exception;
-    
+
+    /**
+     * Construct objects from the <b>length</b> bytes of <b>record</b> starting at
+     * index <b>offset</b>, which lets a director pass a section of a record held in
+     * its read buffer without copying it first.  The array contents are only valid
+     * for the duration of the call.  Returns the number of bytes consumed by the
+     * builder when reading from the record.  This implementation copies the section
+     * and calls build(byte[]); builders that can read in place override it.
+     */
+    public int build(byte[] record, int offset, int length) throws Exception {
+        if (offset == 0 && length == record.length) return build(record);
+        byte[] section = new byte[length];
+        System.arraycopy(record,offset,section,0,length);
+        return build(section);
+    }
+
     /**
      * Construct an object or objects from the delimited String.
      * Return the length in bytes of the processed String as a
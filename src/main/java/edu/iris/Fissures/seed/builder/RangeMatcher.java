@@ -0,0 +1,290 @@
+package edu.iris.Fissures.seed.builder;
+
+import edu.iris.Fissures.seed.container.*;
+import edu.iris.Fissures.seed.exception.*;
+import java.util.*;
+
+/**
+ * A pair of SeedBuilderFilter range parameters, such as 'min_lat' and
+ * 'max_lat' or 'start_time' and 'end_time', compiled for testing many
+ * blockette fields.<br>
+ * The test is that of SeedBuilderFilter.testCompare() with two parameter
+ * keys: the field passes if it lies between the lower and upper values of
+ * any lockstep pair.  Time values are turned into epoch seconds and
+ * ten-thousandths of seconds once, numbers into doubles and longs, and
+ * field values are compared as stored in the blockette, as Btime, Double
+ * or Integer objects, rather than through their formatted strings.  Any
+ * other combination of parameter and field value is compared through
+ * BuilderFilter.numCompare() as before.
+ * @version 10/16/2026
+ */
+public class RangeMatcher {
+
+	/**
+	 * Compile the values of the parameters <b>lowerKey</b> and
+	 * <b>upperKey</b> of <b>filter</b>.
+	 * @param filter filter holding the parameters
+	 * @param lowerKey key of the lower bound values
+	 * @param upperKey key of the upper bound values, which may be null
+	 */
+	public RangeMatcher (BuilderFilter filter, String lowerKey, String upperKey) {
+		this.filter = filter;
+		Vector<?> lower = filter.getParameter(lowerKey);
+		Vector<?> upper = filter.getParameter(upperKey);
+		if (lower == null) {
+			mode = ALL;  // this field is not being used in the filter
+		} else if (upper == null) {
+			// TIME_ZERO alone is not actually a criterion; anything else
+			// is glob-matched
+			mode = lowerKey.equals("TIME_ZERO") ? ALL : GLOB;
+			globs = new GlobMatcher(lower);
+		} else {
+			mode = RANGE;
+			lows = bounds(lower);
+			highs = bounds(upper);
+		}
+	}
+
+	// Public methods
+
+	/**
+	 * Return true if field <b>fieldNum</b> of <b>blk</b> lies within the range.
+	 * @param blk the blockette to test
+	 * @param fieldNum field number of the value
+	 * @return true if the match is successful
+	 */
+	public boolean matches (Blockette blk, int fieldNum) {
+		if (mode == ALL) return true;
+		if (mode == GLOB) return globs.matches(blk.toString(fieldNum));
+		Object value;
+		boolean stored = true;  // false if the value must be read as a string
+		try {
+			value = blk.getFieldVal(fieldNum);
+		} catch (SeedException e) {
+			value = null;
+			stored = false;
+		}
+		String text = null;  // formatted field value, only if needed
+		for (int i = 0; i < lows.length; i++) {
+			// a criteria pairing mismatch is a false condition
+			if (i >= highs.length) return false;
+			int low = stored ? lows[i].compareTo(value) : UNCOMPILED;
+			if (low == UNCOMPILED) {
+				if (text == null) text = blk.toString(fieldNum);
+				low = filter.numCompare(lows[i].text, text);
+			}
+			if (low > 0) continue;
+			int high = stored ? highs[i].compareTo(value) : UNCOMPILED;
+			if (high == UNCOMPILED) {
+				if (text == null) text = blk.toString(fieldNum);
+				high = filter.numCompare(highs[i].text, text);
+			}
+			if (high >= 0) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Match a BTIME field value given by its parts, as for matches().
+	 * @return FsdhMatcher.ACCEPT or REJECT, or UNKNOWN if the value has to
+	 * be compared as a string
+	 */
+	public int matchTime (int year, int jday, int hour, int min, int sec, int tenthMilli) {
+		if (mode == ALL) return FsdhMatcher.ACCEPT;
+		if (mode == GLOB) return FsdhMatcher.UNKNOWN;
+		double tt = ttConvert(jday, hour, min, sec, tenthMilli);
+		long epoch = getEpochTime(year, tt);
+		for (int i = 0; i < lows.length; i++) {
+			if (i >= highs.length) return FsdhMatcher.REJECT;
+			int low = lows[i].compareTime(epoch, tt);
+			if (low == UNCOMPILED) return FsdhMatcher.UNKNOWN;
+			if (low > 0) continue;
+			int high = highs[i].compareTime(epoch, tt);
+			if (high == UNCOMPILED) return FsdhMatcher.UNKNOWN;
+			if (high >= 0) return FsdhMatcher.ACCEPT;
+		}
+		return FsdhMatcher.REJECT;
+	}
+
+	/**
+	 * Match an integer field value, as for matches().
+	 * @return FsdhMatcher.ACCEPT or REJECT, or UNKNOWN if the value has to
+	 * be compared as a string
+	 */
+	public int matchInteger (long value) {
+		if (mode == ALL) return FsdhMatcher.ACCEPT;
+		if (mode == GLOB) return FsdhMatcher.UNKNOWN;
+		for (int i = 0; i < lows.length; i++) {
+			if (i >= highs.length) return FsdhMatcher.REJECT;
+			int low = lows[i].compareInteger(value);
+			if (low == UNCOMPILED) return FsdhMatcher.UNKNOWN;
+			if (low > 0) continue;
+			int high = highs[i].compareInteger(value);
+			if (high == UNCOMPILED) return FsdhMatcher.UNKNOWN;
+			if (high >= 0) return FsdhMatcher.ACCEPT;
+		}
+		return FsdhMatcher.REJECT;
+	}
+
+	// Private methods
+
+	private static Bound[] bounds (Vector<?> values) {
+		Bound[] bounds = new Bound[values.size()];
+		for (int i = 0; i < bounds.length; i++) {
+			Object value = values.get(i);
+			bounds[i] = new Bound(value == null ? null : value.toString());
+		}
+		return bounds;
+	}
+
+	/**
+	 * Ten-thousandths of a second into the year, as Btime computes them.
+	 */
+	private static double ttConvert (int jday, int hour, int min, int sec, int tenthMilli) {
+		double tenThousandths = (jday-1) * 864000000.0;
+		tenThousandths += hour * 36000000.0;
+		tenThousandths += min * 600000.0;
+		tenThousandths += sec * 10000.0;
+		tenThousandths += tenthMilli;
+		return tenThousandths;
+	}
+
+	/**
+	 * Epoch seconds, as Btime.getEpochTime() computes them.
+	 */
+	private static long getEpochTime (int year, double tenThousandths) {
+		long seconds = 0;
+		for (int i = year; i < 1970; i++) {
+			seconds -= 60 * 60 * 24 * 365;
+			boolean is_leap = ((i % 4 == 0) && (i % 100 != 0)) || (i % 400 == 0);
+			if (is_leap) seconds -= 60 * 60 * 24;
+		}
+		for (int i = 1970; i < year; i++) {
+			seconds += 60 * 60 * 24 * 365;
+			boolean is_leap = ((i % 4 == 0) && (i % 100 != 0)) || (i % 400 == 0);
+			if (is_leap) seconds += 60 * 60 * 24;
+		}
+		seconds += (long) (tenThousandths / 10000);
+		return seconds;
+	}
+
+	// Inner classes
+
+	/**
+	 * One parameter value, compiled for numCompare() against a field value.
+	 */
+	private static class Bound {
+
+		Bound (String text) {
+			this.text = text;
+			if (text == null) {
+				kind = UNCOMPILED;  // numCompare() throws on it
+			} else if (text.indexOf(',') > -1) {
+				// this is a time value
+				Btime bTime = null;
+				try {
+					bTime = new Btime(text);
+				} catch (Exception e) {
+					// numCompare() takes an unreadable time as the lower
+				}
+				if (bTime == null) {
+					kind = BAD_TIME;
+				} else {
+					kind = TIME;
+					tt = ttConvert(bTime.getDayOfYear(), bTime.getHour(), bTime.getMinute(),
+							bTime.getSecond(), bTime.getTenthMill());
+					epoch = getEpochTime(bTime.getYear(), tt);
+				}
+			} else {
+				kind = NUMBER;
+				decimal = text.indexOf('.') > -1;
+				try {
+					number = Double.parseDouble(text);
+					isDouble = true;
+				} catch (NumberFormatException e) {
+					// numCompare() throws on it
+				}
+				try {
+					if (!decimal) {
+						integer = Long.parseLong(text);
+						isLong = true;
+					}
+				} catch (NumberFormatException e) {
+					// numCompare() throws on it
+				}
+			}
+		}
+
+		/**
+		 * Return numCompare() of this bound against a stored field value,
+		 * or UNCOMPILED if it has to be made with the formatted value.
+		 */
+		int compareTo (Object value) {
+			if (kind == BAD_TIME) return -1;
+			if (kind == TIME) {
+				if (value == null) return compareTime(BLANK_EPOCH, BLANK_TT);  // a blank reads as the default time
+				if (!(value instanceof Btime)) return UNCOMPILED;
+				Btime bTime = (Btime) value;
+				return compareTime(bTime.getEpochTime(), ttConvert(bTime.getDayOfYear(), bTime.getHour(),
+						bTime.getMinute(), bTime.getSecond(), bTime.getTenthMill()));
+			}
+			if (kind == NUMBER) {
+				// decimal fields format with a point
+				if (value instanceof Double) return isDouble ? Double.compare(number, ((Double) value).doubleValue()) : UNCOMPILED;
+				if (value instanceof Integer || value instanceof Long) return compareInteger(((Number) value).longValue());
+			}
+			return UNCOMPILED;
+		}
+
+		int compareTime (long valueEpoch, double valueTT) {
+			if (kind == BAD_TIME) return -1;
+			if (kind != TIME) return UNCOMPILED;
+			if (epoch < valueEpoch) return -1;
+			if (epoch > valueEpoch) return 1;
+			// if they both match in terms of seconds, then compare the tenths of seconds
+			if (tt < valueTT) return -1;
+			if (tt > valueTT) return 1;
+			return 0;
+		}
+
+		int compareInteger (long value) {
+			if (kind == BAD_TIME) return -1;
+			if (kind != NUMBER) return UNCOMPILED;
+			if (decimal) return isDouble ? Double.compare(number, (double) value) : UNCOMPILED;
+			if (isLong) return integer < value ? -1 : (integer == value ? 0 : 1);
+			return UNCOMPILED;
+		}
+
+		final String text;            // the parameter value
+		int kind;                     // TIME, BAD_TIME, NUMBER or UNCOMPILED
+		long epoch = 0;               // time value epoch seconds
+		double tt = 0;                // time value ten-thousandths of a second into the year
+		boolean decimal = false;      // number value has a decimal point
+		boolean isDouble = false;     // number value read as a double
+		double number = 0;
+		boolean isLong = false;       // number value read as a long
+		long integer = 0;
+	}
+
+	// Instance variables
+
+	private final BuilderFilter filter;  // for comparisons left uncompiled
+	private final int mode;              // ALL, GLOB or RANGE
+	private GlobMatcher globs = null;    // lower values glob-matched, with no upper values
+	private Bound[] lows = null;         // lower values of the pairs
+	private Bound[] highs = null;        // upper values of the pairs
+
+	private static final int ALL = 0;
+	private static final int GLOB = 1;
+	private static final int RANGE = 2;
+
+	private static final int UNCOMPILED = Integer.MIN_VALUE;  // comparison left to numCompare()
+	private static final int TIME = 1;
+	private static final int BAD_TIME = 2;
+	private static final int NUMBER = 3;
+
+	// a blank field value reads as Btime default 2500,001,00:00:00.0000
+	private static final double BLANK_TT = ttConvert(1, 0, 0, 0, 0);
+	private static final long BLANK_EPOCH = getEpochTime(2500, BLANK_TT);
+
+}
@@ -31,6 +31,46 @@ public class SeedBuilderFilter extends BuilderFilter {
 
 	// public methods
 
+	/**
+	 * Add a key/value pair to the filter.
+	 */
+	public void addParameter(String key, String value) {
+		super.addParameter(key,value);
+		matchers = null;     // recompile with the new parameter
+		fsdhMatcher = null;
+	}
+
+	/**
+	 * Reset the filter.
+	 */
+	public void reset() {
+		super.reset();
+		matchers = null;
+		fsdhMatcher = null;
+	}
+
+	/**
+	 * Compile the filter parameters into the matchers that qualify() tests
+	 * blockettes with: literal values go into hash tables, wildcard values
+	 * into compiled patterns, and range values are read as times and
+	 * numbers once.  qualify() compiles them on first use, and again after
+	 * parameters are added, so calling this is only needed to do the work
+	 * up front.
+	 */
+	public void compile() {
+		matchers = new Matchers(this);
+	}
+
+	/**
+	 * Return the tests this filter makes of a data record's FSDH, compiled
+	 * to match the raw header bytes.  The matcher is compiled on first use
+	 * and again after the parameters change.
+	 */
+	public FsdhMatcher getFsdhMatcher() {
+		if (fsdhMatcher == null) fsdhMatcher = new FsdhMatcher(this);
+		return fsdhMatcher;
+	}
+
 	/**
 	 * Perform filter test on the provided object.
 	 * Comparative method that accepts a Blockette
@@ -57,6 +97,8 @@ public class SeedBuilderFilter extends BuilderFilter {
 	 * IDs for internal use:<br>
 	 * 'TIME_ZERO' -- time value of zero<br>
 	 * 'TIME_INF' -- time value of infinite
+	 * <p>
+	 * Field values are tested by the compiled matchers; see compile().
 	 */
 	public boolean qualify(Object o) throws BuilderException {
 		Blockette blk = (Blockette) o;  // cast to a Blockette
@@ -73,95 +115,97 @@ public class SeedBuilderFilter extends BuilderFilter {
 		}
 		boolean testStation,testNetwork,testLatitude,testLongitude,testElevation,
 		testStart,testEnd,testChannel,testLocation,testTime;
+		if (matchers == null) compile();
+		Matchers m = matchers;
 		switch (blkType) {
 			case 50:
 				// compare station parameter with blk 50 field 3
-				testStation = testCompare("station",null,blk,3);
+				testStation = testGlobs(m.station,blk,3);
 				// compare network code parameter with blk 50 field 10
 				testNetwork = true;
 				if (blkVersion >= 2.3) {
-					testNetwork = testCompare("network",null,blk,16);
+					testNetwork = testGlobs(m.network,blk,16);
 				}
 				// compare parameter latitude with blk 50 field 4
-				testLatitude = testCompare("min_lat","max_lat",blk,4);
+				testLatitude = m.latitude.matches(blk,4);
 				// compare parameter longitude with blk 50 field 5
-				testLongitude = testCompare("min_lon","max_lon",blk,5);
+				testLongitude = m.longitude.matches(blk,5);
 				// compare parameter elevation with blk 50 field 6
-				testElevation = testCompare("min_elev","max_elev",blk,6);
+				testElevation = m.elevation.matches(blk,6);
 				// compare parameter start_time with blk 50 field 14 (end effective time)
-				testStart = testCompare("start_time","TIME_INF",blk,14);
+				testStart = m.startTime.matches(blk,14);
 				// compare parameter end_time with blk 50 field 13 (start effective time)
-				testEnd = testCompare("TIME_ZERO","end_time",blk,13);
+				testEnd = m.endTime.matches(blk,13);
 				return (testStation && testNetwork && testLatitude && testLongitude &&
 						testElevation && testStart && testEnd);
 			case 52:
 				// compare location identifier with blk 52 field 3
-				testLocation = testCompare("location",null,blk,3);
+				testLocation = testGlobs(m.location,blk,3);
 				// compare channel code with blk 52 field 4
-				testChannel = testCompare("channel",null,blk,4);
+				testChannel = testGlobs(m.channel,blk,4);
 				// compare parameter start_time with blk 52 field 23 (end effective time)
-				testStart = testCompare("start_time","TIME_INF",blk,23);
+				testStart = m.startTime.matches(blk,23);
 				// compare parameter end_time with blk 52 field 22 (start effective time)
-				testEnd = testCompare("TIME_ZERO","end_time",blk,22);
+				testEnd = m.endTime.matches(blk,22);
 				return (testLocation && testChannel && testStart && testEnd);
 			case 72:
 				// compare station identifier with blk 72 field 3
-				testStation = testCompare("station",null,blk,3);
+				testStation = testGlobs(m.station,blk,3);
 				// compare location identifier with blk 72 field 4
-				testLocation = testCompare("location",null,blk,4);
+				testLocation = testGlobs(m.location,blk,4);
 				// compare channel code with blk 72 field 5
-				testChannel = testCompare("channel",null,blk,5);
+				testChannel = testGlobs(m.channel,blk,5);
 				// compare network code with blk 72 field 12
 				testNetwork = true;
 				if (blkVersion >= 2.3) {
-					testNetwork = testCompare("network",null,blk,12);
+					testNetwork = testGlobs(m.network,blk,12);
 				}
 				return (testStation && testLocation && testChannel && testNetwork);
 			case 73:
 				// compare station identifier with blk 73 field 4
-				testStation = testCompare("station",null,blk,4);
+				testStation = testGlobs(m.station,blk,4);
 				// compare location identifier with blk 73 field 5
-				testLocation = testCompare("location",null,blk,5);
+				testLocation = testGlobs(m.location,blk,5);
 				// compare channel code with blk 73 field 6
-				testChannel = testCompare("channel",null,blk,6);
+				testChannel = testGlobs(m.channel,blk,6);
 				// compare start_time and end_time parameters to blk 73 field 7
-				testTime = testCompare("start_time","end_time",blk,7);
+				testTime = m.timeSpan.matches(blk,7);
 				return (testStation && testLocation && testChannel && testTime);
 			case 74:
 				// compare station identifier with blk 74 field 3
-				testStation = testCompare("station",null,blk,3);
+				testStation = testGlobs(m.station,blk,3);
 				// compare location identifier with blk 74 field 4
-				testLocation = testCompare("location",null,blk,4);
+				testLocation = testGlobs(m.location,blk,4);
 				// compare channel code with blk 74 field 5
-				testChannel = testCompare("channel",null,blk,5);
+				testChannel = testGlobs(m.channel,blk,5);
 				// compare parameter start_time with blk 74 field 9 (series end time)
-				testStart = testCompare("start_time","TIME_INF",blk,9);
+				testStart = m.startTime.matches(blk,9);
 				// compare parameter end_time with blk 74 field 6 (series start time)
-				testEnd = testCompare("TIME_ZERO","end_time",blk,6);
+				testEnd = m.endTime.matches(blk,6);
 				// compare network code with blk 74 field 16
 				testNetwork = true;
 				if (blkVersion >= 2.3) {
-					testNetwork = testCompare("network",null,blk,16);
+					testNetwork = testGlobs(m.network,blk,16);
 				}
 				return (testStation && testLocation && testChannel && testStart && testEnd && testNetwork);
 			case 999:
  				// compare data quality flags with FSDH field 2
- 				if (!testCompare("quality",null,blk,2)) return false;
+ 				if (!testGlobs(m.quality,blk,2)) return false;
 				// compare station identifier with FSDH field 4
-				testStation = testCompare("station",null,blk,4);
+				testStation = testGlobs(m.station,blk,4);
 				// compare location identifier with FSDH field 5
-				testLocation = testCompare("location",null,blk,5);
+				testLocation = testGlobs(m.location,blk,5);
 				// compare channel code with blk FSDH field 6
-				testChannel = testCompare("channel",null,blk,6);
+				testChannel = testGlobs(m.channel,blk,6);
 				// compare network code with blk FSDH field 7
 				testNetwork = true;
 				if (blkVersion >= 2.3) {
-					testNetwork = testCompare("network",null,blk,7);
+					testNetwork = testGlobs(m.network,blk,7);
 				}
 				// compare start_time and end_time parameters to blk FSDH field 8
-				testTime = testCompare("start_time","end_time",blk,8);
+				testTime = m.timeSpan.matches(blk,8);
                 // compare number of samples with FSDH field 9
-                if (!testCompare("min_sample","max_sample",blk,9)) return false;
+                if (!m.samples.matches(blk,9)) return false;
 				return (testStation && testLocation && testChannel && testNetwork && testTime);
 			default:
 				return true;   // otherwise, don't filter out the blockette
@@ -238,4 +282,55 @@ public class SeedBuilderFilter extends BuilderFilter {
 		return false;
 	}
 
+	// private methods
+
+	/**
+	 * Glob-match field <b>blkField</b> of <b>blk</b> against compiled parameter
+	 * values, which are null if the parameter is not being used.
+	 */
+	private static boolean testGlobs (GlobMatcher globs, Blockette blk, int blkField) {
+		if (globs == null) return true;
+		return globs.matches(blk.toString(blkField));
+	}
+
+	// inner classes
+
+	/**
+	 * The filter parameters compiled for qualify().
+	 */
+	private static class Matchers {
+
+		Matchers (SeedBuilderFilter filter) {
+			station = globs(filter,"station");
+			network = globs(filter,"network");
+			location = globs(filter,"location");
+			channel = globs(filter,"channel");
+			quality = globs(filter,"quality");
+			latitude = new RangeMatcher(filter,"min_lat","max_lat");
+			longitude = new RangeMatcher(filter,"min_lon","max_lon");
+			elevation = new RangeMatcher(filter,"min_elev","max_elev");
+			startTime = new RangeMatcher(filter,"start_time","TIME_INF");
+			endTime = new RangeMatcher(filter,"TIME_ZERO","end_time");
+			timeSpan = new RangeMatcher(filter,"start_time","end_time");
+			samples = new RangeMatcher(filter,"min_sample","max_sample");
+		}
+
+		private static GlobMatcher globs (SeedBuilderFilter filter, String key) {
+			Vector<?> values = filter.getParameter(key);
+			return values == null ? null : new GlobMatcher(values);
+		}
+
+		final GlobMatcher station,network,location,channel,quality;  // null if not used
+		final RangeMatcher latitude,longitude,elevation;
+		final RangeMatcher startTime;  // start_time up to TIME_INF
+		final RangeMatcher endTime;    // TIME_ZERO up to end_time
+		final RangeMatcher timeSpan;   // start_time up to end_time
+		final RangeMatcher samples;
+	}
+
+	// instance variables
+
+	private Matchers matchers = null;        // compiled parameters, null until used
+	private FsdhMatcher fsdhMatcher = null;  // compiled FSDH tests, null until used
+
 }
@@ -169,11 +169,11 @@ public class SeedExportBuilder extends ExportBuilder {
      */
     protected void setLogicalRecordLength(Waveform waveFrm, int offset) {
         try {
-            final byte[] waveBytes;
-            if (waveFrm != null && (waveBytes = waveFrm.getEncodedBytes()) != null) {
+            final int waveLength;
+            if (waveFrm != null && (waveLength = waveFrm.getEncodedLength()) > 0) {
                //default to the minimum logical record length
                int lrl = 256;
-               final int numBytes = waveBytes.length + offset;
+               final int numBytes = waveLength + offset;
                while (numBytes > lrl) {
                  if (lrl >= defaultLogicalRecordLength) {
                    lrl = defaultLogicalRecordLength;
@@ -548,15 +548,15 @@ public class SeedExportBuilder extends ExportBuilder {
 				logicalRecord.position = waveformOffset;
 				Waveform waveFrm = blk.getWaveform();
 				if (waveFrm == null) throw new BuilderException("could not find waveform in FSDH blockette when waveform offeset > 0");
-				byte[] waveBytes = waveFrm.getEncodedBytes();
-				//System.err.println("DEBUG: waveform byte length = " + waveBytes.length);
-				if (logicalRecord.position + waveBytes.length > logicalRecord.contents.length) // check for exception
+				int waveLength = waveFrm.getEncodedLength();
+				//System.err.println("DEBUG: waveform byte length = " + waveLength);
+				if (logicalRecord.position + waveLength > logicalRecord.contents.length) // check for exception
 					throw new BuilderException("waveform data exceeds logical record boundaries (offset = " +
-							logicalRecord.position + ", length = " + waveBytes.length + ")");
-				// write waveform data to logical Record
-				System.arraycopy(waveBytes,0,logicalRecord.contents,logicalRecord.position,waveBytes.length);
+							logicalRecord.position + ", length = " + waveLength + ")");
+				// write waveform data straight into the logical Record, with no intermediate array
+				waveFrm.writeEncodedBytes(logicalRecord.contents,logicalRecord.position);
 				// shift logicalRecord position to end of waveform data
-				logicalRecord.position += waveBytes.length;
+				logicalRecord.position += waveLength;
 				// HINT: logical record will be automatically padded by ExportBuilder
 			}
 		}
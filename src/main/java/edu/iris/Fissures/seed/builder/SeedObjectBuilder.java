@@ -59,14 +59,23 @@ public class SeedObjectBuilder extends ObjectBuilder {
 	 * byte array.
 	 */
 	public int build(byte[] nextRecord) throws Exception {
+		return build(nextRecord, 0, nextRecord.length);
+	}
+
+	/**
+	 * Construct a Blockette object by reading from index <b>offset</b> of the
+	 * indicated byte array, where <b>length</b> bytes of the record remain.
+	 * The FSDH and waveform data of data records are read in place; other
+	 * blockettes are parsed from a copy of their section of the record.
+	 */
+	public int build(byte[] record, int offset, int length) throws Exception {
 		if (debug)
 			System.err.println("DEBUG: import call to build(), recordType: " + recordType);
-		if (nextRecord.length == 0)
+		if (length == 0)
 			throw new BuilderException("zero length record data in build() call");
-		byte[] currentRecord = nextRecord; // use a separate pointer to
-											// nextRecord as the default
+		byte[] currentRecord = null;
 		if (debug)
-			System.err.println("DEBUG: build() nextRecord: " + new String(nextRecord));
+			System.err.println("DEBUG: build() nextRecord: " + new String(record, offset, length));
 		int numBytesRead = 0;
 		Blockette newBlockette = null;
 		// before processing this current record, assess whether we have a large
@@ -101,6 +110,7 @@ public class SeedObjectBuilder extends ObjectBuilder {
 		case 'T':
 			// control header record
 			//
+			parsedBlockettes = null;
 			// check to see if this is a continuation record, continuation flag
 			// is externally set by Director
 			if (prevRecord != null && continuationFlag) {
@@ -109,9 +119,12 @@ public class SeedObjectBuilder extends ObjectBuilder {
 				// and build the blockette
 				if (debug)
 					System.err.println("DEBUG:  prevRecord is non-null and continuationFlag is set");
-				currentRecord = new byte[prevRecord.length + nextRecord.length];
+				currentRecord = new byte[prevRecord.length + length];
 				System.arraycopy(prevRecord, 0, currentRecord, 0, prevRecord.length);
-				System.arraycopy(nextRecord, 0, currentRecord, prevRecord.length, nextRecord.length);
+				System.arraycopy(record, offset, currentRecord, prevRecord.length, length);
+			} else {
+				// blockettes are parsed from the start of an array
+				currentRecord = section(record, offset, length);
 			}
 			if (debug)
 				System.err.println("DEBUG: build() currentRecord: " + new String(currentRecord));
@@ -270,66 +283,49 @@ public class SeedObjectBuilder extends ObjectBuilder {
 			// data.
 			if (recordBeginFlag) {
 				dataBlocketteOffset = 0;
-				if (currentRecord.length < 40) { // this is the length of the
-													// FSDH, minus record ID
-													// block
-					throw new BuilderException("data record is too short (" + currentRecord.length + ")");
+				waveformOffset = 0;
+				if (length < 40) { // this is the length of the
+									// FSDH, minus record ID
+									// block
+					throw new BuilderException("data record is too short (" + length + ")");
 				}
-				byte[] timeArr = new byte[10];
-				System.arraycopy(currentRecord, 12, timeArr, 0, 10); // pull out
-																		// binary
-																		// time
-																		// entry
-																		// in
-																		// the
-																		// FSDH
-				Btime bTime = new Btime(timeArr); // feed the array to Btime
-													// structure and test for
-													// byte swap flag
-				swapFlag = bTime.getSwapFlag(); // determine the swapFlag value
-												// from the Btime object
-				// now start to generate a Blockette 999
-				byte[] blocketteNumByte = new byte[2];
-				if (swapFlag) {
-					// binary for 999 in 8086 word order
-					blocketteNumByte[0] = (byte) 231;
-					blocketteNumByte[1] = (byte) 3;
-				} else {
-					// binary for 999 in 68000 word order
-					blocketteNumByte[0] = (byte) 3;
-					blocketteNumByte[1] = (byte) 231;
-				}
-				byte[] dQFlags = new byte[8]; // data quality flags -- field is
-												// size 8
-				dQFlags[0] = (byte) recordType; // record type
-				if (dQFlags[1] == '*') { // continuation flag
-					continuationFlag = true;
-				} else {
+				if (isFsdhFiltered(record, offset, recordType, seedVersion)) {
+					// rejected on its fixed header alone: pass over the whole
+					// record, leaving the container filtered as if its FSDH
+					// had been built and rejected
+					SeedObjectContainer container = (SeedObjectContainer) buildContainer;
+					int filterRank = SeedBlocketteRankMap.getRank(999) + 1;
+					if (container.getFiltered() == 0 || filterRank < container.getFiltered())
+						container.setFiltered(filterRank);
+					parsedBlockettes = null;
 					continuationFlag = false;
+					recordBeginFlag = false;
+					currentObject = null;
+					return length;
 				}
-				for (int i = 2; i < 8; i++)
-					dQFlags[i] = ' '; // space padded
-				Btime createTime = new Btime(); // get current time for the FSDH
-												// creation time
-				// transcribe synthesis to currentRecord array
-				currentRecord = new byte[nextRecord.length + 20]; // make new
-																	// array for
-																	// synthesis
-																	// --
-																	// affects
-																	// offset by
-																	// 12 (-8 +
-																	// 20)
-				System.arraycopy(blocketteNumByte, 0, currentRecord, 0, 2);
-				System.arraycopy(dQFlags, 0, currentRecord, 2, 8);
-				System.arraycopy(createTime.getByteTime(swapFlag), 0, currentRecord, 10, 10);
-				// append nextRecord which starts at field 4 of FSDH
-				System.arraycopy(nextRecord, 0, currentRecord, 20, nextRecord.length);
+				swapFlag = getFsdhSwapFlag(record, offset); // determine the
+															// swapFlag value
+															// from the start
+															// time
+				continuationFlag = false;
+				if (parsedIndex != 0)
+					parsedBlockettes = null; // not lined up with this record
+				if (parsedBlockettes == null)
+					currentRecord = synthesizeFsdh(record, offset, recordType, swapFlag);
 				recordBeginFlag = false; // toggle this flag off while we look
 											// forward to later blockettes in
 											// this record
+			} else if (parsedBlockettes == null) {
+				currentRecord = section(record, offset,
+						getDataBlocketteLength(dataBlocketteOffset, waveformOffset, length));
 			}
-			if (recycleBlockette != null) {
+			boolean parsedAhead = parsedBlockettes != null;
+			if (parsedAhead) {
+				// parsed ahead of time by parseDataRecord()
+				newBlockette = parsedBlockettes[parsedIndex++];
+				if (parsedIndex == parsedBlockettes.length)
+					parsedBlockettes = null;
+			} else if (recycleBlockette != null) {
 				// object reuse
 				recycleBlockette.initialize(currentRecord, swapFlag, true, seedVersion);
 				newBlockette = recycleBlockette;
@@ -359,22 +355,10 @@ public class SeedObjectBuilder extends ObjectBuilder {
 														// bytes already
 														// accounted for
 				if (dataBlocketteOffset == 0)
-					numBytesRead = currentRecord.length; // no data blockettes,
-															// shift offset to
-															// end of record
-				// now we will fetch the waveform data for this FSDH
-				int waveformOffset = Integer.parseInt(newBlockette.toString(17));
-				if (waveformOffset > 48) {
-					int numSamples = Integer.parseInt(newBlockette.toString(9));
-					// encoding is currently Unknown, but can be modified later
-					// at the application level.
-					// waveformOffset for currentRecord adjusted by -8 and + 20
-					// which is +12.
-					Waveform newWaveform = new Waveform(currentRecord, waveformOffset + 12, numSamples, "UNKNOWN",
-							swapFlag);
-					newBlockette.attachWaveform(newWaveform); // attach waveform
-																// to the FSDH
-				}
+					numBytesRead = length; // no data blockettes, shift offset to end of record
+				waveformOffset = Integer.parseInt(newBlockette.toString(17));
+				if (!parsedAhead)
+					attachWaveform(newBlockette, record, offset, length, waveformOffset, swapFlag);
 			} else {
 				// we are a data blockette. find the start of the next
 				// blockette.
@@ -395,11 +379,7 @@ public class SeedObjectBuilder extends ObjectBuilder {
 															// to where we have
 															// just read
 				} else {
-					numBytesRead = currentRecord.length; // if no other
-															// blockettes,
-															// cancel out the
-															// rest of the
-															// record
+					numBytesRead = length; // if no other blockettes, cancel out the rest of the record
 				}
 			}
 			currentObject = newBlockette;
@@ -476,6 +456,22 @@ public class SeedObjectBuilder extends ObjectBuilder {
 		if (debug)
 			System.err.println(
 					"DEBUG:         : largeCoeffFlag == " + largeCoeffFlag + ", largeCoeffStore == " + largeCoeffStore);
+		int lookupId = storeCurrent(); // hand the blockette on to its destination
+		recycleBlockette = null; // make sure there is no object reuse for this
+									// instance
+		currentObject = null; // blank out the current object holder
+		prevBlockette = null;
+		return lookupId; // return the assigned lookupId for this blockette
+							// object
+	}
+
+	/**
+	 * Store the completed blockette in currentObject to the container: assign
+	 * its lookup ID, resolve its dictionary lookups and add it. Return the
+	 * lookup ID. Called by store(), which then clears currentObject;
+	 * subclasses may override this to send blockettes elsewhere.
+	 */
+	protected int storeCurrent() throws Exception {
 		// make sure this builder is aware of the current volume number
 		volumeNumber = ((SeedObjectContainer) buildContainer).getVolumeNumber();
 		if (volumeNumber > 214)
@@ -626,12 +622,7 @@ public class SeedObjectBuilder extends ObjectBuilder {
 		}
 		//
 		buildContainer.add(currentObject); // add the blockette to the container
-		recycleBlockette = null; // make sure there is no object reuse for this
-									// instance
-		currentObject = null; // blank out the current object holder
-		prevBlockette = null;
-		return lookupId; // return the assigned lookupId for this blockette
-							// object
+		return lookupId;
 	}
 
 	/**
@@ -671,8 +662,210 @@ public class SeedObjectBuilder extends ObjectBuilder {
 		mutateDictionaryLookupKey = b;
 	}
 
+	/**
+	 * Return the SEED version this builder reads blockettes with, as set by
+	 * the last volume control header.
+	 */
+	public float getSeedVersion() {
+		return seedVersion;
+	}
+
+	/**
+	 * Parse a whole data record into its FSDH blockette, with the waveform
+	 * attached, followed by its data blockettes, reading the blockettes as
+	 * SEED version <b>version</b>. The record starts with its sequence number
+	 * at index <b>offset</b> and runs for <b>length</b> bytes. Blockettes are
+	 * found the same way as by import through build(), but no builder state
+	 * is used and no filter is applied, so records may be parsed concurrently
+	 * and handed to setParsedRecord() in record order. The only static state
+	 * read is that of BlocketteFactory and Btime, which does not change once
+	 * their classes are loaded.
+	 */
+	public static Blockette[] parseDataRecord(byte[] record, int offset, int length, float version)
+			throws Exception {
+		if (length < 48) // FSDH, including record ID block
+			throw new BuilderException("data record is too short (" + (length - 8) + ")");
+		boolean swap = getFsdhSwapFlag(record, offset + 8);
+		Blockette fsdh = BlocketteFactory.createBlockette(
+				synthesizeFsdh(record, offset + 8, (char) record[offset + 6], swap), swap, true, version);
+		int waveformOffset = Integer.parseInt(fsdh.toString(17));
+		attachWaveform(fsdh, record, offset + 8, length - 8, waveformOffset, swap);
+		ArrayList<Blockette> blockettes = new ArrayList<Blockette>(3);
+		blockettes.add(fsdh);
+		int blocketteOffset = Integer.parseInt(fsdh.toString(18));
+		if (blocketteOffset != 0 && blocketteOffset <= 8)
+			throw new BuilderException("first data blockette offset " + blocketteOffset + " is inside the FSDH");
+		while (blocketteOffset > 0 && blocketteOffset < length) {
+			// a section starting with blanks ends the record
+			int i;
+			for (i = 0; i < 5 && blocketteOffset + i < length; i++) {
+				byte b = record[offset + blocketteOffset + i];
+				if (b != 32 && b != 0)
+					break;
+			}
+			if (i == 5 || blocketteOffset + i == length)
+				break;
+			Blockette blockette = BlocketteFactory.createBlockette(section(record, offset + blocketteOffset,
+					getDataBlocketteLength(blocketteOffset, waveformOffset, length - blocketteOffset)), swap, true,
+					version);
+			blockettes.add(blockette);
+			int nextBlockette = Integer.parseInt(blockette.toString(2));
+			if (nextBlockette > 0 && nextBlockette <= blocketteOffset)
+				throw new BuilderException("regressive data blockette offset " + nextBlockette + " at byte offset "
+						+ blocketteOffset);
+			blocketteOffset = nextBlockette;
+		}
+		return blockettes.toArray(new Blockette[blockettes.size()]);
+	}
+
+	/**
+	 * Have the build() calls for the next data record take its blockettes
+	 * from <b>blockettes</b>, as returned by parseDataRecord(), instead of
+	 * parsing them. They are only used if they were parsed as the SEED
+	 * version this builder is at, <b>version</b>; otherwise, or if null is
+	 * given, the record is parsed as usual. Filtering and storage are
+	 * unchanged.
+	 */
+	public void setParsedRecord(Blockette[] blockettes, float version) {
+		if (blockettes != null && blockettes.length > 0 && version == seedVersion) {
+			parsedBlockettes = blockettes;
+		} else {
+			parsedBlockettes = null;
+		}
+		parsedIndex = 0;
+	}
+
+	/**
+	 * Return true if the registered filters would all reject the data record
+	 * of type <b>recordType</b> whose FSDH starts at index <b>offset</b>, at
+	 * its field 4, when read as SEED version <b>version</b>. This is decided
+	 * from the raw header bytes by the filters' compiled FSDH matchers,
+	 * without building anything. False is returned whenever building the
+	 * FSDH could tell otherwise: no filters, a filter other than a plain
+	 * SeedBuilderFilter, or a header the matchers cannot read.
+	 */
+	public boolean isFsdhFiltered(byte[] record, int offset, char recordType, float version) {
+		int vecSize = buildFilterVector.size();
+		if (vecSize == 0)
+			return false;
+		boolean testNetwork = version >= 2.3; // same test as SeedBuilderFilter.qualify()
+		for (int i = 0; i < vecSize; i++) {
+			Object buildFilter = buildFilterVector.get(i);
+			if (buildFilter.getClass() != SeedBuilderFilter.class)
+				return false; // qualify() may be overridden
+			FsdhMatcher matcher = ((SeedBuilderFilter) buildFilter).getFsdhMatcher();
+			if (matcher.match(record, offset, recordType, testNetwork) != FsdhMatcher.REJECT)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Return true if the registered filters would all reject the data record
+	 * whatever SEED version it is read as, for callers that look ahead of
+	 * the volume control headers that set the version.
+	 */
+	public boolean isFsdhFiltered(byte[] record, int offset, char recordType) {
+		return isFsdhFiltered(record, offset, recordType, 2.0F)
+				&& isFsdhFiltered(record, offset, recordType, 2.4F);
+	}
+
 	// private methods
 
+	/**
+	 * Return true if the FSDH starting at index <b>offset</b>, at its field
+	 * 4, is in VAX/8086 word order, judged from its start time.
+	 */
+	private static boolean getFsdhSwapFlag(byte[] record, int offset) throws Exception {
+		byte[] timeArr = new byte[10];
+		System.arraycopy(record, offset + 12, timeArr, 0, 10); // pull out
+																// binary time
+																// entry in the
+																// FSDH
+		Btime bTime = new Btime(timeArr); // feed the array to Btime
+											// structure and test for
+											// byte swap flag
+		return bTime.getSwapFlag();
+	}
+
+	/**
+	 * Synthesize a blockette 999 from the FSDH starting at index
+	 * <b>offset</b>, at its field 4, for the BlocketteFactory.
+	 */
+	private static byte[] synthesizeFsdh(byte[] record, int offset, char recordType, boolean swapFlag)
+			throws Exception {
+		byte[] blocketteNumByte = new byte[2];
+		if (swapFlag) {
+			// binary for 999 in 8086 word order
+			blocketteNumByte[0] = (byte) 231;
+			blocketteNumByte[1] = (byte) 3;
+		} else {
+			// binary for 999 in 68000 word order
+			blocketteNumByte[0] = (byte) 3;
+			blocketteNumByte[1] = (byte) 231;
+		}
+		byte[] dQFlags = new byte[8]; // data quality flags -- field is
+										// size 8
+		dQFlags[0] = (byte) recordType; // record type
+		for (int i = 2; i < 8; i++)
+			dQFlags[i] = ' '; // space padded
+		Btime createTime = new Btime(); // get current time for the FSDH
+										// creation time
+		// transcribe synthesis to a new array -- only the FSDH fields are
+		// needed, the waveform is read from the record
+		byte[] fsdh = new byte[60]; // affects offset by 12 (-8 + 20)
+		System.arraycopy(blocketteNumByte, 0, fsdh, 0, 2);
+		System.arraycopy(dQFlags, 0, fsdh, 2, 8);
+		System.arraycopy(createTime.getByteTime(swapFlag), 0, fsdh, 10, 10);
+		// append the 40 bytes of the record from field 4 of FSDH
+		System.arraycopy(record, offset, fsdh, 20, 40);
+		return fsdh;
+	}
+
+	/**
+	 * Attach the waveform of the FSDH blockette <b>fsdh</b> read from the
+	 * record section starting at index <b>offset</b>, at field 4 of the FSDH,
+	 * and running for <b>length</b> bytes.
+	 */
+	private static void attachWaveform(Blockette fsdh, byte[] record, int offset, int length, int waveformOffset,
+			boolean swapFlag) throws Exception {
+		if (waveformOffset > 48) {
+			if (waveformOffset - 8 > length)
+				throw new BuilderException("data offset " + waveformOffset + " is beyond the end of the record");
+			int numSamples = Integer.parseInt(fsdh.toString(9));
+			// encoding is currently Unknown, but can be modified later
+			// at the application level.
+			// waveformOffset for the record section adjusted by -8.
+			Waveform newWaveform = new Waveform(record, offset + waveformOffset - 8, length - (waveformOffset - 8),
+					numSamples, "UNKNOWN", swapFlag);
+			fsdh.attachWaveform(newWaveform); // attach waveform to the FSDH
+		}
+	}
+
+	/**
+	 * Return the number of bytes to parse a data blockette from, given its
+	 * offset in the record, the offset of the waveform, and the
+	 * <b>length</b> of the record from the blockette on: a data blockette
+	 * lies between its offset and the waveform.
+	 */
+	private static int getDataBlocketteLength(int blocketteOffset, int waveformOffset, int length) {
+		if (waveformOffset > blocketteOffset && waveformOffset - blocketteOffset < length)
+			return waveformOffset - blocketteOffset;
+		return length;
+	}
+
+	/**
+	 * Return the <b>length</b> bytes of <b>record</b> from index <b>offset</b>
+	 * as an array of their own, or <b>record</b> itself if that is all of it.
+	 */
+	private static byte[] section(byte[] record, int offset, int length) {
+		if (offset == 0 && length == record.length)
+			return record;
+		byte[] copy = new byte[length];
+		System.arraycopy(record, offset, copy, 0, length);
+		return copy;
+	}
+
 	// Now that an object has been built, we will decide here whether to keep
 	// it,
 	// provided that:
@@ -796,6 +989,9 @@ public class SeedObjectBuilder extends ObjectBuilder {
 										// order
 	// private int[] sequenceTracker = {0,0,0,0,0,0,0}; // will track sequence
 	// numbers for each header code
+	private int waveformOffset = 0; // beginning of data field of the FSDH being read
+	private Blockette[] parsedBlockettes = null; // data record parsed ahead of time
+	private int parsedIndex = 0; // next of parsedBlockettes to build
 	private int dataBlocketteOffset = 0; // have to cheat here and keep track of
 											// our offset in the data record
 	protected Blockette recycleBlockette = null; // handle to hold an object for
@@ -0,0 +1,211 @@
+package edu.iris.Fissures.seed.builder;
+
+import edu.iris.Fissures.seed.container.*;
+import java.util.*;
+
+/**
+ * SEED object builder for streaming import, which holds on to the objects
+ * built from the current record only, instead of storing them in the
+ * container.<br>
+ * store() sets completed control header blockettes aside, and the FSDH and
+ * data blockettes of a data record.  The director takes them once the
+ * record is read and then calls endRecord(), after which the blockettes of
+ * the data record are reused for those of the next, unless recycling is
+ * turned off, so an unbounded stream is read in constant memory.  No lookup
+ * IDs are assigned and dictionary lookup fields keep the codes read from the
+ * volume.  The container is only used to track filtering; nothing is added
+ * to it.<br>
+ * Waveform encodings are assigned as a container import assigns them: from
+ * field 3 of blockette 1000, or else from the data format dictionary
+ * blockette 30 that the blockette 52 of the channel refers to.
+ * @version 10/16/2026
+ */
+public class SeedStreamBuilder extends SeedObjectBuilder {
+
+	/**
+	 * Create a SEED stream builder.
+	 */
+	public SeedStreamBuilder() {
+		super();
+	}
+
+	// public methods
+
+	/**
+	 * Set whether the blockettes of a data record are reused for the next
+	 * data record, which is the default. Turn this off when the blockettes
+	 * are kept, or handed to other threads, after endRecord().
+	 */
+	public void setRecycle(boolean recycle) {
+		this.recycle = recycle;
+		pool.clear();
+	}
+
+	/**
+	 * Construct a Blockette object as SeedObjectBuilder does, reusing the
+	 * blockette at the same position of the previous data record when
+	 * reading a data record.
+	 */
+	public int build(byte[] record, int offset, int length) throws Exception {
+		boolean dataRecord = recycle && isDataRecordType(recordType);
+		if (dataRecord) {
+			recycleBlockette = poolIndex < pool.size() ? pool.get(poolIndex) : null;
+		}
+		int numBytesRead = super.build(record, offset, length);
+		if (dataRecord) {
+			recycleBlockette = null; // a rejected blockette stays in the pool
+		}
+		return numBytesRead;
+	}
+
+	/**
+	 * Return the control header blockettes completed by the current record,
+	 * in the order they were completed.
+	 */
+	public List<Blockette> getControlBlockettes() {
+		return controlBlockettes;
+	}
+
+	/**
+	 * Return the FSDH of the current record, or null if it is not a data
+	 * record or the FSDH was filtered out.
+	 */
+	public Blockette getFsdh() {
+		return fsdh;
+	}
+
+	/**
+	 * Return the data blockettes of the current record that passed the
+	 * filters.
+	 */
+	public List<Blockette> getDataBlockettes() {
+		return dataBlockettes;
+	}
+
+	/**
+	 * Let go of the objects built from the current record. Its data record
+	 * blockettes are reused for the next data record.
+	 */
+	public void endRecord() {
+		controlBlockettes.clear();
+		fsdh = null;
+		dataBlockettes.clear();
+		poolIndex = 0;
+	}
+
+	/**
+	 * Reset the builder to its initial state.
+	 */
+	public void reset() {
+		super.reset();
+		endRecord();
+	}
+
+	// protected methods
+
+	/**
+	 * Set the completed blockette in currentObject aside for the current
+	 * record. Return 0, as no lookup ID is assigned.
+	 */
+	protected int storeCurrent() throws Exception {
+		Blockette blk = (Blockette) currentObject;
+		if (SeedBlocketteRankMap.getHeaderCode(blk) != 5) { // not a data record blockette
+			addEncodingMetadata(blk);
+			controlBlockettes.add(blk);
+			return 0;
+		}
+		if (recycle) {
+			// keep this blockette for reuse at the same position of the next data record
+			if (poolIndex < pool.size()) {
+				pool.set(poolIndex, blk);
+			} else {
+				pool.add(blk);
+			}
+			poolIndex++;
+		}
+		if (blk.getType() == 999) {
+			fsdh = blk;
+			Waveform waveform = blk.getWaveform();
+			if (waveform != null && waveform.getEncoding().equals("UNKNOWN"))
+				waveform.setEncoding(getMetaEncoding(blk));
+		} else {
+			if (blk.getType() == 1000 && fsdh != null && fsdh.getWaveform() != null)
+				fsdh.getWaveform().setEncoding(SeedEncodingResolver.translate(blk.toString(3)));
+			dataBlockettes.add(blk);
+		}
+		return 0;
+	}
+
+	/**
+	 * Return the encoding of the data of the FSDH blockette <b>dataBlk</b>
+	 * given by the blockette 52 of its channel in effect at its start time,
+	 * as SeedObjectContainer.getMetaEncoding() does, or UNKNOWN if none has
+	 * been read.
+	 */
+	public String getMetaEncoding(Blockette dataBlk) throws Exception {
+		ArrayList<Object> encodingList = encodingMap.get(dataBlk.toString(4) + "." + dataBlk.toString(7) + "."
+				+ dataBlk.toString(6) + "." + dataBlk.toString(5));
+		String curEncoding = "UNKNOWN";
+		if (encodingList != null) {
+			Btime dataTime = (Btime) dataBlk.getFieldVal(8);
+			long prevDiff = -1L;
+			for (int i = 0; i < encodingList.size(); i += 2) {
+				long curDiff = dataTime.diffSeconds((Btime) encodingList.get(i));
+				if (curDiff > 0 && curDiff < prevDiff || prevDiff == -1) { // closest epoch the data follows
+					prevDiff = curDiff;
+					curEncoding = (String) encodingList.get(i + 1);
+				}
+			}
+		}
+		return curEncoding;
+	}
+
+	// private methods
+
+	/**
+	 * Note the encodings named by data format dictionary blockettes and the
+	 * channel blockettes that refer to them by their lookup codes.
+	 */
+	private void addEncodingMetadata(Blockette blk) throws Exception {
+		switch (blk.getType()) {
+		case 30: // data format dictionary
+			formatEncodings.put(blk.toString(4), SeedEncodingResolver.resolve(blk));
+			break;
+		case 50: // station identifier
+			station = blk.toString(3);
+			network = blk.toString(16);
+			break;
+		case 52: // channel identifier
+			String encodingStr = formatEncodings.get(blk.toString(16));
+			if (encodingStr != null && station != null) {
+				String encodeKey = station + "." + network + "." + blk.toString(4) + "." + blk.toString(3);
+				ArrayList<Object> encodingList = encodingMap.get(encodeKey);
+				if (encodingList == null) {
+					encodingList = new ArrayList<Object>(2);
+					encodingMap.put(encodeKey, encodingList);
+				}
+				encodingList.add(new Btime(blk.toString(22))); // effective time, then encoding
+				encodingList.add(encodingStr);
+			}
+			break;
+		default:
+		}
+	}
+
+	private static boolean isDataRecordType(char recordType) {
+		return recordType == 'D' || recordType == 'R' || recordType == 'Q' || recordType == 'M';
+	}
+
+	// instance variables
+
+	private final ArrayList<Blockette> controlBlockettes = new ArrayList<Blockette>(); // completed by the current record
+	private Blockette fsdh = null; // FSDH of the current data record
+	private final ArrayList<Blockette> dataBlockettes = new ArrayList<Blockette>(); // of the current data record
+	private final ArrayList<Blockette> pool = new ArrayList<Blockette>(); // data record blockettes by position, for reuse
+	private int poolIndex = 0; // position of the next data record blockette
+	private final HashMap<String, String> formatEncodings = new HashMap<String, String>(); // blockette 30 code to encoding
+	private final HashMap<String, ArrayList<Object>> encodingMap = new HashMap<String, ArrayList<Object>>(); // station.network.channel.location to {time0,encoding0,...}
+	private String station = null; // of the last blockette 50
+	private String network = null; // of the last blockette 50
+	private boolean recycle = true; // reuse data record blockettes
+}
@@ -132,17 +132,17 @@ public class Btime extends SeedObject {
     public String getStringTime () {
 	// return string in standard jday format
 	StringBuffer strTimeBuf = new StringBuffer();
-	strTimeBuf.append(fourZero.format(year));
+	strTimeBuf.append(pad(year,4));
 	strTimeBuf.append(","); 
-	strTimeBuf.append(threeZero.format(jday));
+	strTimeBuf.append(pad(jday,3));
 	strTimeBuf.append(","); 
-	strTimeBuf.append(twoZero.format(hour));
+	strTimeBuf.append(pad(hour,2));
 	strTimeBuf.append(":");
-	strTimeBuf.append(twoZero.format(min));
+	strTimeBuf.append(pad(min,2));
 	strTimeBuf.append(":");
-	strTimeBuf.append(twoZero.format(sec));
+	strTimeBuf.append(pad(sec,2));
 	strTimeBuf.append(".");
-	strTimeBuf.append(fourZero.format(tenthMilli));
+	strTimeBuf.append(pad(tenthMilli,4));
 	return strTimeBuf.toString();
     }
 
@@ -322,8 +322,8 @@ public class Btime extends SeedObject {
 	mCal.set(Calendar.MINUTE,0);
 	mCal.set(Calendar.SECOND,0);
 	// generate output string
-	String mStr = "" + fourZero.format(mCal.get(Calendar.YEAR)) + "/" +
-	    threeZero.format(mCal.get(Calendar.DAY_OF_YEAR));
+	String mStr = "" + pad(mCal.get(Calendar.YEAR),4) + "/" +
+	    pad(mCal.get(Calendar.DAY_OF_YEAR),3);
 	return mStr;
     }
 
@@ -476,6 +476,21 @@ public class Btime extends SeedObject {
 	return;
     }
 
+    /**
+     * Return <b>value</b> zero padded to at least <b>width</b> digits, as
+     * DecimalFormat would.  Unlike a shared DecimalFormat this is safe to
+     * call from several threads, as data records are parsed on the workers
+     * of ParallelSeedImportDirector.
+     */
+    private static String pad (int value, int width) {
+	String digits = Integer.toString(Math.abs(value));
+	if (value == Integer.MIN_VALUE) digits = digits.substring(1);
+	StringBuffer buf = new StringBuffer(width + 1);
+	if (value < 0) buf.append('-');
+	for (int i = digits.length(); i < width; i++) buf.append('0');
+	return buf.append(digits).toString();
+    }
+
     // inner classes
 
     /**
@@ -506,9 +521,9 @@ public class Btime extends SeedObject {
        */
       public String toString()
       {
-	return "" + fourZero.format(year) + "/" +
-	    twoZero.format(month) + "/" +
-	    twoZero.format(dayOfMonth);
+	return "" + pad(year,4) + "/" +
+	    pad(month,2) + "/" +
+	    pad(dayOfMonth,2);
       }
 
       /** the month (January is 1) */
@@ -535,9 +550,6 @@ public class Btime extends SeedObject {
 
     // static variables
     private static TimeZone tz = null;   // set this to our desired time zone
-    private static DecimalFormat twoZero = null;
-    private static DecimalFormat threeZero = null;
-    private static DecimalFormat fourZero = null;
     private static final int[] defaultTimes = {2500,1,0,0,0,0};
     private static final String[] tokenizeTimes = {",",",",":",":","."," "};
 
@@ -545,10 +557,6 @@ public class Btime extends SeedObject {
     static {
 	// set to GMT time zone
 	tz = TimeZone.getTimeZone("GMT+00");
-	// zero padding format of output numbers
-	twoZero = new DecimalFormat("00");
-	threeZero = new DecimalFormat("000");
-	fourZero = new DecimalFormat("0000");
     }
 
 }
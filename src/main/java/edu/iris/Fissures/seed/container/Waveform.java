@@ -3,6 +3,7 @@ package edu.iris.Fissures.seed.container;
 import edu.iris.Fissures.seed.exception.*;
 import edu.iris.dmc.seedcodec.*;
 import java.io.*;
+import java.nio.ByteBuffer;
 
 /**
   Default waveform container.  Data is stored in its native encoded form.
@@ -21,12 +22,35 @@ public class Waveform extends SeedObject {
      * to a SEED-recognized format.  <b>swapBytes</b> is set to true for VAX/8086 word order.
      */
     public Waveform (byte[] record, int dataOffset, int numSamples, String encoding, boolean swapBytes) {
-	waveData = new byte[record.length-dataOffset];
-	System.arraycopy(record,dataOffset,waveData,0,waveData.length);  // data shifted to start at index 0
+	this(record, dataOffset, record.length-dataOffset, numSamples, encoding, swapBytes);
+    }
+
+    /**
+     * Initialize the waveform object with the <b>dataLength</b> bytes of encoded
+     * data starting at the offset index indicated, for records held in a larger
+     * array.  Other parameters are as for the constructor above.
+     */
+    public Waveform (byte[] record, int dataOffset, int dataLength, int numSamples, String encoding, boolean swapBytes) {
+	waveData = new byte[dataLength];
+	System.arraycopy(record,dataOffset,waveData,0,dataLength);  // data shifted to start at index 0
 	this.numSamples = numSamples;
 	this.swapBytes = swapBytes;
 	this.encoding = encoding;
-        codec = new Codec();
+    }
+
+    /**
+     * Initialize the waveform object as a pass-through copy of <b>source</b>.
+     * The encoded data is shared rather than copied, since it is never altered
+     * once built, so a record can be handed on for export with its payload
+     * written out verbatim.  Sample count, encoding and byte swap flag are
+     * copied and may be changed independently of the source.
+     */
+    public Waveform (Waveform source) {
+	waveData = source.getEncodedBytes();
+	this.numSamples = source.numSamples;
+	this.swapBytes = source.swapBytes;
+	this.encoding = source.encoding;
+	this.sampleCodec = source.sampleCodec;
     }
 
     /**
@@ -38,8 +62,21 @@ public class Waveform extends SeedObject {
      */
     @Deprecated public Waveform (int[] intData, int maxByteLen, String encoding, int bias)
             throws SeedInputException, SeedException, SteimException, IOException {
-        codec = new Codec();
-	encodeWaveform(intData,maxByteLen,encoding,bias);
+	encodeWaveform(intData,0,intData.length,maxByteLen,encoding,bias);
+    }
+
+    /**
+     * Initialize the waveform object with up to <b>length</b> integer values
+     * starting at index <b>offset</b> of <b>intData</b>, as many as fit in
+     * maxByteLen bytes of the specified encoding.  <b>bias</b> is the last
+     * sample of the previous Waveform, for use in difference compression.
+     * getNumSamples() tells how many values were taken, so a long series is
+     * re-packaged into records by advancing <b>offset</b> by that count, with
+     * no copying of the remaining values.
+     */
+    public Waveform (int[] intData, int offset, int length, int maxByteLen, String encoding, int bias)
+            throws SeedInputException, SeedException, SteimException, IOException {
+	encodeWaveform(intData,offset,length,maxByteLen,encoding,bias);
     }
 
     /**
@@ -50,9 +87,8 @@ public class Waveform extends SeedObject {
      */
     public Waveform (int[] intData, int maxByteLen, String encoding)
             throws SeedInputException, SeedException, SteimException, IOException  {
-        codec = new Codec();
         //System.err.println("calling encodeWaveform intData.length=" + intData.length + ", maxByteLen=" + maxByteLen + ", encoding=" + encoding);
-	encodeWaveform(intData,maxByteLen,encoding);
+	encodeWaveform(intData,0,intData.length,maxByteLen,encoding,0);
     }
 
     /**
@@ -63,7 +99,6 @@ public class Waveform extends SeedObject {
      * Default value is 0.
      */
     @Deprecated public Waveform (float[] floatData, int maxByteLen, String encoding, float bias) throws SeedInputException, SeedException {
-        codec = new Codec();
 	encodeWaveform(floatData,maxByteLen,encoding,bias);
     }
 
@@ -73,7 +108,6 @@ public class Waveform extends SeedObject {
      * of maxByteLen. Assumed bias value of 0 for difference compression.
      */
     public Waveform (float[] floatData, int maxByteLen, String encoding) throws SeedInputException, SeedException  {
-        codec = new Codec();
 	encodeWaveform(floatData,maxByteLen,encoding);
     }
 
@@ -99,10 +133,26 @@ public class Waveform extends SeedObject {
     /**
      * Decode waveform data to a standard container object.
      * Indicate bias as a carryover constant from a previous data record, but can
-     * be set to zero otherwise.
+     * be set to zero otherwise.  Steim data is decoded with a SteimStreamDecoder
+     * carrying the bias, so the reverse integration constant is checked;
+     * the bias is not used for other encodings.
      */
     @Deprecated public DecompressedData getDecompressedData(int bias) throws CodecException, SeedException {
-	if (waveData.length == 0 || numSamples < 1) {
+	int steimVersion = getSteimVersion();
+	if (steimVersion > 0) {
+	    SteimStreamDecoder decoder = new SteimStreamDecoder(steimVersion);
+	    decoder.setLastValue(bias);
+	    return new DecompressedData(getDecodedIntegers(decoder));
+	}
+	return getDecompressedData();
+    }
+
+    /**
+     * Decode waveform data to a standard container object.
+     */
+    public DecompressedData getDecompressedData() throws CodecException, SeedException  {
+	byte[] bytes = getEncodedBytes();
+	if (bytes.length == 0 || numSamples < 1) {
 	    throw new SeedException ("attempting read on empty data stream");
 	}
 	// select decode method based on encoding
@@ -116,14 +166,8 @@ public class Waveform extends SeedObject {
 	    throw new SeedException("format " + encoding + " unavailable for integer decoding");
 	}
          * ******/
-        String b1000str = SeedEncodingResolver.translate(encoding);  // get the integer representation of the encoding type
-        int b1000int = Integer.parseInt(b1000str);
-        // return a decompressed data object based on the integer value of the encoding type
-        return codec.decompress(b1000int, waveData, numSamples, swapBytes);
-    }
-
-    public DecompressedData getDecompressedData() throws CodecException, SeedException  {
-        return getDecompressedData(0);
+        // the codec for our encoding is looked up once and kept
+        return getSampleCodec().decode(ByteBuffer.wrap(bytes), numSamples, swapBytes);
     }
 
     /**
@@ -140,7 +184,26 @@ public class Waveform extends SeedObject {
      * Bias is assumed to be zero.
      */
     public int[] getDecodedIntegers() throws CodecException, SeedException  {
-	return getDecodedIntegers(0);
+	return getDecompressedData().getAsInt();
+    }
+
+    /**
+     * Decode Steim waveform data to an array of integer values as the next
+     * record of a continuous series read with <b>decoder</b>, which carries
+     * the last value of the previous record over as the bias of this one and
+     * checks the reverse integration constant.  Use one decoder per channel.
+     */
+    public int[] getDecodedIntegers(SteimStreamDecoder decoder) throws CodecException, SeedException {
+	byte[] bytes = getEncodedBytes();
+	if (bytes.length == 0 || numSamples < 1) {
+	    throw new SeedException ("attempting read on empty data stream");
+	}
+	if (getSteimVersion() != decoder.getSteimVersion()) {
+	    throw new SeedException("format " + encoding + " cannot be decoded as Steim" + decoder.getSteimVersion());
+	}
+	int[] samples = new int[numSamples];
+	decoder.decode(bytes, 0, bytes.length, numSamples, swapBytes, samples, 0);
+	return samples;
     }
 
     /**
@@ -181,12 +244,70 @@ public class Waveform extends SeedObject {
     }
 
     /**
-     * Return the raw encoded byte stream.
+     * Decode waveform data into a sample sink, such as a SampleStatistics,
+     * instead of an array.  Bias is assumed to be zero.
+     */
+    public void getDecodedData(SampleSink sink) throws CodecException, SeedException {
+	byte[] bytes = getEncodedBytes();
+	if (bytes.length == 0 || numSamples < 1) {
+	    throw new SeedException ("attempting read on empty data stream");
+	}
+	new Codec().decompress(getSampleCodec().getType(), ByteBuffer.wrap(bytes), numSamples, swapBytes, sink);
+    }
+
+    /**
+     * Return the raw encoded byte stream.  Data encoded by this object is
+     * held as Steim frames and copied out to an array on the first call.
      */
     public byte[] getEncodedBytes() {
+	if (waveData == null && frameBlock != null) {
+	    waveData = new byte[frameBlock.getNumFrames() * steimFrameLen];
+	    frameBlock.writeTo(waveData, 0);
+	}
 	return waveData;
     }
 
+    /**
+     * Return the number of bytes of encoded data, without copying it out.
+     */
+    public int getEncodedLength() {
+	if (waveData == null && frameBlock != null) {
+	    return frameBlock.getNumFrames() * steimFrameLen;
+	}
+	return (waveData == null) ? 0 : waveData.length;
+    }
+
+    /**
+     * Write the encoded data into <b>dest</b> starting at index <b>offset</b>,
+     * such as the data section of a record being exported, and return the
+     * number of bytes written.  Steim frames encoded by this object are
+     * written straight from the frame block, with no intermediate array.
+     */
+    public int writeEncodedBytes(byte[] dest, int offset) {
+	if (waveData == null && frameBlock != null) {
+	    return frameBlock.writeTo(dest, offset);
+	}
+	int length = getEncodedLength();
+	if (length > 0) System.arraycopy(waveData, 0, dest, offset, length);
+	return length;
+    }
+
+    /**
+     * Re-encode this object with up to <b>length</b> integer values starting at
+     * index <b>offset</b> of <b>intData</b>, as many as fit in maxByteLen bytes
+     * of the specified encoding, and return the number of values taken.
+     * <b>bias</b> is the last sample of the previous record.  Steim frames are
+     * encoded into the frame block kept from the previous call when its size
+     * and version match, so a series can be re-packaged record after record,
+     * each written out with writeEncodedBytes() before the next is encoded,
+     * with no allocation per record.
+     */
+    public int encode(int[] intData, int offset, int length, int maxByteLen, String encoding, int bias)
+            throws SeedInputException, SeedException, SteimException, IOException {
+	encodeWaveform(intData,offset,length,maxByteLen,encoding,bias);
+	return numSamples;
+    }
+
     /**
      * Return the number of samples of this waveform.
      */
@@ -231,60 +352,89 @@ public class Waveform extends SeedObject {
 	// we don't always know the encoding of the data that we read in, so
 	// allow the application to change it after the fact
 	encoding = format;
+	sampleCodec = null;
     }
 
     /**
      * Display a string description of this Waveform object's contents.
      */
     public String toString() {
-	return "Waveform data with " + numSamples + " samples in " + waveData.length + " bytes with " +
+	return "Waveform data with " + numSamples + " samples in " + getEncodedLength() + " bytes with " +
 	    encoding + " encoding and byte swap is " + swapBytes + ".";
     }
 
     // private methods
 
     /**
-     * Given the integer array, encode it with the specified encoding type and store the
+     * Return the codec for this object's encoding from the default codec
+     * registry, resolving it on first use.
+     */
+    private SampleCodec getSampleCodec() throws UnsupportedCompressionType {
+	if (sampleCodec == null) {
+	    sampleCodec = CodecRegistry.getDefault().get(encoding);
+	}
+	return sampleCodec;
+    }
+
+    /**
+     * Return 1 or 2 if this object's encoding is Steim1 or Steim2, else 0.
+     */
+    private int getSteimVersion() throws UnsupportedCompressionType {
+	switch (getSampleCodec().getType()) {
+	    case B1000Types.STEIM1:
+		return 1;
+	    case B1000Types.STEIM2:
+		return 2;
+	    default:
+		return 0;
+	}
+    }
+
+    /**
+     * Given <b>length</b> values of the integer array starting at <b>offset</b>,
+     * encode as many as fit in maxByteLen with the specified encoding type and store the
      * result in this object's byte array.  Also note the number of 
      * samples and the compression type.
      * <b>bias</b> can be set to the last value of the previous encoding
      * for differences continuity.
      */
-    private void encodeWaveform(int[] data, int maxByteLen, String encoding, int bias) 
+    private void encodeWaveform(int[] data, int offset, int length, int maxByteLen, String encoding, int bias) 
             throws SeedInputException, SeedException, SteimException, IOException  {
-	if (data.length == 0) {
+	if (length <= 0) {
 	    throw new SeedInputException("data length is zero");
 	}
-	if (encoding.equals("Steim1")) {
+	if (offset < 0 || offset + length > data.length) {
+	    throw new SeedInputException("data range " + offset + "+" + length + " exceeds array length " + data.length);
+	}
+	if (encoding.equals("Steim1") || encoding.equals("Steim2")) {
+	    int steimVersion = encoding.equals("Steim1") ? 1 : 2;
 	    int numFrames = maxByteLen / steimFrameLen;
-	    SteimFrameBlock steimFrames = Steim1.encode(data,numFrames,bias);
-	    waveData = steimFrames.getEncodedData();
-	    numSamples = steimFrames.getNumSamples();
+	    if (numFrames <= 0 || numFrames > 63) {
+		throw new SteimException("cannot encode " + numFrames + " frames, 1 to 63 are allowed");
+	    }
+	    if (frameBlock == null || frameBlock.getNumFrames() != numFrames
+		    || frameBlock.getSteimVersion() != steimVersion) {
+		frameBlock = new SteimFrameBlock(numFrames, steimVersion);
+	    }
+	    // the frame block is reset and refilled; frames are copied out only on request
+	    if (steimVersion == 1) {
+		numSamples = Steim1.encode(data, offset, length, bias, frameBlock);
+	    } else {
+		numSamples = Steim2.encode(data, offset, length, bias, frameBlock);
+	    }
+	    waveData = null;
 	    this.encoding = encoding;
+	    sampleCodec = null;
 	    swapBytes = false;  // always generate Sun word order
-	} else if (encoding.equals("Steim2")) {
-          int numFrames = maxByteLen / steimFrameLen;
-          SteimFrameBlock steimFrames = Steim2.encode(data, numFrames, bias);
-          waveData = steimFrames.getEncodedData();
-          numSamples = steimFrames.getNumSamples();
-          this.encoding = encoding;
-          swapBytes = false;  // always generate Sun word order
         } else if (encoding.equals("Int32Bit")) {  // we should have a standard method in Codec for this
-            // write out the integers as a byte array
-            // set up a byte array to write int words to
-            ByteArrayOutputStream encodedData =
-                    new ByteArrayOutputStream(maxByteLen);  // limit the size of return array by indicated max
-            int maxNumInts = data.length;
-            if (data.length > (maxByteLen/4)) maxNumInts = maxByteLen / 4;  // delimit max number of integers
-            // set up interface to the array for writing the ints
-            DataOutputStream intSerializer = new DataOutputStream(encodedData);
-            for (int i = 0; i < maxNumInts; i++) {  // for each int word
-                // write integer to byte stream
-                intSerializer.writeInt(data[i]);
-            }
-            waveData = encodedData.toByteArray(); // return byte stream as array
-            numSamples = (waveData.length / 4);  // length of byte array divided by 4 (32 bits)
+            // write out the integers as a byte array, limited to the indicated max
+            int maxNumInts = Math.min(length, maxByteLen / 4);  // delimit max number of integers
+            waveData = new byte[maxNumInts * 4];
+            ByteBuffer.wrap(waveData).asIntBuffer().put(data, offset, maxNumInts);  // big endian
+            frameBlock = null;
+            numSamples = maxNumInts;
             this.encoding = encoding;
+            sampleCodec = null;
             swapBytes = false;
 	} else {
 	    throw new SeedException("format " + encoding + " unavailable for integer encoding");
@@ -293,15 +443,6 @@ public class Waveform extends SeedObject {
 
     }
 
-    /**
-     * Given the integer array, encode it with the specified encoding type and store
-     * the result in this object's byte array.  Bias is assumed to be 0.
-     */
-    private void encodeWaveform(int[] data, int maxByteLen, String encoding)
-	throws SeedInputException, SeedException, SteimException, IOException {
-	encodeWaveform(data,maxByteLen,encoding,0);
-    }
-
     /**
      * Given the float array, encode it with the specified encoding and store the
      * result in this object's byte array.  Also note the number of samples and
@@ -334,10 +475,11 @@ public class Waveform extends SeedObject {
     /** The default maximum byte length which is the maximum value for Steim1/2 encoding. */
     public final static int defaultMaxByteLen = steimFrameLen * 63;
     private byte[] waveData = null;  // this holds the encoded waveform data
+    private SteimFrameBlock frameBlock = null;  // Steim frames encoded by this object, copied to waveData on request
     private int numSamples = 0;      // this is the number of samples represented by the waveform data
     private String encoding = "none"; // this is the form of encoding that the data is stored in
     private boolean swapBytes = false; // this is the flag to indicate true if VAX/8086 byte order
-    private Codec codec = null;     // this will drive all of our data decoders
+    private SampleCodec sampleCodec = null;  // decoder for our encoding, resolved on first use
 
 
     /**
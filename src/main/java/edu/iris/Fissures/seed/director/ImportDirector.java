@@ -3,6 +3,8 @@ package edu.iris.Fissures.seed.director;
 import edu.iris.Fissures.seed.builder.*;
 import edu.iris.Fissures.seed.exception.*;
 import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
 
 /**
  * Abstract class representing all Director classes for importing data.
@@ -70,6 +72,28 @@ public abstract class ImportDirector {
 		}
 		printOutStream = null;   // reset to null
 		open(inStream);
+		return constructOpened(outStream, storeFlag);
+	}
+
+	/**
+	 * Constructs objects from the file at <b>path</b>, read through memory
+	 * mapping.  Parameters and return value are otherwise as for
+	 * construct(InputStream, OutputStream, boolean).
+	 */
+	public int construct (Path path, OutputStream outStream,
+			boolean storeFlag) throws Exception {
+		if (builder == null) {
+			throw new BuilderException("a builder has not been assigned to this director");
+		}
+		printOutStream = null;   // reset to null
+		open(path);
+		return constructOpened(outStream, storeFlag);
+	}
+
+	/**
+	 * Read the open input to the end for construct().
+	 */
+	private int constructOpened (OutputStream outStream, boolean storeFlag) throws Exception {
 		if (outStream != null) {	
 			printOutStream = new PrintWriter(outStream,true);  // set autoflush mode to true
 		}
@@ -80,7 +104,7 @@ public abstract class ImportDirector {
 			}
 		}
 		if (printOutStream != null) printOutStream.close();  // close the output stream if open
-		close();  // close the input stream
+		closeInput();  // close the input stream
 		return recCount;
 	}
 	
@@ -97,19 +121,77 @@ public abstract class ImportDirector {
 	 * Open the input stream for reading.
 	 */
 	public void open (InputStream inStream) throws Exception {
+		releaseInput();
 		this.inStream = new DataInputStream(inStream);
-		readBuffer = new ReadBuffer (maxRecordLength*2);
-		streamOpen = true;
-		recCount = 0; 
-		incrementVolume();
+		openBuffer();
+	}
+
+	/**
+	 * Open the file at <b>path</b> for reading through memory mapping.
+	 * The file is closed again by close().
+	 */
+	public void open (Path path) throws Exception {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			open(channel);
+		} catch (Exception e) {
+			channel.close();
+			throw e;
+		}
+		ownedChannel = channel;
+	}
+
+	/**
+	 * Open a file channel for reading through memory mapping, from its
+	 * current position to the end of the file.  The file is mapped a
+	 * window at a time, so it may be larger than 2 GB.  The channel is
+	 * left open by close().
+	 */
+	public void open (FileChannel channel) throws Exception {
+		releaseInput();
+		inStream = null;
+		mappedInput = new MappedFileInput(channel);
+		openBuffer();
+	}
+
+	/**
+	 * Open a channel for reading.  A file channel is read through memory
+	 * mapping; any other channel is read directly, until a read returns
+	 * -1, and should be in blocking mode.  The channel is left open by
+	 * close().
+	 */
+	public void open (ReadableByteChannel channel) throws Exception {
+		if (channel instanceof FileChannel) {
+			open((FileChannel) channel);
+			return;
+		}
+		releaseInput();
+		inStream = null;
+		inChannel = channel;
+		openBuffer();
 	}
 	
 	/**
-	 * Close the input stream.
+	 * Close the input stream.  A file opened from a path is closed; a
+	 * failure to close it is only printed as a warning, so use closeInput()
+	 * to have it thrown.
 	 */
 	public void close () {
+		try {
+			closeInput();
+		} catch (IOException e) {
+			System.err.println("WARNING: unable to close input file: " + e);
+		}
+	}
+
+	/**
+	 * Close the input stream as close() does, throwing the failure to close
+	 * a file opened from a path once the director has let go of the input.
+	 */
+	public void closeInput () throws IOException {
 		inStream = null;
 		streamOpen = false;
+		releaseInput();
 	}
 	
 	
@@ -120,27 +202,10 @@ public abstract class ImportDirector {
 	 * built objects or not.  Set to TRUE to store objects.
 	 */
 	public boolean read(boolean storeFlag) throws Exception {
-		StringBuffer strBuf = null;  // might want to accumulate string representations of built objects
 		outputString = null;  // reset to null
 		if (streamOpen) {
 			if (getRecord()) {  // get the next record of data...(assigned to record[] array)
-				while (recordOffset < recLen) {  // while we can pull blockettes out of this record...
-					//System.err.println("DEBUG: recordOffset=" + recordOffset + ", recLen=" + recLen);
-					int bytesRead = build();   // construct objects from the record using the assigned builder
-					if (bytesRead == 0)
-						throw new BuilderException("call to builder resulted in 0 bytes being processed");
-					if (printOutStream != null) {  // check for ASCII printing
-						String addStr = builder.toString();  // get string representation of object
-						if (addStr.length() > 0) {
-                              if (strBuf == null) strBuf = new StringBuffer("");  // start new string buffer
-							strBuf.append(addStr + "\n");  // append string representation (CR terminator)
-						}
-					}
-					if (storeFlag) builder.store();  // store object in container
-					//System.err.println("DEBUG: bytesRead=" + bytesRead);
-					recordOffset += bytesRead;   // increment offset counter by number of bytes read
-				}
-				if (strBuf != null && strBuf.length() > 0) outputString = strBuf.toString();  // save string representation to instance variable
+				buildRecord(storeFlag);
 				return true;   // record read successfully
 			} else {
 				return false;  // no more records to read
@@ -158,6 +223,33 @@ public abstract class ImportDirector {
 	public boolean read() throws Exception {
 		return read(true);
 	}
+
+	/**
+	 * Build objects from the whole of the current record, in the record array
+	 * from recordStart for recLen bytes, and store them if <b>storeFlag</b>
+	 * is true.  String representations are collected in outputString when
+	 * printing is on.
+	 */
+	protected void buildRecord(boolean storeFlag) throws Exception {
+		StringBuffer strBuf = null;  // might want to accumulate string representations of built objects
+		while (recordOffset < recLen) {  // while we can pull blockettes out of this record...
+			//System.err.println("DEBUG: recordOffset=" + recordOffset + ", recLen=" + recLen);
+			int bytesRead = build();   // construct objects from the record using the assigned builder
+			if (bytesRead == 0)
+				throw new BuilderException("call to builder resulted in 0 bytes being processed");
+			if (printOutStream != null) {  // check for ASCII printing
+				String addStr = builder.toString();  // get string representation of object
+				if (addStr.length() > 0) {
+					if (strBuf == null) strBuf = new StringBuffer("");  // start new string buffer
+					strBuf.append(addStr + "\n");  // append string representation (CR terminator)
+				}
+			}
+			if (storeFlag) builder.store();  // store object in container
+			//System.err.println("DEBUG: bytesRead=" + bytesRead);
+			recordOffset += bytesRead;   // increment offset counter by number of bytes read
+		}
+		if (strBuf != null && strBuf.length() > 0) outputString = strBuf.toString();  // save string representation to instance variable
+	}
 	
 	/**
 	 * Build a data object.
@@ -171,20 +263,34 @@ public abstract class ImportDirector {
 	
 	/**
 	 * Get the next record from input.
-	 * Iterate the next record of data to the 'record' array from the input stream.
+	 * Point the 'record' array at the next record of data in the read buffer,
+	 * starting at index recordStart.  The record is not copied, so its contents
+	 * are only valid until the next call.
 	 * Return true until there is no more data in the buffer.
 	 */
-	private boolean getRecord () throws Exception {
+	protected boolean getRecord () throws Exception {
 		if (! readBuffer.reachedEOF()) {
-			readBuffer.fill(this.inStream);   // fill the buffer as long as we have not hit EOF
+			// fill the buffer as long as we have not hit EOF
+			if (mappedInput != null) {
+				// builders parse byte arrays, so the mapped window is copied a
+				// buffer of about two records at a time, never the whole window
+				readBuffer.fill(mappedInput);
+			} else if (inChannel != null) {
+				readBuffer.fill(inChannel);
+			} else {
+				readBuffer.fill(this.inStream);
+			}
 		}
 		//System.err.println("DEBUG readBuffer length is " + readBuffer.length());
 		if (readBuffer.length() <= 0) return false;  // no more data in buffer
 		recLen = getRecLen();   // get the length of the current record
 		//System.err.println("DEBUG: recLen is " + recLen);
-		record = new byte[recLen];   // set up the record array
-		System.arraycopy(readBuffer.buffer,0,record,0,recLen);  // copy from the buffer to the array
-		readBuffer.shift(recLen);  // shift the buffer to start the next record
+		if (readBuffer.offset() + recLen > readBuffer.bufSize()) {
+			readBuffer.compact();  // a short final record may run past the end of the array
+		}
+		record = readBuffer.array();   // the record is viewed in place
+		recordStart = readBuffer.offset();
+		readBuffer.shift(recLen);  // move the buffer on to start the next record
 		recCount++;  // increment the record count
 		recordOffset = 0;   // reset the offset index for the record[] byte array
 		//System.err.println("DEBUG record count is " + recCount);
@@ -199,16 +305,49 @@ public abstract class ImportDirector {
 	private void incrementVolume() throws Exception {
 		builder.incrementVolume();
 	}
+
+	/**
+	 * Let go of a mapped input file, closing it if it was opened from a path,
+	 * or of an input channel.  The input is let go of even when closing the
+	 * file fails.
+	 */
+	private void releaseInput() throws IOException {
+		inChannel = null;  // the caller's to close
+		if (mappedInput != null) {
+			mappedInput.close();
+			mappedInput = null;
+		}
+		if (ownedChannel != null) {
+			FileChannel channel = ownedChannel;
+			ownedChannel = null;
+			channel.close();
+		}
+	}
+
+	/**
+	 * Set up a new read buffer for the input just opened.
+	 */
+	private void openBuffer() throws Exception {
+		// refill while a full record and the header after it are still in the buffer
+		readBuffer = new ReadBuffer (maxRecordLength*2, maxRecordLength+64);
+		streamOpen = true;
+		recCount = 0; 
+		incrementVolume();
+	}
 	
 	// instance variables
 	
 	protected boolean streamOpen = false;       // true if there is a data stream open
 	protected DataInputStream inStream = null;  // input data stream
+	protected MappedFileInput mappedInput = null;  // memory mapped input file, used in place of inStream
+	protected ReadableByteChannel inChannel = null;  // input channel other than a file, used in place of inStream
+	private FileChannel ownedChannel = null;    // channel opened from a path, closed with the input
 	protected ReadBuffer readBuffer = null;     // read buffer for the data stream that facilitates record reads
 	protected byte[] record;                    // array containing record contents
+	protected int recordStart = 0;              // index in the record array where the current record begins
 	protected int recCount = 0;                 // counter of the number of records read
 	protected int recLen = 0;                   // length of current record in bytes
-	protected int recordOffset = 0;             // offset index where we are currently looking in the record array
+	protected int recordOffset = 0;             // offset index where we are currently looking in the record, from recordStart
 	protected ObjectBuilder builder = null;     // registered builder to construct objects from the record array
 	protected String outputString = null;       // this contains a string expression of a built blockette
 	protected int fixedRecordLength = 0;     // user can set this value to fix record length
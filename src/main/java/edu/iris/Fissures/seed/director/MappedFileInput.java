@@ -0,0 +1,112 @@
+package edu.iris.Fissures.seed.director;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/**
+ * Read-only input from a file channel through memory mapping.<br>
+ * The file is mapped one window at a time, so files larger than the
+ * 2 GB limit of a single mapping can be read.  Reads copy straight out of
+ * the mapped pages without a system call, and the end of the input is
+ * known exactly from the file size rather than guessed from what a stream
+ * reports as available.
+ * @version 10/16/2026
+ */
+public class MappedFileInput {
+
+	/**
+	 * Map the file of <b>channel</b> for reading from its current position
+	 * to its current size, with the default window size.
+	 * @param channel file channel open for reading
+	 * @throws IOException if the channel cannot be queried
+	 */
+	public MappedFileInput (FileChannel channel) throws IOException {
+		this(channel, defaultWindowSize);
+	}
+
+	/**
+	 * Map the file of <b>channel</b> for reading from its current position
+	 * to its current size, <b>windowSize</b> bytes at a time.
+	 * @param channel file channel open for reading
+	 * @param windowSize number of bytes mapped at once, at most Integer.MAX_VALUE
+	 * @throws IOException if the channel cannot be queried
+	 */
+	public MappedFileInput (FileChannel channel, int windowSize) throws IOException {
+		if (windowSize <= 0) throw new IllegalArgumentException("window size must be positive: " + windowSize);
+		this.channel = channel;
+		this.windowSize = windowSize;
+		position = channel.position();
+		size = channel.size();
+	}
+
+	// Public methods
+
+	/**
+	 * Return the file offset of the next byte to be read.
+	 * @return read position in bytes
+	 */
+	public long position() {
+		return position;
+	}
+
+	/**
+	 * Return the number of bytes left to read.
+	 * @return bytes between the read position and the end of the file
+	 */
+	public long remaining() {
+		return size - position;
+	}
+
+	/**
+	 * Copy up to <b>len</b> bytes into <b>dst</b> starting at index <b>off</b>,
+	 * mapping further windows of the file as needed.
+	 * @param dst destination array
+	 * @param off index in <b>dst</b> of the first byte
+	 * @param len maximum number of bytes to copy
+	 * @return number of bytes copied, 0 at the end of the file
+	 * @throws IOException if a window of the file cannot be mapped
+	 */
+	public int read (byte[] dst, int off, int len) throws IOException {
+		int count = 0;
+		while (count < len && position < size) {
+			if (window == null || !window.hasRemaining()) map();
+			int n = Math.min(len - count, window.remaining());
+			window.get(dst, off + count, n);
+			count += n;
+			position += n;
+		}
+		return count;
+	}
+
+	/**
+	 * Release the current window.  The channel is left open.
+	 */
+	public void close () {
+		window = null;  // the mapping goes when the buffer is collected
+	}
+
+	// Private methods
+
+	/**
+	 * Map the window of the file that starts at the read position.
+	 */
+	private void map () throws IOException {
+		long length = Math.min((long) windowSize, size - position);
+		window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+	}
+
+	// Instance variables
+
+	private final FileChannel channel;   // the file being read
+	private final int windowSize;        // bytes mapped at once
+	private final long size;             // file size when mapped
+	private long position;               // file offset of the next byte to read
+	private MappedByteBuffer window = null;  // current mapping, starting at or before position
+
+	/**
+	 * Default mapping window (1 GB)
+	 */
+	public static final int defaultWindowSize = 1 << 30;
+
+}
@@ -0,0 +1,314 @@
+package edu.iris.Fissures.seed.director;
+
+import edu.iris.Fissures.seed.builder.*;
+import edu.iris.Fissures.seed.container.*;
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Publisher of the data records read from a file, the files of a
+ * directory, or a channel, decoded into MiniSeedRecords.
+ * <p>
+ * Records are read only as subscribers request them, with a
+ * SeedStreamImportDirector on the tasks of an executor, so no more than
+ * the records requested are ever read ahead and a slow subscriber holds
+ * the reading back rather than letting records pile up in memory.  Each
+ * subscription to a file or directory reads it from the start; the files
+ * of a directory, not its subdirectories, are read in name order.  A
+ * channel can be read by one subscription only and is left open when it
+ * ends.  Control headers of full SEED volumes are read for the SEED
+ * version they set, but only data records are published.
+ * <p>
+ * Reads block, so the executor is the caller's to give, with threads to
+ * spare for them; the common fork-join pool is not meant for blocking work.
+ * @version 10/16/2026
+ */
+public class MiniSeedPublisher implements SeedFlow.Publisher<MiniSeedRecord> {
+
+    /**
+     * Create a publisher of the records of the file or directory at
+     * <b>path</b>, reading on the tasks of <b>executor</b>.
+     */
+    public MiniSeedPublisher (Path path, Executor executor) {
+        if (executor == null) throw new NullPointerException("executor is null");
+        this.path = path;
+        this.channel = null;
+        this.executor = executor;
+    }
+
+    /**
+     * Create a publisher of the records read from <b>channel</b>, reading on
+     * the tasks of <b>executor</b>.  A file channel is read through memory
+     * mapping from its current position; any other channel is read until a
+     * read returns -1.
+     */
+    public MiniSeedPublisher (ReadableByteChannel channel, Executor executor) {
+        if (executor == null) throw new NullPointerException("executor is null");
+        this.path = null;
+        this.channel = channel;
+        this.executor = executor;
+    }
+
+    // public methods
+
+    /**
+     * Add <b>subscriber</b>, which receives records as it requests them.
+     */
+    public void subscribe (SeedFlow.Subscriber<? super MiniSeedRecord> subscriber) {
+        if (subscriber == null) throw new NullPointerException("subscriber is null");
+        RecordSubscription subscription = new RecordSubscription(subscriber);
+        if (channel != null && !channelSubscribed.compareAndSet(false, true)) {
+            subscription.fail(new IllegalStateException("the channel has already been subscribed to"));
+        }
+        subscriber.onSubscribe(subscription);
+        subscription.schedule();  // reports a failure above
+    }
+
+    // inner classes
+
+    /**
+     * The subscription of one subscriber, reading records on the executor
+     * while there is demand.  Reads and calls to the subscriber are made by
+     * one task at a time.
+     */
+    private class RecordSubscription implements SeedFlow.Subscription, Runnable {
+
+        RecordSubscription (SeedFlow.Subscriber<? super MiniSeedRecord> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        public void request (long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("non-positive request of " + n + " records"));
+            } else {
+                long r;
+                do {
+                    r = requested.get();
+                    if (r == Long.MAX_VALUE) break;  // unbounded
+                } while (!requested.compareAndSet(r, r + n < 0 ? Long.MAX_VALUE : r + n));
+            }
+            schedule();
+        }
+
+        public void cancel () {
+            cancelled = true;
+            schedule();  // the input is closed on the reading task
+        }
+
+        /**
+         * End the subscription with <b>error</b> on the next run.
+         */
+        void fail (Throwable error) {
+            if (failure == null) failure = error;
+        }
+
+        /**
+         * Run the subscription on the executor, unless it is running already,
+         * in which case it runs once more.
+         */
+        void schedule () {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    wip.set(0);
+                    cancelled = true;
+                    closeReader();
+                    if (!done) {
+                        done = true;
+                        subscriber.onError(e);
+                    }
+                }
+            }
+        }
+
+        public void run () {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Send records while there is demand, until the input runs out.
+         */
+        private void drain () {
+            if (done) return;
+            long emitted = 0;
+            while (true) {
+                if (cancelled) {
+                    done = true;
+                    closeReader();  // nothing more may be signalled
+                    return;
+                }
+                if (failure != null) {
+                    terminate(failure);
+                    return;
+                }
+                if (emitted == requested.get()) break;
+                MiniSeedRecord record;
+                try {
+                    record = reader.next();
+                } catch (Throwable e) {
+                    terminate(e);
+                    return;
+                }
+                if (record == null) {
+                    done = true;
+                    IOException closeFailure = closeReader();
+                    if (closeFailure != null) {
+                        subscriber.onError(closeFailure);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                    return;
+                }
+                try {
+                    subscriber.onNext(record);
+                } catch (Throwable e) {
+                    // a subscriber must not throw; take it as a cancel
+                    done = true;
+                    closeReader();
+                    return;
+                }
+                emitted++;
+            }
+            // leave the unbounded request be
+            if (requested.get() != Long.MAX_VALUE) requested.addAndGet(-emitted);
+        }
+
+        private void terminate (Throwable error) {
+            done = true;
+            IOException closeFailure = closeReader();
+            if (closeFailure != null && closeFailure != error) error.addSuppressed(closeFailure);
+            subscriber.onError(error);
+        }
+
+        /**
+         * Close the input being read, returning the failure to close it, if
+         * any.
+         */
+        private IOException closeReader () {
+            try {
+                reader.close();
+                return null;
+            } catch (IOException e) {
+                return e;
+            }
+        }
+
+        private final SeedFlow.Subscriber<? super MiniSeedRecord> subscriber;
+        private final RecordReader reader = new RecordReader();
+        private final AtomicLong requested = new AtomicLong();  // records requested and not yet sent
+        private final AtomicInteger wip = new AtomicInteger();  // runs scheduled and not yet made
+        private volatile boolean cancelled = false;
+        private volatile Throwable failure = null;  // error to end the subscription with
+        private boolean done = false;               // no more calls to the subscriber
+    }
+
+    /**
+     * Reads the records of the publisher's input one at a time for a
+     * subscription.
+     */
+    private class RecordReader implements RecordListener {
+
+        RecordReader () {
+            SeedStreamBuilder builder = new SeedStreamBuilder();
+            builder.setRecycle(false);  // records are handed on to the subscriber
+            director = new SeedStreamImportDirector(builder, this);
+        }
+
+        /**
+         * Return the next data record of the input, or null at its end.
+         */
+        MiniSeedRecord next () throws Exception {
+            while (true) {
+                if (!opened && !openNext()) return null;
+                if (director.read(true)) {
+                    if (pending != null) {
+                        MiniSeedRecord record = pending;
+                        pending = null;
+                        return record;
+                    }
+                } else {
+                    close();  // on to the next file
+                }
+            }
+        }
+
+        /**
+         * Close the input being read.
+         */
+        void close () throws IOException {
+            if (opened) {
+                opened = false;
+                director.closeInput();
+            }
+        }
+
+        public void onControlBlockette (Blockette blockette) {
+            // read for the SEED version only
+        }
+
+        public void onDataRecord (Blockette fsdh, List<Blockette> dataBlockettes, Waveform waveform) {
+            pending = new MiniSeedRecord(fsdh, dataBlockettes);
+        }
+
+        /**
+         * Open the next input, returning false if there is none.
+         */
+        private boolean openNext () throws Exception {
+            if (channel != null) {
+                if (files != null) return false;  // read already
+                files = Collections.emptyList();
+                director.open(channel);
+            } else {
+                if (files == null) files = listFiles(path);
+                if (fileIndex >= files.size()) return false;
+                director.open(files.get(fileIndex++));
+            }
+            opened = true;
+            return true;
+        }
+
+        private final SeedStreamImportDirector director;
+        private List<Path> files = null;         // files to read, once listed
+        private int fileIndex = 0;               // next of files to read
+        private boolean opened = false;          // an input is open
+        private MiniSeedRecord pending = null;   // record built by the last read
+    }
+
+    // private methods
+
+    /**
+     * Return the regular files of the directory at <b>path</b> in name
+     * order, or <b>path</b> itself if it is not a directory.
+     */
+    private static List<Path> listFiles (Path path) throws IOException {
+        if (!Files.isDirectory(path)) return Collections.singletonList(path);
+        ArrayList<Path> files = new ArrayList<Path>();
+        DirectoryStream<Path> stream = Files.newDirectoryStream(path);
+        try {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) files.add(file);
+            }
+        } finally {
+            stream.close();
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    // instance variables
+
+    private final Path path;                   // file or directory read, or null
+    private final ReadableByteChannel channel; // channel read, or null
+    private final Executor executor;           // runs the reading
+    private final AtomicBoolean channelSubscribed = new AtomicBoolean(false);  // the channel is read once
+
+}
@@ -0,0 +1,58 @@
+package edu.iris.Fissures.seed.director;
+
+import edu.iris.Fissures.seed.container.*;
+import java.util.*;
+
+/**
+ * A decoded data record: its Fixed Section of Data Header as blockette 999,
+ * the data blockettes that follow it, and its waveform.  The objects are
+ * the record's own and are not reused.
+ * @version 10/16/2026
+ */
+public class MiniSeedRecord {
+
+    /**
+     * Create a record of <b>fsdh</b> and a copy of the list of
+     * <b>dataBlockettes</b>, with the waveform attached to the FSDH.
+     */
+    public MiniSeedRecord (Blockette fsdh, List<Blockette> dataBlockettes) {
+        this.fsdh = fsdh;
+        this.dataBlockettes = Collections.unmodifiableList(new ArrayList<Blockette>(dataBlockettes));
+    }
+
+    // public methods
+
+    /**
+     * Return the FSDH blockette of the record.
+     */
+    public Blockette getFsdh () {
+        return fsdh;
+    }
+
+    /**
+     * Return the data blockettes of the record, in record order.
+     */
+    public List<Blockette> getDataBlockettes () {
+        return dataBlockettes;
+    }
+
+    /**
+     * Return the waveform of the record, or null if it has no data section.
+     */
+    public Waveform getWaveform () {
+        return fsdh.getWaveform();
+    }
+
+    /**
+     * Return the FSDH string representation.
+     */
+    public String toString () {
+        return fsdh.toString();
+    }
+
+    // instance variables
+
+    private final Blockette fsdh;                  // fixed section of data header
+    private final List<Blockette> dataBlockettes;  // data blockettes, unmodifiable
+
+}
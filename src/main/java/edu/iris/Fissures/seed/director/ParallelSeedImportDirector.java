@@ -0,0 +1,237 @@
+package edu.iris.Fissures.seed.director;
+
+import edu.iris.Fissures.seed.builder.*;
+import edu.iris.Fissures.seed.container.*;
+import edu.iris.Fissures.seed.exception.*;
+import java.io.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SEED import director that parses data records on a pool of worker
+ * threads while records are framed and committed on the calling thread.
+ * <p>
+ * Each read() frames records ahead of the one it returns, up to a window
+ * of records, and hands copies of the data records among them to the
+ * workers, which parse the FSDH, the data blockettes and the waveform with
+ * SeedObjectBuilder.parseDataRecord().  Records are then built, filtered
+ * and stored strictly in input order through the usual build() path, with
+ * the builder taking the parsed blockettes in place of parsing them.  So
+ * control headers, including continuation records and the merging of large
+ * response blockettes, are handled exactly as by SeedImportDirector.  A data
+ * record parsed as a SEED version that a control header read in the
+ * meantime has changed, or that failed to parse on a worker, is parsed
+ * again in order.
+ * <p>
+ * The builder must be a SeedObjectBuilder for records to be parsed in
+ * parallel; other builders read as with SeedImportDirector.
+ * <p>
+ * A worker's parse touches no builder or container state: it reads its own
+ * copy of the record and builds new blockettes and a waveform.  The static
+ * state it shares with the calling thread is read only, the blockette
+ * definition tables of BlocketteFactory, filled in when the class loads,
+ * and the time zone of Btime.  Btime zero pads the fields of the times it
+ * formats without a shared DecimalFormat, which is not thread safe.
+ * @version 10/16/2026
+ */
+public class ParallelSeedImportDirector extends SeedImportDirector {
+
+    /**
+     * Create a parallel SEED import director for the indicated builder,
+     * parsing data records on <b>numThreads</b> worker threads of its own.
+     * Call shutdown() to stop them when done importing.
+     */
+    public ParallelSeedImportDirector (ObjectBuilder builder, int numThreads) {
+        this(builder, Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "seed-import-worker-" + workerCount.incrementAndGet());
+                t.setDaemon(true);  // never holds up exit
+                return t;
+            }
+        }));
+        ownExecutor = true;
+        window = numThreads * RECORDS_PER_THREAD;
+    }
+
+    /**
+     * Create a parallel SEED import director for the indicated builder,
+     * parsing data records on the tasks of <b>executor</b>, which is left
+     * running by shutdown().
+     */
+    public ParallelSeedImportDirector (ObjectBuilder builder, ExecutorService executor) {
+        super(builder);
+        this.executor = executor;
+        window = Runtime.getRuntime().availableProcessors() * RECORDS_PER_THREAD;
+    }
+
+    // public methods
+
+    /**
+     * Set the number of records framed ahead of the record being built.
+     * Framed records are held as copies, so this bounds the memory used;
+     * of a data record that the registered filters reject by its header,
+     * only the header is copied.
+     */
+    public void setWindow (int records) {
+        window = Math.max(1, records);
+    }
+
+    /**
+     * Open the input stream for reading.
+     */
+    public void open (InputStream inStream) throws Exception {
+        pending.clear();
+        super.open(inStream);
+    }
+
+    /**
+     * Open a file channel for reading through memory mapping.
+     */
+    public void open (FileChannel channel) throws Exception {
+        pending.clear();
+        super.open(channel);
+    }
+
+    /**
+     * Open a channel for reading.
+     */
+    public void open (ReadableByteChannel channel) throws Exception {
+        pending.clear();
+        super.open(channel);
+    }
+
+    /**
+     * Close the input stream as ImportDirector.closeInput() does.  Records
+     * framed but not yet read are dropped.
+     */
+    public void closeInput () throws IOException {
+        for (PendingRecord p : pending) {
+            if (p.parsed != null) p.parsed.cancel(false);
+        }
+        pending.clear();
+        super.closeInput();
+    }
+
+    /**
+     * Stop the worker threads, if they were created by this director.
+     */
+    public void shutdown () {
+        if (ownExecutor) executor.shutdown();
+    }
+
+    /**
+     * Read a single record from the input and build objects, in input
+     * order, while the data records framed after it are parsed.
+     * Returns true if data was read in.
+     * <b>storeFlag</b> whether to tell the ObjectBuilder to store()
+     * built objects or not.  Set to TRUE to store objects.
+     */
+    public boolean read (boolean storeFlag) throws Exception {
+        outputString = null;  // reset to null
+        if (!streamOpen) {
+            throw new SeedInputException("read called while input stream not open");
+        }
+        frameRecords();
+        PendingRecord next = pending.poll();
+        if (next == null) return false;  // no more records to read
+        record = next.record;
+        recordStart = 0;
+        recLen = next.record.length;
+        recordOffset = 0;
+        SeedObjectBuilder seedBuilder = (builder instanceof SeedObjectBuilder) ? (SeedObjectBuilder) builder : null;
+        if (seedBuilder != null) seedBuilder.setParsedRecord(next.getParsed(), next.version);
+        try {
+            buildRecord(storeFlag);
+        } finally {
+            if (seedBuilder != null) seedBuilder.setParsedRecord(null, 0F);
+        }
+        return true;   // record read successfully
+    }
+
+    // private methods
+
+    /**
+     * Frame records from the input until the window is full, copying each
+     * out of the read buffer and starting the parse of data records.
+     */
+    private void frameRecords () throws Exception {
+        SeedObjectBuilder seedBuilder = (builder instanceof SeedObjectBuilder) ? (SeedObjectBuilder) builder : null;
+        while (pending.size() < window && getRecord()) {
+            char recordType = (char) record[recordStart + 6];
+            boolean dataRecord = seedBuilder != null && recLen >= 48 && isDataRecordType(recordType);
+            if (dataRecord && seedBuilder.isFsdhFiltered(record, recordStart + 8, recordType)) {
+                // the filters reject it whatever the SEED version, so only the
+                // header is kept for the builder to pass over in order
+                pending.add(new PendingRecord(Arrays.copyOfRange(record, recordStart, recordStart + 48)));
+                continue;
+            }
+            PendingRecord p = new PendingRecord(Arrays.copyOfRange(record, recordStart, recordStart + recLen));
+            if (dataRecord) {
+                p.version = seedBuilder.getSeedVersion();
+                p.parsed = executor.submit(new DataRecordParser(p.record, p.version));
+            }
+            pending.add(p);
+        }
+    }
+
+    // inner classes
+
+    /**
+     * A framed record waiting to be built, with its parse if it is a
+     * data record.
+     */
+    private static class PendingRecord {
+
+        PendingRecord (byte[] record) {
+            this.record = record;
+        }
+
+        /**
+         * Return the blockettes parsed from the record, or null if it was
+         * not parsed or the parse failed, in which case the builder parses
+         * it again and reports any error in order.
+         */
+        Blockette[] getParsed () throws InterruptedException {
+            if (parsed == null) return null;
+            try {
+                return parsed.get();
+            } catch (ExecutionException e) {
+                return null;
+            }
+        }
+
+        final byte[] record;              // copy of the whole record
+        Future<Blockette[]> parsed = null;  // parse of a data record
+        float version = 0F;               // SEED version the record is parsed as
+    }
+
+    /**
+     * Parses one data record on a worker thread.
+     */
+    private static class DataRecordParser implements Callable<Blockette[]> {
+
+        DataRecordParser (byte[] record, float version) {
+            this.record = record;
+            this.version = version;
+        }
+
+        public Blockette[] call () throws Exception {
+            return SeedObjectBuilder.parseDataRecord(record, 0, record.length, version);
+        }
+
+        private final byte[] record;
+        private final float version;
+    }
+
+    // instance variables
+
+    private final ExecutorService executor;    // runs the data record parses
+    private boolean ownExecutor = false;       // true if the executor was created here
+    private int window;                        // records framed ahead at most
+    private final ArrayDeque<PendingRecord> pending = new ArrayDeque<PendingRecord>();  // framed records in input order
+    private static final int RECORDS_PER_THREAD = 16;  // default window per worker
+    private static final AtomicInteger workerCount = new AtomicInteger();  // numbers the worker threads
+
+}
@@ -2,6 +2,8 @@ package edu.iris.Fissures.seed.director;
 
 import edu.iris.Fissures.seed.exception.*;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.util.*;
 
 /**
@@ -17,7 +19,11 @@ import java.util.*;
  * Outside routines will examine the buffer and decide where to stop reading, 
  * whether it is at the edge of a logical record, or otherwise.<br>
  * When a portion of the buffer has been read, this class can be told to shift 
- * the data by that amount to allow space for more data to be read in.<br>
+ * past that amount.  Data is not moved on a shift: the unread data starts at
+ * index {@link #offset()} of the buffer, so callers can work on records in
+ * place.  Unread data is moved to the front of the buffer only when a fill
+ * finds less than a minimum length left, so each byte is moved at most about
+ * once.<br>
  * A good recommendation is to make the buffer size two times the expected 
  * logical record length.
  * @author Robert Casey, IRIS DMC
@@ -32,10 +38,21 @@ public class ReadBuffer {
 	 * @param bufSize buffer size in bytes
 	 */
 	public ReadBuffer (int bufSize) {
+		this(bufSize, bufSize/2);
+	}	
+
+	/**
+	 * Create a ReadBuffer with the specified buffer size that refills
+	 * whenever fewer than <b>minLength</b> bytes are left unread.
+	 * @param bufSize buffer size in bytes
+	 * @param minLength number of unread bytes below which {@link #fill} reads
+	 * more data, at most <b>bufSize</b>
+	 */
+	public ReadBuffer (int bufSize, int minLength) {
 		buffer = new byte[bufSize];
-		Arrays.fill(buffer,(byte) 0);
 		this.bufSize = bufSize;  // record the buffer size
-	}	
+		this.minLength = Math.min(minLength, bufSize);
+	}
 
 
 	/**
@@ -56,6 +73,24 @@ public class ReadBuffer {
 		return dataLength;
 	}
 
+	/**
+	 * Return the index in the buffer of the first unread byte.
+	 * @return offset of the data currently in buffer
+	 */
+	public int offset() {
+		return start;
+	}
+
+	/**
+	 * Return the array holding the buffered data, which starts at index
+	 * {@link #offset()} and runs for {@link #length()} bytes.  The contents
+	 * are only valid until the next call to {@link #fill} or {@link #compact}.
+	 * @return the buffer array
+	 */
+	public byte[] array() {
+		return buffer;
+	}
+
 	/**
 	  * Return the size of the buffer.
 	  * @return size of the buffer in bytes
@@ -65,7 +100,10 @@ public class ReadBuffer {
 	}
 
 	/**
-	 * Fill the empty space of the buffer with new data
+	 * Fill the empty space of the buffer with new data, if fewer than the
+	 * minimum length of unread bytes are present.  The unread data is moved
+	 * to the start of the buffer first.  Once the end of the stream is
+	 * reached, the buffer past the data reads as zeros.
 	 * @param inStream input stream to fill the buffer with
 	 * @throws SeedInputException if bufSize is less than dataLength
 	 * @throws IOException
@@ -77,13 +115,15 @@ public class ReadBuffer {
 			throw new SeedInputException("bufSize less than dataLength");
 		}
 		// read more data from stream if there is still more data
-		if (! reachedEOF() ) {
+		if (! reachedEOF() && dataLength < minLength) {
+			compact();
 			// check to see what is available, if it is smaller than the empty
 			// buffer space, only read back that much then and flag EOF
 			// if there is 0 bytes left in the stream, then flag EOF and simply return
 			int available = inStream.available();
 			if (available == 0) {
 				reachedEOF = true;
+				Arrays.fill(buffer,dataLength,bufSize,(byte) 0);  // nothing follows the data
 				return;
 			}
 			if (available < emptySpace) {
@@ -92,24 +132,85 @@ public class ReadBuffer {
 			}
 			inStream.readFully(buffer,dataLength,emptySpace);  // read in the data with offset and len
 			dataLength += emptySpace;  // increment the available data length
+			if (reachedEOF) Arrays.fill(buffer,dataLength,bufSize,(byte) 0);  // nothing follows the data
 			return;
 		}
 		}
 
+	/**
+	 * Fill the empty space of the buffer with new data from a memory mapped
+	 * file, if fewer than the minimum length of unread bytes are present.
+	 * The end of the input is reached when the file has no bytes left.
+	 * @param input mapped file to fill the buffer with
+	 * @throws SeedInputException if bufSize is less than dataLength
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public void fill(MappedFileInput input)
+		throws SeedException, IOException {
+		if (bufSize < dataLength) {
+			throw new SeedInputException("bufSize less than dataLength");
+		}
+		if (! reachedEOF() && dataLength < minLength) {
+			compact();
+			dataLength += input.read(buffer,dataLength,bufSize-dataLength);
+			if (input.remaining() == 0) {
+				reachedEOF = true;
+				Arrays.fill(buffer,dataLength,bufSize,(byte) 0);  // nothing follows the data
+			}
+		}
+	}
+
+	/**
+	 * Fill the empty space of the buffer with new data from a channel, if
+	 * fewer than the minimum length of unread bytes are present.  The
+	 * channel is read until the buffer is full or a read returns -1, the
+	 * end of the input; a channel in blocking mode is expected.
+	 * @param channel channel to fill the buffer with
+	 * @throws SeedInputException if bufSize is less than dataLength
+	 * @throws IOException
+	 */
+	public void fill(ReadableByteChannel channel)
+		throws SeedException, IOException {
+		if (bufSize < dataLength) {
+			throw new SeedInputException("bufSize less than dataLength");
+		}
+		if (! reachedEOF() && dataLength < minLength) {
+			compact();
+			ByteBuffer target = ByteBuffer.wrap(buffer,dataLength,bufSize-dataLength);
+			while (target.hasRemaining()) {
+				if (channel.read(target) < 0) {
+					reachedEOF = true;
+					break;
+				}
+			}
+			dataLength = target.position();
+			if (reachedEOF) Arrays.fill(buffer,dataLength,bufSize,(byte) 0);  // nothing follows the data
+		}
+	}
+
+	/**
+	 * Move the unread data to the start of the buffer, so that
+	 * {@link #offset()} is 0.
+	 */
+	public void compact () {
+		if (start > 0) {
+			System.arraycopy(buffer,start,buffer,0,dataLength);
+			if (reachedEOF) Arrays.fill(buffer,dataLength,start+dataLength,(byte) 0);  // keep zeros past the data
+			start = 0;
+		}
+	}
+
 
 	/**
-	 * Left-shift the data in the buffer by a certain number of bytes to
-	 * make room for new incoming data
+	 * Skip past a certain number of bytes of read data.  No data is moved;
+	 * the space is reclaimed by a later {@link #fill}.
 	 * @param amount number of bytes to shift the buffer by
 	 */
 	public void shift (int amount) {
-		// shift all of the existing data by amount
-		System.arraycopy(buffer,amount,buffer,0,bufSize-amount);
-		// pad the remaining gap with zeroes
-		Arrays.fill(buffer,bufSize-amount,bufSize,(byte) 0);
+		if (amount > dataLength) amount = dataLength;  // a very large 'amount' value could do this
+		start += amount;
 		// deduct dataLength by shift amount
 		dataLength -= amount;
-		if (dataLength < 0) dataLength = 0;  // a very large 'amount' value could do this
 	}
 
 
@@ -127,7 +228,9 @@ public class ReadBuffer {
 	 * Buffer holding the data from the input stream
 	 */
 	protected byte[] buffer; 
+	private int start = 0;        // index of the first unread byte
 	private int dataLength = 0;   // the number of data bytes present in the buffer
+	private int minLength = 0;    // fill only when fewer unread bytes than this
 	private int bufSize = 0;      // the capacity, in bytes, of the buffer
 	/**
 	 * Default buffer capacity (32768)
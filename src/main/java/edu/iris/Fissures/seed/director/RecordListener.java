@@ -0,0 +1,33 @@
+package edu.iris.Fissures.seed.director;
+
+import edu.iris.Fissures.seed.container.*;
+import java.util.List;
+
+/**
+ * Receiver of the objects built from a SEED stream, record by record, as
+ * read by a SeedStreamImportDirector.
+ * <p>
+ * The blockettes handed to a listener are only valid for the duration of the
+ * call.  The builder reuses them for the records that follow, so a listener
+ * that needs one later must copy it.  Waveform objects are built anew for
+ * each data record and may be kept.
+ * @version 10/16/2026
+ */
+public interface RecordListener {
+
+    /**
+     * Receive a completed control header blockette, such as a volume,
+     * dictionary, station or time span blockette.  Blockettes continued
+     * over several records arrive once complete, with the record that
+     * completes them.
+     */
+    public void onControlBlockette(Blockette blockette) throws Exception;
+
+    /**
+     * Receive a data record: its Fixed Section of Data Header as blockette
+     * 999, the data blockettes that follow it, in record order, and its
+     * waveform, which is null if the record has no data section.
+     */
+    public void onDataRecord(Blockette fsdh, List<Blockette> dataBlockettes, Waveform waveform) throws Exception;
+
+}
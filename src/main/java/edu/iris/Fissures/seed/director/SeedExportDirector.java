@@ -190,14 +190,10 @@ public class SeedExportDirector extends ExportDirector {
 						// DEBUG
 						System.err.println("Warning: waveform == null in Director");
 					} else {
-						// copy the encoded bytes to a new array
-						byte[] wavebytes = waveform.getEncodedBytes();
-						byte[] newWavebytes = new byte[wavebytes.length];
-						System.arraycopy(wavebytes,0,newWavebytes,0,wavebytes.length);
-						
-						// attach waveform copy to FSDH Blockette
-						newBlockette.attachWaveform(new Waveform(newWavebytes,0,waveform.getNumSamples(),
-								waveform.getEncoding(),waveform.getSwapBytes()));
+						// attach a pass-through copy of the waveform to the FSDH Blockette.
+						// the encoded bytes are shared, not copied, since the export builder
+						// writes them out verbatim and only regenerates the record header.
+						newBlockette.attachWaveform(new Waveform(waveform));
 						//System.err.println("DEBUG: attached non-null waveform to newBlockette: " +
 						//        wavebytes.length + "bytes");
 					}
@@ -0,0 +1,74 @@
+package edu.iris.Fissures.seed.director;
+
+/**
+ * Interfaces for publishing records with flow control, with the same
+ * methods and contract as java.util.concurrent.Flow of Java 9 and the
+ * Reactive Streams specification, for use on Java 8.  Adapting a
+ * Publisher to either is a matter of forwarding each call.
+ * @version 10/16/2026
+ */
+public final class SeedFlow {
+
+    private SeedFlow () {
+    }
+
+    /**
+     * A producer of items received by Subscribers, each of which gets
+     * items only as it requests them.
+     */
+    public static interface Publisher<T> {
+
+        /**
+         * Add <b>subscriber</b>, which is called with onSubscribe() and then
+         * with items, an error or completion as it requests them.
+         */
+        public void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * A receiver of items.  Its methods are called in order, never
+     * concurrently, for each Subscription.
+     */
+    public static interface Subscriber<T> {
+
+        /**
+         * Called before any other method for a new Subscription.  No items
+         * are received until the Subscription's request() is called.
+         */
+        public void onSubscribe(Subscription subscription);
+
+        /**
+         * Receive the next item.
+         */
+        public void onNext(T item);
+
+        /**
+         * Called when the Subscription has failed.  No other call follows.
+         */
+        public void onError(Throwable throwable);
+
+        /**
+         * Called when there are no more items.  No other call follows.
+         */
+        public void onComplete();
+    }
+
+    /**
+     * The link between a Publisher and one of its Subscribers.
+     */
+    public static interface Subscription {
+
+        /**
+         * Add <b>n</b> items to the number the Subscriber is ready to
+         * receive.  A value of 0 or less signals onError().
+         */
+        public void request(long n);
+
+        /**
+         * Stop sending items.  Some may still arrive before this takes
+         * effect.
+         */
+        public void cancel();
+    }
+
+}
@@ -3,7 +3,9 @@ package edu.iris.Fissures.seed.director;
 import edu.iris.Fissures.seed.builder.*;
 import edu.iris.Fissures.seed.container.*;
 import edu.iris.Fissures.seed.exception.*;
+import edu.iris.Fissures.seed.util.Utility;
 import java.io.*;
+import java.nio.channels.*;
 
 
 
@@ -39,46 +41,74 @@ public class SeedImportDirector extends ImportDirector {
     
     // public methods
     
+    /**
+     * Open the input stream for reading.  Record lengths detected in a
+     * previous stream are forgotten.
+     */
+    public void open (InputStream inStream) throws Exception {
+        dataRecordLength = 0;
+        controlRecordLength = 0;
+        super.open(inStream);
+    }
+
+    /**
+     * Open a file channel for reading through memory mapping.  Record
+     * lengths detected in a previous input are forgotten.
+     */
+    public void open (FileChannel channel) throws Exception {
+        dataRecordLength = 0;
+        controlRecordLength = 0;
+        super.open(channel);
+    }
+
+    /**
+     * Open a channel for reading.  Record lengths detected in a previous
+     * input are forgotten.
+     */
+    public void open (ReadableByteChannel channel) throws Exception {
+        dataRecordLength = 0;
+        controlRecordLength = 0;
+        super.open(channel);
+    }
+
     /**
      * Get the length of the next SEED record currently in the read buffer. 
+     * Data records with a blockette 1000 report their own length.  Otherwise
+     * the length last detected for the same kind of record, data or control
+     * header, is used as long as a record boundary follows it and none comes
+     * sooner, and the buffer is only scanned for a boundary when it does not.
      */
     public int getRecLen() throws Exception {
         // check for fixed record length first...return that value if set
         if (fixedRecordLength > 0) return fixedRecordLength;
 
-        // first, let's try the most common record lengths, based on the
-        // 'current' record type
-        char recordType = (char) readBuffer.buffer[6];
-        if (recordType == 'D' || recordType == 'R' || recordType == 'Q' || recordType == 'M') {
-            // data records are typically 512, 1024, and 4096 bytes in length
-            int[] tryLen = {512,1024,4096};
-            for(int i = 0; i < tryLen.length; i++)
-                if (checkRecordBoundary(readBuffer.buffer,tryLen[i]))
-                    return tryLen[i];
+        byte[] buffer = readBuffer.array();
+        int base = readBuffer.offset();  // records are read in place, starting here
+        int bufferLength = readBuffer.length();  // sample the length of record currently present
+        char recordType = (bufferLength > 6) ? (char) buffer[base+6] : 0;
+        boolean dataRecord = isDataRecordType(recordType);
+        boolean controlRecord = isControlRecordType(recordType);
+        if (dataRecord) {
+            // the record length exponent of blockette 1000 settles it
+            int b1000Length = getBlockette1000RecLen(buffer, base, bufferLength);
+            if (b1000Length > 0 && b1000Length <= bufferLength) {
+                dataRecordLength = b1000Length;
+                return b1000Length;
+            }
         }
-        if (recordType == 'V' || recordType == 'A' || recordType == 'S' || recordType == 'T') {
-            // header control records are nearly always 4096 bytes in length
-                if (checkRecordBoundary(readBuffer.buffer,4096))
-                    return 4096;
+        // the length detected for the last record of this kind is the most likely
+        int cachedLength = dataRecord ? dataRecordLength : (controlRecord ? controlRecordLength : 0);
+        if (cachedLength > 0 && cachedLength < bufferLength && checkRecordBoundary(cachedLength)
+                && !shorterBoundary(cachedLength)) {
+            return cachedLength;
         }
-        // this is very conservative record length scanning
-        // use as a fallback only
-        int recLen = 256;
-        int bufferLength = readBuffer.length();  // sample the length of record currently present
-        // loop by powers of two until we find a record boundary or reach the max record length
-        while (recLen < bufferLength) {
-            //System.err.println("DEBUG: check recLen=" + recLen + ", bufferLength=" + bufferLength);
-            if (checkRecordBoundary(readBuffer.buffer,recLen)) break;
-            recLen *= 2;
+        int recLen = scanRecLen(recordType, bufferLength);
+        if (dataRecord) {
+            dataRecordLength = recLen;
+        } else if (controlRecord) {
+            controlRecordLength = recLen;
         }
-        if (recLen > bufferLength || recLen > maxRecordLength)
-            throw new SeedInputException("unable to determine record length (recLen=" + recLen +
-                    ", maxRecordLength=" + maxRecordLength +
-                    ", bufferLength=" + bufferLength + ")");
-        return recLen;  // recLen could very well equal bufferLength
-
-
-
+        return recLen;
     }
     
     // private/protected methods
@@ -96,28 +126,28 @@ public class SeedImportDirector extends ImportDirector {
         if (recordOffset == 0) {
             //System.err.println("DEBUG: director - start of new record...recordOffset == 8");
             builder.setRecordBeginFlag(true);  // we are at the beginning of a record...flag this
-            continuationFlag = (record[7] == '*');  // continuation flag (boolean check for asterisk)
+            continuationFlag = (record[recordStart+7] == '*');  // continuation flag (boolean check for asterisk)
             recordOffset = 8; // forward the record offset index to 8 to compensate for record identifier block
         }
         if (record == null) {
             throw new BuilderException("import record is null");
         }
-        if (record.length <= recordOffset) {
+        if (recLen <= recordOffset) {
             throw new BuilderException("insufficient import record length");
         }
         if (recordOffset < 0) {
             throw new BuilderException("record offset less than 0");
         }
         //System.err.println("DEBUG: build():recordOffset=" + recordOffset + ", record=" + record);
-        // get the record section that we are passing to the builder
-        byte[] recordSection = new byte[record.length-recordOffset];  // remainder of the record length
-        // copy record started at recordOffset into recordSection for the remainder of the record length
-        System.arraycopy(record,recordOffset,recordSection,0,recordSection.length);
+        // the record section that we are passing to the builder is the remainder of the
+        // record from recordOffset, viewed in place in the record array
+        int sectionStart = recordStart + recordOffset;
+        int sectionLength = recLen - recordOffset;
 
-        //System.err.println("DEBUG: director.build(): " + new String(recordSection));
+        //System.err.println("DEBUG: director.build(): " + new String(record,sectionStart,sectionLength));
 
         // call the registered builder and get the number of bytes consumed
-        builder.setRecordType(record[6]);               // can represent data quality as well
+        builder.setRecordType(record[recordStart+6]);               // can represent data quality as well
         builder.setContinuationFlag(continuationFlag);
         if (debug) System.err.println("DEBUG: Director - set builder ContinuationFlag to: " + continuationFlag);
         if (! continuationFlag) {
@@ -129,14 +159,14 @@ public class SeedImportDirector extends ImportDirector {
 
         // if this record section starts out with blanks, then we end parsing the record here.
         int i;
-        for (i = 0; i < 5 && i < recordSection.length; i++) {
-            if (recordSection[i] != 32 && recordSection[i] != 0) break;
+        for (i = 0; i < 5 && i < sectionLength; i++) {
+            if (record[sectionStart+i] != 32 && record[sectionStart+i] != 0) break;
         }
         int numBytes = 0;
-        if (i == 5 || i == recordSection.length) {
+        if (i == 5 || i == sectionLength) {
             // too many blanks...end of record
             //System.err.println("DEBUG: blanks found -- skip to end of record");
-            numBytes = recordSection.length;
+            numBytes = sectionLength;
             // so that it doesn't appear that we have created a new object, command the
             // builder to blank-out it's current object holder
             builder.removeCurrent();
@@ -150,14 +180,14 @@ public class SeedImportDirector extends ImportDirector {
             // builder blockette
             bType = 0;
             stageNum = -1;
-            if (!continuationFlag && recordSection.length > 9) {  // record must be 10 or greater to do this
+            if (!continuationFlag && sectionLength > 9) {  // record must be 10 or greater to do this
                 Integer bTypeInt = null;
-                if (record[6] == 'D' || record[6] == 'R' || record[6] == 'M' || record[6] == 'Q') {
+                if (isDataRecordType((char) record[recordStart+6])) {
                     // a data record
                     bType = 999;
                 } else {
                     // a header record
-                    bTypeInt = new Integer(new String(recordSection,0,3).trim());  // get the first three bytes as a String
+                    bTypeInt = new Integer(new String(record,sectionStart,3).trim());  // get the first three bytes as a String
                     if (bTypeInt != null) {
                       bType = bTypeInt.intValue();
                     }
@@ -172,7 +202,7 @@ public class SeedImportDirector extends ImportDirector {
                     }
                     //System.err.println("DEBUG: director - bType = " + bType + ", stageOffset = " + stageOffset);
                     if (stageOffset > 0) {
-                        Integer stageNumInt = new Integer(new String(recordSection,stageOffset,2).trim());  // get the stage number bytes
+                        Integer stageNumInt = new Integer(new String(record,sectionStart+stageOffset,2).trim());  // get the stage number bytes
                         stageNum = stageNumInt.intValue();
                         if (stageNum > -1) {
                             // compare the current btype and stage number to the previous
@@ -191,9 +221,9 @@ public class SeedImportDirector extends ImportDirector {
                 prevBType = bType;  // remember the blockette type we just looked at
                 prevStageNum = stageNum;  // remember the stage number of this blockette (could be -1)
             }
-            //if (recordSection != null) System.err.println("DEBUG: director calling builder.build()");
+            //System.err.println("DEBUG: director calling builder.build()");
             // build the blockette and get number of bytes read -- fed to ImportDirector.read()
-            numBytes = builder.build(recordSection);   
+            numBytes = builder.build(record, sectionStart, sectionLength);
             if (debug) System.err.println("DEBUG:  director: consumed " + numBytes + " bytes");
         }
         if (numBytes < 0) throw new BuilderException("number of bytes is less than zero");
@@ -201,13 +231,100 @@ public class SeedImportDirector extends ImportDirector {
     }
     
     /**
-     * Look for the record boundary at the indicated offset.
+     * Find the length of the record in the read buffer by probing for the
+     * start of the next record.
+     */
+    private int scanRecLen(char recordType, int bufferLength) throws Exception {
+        // first, let's try the most common record lengths, based on the
+        // 'current' record type
+        if (isDataRecordType(recordType)) {
+            // data records are typically 512, 1024, and 4096 bytes in length
+            for(int i = 0; i < COMMON_DATA_LENGTHS.length; i++)
+                if (checkRecordBoundary(COMMON_DATA_LENGTHS[i]))
+                    return COMMON_DATA_LENGTHS[i];
+        }
+        if (isControlRecordType(recordType)) {
+            // header control records are nearly always 4096 bytes in length
+                if (checkRecordBoundary(4096))
+                    return 4096;
+        }
+        // this is very conservative record length scanning
+        // use as a fallback only
+        int recLen = 256;
+        // loop by powers of two until we find a record boundary or reach the max record length
+        while (recLen < bufferLength) {
+            //System.err.println("DEBUG: check recLen=" + recLen + ", bufferLength=" + bufferLength);
+            if (checkRecordBoundary(recLen)) break;
+            recLen *= 2;
+        }
+        if (recLen > bufferLength || recLen > maxRecordLength)
+            throw new SeedInputException("unable to determine record length (recLen=" + recLen +
+                    ", maxRecordLength=" + maxRecordLength +
+                    ", bufferLength=" + bufferLength + ")");
+        return recLen;  // recLen could very well equal bufferLength
+    }
+
+    /**
+     * Return true if a record boundary lies halfway to <b>recLen</b>.  Record
+     * lengths are powers of two, so a record shorter than <b>recLen</b> that
+     * is followed by more records of its length always puts one there.
+     */
+    private boolean shorterBoundary(int recLen) throws Exception {
+        int half = recLen / 2;
+        return half >= 256 && checkRecordBoundary(half);
+    }
+
+    /**
+     * Return the record length given by the blockette 1000 of the data record
+     * at index <b>base</b> of the buffer, or 0 if the record has no usable
+     * blockette 1000.
+     */
+    private int getBlockette1000RecLen(byte[] buffer, int base, int bufferLength) {
+        if (bufferLength < 48) return 0;
+        // binary header fields are in the word order of the start time year
+        boolean swapFlag = isSwapped(buffer, base+20);
+        int numBlockettes = buffer[base+39] & 0xff;
+        int next = Utility.uBytesToInt(buffer[base+46], buffer[base+47], swapFlag);  // first blockette offset
+        int limit = Math.min(bufferLength, maxRecordLength);
+        for (int i = 0; i < numBlockettes && next >= 48 && next + 8 <= limit; i++) {
+            int b = base + next;
+            if (Utility.uBytesToInt(buffer[b], buffer[b+1], swapFlag) == 1000) {
+                int exponent = buffer[b+6] & 0xff;
+                if (exponent < 8 || exponent > 30 || (1 << exponent) > maxRecordLength) return 0;
+                return 1 << exponent;
+            }
+            int following = Utility.uBytesToInt(buffer[b+2], buffer[b+3], swapFlag);
+            if (following <= next) return 0;  // chain must move forward
+            next = following;
+        }
+        return 0;
+    }
+
+    /**
+     * Look for the record boundary at the indicated offset from the start of
+     * the data in the read buffer.  Header bytes past the end of the data
+     * read as zeros.
+     * Return true if a new record is detected at the offset byte in the buffer.
+     */
+    private boolean checkRecordBoundary(int offset) throws Exception {
+        int available = readBuffer.length() - offset;
+        if (available >= HEADER_PROBE_LENGTH) {
+            return checkRecordBoundary(readBuffer.array(), readBuffer.offset() + offset);
+        }
+        byte[] header = new byte[HEADER_PROBE_LENGTH];  // only near the end of the input
+        if (available > 0) {
+            System.arraycopy(readBuffer.array(), readBuffer.offset() + offset, header, 0, available);
+        }
+        return checkRecordBoundary(header, 0);
+    }
+
+    /**
+     * Look for the record boundary at the indicated index of the buffer.
      * Return true if a new record is detected at the offset byte in the buffer.
      */
     private boolean checkRecordBoundary(byte[] buffer, int offset) throws Exception {
         char recordType = (char) buffer[offset+6];
         char contFlag = (char) buffer[offset+7];
-        byte[] tempTime = new byte[10];
         int i;
         // the first six bytes should be ascii digits
         // note: relaxing requirements a bit and allowing nulls
@@ -220,7 +337,8 @@ public class SeedImportDirector extends ImportDirector {
 //System.err.println("DEBUG: (1) data record header at offset: " + offset);
                 int start = 8;
                 // special case for PFO_T, if it matches, then offset + 5 bytes
-                if ( (new String(buffer,offset+8,5)).compareTo("PFO_T") == 0 ) start = 13;
+                if (buffer[offset+8] == 'P' && buffer[offset+9] == 'F' && buffer[offset+10] == 'O'
+                        && buffer[offset+11] == '_' && buffer[offset+12] == 'T') start = 13;
                 // scan station, location, channel, and network fields
                 for (i = start; i < 20; i++) {
                     // they must all be either space or capital-alpha or digit
@@ -230,9 +348,7 @@ public class SeedImportDirector extends ImportDirector {
                 }
                 //System.err.println("DEBUG: (2) passed alpha/digit check");
                 // do a time string check to see if we have reasonable values
-                System.arraycopy(buffer,offset+20,tempTime,0,10);
-                Btime timeVal = new Btime(tempTime);
-                if (timeVal.getError().length() > 0) return false;  // improper time string
+                if (!isValidTime(buffer,offset+20)) return false;  // improper time string
 //System.err.println("DEBUG: (3) passed time check");
             } else if (i == 6 && buffer[offset+7] == '*') {
                 // did they put a continuation field here?
@@ -287,6 +403,45 @@ public class SeedImportDirector extends ImportDirector {
         return false;  // this is not a recognizable SEED record
     }
     
+    /**
+     * Return true if the record type is that of a data record.
+     */
+    static boolean isDataRecordType (char recordType) {
+        return recordType == 'D' || recordType == 'R' || recordType == 'Q' || recordType == 'M';
+    }
+
+    /**
+     * Return true if the record type is that of a control header record.
+     */
+    private static boolean isControlRecordType (char recordType) {
+        return recordType == 'V' || recordType == 'A' || recordType == 'S' || recordType == 'T';
+    }
+
+    /**
+     * Return true if the BTIME at the offset is in VAX/8086 word order,
+     * judged from its year as Btime does.
+     */
+    private static boolean isSwapped (byte[] buffer, int offset) {
+        int year = Utility.uBytesToInt(buffer[offset], buffer[offset+1], false);  // test 68000 word order case
+        return (year < 1900 || year > 2050);
+    }
+
+    /**
+     * Return true if the BTIME at the offset has field values that Btime
+     * accepts without format errors.
+     */
+    private static boolean isValidTime (byte[] buffer, int offset) {
+        boolean swapFlag = isSwapped(buffer, offset);
+        int year = Utility.uBytesToInt(buffer[offset], buffer[offset+1], swapFlag);
+        int jday = Utility.uBytesToInt(buffer[offset+2], buffer[offset+3], swapFlag);
+        int hour = buffer[offset+4] & 0xff;
+        int min = buffer[offset+5] & 0xff;
+        int sec = buffer[offset+6] & 0xff;
+        int tenthMilli = Utility.uBytesToInt(buffer[offset+8], buffer[offset+9], swapFlag);
+        return year >= 1900 && year <= 9999 && jday >= 1 && jday <= 366 && hour <= 23
+                && min <= 59 && sec <= 59 && tenthMilli <= 9999;
+    }
+
     /**
      * Return true if the provided byte represents an ASCII digit character.
      */
@@ -503,6 +658,10 @@ public class SeedImportDirector extends ImportDirector {
     // Instance Variables
     protected int bType = 0, prevBType = 0;
     protected int stageNum = 0, prevStageNum = 0;
+    private int dataRecordLength = 0;      // length of the last data record, 0 if not yet known
+    private int controlRecordLength = 0;   // length of the last control header record, 0 if not yet known
+    private static final int[] COMMON_DATA_LENGTHS = {512,1024,4096};  // data record lengths to try first
+    private static final int HEADER_PROBE_LENGTH = 48;  // bytes examined by a record boundary check
     
     private boolean debug = false;   // set to true if you want debug output to be displayed
 
@@ -0,0 +1,93 @@
+package edu.iris.Fissures.seed.director;
+
+import edu.iris.Fissures.seed.builder.*;
+import edu.iris.Fissures.seed.container.*;
+import edu.iris.Fissures.seed.exception.*;
+import java.util.List;
+
+/**
+ * SEED import director that hands the objects built from each record to a
+ * RecordListener instead of storing them in a container.
+ * <p>
+ * Once a record has been read, the listener is called for each control
+ * header blockette the record completed and then, for a data record, once
+ * with its FSDH, data blockettes and waveform.  The builder must be a
+ * SeedStreamBuilder, which keeps nothing past the record being read and
+ * reuses the blockettes of one data record for the next, so volumes or
+ * record streams of any length are read in constant memory.  Filters
+ * registered with the builder apply as with any import; objects they
+ * reject never reach the listener.
+ * <p>
+ * Records are read with the usual construct() and read() calls.  A
+ * read(false) builds the record without calling the listener.
+ * @version 10/16/2026
+ */
+public class SeedStreamImportDirector extends SeedImportDirector {
+
+    /**
+     * Create a streaming SEED import director calling <b>listener</b>, with
+     * a SeedStreamBuilder of its own.
+     */
+    public SeedStreamImportDirector (RecordListener listener) {
+        this(new SeedStreamBuilder(), listener);
+    }
+
+    /**
+     * Create a streaming SEED import director for the indicated builder,
+     * calling <b>listener</b>.
+     */
+    public SeedStreamImportDirector (SeedStreamBuilder builder, RecordListener listener) {
+        super(builder);
+        this.listener = listener;
+    }
+
+    // public methods
+
+    /**
+     * Set the listener called with the objects built from each record.
+     */
+    public void setListener (RecordListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Get the listener called with the objects built from each record.
+     */
+    public RecordListener getListener () {
+        return listener;
+    }
+
+    // protected methods
+
+    /**
+     * Build objects from the whole of the current record and hand those
+     * stored to the listener.
+     */
+    protected void buildRecord (boolean storeFlag) throws Exception {
+        if (!(builder instanceof SeedStreamBuilder)) {
+            throw new BuilderException("streaming import requires a SeedStreamBuilder");
+        }
+        if (listener == null) {
+            throw new SeedInputException("streaming import has no record listener");
+        }
+        SeedStreamBuilder streamBuilder = (SeedStreamBuilder) builder;
+        try {
+            super.buildRecord(storeFlag);
+            List<Blockette> controlBlockettes = streamBuilder.getControlBlockettes();
+            for (int i = 0; i < controlBlockettes.size(); i++) {
+                listener.onControlBlockette(controlBlockettes.get(i));
+            }
+            Blockette fsdh = streamBuilder.getFsdh();
+            if (fsdh != null) {
+                listener.onDataRecord(fsdh, streamBuilder.getDataBlockettes(), fsdh.getWaveform());
+            }
+        } finally {
+            streamBuilder.endRecord();  // the record's blockettes are free for reuse
+        }
+    }
+
+    // instance variables
+
+    private RecordListener listener;  // receives the objects built from each record
+
+}
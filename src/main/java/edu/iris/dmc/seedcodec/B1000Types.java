@@ -37,6 +37,9 @@ public interface B1000Types {
     /** Steim2 compression */
     public static final int STEIM2 = 11;
     
+    /** US National Network compression */
+    public static final int USNSN = 15;
+
     /** CDSN 16 bit gain ranged */
     public static final int CDSN = 16;
         
@@ -0,0 +1,271 @@
+package edu.iris.dmc.seedcodec;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Decodes the consecutive data records of one channel concurrently into a
+ * single contiguous integer array.
+ * <p>
+ * The output offset of every record is computed up front from the sample
+ * counts, so records are independent of one another and are decoded by
+ * splitting the list into ranges over a {@link ForkJoinPool}.  Each record is
+ * decoded on its own, so difference encodings start from their forward
+ * integration constant X(0) rather than from the previous record.
+ * <p>
+ * The pool is supplied by the caller, so batch decoding does not compete
+ * with unrelated work in the common pool.
+ *
+ * @version 10/16/2026
+ */
+public class BatchDecoder implements B1000Types {
+
+	/**
+	 * Create a batch decoder that runs on the given pool.
+	 * @param pool the pool to decode in
+	 */
+	public BatchDecoder(ForkJoinPool pool) {
+		if (pool == null) {
+			throw new NullPointerException("pool is null");
+		}
+		this.pool = pool;
+	}
+
+	// *** public methods ***
+
+	/**
+	 * Decode the records into a new array holding all of their samples in
+	 * record order.
+	 * @param records descriptors of consecutive records of one channel
+	 * @return int array with the sum of the record sample counts
+	 * @throws CodecException if a record cannot be decoded as integers
+	 */
+	public int[] decode(List<Record> records) throws CodecException {
+		int[] offsets = offsets(records, 0);
+		int[] out = new int[offsets[records.size()]];
+		decode(records, offsets, out);
+		return out;
+	}
+
+	/**
+	 * Decode the records into the caller's array, starting at index
+	 * <b>outOffset</b>.
+	 * @param records descriptors of consecutive records of one channel
+	 * @param out destination array
+	 * @param outOffset index in <b>out</b> of the first sample
+	 * @return the total number of samples decoded
+	 * @throws CodecException if a record cannot be decoded as integers or
+	 * <b>out</b> is too small
+	 */
+	public int decode(List<Record> records, int[] out, int outOffset) throws CodecException {
+		int[] offsets = offsets(records, outOffset);
+		int end = offsets[records.size()];
+		if (end > out.length) {
+			throw new CodecException("Not enough room for " + (end - outOffset)
+					+ " data points, only " + (out.length - outOffset) + " available.");
+		}
+		decode(records, offsets, out);
+		return end - outOffset;
+	}
+
+	/**
+	 * Set the number of samples below which a range of records is decoded
+	 * in the current task instead of being split further.
+	 * @param samples minimum samples per task
+	 */
+	public void setSplitThreshold(int samples) {
+		splitThreshold = Math.max(1, samples);
+	}
+
+	// *** private methods ***
+
+	/**
+	 * Return the output index of each record, plus the end index of the last.
+	 */
+	private static int[] offsets(List<Record> records, int outOffset) throws CodecException {
+		int[] offsets = new int[records.size() + 1];
+		long index = outOffset;
+		for (int i = 0; i < records.size(); i++) {
+			offsets[i] = (int) index;
+			index += records.get(i).numSamples;
+			if (index > Integer.MAX_VALUE) {
+				throw new CodecException("batch of " + records.size()
+						+ " records has more samples than fit in an array");
+			}
+		}
+		offsets[records.size()] = (int) index;
+		return offsets;
+	}
+
+	private void decode(List<Record> records, int[] offsets, int[] out) throws CodecException {
+		checkTypes(records);
+		try {
+			pool.invoke(new DecodeTask(records, offsets, out, 0, records.size()));
+		} catch (RecordFailure e) {
+			throw batchException(e.index, e.getCause());
+		}
+	}
+
+	/**
+	 * Check that every record decodes to integers, so that an unknown
+	 * encoding fails before any record is decoded into the output array.
+	 * The Codec resolves encodings against the default registry before its
+	 * built-in decoders, so registered and standard encodings are checked
+	 * alike.
+	 */
+	private static void checkTypes(List<Record> records) throws CodecException {
+		Codec codec = new Codec();
+		for (int i = 0; i < records.size(); i++) {
+			int type = records.get(i).type;
+			try {
+				int decompressedType = codec.getDecompressedType(type);
+				if (decompressedType != INTEGER && decompressedType != SHORT) {
+					throw new UnsupportedCompressionType("Type " + type
+							+ " does not decompress to 32 bit integers.");
+				}
+			} catch (CodecException e) {
+				throw batchException(i, e);
+			}
+		}
+	}
+
+	/**
+	 * Return an exception naming the record of the batch that failed.
+	 */
+	private static CodecException batchException(int index, CodecException cause) {
+		CodecException ce = new CodecException("record " + index + " of batch: " + cause.getMessage());
+		ce.initCause(cause);
+		return ce;
+	}
+
+	/**
+	 * Decode one record, whose type has been checked, into its place in the
+	 * output array.
+	 */
+	private static void decodeRecord(Codec codec, Record record, int[] out, int outOffset)
+			throws CodecException {
+		// a duplicate has its own position, so payloads can be shared
+		codec.decompress(record.type, record.payload.duplicate(), record.numSamples,
+				record.swapBytes, out, outOffset);
+	}
+
+	// *** inner classes ***
+
+	/**
+	 * Describes one encoded data record: where its payload is, how it is
+	 * encoded, and how many samples it holds.
+	 */
+	public static class Record {
+
+		/**
+		 * Describe a record whose payload is held between the position and
+		 * limit of a buffer.  The buffer is not modified by decoding.
+		 * @param payload encoded data from position to limit
+		 * @param type blockette 1000 encoding code
+		 * @param numSamples number of samples in the record
+		 * @param swapBytes true if the data is in VAX/8086 word order
+		 */
+		public Record(ByteBuffer payload, int type, int numSamples, boolean swapBytes) {
+			this.payload = payload;
+			this.type = type;
+			this.numSamples = numSamples;
+			this.swapBytes = swapBytes;
+		}
+
+		/**
+		 * Describe a record whose payload is a region of a byte array.
+		 * @param b array holding the encoded data
+		 * @param offset index of the first byte of the payload
+		 * @param length number of bytes in the payload
+		 * @param type blockette 1000 encoding code
+		 * @param numSamples number of samples in the record
+		 * @param swapBytes true if the data is in VAX/8086 word order
+		 */
+		public Record(byte[] b, int offset, int length, int type, int numSamples, boolean swapBytes) {
+			this(ByteBuffer.wrap(b, offset, length).slice(), type, numSamples, swapBytes);
+		}
+
+		public int getType() {
+			return type;
+		}
+
+		public int getNumSamples() {
+			return numSamples;
+		}
+
+		public boolean getSwapBytes() {
+			return swapBytes;
+		}
+
+		private final ByteBuffer payload;
+		private final int type;
+		private final int numSamples;
+		private final boolean swapBytes;
+	}
+
+	/**
+	 * Decodes a range of records, splitting it while it holds more than the
+	 * split threshold of samples.
+	 */
+	private class DecodeTask extends RecursiveAction {
+
+		DecodeTask(List<Record> records, int[] offsets, int[] out, int from, int to) {
+			this.records = records;
+			this.offsets = offsets;
+			this.out = out;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (to - from > 1 && offsets[to] - offsets[from] > splitThreshold) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new DecodeTask(records, offsets, out, from, mid),
+						new DecodeTask(records, offsets, out, mid, to));
+				return;
+			}
+			Codec codec = new Codec();
+			for (int i = from; i < to; i++) {
+				try {
+					decodeRecord(codec, records.get(i), out, offsets[i]);
+				} catch (CodecException e) {
+					throw new RecordFailure(i, e);
+				}
+			}
+		}
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<Record> records;
+		private final int[] offsets;
+		private final int[] out;
+		private final int from;
+		private final int to;
+	}
+
+	/**
+	 * Carries a record's decode failure out of the fork/join pool.
+	 */
+	private static class RecordFailure extends RuntimeException {
+
+		RecordFailure(int index, CodecException cause) {
+			super(cause);
+			this.index = index;
+		}
+
+		public CodecException getCause() {
+			return (CodecException) super.getCause();
+		}
+
+		private static final long serialVersionUID = 1L;
+
+		private final int index;
+	}
+
+	// *** instance variables ***
+
+	private final ForkJoinPool pool;       // pool the records are decoded in
+	private int splitThreshold = 16384;    // samples below which a range is not split
+}
@@ -1,5 +1,8 @@
 package edu.iris.dmc.seedcodec;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 public class Cdsn {
 
 	/* mask for mantissa */
@@ -14,42 +17,84 @@ public class Cdsn {
 	/* maximum 14 bit positive # */
 	public static final int MAX14 = 0x1fff;
 
+	/* multiplier for each gain range factor, as a power of two for left shift */
+	private static final int[] GAIN_SHIFT = {0, 2, 4, 7};
+
 	public static int[] decode(byte[] b, int numSamples, boolean swapBytes)
 			throws CodecException {
-		if (b.length < numSamples * 2) {
+		int[] out = new int[numSamples];
+		decode(b, 0, numSamples, swapBytes, out, 0);
+		return out;
+	}
+
+	/**
+	 * Decode samples starting at index <b>offset</b> of the byte array into
+	 * the provided array, starting at index <b>outOffset</b>.
+	 */
+	public static int decode(byte[] b, int offset, int numSamples, boolean swapBytes,
+			int[] out, int outOffset) throws CodecException {
+		return decode(ByteBuffer.wrap(b, offset, b.length - offset), numSamples, swapBytes, out, outOffset);
+	}
+
+	/**
+	 * Decode samples from the remaining bytes of the buffer into the
+	 * provided array. The buffer position is left unchanged.
+	 */
+	public static int decode(ByteBuffer b, int numSamples, boolean swapBytes,
+			int[] out, int outOffset) throws CodecException {
+		ByteBuffer src = source(b, numSamples, swapBytes, out.length - outOffset);
+		for (int j = 0; j < numSamples; j++) {
+			out[outOffset + j] = decodeSample(src.getShort(2 * j));
+		}
+		return numSamples;
+	}
+
+	/**
+	 * Decode samples starting at index <b>offset</b> of the byte array into
+	 * the provided float array, with the gain range applied, starting at
+	 * index <b>outOffset</b>.
+	 */
+	public static int decode(byte[] b, int offset, int numSamples, boolean swapBytes,
+			float[] out, int outOffset) throws CodecException {
+		return decode(ByteBuffer.wrap(b, offset, b.length - offset), numSamples, swapBytes, out, outOffset);
+	}
+
+	/**
+	 * Decode samples from the remaining bytes of the buffer into the
+	 * provided float array, with the gain range applied. The buffer position
+	 * is left unchanged.
+	 */
+	public static int decode(ByteBuffer b, int numSamples, boolean swapBytes,
+			float[] out, int outOffset) throws CodecException {
+		ByteBuffer src = source(b, numSamples, swapBytes, out.length - outOffset);
+		for (int j = 0; j < numSamples; j++) {
+			// at most 21 significant bits, so exact as a float
+			out[outOffset + j] = decodeSample(src.getShort(2 * j));
+		}
+		return numSamples;
+	}
+
+	/**
+	 * Check the sizes and return a view of the remaining bytes of <b>b</b>,
+	 * indexed from 0, in the requested byte order.
+	 */
+	private static ByteBuffer source(ByteBuffer b, int numSamples, boolean swapBytes, int room)
+			throws CodecException {
+		if (b.remaining() < numSamples * 2) {
 			throw new CodecException("Not enough bytes for " + numSamples
 					+ " samples, need " + (2 * numSamples) + " but only have "
-					+ b.length);
+					+ b.remaining());
 		}
-		int[] out = new int[numSamples];
-		for (int j = 0; j < out.length; j++) {
-
-			int mult = 0;
-			int temp = Utility.bytesToShort(b[2 * j], b[2 * j + 1], swapBytes);
-			int mantissa = temp & MANTISSA_MASK;
-			int gainrange = (temp >> SHIFT ) & GAINRANGE_MASK;
-
-			/* determine multiplier from gain range factor and format definition */
-			/* because shift operator is used later, these are powers of two */
-			if (gainrange == 0) {
-				mult = 0;
-			} else if (gainrange == 1) {
-				mult = 2;
-			} else if (gainrange == 2) {
-				mult = 4;
-			} else if (gainrange == 3) {
-				mult = 7;
-			}
-
-			/* unbias the mantissa */
-			mantissa -= MAX14;
-
-			/* calculate sample from mantissa and multiplier using left shift */
-			/* mantissa << mult is equivalent to mantissa * (2 exp (mult)) */
-			out[j] = (mantissa << mult);
-
+		if (room < numSamples) {
+			throw new CodecException("Not enough room for " + numSamples
+					+ " samples, only " + room + " available");
 		}
-		return out;
+		return b.slice().order(swapBytes ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+	}
+
+	private static int decodeSample(int temp) {
+		/* unbias the mantissa, then multiply by 2 exp (gain range multiplier) */
+		return ((temp & MANTISSA_MASK) - MAX14) << GAIN_SHIFT[(temp >> SHIFT) & GAINRANGE_MASK];
 	}
 
 }
@@ -1,5 +1,8 @@
 package edu.iris.dmc.seedcodec;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
  * Codec.java
  * 
@@ -11,6 +14,9 @@ package edu.iris.dmc.seedcodec;
  */
 public class Codec implements B1000Types {
 
+    /** samples per block passed to a {@link SampleSink} */
+    private static final int SINK_BLOCK = 256;
+
     public Codec() {}
     
     /**
@@ -30,132 +36,415 @@ public class Codec implements B1000Types {
                                        int numSamples,
                                        boolean swapBytes)
             throws CodecException, UnsupportedCompressionType {
-        DecompressedData out;
-        int[] itemp;
-        short[] stemp;
-        float[] ftemp;
+        // fixed width types are converted in bulk, with the byte order
+        // resolved once per record rather than once per sample
+        return decompress(type, ByteBuffer.wrap(b), numSamples, swapBytes);
+    }
+
+    /**
+     * Decompresses the data held between the position and limit of the buffer
+     * into the best java primitive type for the given compression and returns
+     * it. Heap, direct and memory-mapped buffers are read in place, without
+     * first copying the record payload to a byte array. The buffer position
+     * is advanced past the bytes that were decoded. Encodings not handled by
+     * this class, and standard encodings whose codec has been replaced in the
+     * default {@link CodecRegistry}, are decoded by the registered codec.
+     * 
+     * @param type integer representation of the encoding type
+     * @param b wave data from position to limit
+     * @param numSamples number of samples
+     * @param swapBytes The swap order of the data itself is specified for the channel in the data format dictionary
+     * @return
+     * @throws CodecException
+     * @throws UnsupportedCompressionType
+     */
+    public DecompressedData decompress(int type,
+                                       ByteBuffer b,
+                                       int numSamples,
+                                       boolean swapBytes)
+            throws CodecException, UnsupportedCompressionType {
+        SampleCodec registered = getRegistered(type);
+        if(registered != null) {
+            // encodings contributed through the codec registry
+            return registered.decode(b, numSamples, swapBytes);
+        }
+        switch(getDecompressedType(type)) {
+            case SHORT:
+                short[] stemp = new short[numSamples];
+                decompress(type, b, numSamples, swapBytes, stemp, 0);
+                return new DecompressedData(stemp);
+            case INTEGER:
+                int[] itemp = new int[numSamples];
+                decompress(type, b, numSamples, swapBytes, itemp, 0);
+                return new DecompressedData(itemp);
+            case FLOAT:
+                float[] ftemp = new float[numSamples];
+                decompress(type, b, numSamples, swapBytes, ftemp, 0);
+                return new DecompressedData(ftemp);
+            default:
+                double[] dtemp = new double[numSamples];
+                decompress(type, b, numSamples, swapBytes, dtemp, 0);
+                return new DecompressedData(dtemp);
+        }
+    }
 
-        int offset = 0;
+    /**
+     * Decompresses 16 bit data held between the position and limit of the
+     * buffer into the given array, starting at index <b>outOffset</b>. The
+     * buffer position is advanced past the bytes that were decoded.
+     * 
+     * @param type integer representation of the encoding type, SHORT or DWWSSN
+     * @param b wave data from position to limit
+     * @param numSamples number of samples
+     * @param swapBytes The swap order of the data itself is specified for the channel in the data format dictionary
+     * @param out destination array
+     * @param outOffset index in <b>out</b> of the first sample
+     * @return the number of samples decoded
+     * @throws CodecException
+     * @throws UnsupportedCompressionType if the type does not decompress to short
+     */
+    public int decompress(int type,
+                          ByteBuffer b,
+                          int numSamples,
+                          boolean swapBytes,
+                          short[] out,
+                          int outOffset)
+            throws CodecException, UnsupportedCompressionType {
+        SampleCodec registered = getRegistered(type);
+        if(registered != null) {
+            short[] values = registered.decode(b, numSamples, swapBytes).getAsShort();
+            if(values == null) {
+                throw new UnsupportedCompressionType("Type " + type
+                        + " does not decompress to 16 bit values.");
+            }
+            return copyInto(values, values.length, out, outOffset, out.length - outOffset);
+        }
+        if(type != SHORT && type != DWWSSN) {
+            throw new UnsupportedCompressionType("Type " + type
+                    + " does not decompress to 16 bit values.");
+        }
+        checkLength(b, 2, numSamples, out.length - outOffset);
+        Utility.bytesToShorts(b, swapBytes, out, outOffset, numSamples);
+        b.position(b.position() + 2 * numSamples);
+        return numSamples;
+    }
+
+    /**
+     * Decompresses integer data held between the position and limit of the
+     * buffer into the given array, starting at index <b>outOffset</b>. 16 bit
+     * types are widened to int. The buffer position is advanced past the bytes
+     * that were decoded, which for Steim and USNSN types is the whole record.
+     * 
+     * @param type integer representation of the encoding type
+     * @param b wave data from position to limit
+     * @param numSamples number of samples
+     * @param swapBytes The swap order of the data itself is specified for the channel in the data format dictionary
+     * @param out destination array
+     * @param outOffset index in <b>out</b> of the first sample
+     * @return the number of samples decoded
+     * @throws CodecException
+     * @throws UnsupportedCompressionType if the type does not decompress to int
+     */
+    public int decompress(int type,
+                          ByteBuffer b,
+                          int numSamples,
+                          boolean swapBytes,
+                          int[] out,
+                          int outOffset)
+            throws CodecException, UnsupportedCompressionType {
+        SampleCodec registered = getRegistered(type);
+        if(registered != null) {
+            int[] values = registered.decode(b, numSamples, swapBytes).viewAsInt();
+            if(values == null) {
+                throw new UnsupportedCompressionType("Type " + type
+                        + " does not decompress to 32 bit integers.");
+            }
+            return copyInto(values, values.length, out, outOffset, out.length - outOffset);
+        }
         switch(type){
             case SHORT:
             case DWWSSN:
                 // 16 bit values
-                if(b.length < 2 * numSamples) {
-                    throw new CodecException("Not enough bytes for "
-                            + numSamples + " 16 bit data points, only "
-                            + b.length + " bytes.");
-                }
-                stemp = new short[numSamples];
-                for(int i = 0; i < stemp.length; i++) {
-                    stemp[i] = Utility.bytesToShort(b[offset],
-                                                    b[offset + 1],
-                                                    swapBytes);
-                    offset += 2;
-                }
-                out = new DecompressedData(stemp);
+                checkLength(b, 2, numSamples, out.length - outOffset);
+                Utility.shortBytesToInts(b, swapBytes, out, outOffset, numSamples);
+                b.position(b.position() + 2 * numSamples);
                 break;
-            case 2:
+            case INT24:
                 // 24 bit values
-                if(b.length < 3 * numSamples) {
-                    throw new CodecException("Not enough bytes for "
-                            + numSamples + " 24 bit data points, only "
-                            + b.length + " bytes.");
-                }
-                itemp = new int[numSamples];
-                for(int i = 0; i < numSamples; i++) {
-                    itemp[i] = Utility.bytesToInt(b[offset],
-                                                  b[offset + 1],
-                                                  b[offset + 2],
-                                                  swapBytes);
-                    offset += 3;
-                }
-                out = new DecompressedData(itemp);
+                checkLength(b, 3, numSamples, out.length - outOffset);
+                Utility.int24BytesToInts(b, swapBytes, out, outOffset, numSamples);
+                b.position(b.position() + 3 * numSamples);
                 break;
-            case 3:
+            case INTEGER:
                 // 32 bit integers
-                if(b.length < 4 * numSamples) {
-                    throw new CodecException("Not enough bytes for "
-                            + numSamples + " 32 bit data points, only "
-                            + b.length + " bytes.");
-                }
-                itemp = new int[numSamples];
-                for(int i = 0; i < numSamples; i++) {
-                    itemp[i] = Utility.bytesToInt(b[offset],
-                                                  b[offset + 1],
-                                                  b[offset + 2],
-                                                  b[offset + 3],
-                                                  swapBytes);
-                    offset += 4;
-                }
-                out = new DecompressedData(itemp);
-                break;
-            case 4:
-                // 32 bit floats
-                if(b.length < 4 * numSamples) {
-                    throw new CodecException("Not enough bytes for "
-                            + numSamples + " 32 bit data points, only "
-                            + b.length + " bytes.");
-                }
-                ftemp = new float[numSamples];
-                for(int i = 0; i < numSamples; i++) {
-                    ftemp[i] = Float.intBitsToFloat(Utility.bytesToInt(b[offset],
-                                                                       b[offset + 1],
-                                                                       b[offset + 2],
-                                                                       b[offset + 3],
-                                                                       swapBytes));
-                    offset += 4;
-                }
-                out = new DecompressedData(ftemp);
-                break;
-            case 5:
-                // 64 bit doubles
-                if(b.length < 8 * numSamples) {
-                    throw new CodecException("Not enough bytes for "
-                            + numSamples + " 64 bit data points, only "
-                            + b.length + " bytes.");
-                }
-                // ToDo .. implement this type....
-                throw new UnsupportedCompressionType("Type " + type
-                        + " is not supported at this time.");
-                // break;
+                checkLength(b, 4, numSamples, out.length - outOffset);
+                Utility.bytesToInts(b, swapBytes, out, outOffset, numSamples);
+                b.position(b.position() + 4 * numSamples);
+                break;
             case STEIM1:
                 // steim 1
-                itemp = Steim1.decode(b, numSamples, false, 0);  // swapBytes field always false for Steim Blocks
-                out = new DecompressedData(itemp);
+                Steim1.decode(order(b, false), numSamples, 0, out, outOffset);  // swapBytes field always false for Steim Blocks
+                b.position(b.limit());
                 break;
             case STEIM2:
                 // steim 2
-                itemp = Steim2.decode(b, numSamples, false, 0);  // swapBytes field always false for Steim Blocks
-                out = new DecompressedData(itemp);
+                Steim2.decode(order(b, false), numSamples, 0, out, outOffset);  // swapBytes field always false for Steim Blocks
+                b.position(b.limit());
+                break;
+            case USNSN:
+                // the class name is hidden by the USNSN type constant
+                edu.iris.dmc.seedcodec.USNSN.decode(order(b, swapBytes), numSamples, out, outOffset);
+                b.position(b.limit());
                 break;
             case CDSN:
-                itemp = Cdsn.decode(b, numSamples, swapBytes);
-                out = new DecompressedData(itemp);
+                Cdsn.decode(b, numSamples, swapBytes, out, outOffset);
+                b.position(b.position() + 2 * numSamples);
                 break;
             case SRO:
-                itemp = Sro.decode(b, numSamples, swapBytes);
-                out = new DecompressedData(itemp);
-                break;    
+                Sro.decode(b, numSamples, swapBytes, out, outOffset);
+                b.position(b.position() + 2 * numSamples);
+                break;
             default:
-                // unknown format????
                 throw new UnsupportedCompressionType("Type " + type
-                        + " is not supported at this time.");
+                        + " does not decompress to 32 bit integers.");
         } // end of switch ()
-        return out;
+        return numSamples;
+    }
+
+    /**
+     * Decompresses 32 bit float data held between the position and limit of
+     * the buffer into the given array, starting at index <b>outOffset</b>.
+     * Gain ranged CDSN and SRO data are decoded straight to float with the
+     * gain range applied. The buffer position is advanced past the bytes that
+     * were decoded.
+     * 
+     * @param type integer representation of the encoding type, FLOAT, CDSN or SRO
+     * @param b wave data from position to limit
+     * @param numSamples number of samples
+     * @param swapBytes The swap order of the data itself is specified for the channel in the data format dictionary
+     * @param out destination array
+     * @param outOffset index in <b>out</b> of the first sample
+     * @return the number of samples decoded
+     * @throws CodecException
+     * @throws UnsupportedCompressionType if the type does not decompress to float
+     */
+    public int decompress(int type,
+                          ByteBuffer b,
+                          int numSamples,
+                          boolean swapBytes,
+                          float[] out,
+                          int outOffset)
+            throws CodecException, UnsupportedCompressionType {
+        SampleCodec registered = getRegistered(type);
+        if(registered != null) {
+            DecompressedData data = registered.decode(b, numSamples, swapBytes);
+            if(data.getType() == DOUBLE) {
+                throw new UnsupportedCompressionType("Type " + type
+                        + " does not decompress to 32 bit floats.");
+            }
+            float[] values = data.viewAsFloat();
+            return copyInto(values, values.length, out, outOffset, out.length - outOffset);
+        }
+        switch(type){
+            case FLOAT:
+                checkLength(b, 4, numSamples, out.length - outOffset);
+                Utility.bytesToFloats(b, swapBytes, out, outOffset, numSamples);
+                b.position(b.position() + 4 * numSamples);
+                break;
+            case CDSN:
+                // gain ranged values convert to float without loss
+                Cdsn.decode(b, numSamples, swapBytes, out, outOffset);
+                b.position(b.position() + 2 * numSamples);
+                break;
+            case SRO:
+                Sro.decode(b, numSamples, swapBytes, out, outOffset);
+                b.position(b.position() + 2 * numSamples);
+                break;
+            default:
+                throw new UnsupportedCompressionType("Type " + type
+                        + " does not decompress to 32 bit floats.");
+        }
+        return numSamples;
     }
 
+    /**
+     * Decompresses 64 bit double data held between the position and limit of
+     * the buffer into the given array, starting at index <b>outOffset</b>. The
+     * buffer position is advanced past the bytes that were decoded.
+     * 
+     * @param type integer representation of the encoding type, DOUBLE
+     * @param b wave data from position to limit
+     * @param numSamples number of samples
+     * @param swapBytes The swap order of the data itself is specified for the channel in the data format dictionary
+     * @param out destination array
+     * @param outOffset index in <b>out</b> of the first sample
+     * @return the number of samples decoded
+     * @throws CodecException
+     * @throws UnsupportedCompressionType if the type does not decompress to double
+     */
+    public int decompress(int type,
+                          ByteBuffer b,
+                          int numSamples,
+                          boolean swapBytes,
+                          double[] out,
+                          int outOffset)
+            throws CodecException, UnsupportedCompressionType {
+        SampleCodec registered = getRegistered(type);
+        if(registered != null) {
+            double[] values = registered.decode(b, numSamples, swapBytes).viewAsDouble();
+            return copyInto(values, values.length, out, outOffset, out.length - outOffset);
+        }
+        if(type != DOUBLE) {
+            throw new UnsupportedCompressionType("Type " + type
+                    + " does not decompress to 64 bit doubles.");
+        }
+        checkLength(b, 8, numSamples, out.length - outOffset);
+        Utility.bytesToDoubles(b, swapBytes, out, outOffset, numSamples);
+        b.position(b.position() + 8 * numSamples);
+        return numSamples;
+    }
     
+    /**
+     * Decompresses the data held between the position and limit of the buffer
+     * and passes the samples to <b>sink</b> a block at a time, in place of an
+     * output array. Steim frames and fixed width types are decoded through a
+     * small scratch block, so memory use does not grow with the record.
+     * Other encodings, including those decoded by the default
+     * {@link CodecRegistry}, are decoded whole and passed as a single block.
+     * This includes standard encodings whose codec has been replaced there.
+     * The buffer position is advanced past the bytes that were decoded.
+     * 
+     * @param type integer representation of the encoding type
+     * @param b wave data from position to limit
+     * @param numSamples number of samples
+     * @param swapBytes The swap order of the data itself is specified for the channel in the data format dictionary
+     * @param sink receiver of the decoded samples
+     * @return the number of samples decoded
+     * @throws CodecException
+     * @throws UnsupportedCompressionType
+     */
+    public int decompress(int type,
+                          ByteBuffer b,
+                          int numSamples,
+                          boolean swapBytes,
+                          SampleSink sink)
+            throws CodecException, UnsupportedCompressionType {
+        // a registered replacement of a standard encoding is decoded whole
+        int builtIn = getRegistered(type) == null ? type : -1;
+        int width = getSampleWidth(builtIn);
+        if(width > 0) {
+            checkLength(b, width, numSamples, numSamples);
+        }
+        switch(builtIn){
+            case STEIM1:
+                Steim1.decode(order(b, false), numSamples, 0, sink);  // swapBytes field always false for Steim Blocks
+                b.position(b.limit());
+                break;
+            case STEIM2:
+                Steim2.decode(order(b, false), numSamples, 0, sink);  // swapBytes field always false for Steim Blocks
+                b.position(b.limit());
+                break;
+            case SHORT:
+            case DWWSSN:
+            case INT24:
+            case INTEGER:
+            case CDSN:
+            case SRO:
+                int[] intBlock = new int[Math.min(numSamples, SINK_BLOCK)];
+                for(int done = 0; done < numSamples; done += intBlock.length) {
+                    int n = Math.min(intBlock.length, numSamples - done);
+                    decompress(type, b, n, swapBytes, intBlock, 0);
+                    sink.accept(intBlock, 0, n);
+                }
+                break;
+            case FLOAT:
+                float[] floatBlock = new float[Math.min(numSamples, SINK_BLOCK)];
+                double[] widened = new double[floatBlock.length];
+                for(int done = 0; done < numSamples; done += floatBlock.length) {
+                    int n = Math.min(floatBlock.length, numSamples - done);
+                    decompress(type, b, n, swapBytes, floatBlock, 0);
+                    for(int i = 0; i < n; i++) {
+                        widened[i] = floatBlock[i];
+                    }
+                    sink.accept(widened, 0, n);
+                }
+                break;
+            case DOUBLE:
+                double[] doubleBlock = new double[Math.min(numSamples, SINK_BLOCK)];
+                for(int done = 0; done < numSamples; done += doubleBlock.length) {
+                    int n = Math.min(doubleBlock.length, numSamples - done);
+                    decompress(type, b, n, swapBytes, doubleBlock, 0);
+                    sink.accept(doubleBlock, 0, n);
+                }
+                break;
+            default:
+                // USNSN and registered encodings are not decoded in blocks
+                DecompressedData data = decompress(type, b, numSamples, swapBytes);
+                if(data.getType() == FLOAT || data.getType() == DOUBLE) {
+                    double[] values = data.viewAsDouble();
+                    sink.accept(values, 0, values.length);
+                } else {
+                    int[] values = data.viewAsInt();
+                    sink.accept(values, 0, values.length);
+                }
+        }
+        return numSamples;
+    }
+
     /**
      * returns an integer that represent the java primitive that the data will
      * decompress to. This is to allow for SEED types 4 and 5, float and
      * double, which cannot be represented as int without a loss of precision.
+     * Encodings not handled by this class, and standard encodings whose codec
+     * has been replaced, are looked up in the default {@link CodecRegistry}.
      * 
      * @param type integer representation of the encoding type
      * @return
      * @throws UnsupportedCompressionType
      */
     public int getDecompressedType(int type) throws UnsupportedCompressionType {
-        if(type == INT24 || type == INTEGER || type == STEIM1 || type == STEIM2 || type == CDSN || type == SRO) {
+        SampleCodec registered = getRegistered(type);
+        if(registered != null) {
+            return registered.getDecompressedType();
+        }
+        return getStandardType(type);
+    }
+
+    /**
+     * Returns the codec the default registry holds for <b>type</b>, or null
+     * if it holds the built-in codec of a standard encoding, which this class
+     * decodes itself. The registry is checked first, so a codec registered
+     * for a standard code, such as one found by ServiceLoader, takes its
+     * place.
+     * 
+     * @throws UnsupportedCompressionType if the type is neither registered
+     * nor standard
+     */
+    private static SampleCodec getRegistered(int type) throws UnsupportedCompressionType {
+        SampleCodec codec = CodecRegistry.getDefault().get(type);
+        return (codec instanceof StandardCodec) ? null : codec;
+    }
+
+    /**
+     * Copies the <b>length</b> values decoded by a registered codec to the
+     * destination array, after checking it has room for them.
+     */
+    private static int copyInto(Object values, int length, Object out, int outOffset, int room)
+            throws CodecException {
+        if(room < length) {
+            throw new CodecException("Not enough room for "
+                    + length + " data points, only " + room + " available.");
+        }
+        System.arraycopy(values, 0, out, outOffset, length);
+        return length;
+    }
+
+    /**
+     * Returns the java primitive a standard encoding decompresses to, or -1
+     * if the encoding is not one handled directly by this class.
+     */
+    private static int getStandardType(int type) {
+        if(type == INT24 || type == INTEGER || type == STEIM1 || type == STEIM2 || type == USNSN || type == CDSN || type == SRO) {
             return INTEGER;
         } else if(type == SHORT || type == DWWSSN) {
             return SHORT;
@@ -164,8 +453,55 @@ public class Codec implements B1000Types {
         } else if(type == DOUBLE) {
             return DOUBLE;
         } // end of if ()
-        // ????
-        throw new UnsupportedCompressionType("Type " + type
-                + " is not supported at this time.");
+        return -1;
+    }
+
+    /**
+     * Returns a view of the remaining bytes of <b>b</b>, indexed from 0, in
+     * the byte order requested by the swap flag. The caller's buffer keeps its
+     * own position and byte order.
+     */
+    private static ByteBuffer order(ByteBuffer b, boolean swapBytes) {
+        return b.slice().order(swapBytes ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Returns the number of bytes per sample of a fixed width encoding, or 0
+     * if samples of the encoding vary in size.
+     */
+    private static int getSampleWidth(int type) {
+        switch(type){
+            case SHORT:
+            case DWWSSN:
+            case CDSN:
+            case SRO:
+                return 2;
+            case INT24:
+                return 3;
+            case INTEGER:
+            case FLOAT:
+                return 4;
+            case DOUBLE:
+                return 8;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Verifies that the buffer holds enough bytes, and the destination
+     * enough room, for the requested number of fixed width samples.
+     */
+    private static void checkLength(ByteBuffer b, int bytesPerSample, int numSamples, int room)
+            throws CodecException {
+        if(b.remaining() < bytesPerSample * numSamples) {
+            throw new CodecException("Not enough bytes for "
+                    + numSamples + " " + (8 * bytesPerSample) + " bit data points, only "
+                    + b.remaining() + " bytes.");
+        }
+        if(room < numSamples) {
+            throw new CodecException("Not enough room for "
+                    + numSamples + " data points, only " + room + " available.");
+        }
     }
 }// Codec
@@ -0,0 +1,157 @@
+package edu.iris.dmc.seedcodec;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Maps blockette 1000 encoding codes, and the encoding names used by the data
+ * format dictionary, to singleton {@link SampleCodec} instances.
+ * <p>
+ * A registry starts out with the standard encodings handled by
+ * {@link Codec}.  The shared {@link #getDefault() default registry} also
+ * loads every {@link SampleCodec} listed in
+ * <code>META-INF/services/edu.iris.dmc.seedcodec.SampleCodec</code> on the
+ * class path, so new encodings can be added without changing this package.
+ * A registered codec replaces any earlier codec for the same code and name,
+ * including the standard ones: {@link Codec} checks the default registry
+ * before its built-in decoders, so a provider for a standard code is used in
+ * their place.
+ * <p>
+ * Lookups by code are a single array access and lookups never lock, so
+ * callers can resolve a codec once and hold on to it, or look it up per
+ * record.
+ *
+ * @version 10/16/2026
+ */
+public class CodecRegistry {
+
+	/**
+	 * Create a registry holding the standard encodings.
+	 */
+	public CodecRegistry() {
+		for (SampleCodec codec : StandardCodec.all()) {
+			register(codec);
+		}
+	}
+
+	// *** public methods ***
+
+	/**
+	 * Return the shared registry of standard encodings and those found by
+	 * {@link ServiceLoader}.
+	 * @return the default registry
+	 */
+	public static CodecRegistry getDefault() {
+		return DefaultHolder.INSTANCE;
+	}
+
+	/**
+	 * Add a codec, replacing any codec registered for the same encoding code
+	 * or name.
+	 * @param codec the codec to register
+	 * @throws IllegalArgumentException if the encoding code is not 0 to 255
+	 */
+	public synchronized void register(SampleCodec codec) {
+		int type = codec.getType();
+		if (type < 0 || type >= byType.length) {
+			throw new IllegalArgumentException("encoding code " + type + " of " + codec.getName()
+					+ " is outside 0 to " + (byType.length - 1));
+		}
+		// copy on write, so readers never see a partial update
+		SampleCodec[] types = byType.clone();
+		Map<String, SampleCodec> names = new HashMap<String, SampleCodec>(byName);
+		SampleCodec previous = types[type];
+		if (previous != null && names.get(previous.getName()) == previous) {
+			names.remove(previous.getName());
+		}
+		types[type] = codec;
+		names.put(codec.getName(), codec);
+		byType = types;
+		byName = names;
+	}
+
+	/**
+	 * Return the codec for a blockette 1000 encoding code.
+	 * @param type encoding code
+	 * @return the registered codec
+	 * @throws UnsupportedCompressionType if no codec is registered for the code
+	 */
+	public SampleCodec get(int type) throws UnsupportedCompressionType {
+		SampleCodec codec = find(type);
+		if (codec == null) {
+			throw new UnsupportedCompressionType("Type " + type
+					+ " is not supported at this time.");
+		}
+		return codec;
+	}
+
+	/**
+	 * Return the codec for an encoding given either by name, such as
+	 * "Steim2", or by its code as a number string, such as "11".
+	 * @param encoding encoding name or code
+	 * @return the registered codec
+	 * @throws UnsupportedCompressionType if no codec is registered for the
+	 * encoding
+	 */
+	public SampleCodec get(String encoding) throws UnsupportedCompressionType {
+		SampleCodec codec = byName.get(encoding);
+		if (codec == null && encoding.length() > 0 && Character.isDigit(encoding.charAt(0))) {
+			try {
+				codec = find(Integer.parseInt(encoding));
+			} catch (NumberFormatException e) {
+				codec = null;
+			}
+		}
+		if (codec == null) {
+			throw new UnsupportedCompressionType("Encoding " + encoding
+					+ " is not supported at this time.");
+		}
+		return codec;
+	}
+
+	/**
+	 * Return true if a codec is registered for the encoding code.
+	 * @param type encoding code
+	 * @return true if {@link #get(int)} will succeed
+	 */
+	public boolean isRegistered(int type) {
+		return find(type) != null;
+	}
+
+	/**
+	 * Return an upper bound on the number of bytes <b>numSamples</b> samples
+	 * occupy in the given encoding.
+	 * @param type encoding code
+	 * @param numSamples number of samples
+	 * @return the worst case encoded size in bytes
+	 * @throws UnsupportedCompressionType if no codec is registered for the code
+	 */
+	public int estimateEncodedSize(int type, int numSamples) throws UnsupportedCompressionType {
+		return get(type).estimateEncodedSize(numSamples);
+	}
+
+	// *** private methods ***
+
+	private SampleCodec find(int type) {
+		SampleCodec[] types = byType;
+		return (type >= 0 && type < types.length) ? types[type] : null;
+	}
+
+	/**
+	 * Build the default registry on first use.
+	 */
+	private static class DefaultHolder {
+		static final CodecRegistry INSTANCE = new CodecRegistry();
+		static {
+			for (SampleCodec codec : ServiceLoader.load(SampleCodec.class)) {
+				INSTANCE.register(codec);
+			}
+		}
+	}
+
+	// *** instance variables ***
+
+	private volatile SampleCodec[] byType = new SampleCodec[256];  // indexed by encoding code
+	private volatile Map<String, SampleCodec> byName = new HashMap<String, SampleCodec>();  // by encoding name
+}
@@ -70,21 +70,53 @@ public class DecompressedData implements B1000Types {
 	}
 
 	
+	/**
+	 * returns the number of samples held.
+	 * 
+	 * @return
+	 */
+	public int getLength() {
+		if (iData != null) {
+			return iData.length;
+		} else if (sData != null) {
+			return sData.length;
+		} else if (fData != null) {
+			return fData.length;
+		} else if (dData != null) {
+			return dData.length;
+		}
+		return 0;
+	}
+
+	/**
+	 * returns the array the data was decompressed to, without copying. This is
+	 * an int[], short[], float[] or double[] as given by getType().
+	 * 
+	 * @return
+	 */
+	public Object getNativeData() {
+		if (iData != null) {
+			return iData;
+		} else if (sData != null) {
+			return sData;
+		} else if (fData != null) {
+			return fData;
+		}
+		return dData;
+	}
+
 	/**
 	 * Converts the data to an int array if possible without loss. Otherwise
+	 * returns null. A converted array is new on each call and belongs to the
+	 * caller; use viewAsInt() to read the data without copying.
 	 * 
 	 * @return
 	 */
 	public int[] getAsInt() {
-		int[] temp;
 		if (iData != null) {
 			return iData;
 		} else if (sData != null) {
-			temp = new int[sData.length];
-			for (int i = 0; i < sData.length; i++) {
-				temp[i] = sData[i];
-			}
-			return temp;
+			return viewAsInt().clone();
 		}
 		return null;
 	}
@@ -92,6 +124,7 @@ public class DecompressedData implements B1000Types {
 
 	/**
 	 * Converts the data to a short array if possible without loss. Otherwise
+	 * returns null.
 	 * 
 	 * @return
 	 */
@@ -105,59 +138,118 @@ public class DecompressedData implements B1000Types {
 
 	/**
 	 * Converts the data to a float array if possible without loss. Otherwise
+	 * returns null. A converted array is new on each call and belongs to the
+	 * caller; use viewAsFloat() to read the data without copying.
 	 * 
 	 * @return
 	 */
 	public float[] getAsFloat() {
-		float[] temp;
 		if (fData != null) {
 			return fData;
-		} else if (iData != null) {
-			temp = new float[iData.length];
-			for (int i = 0; i < iData.length; i++) {
-				temp[i] = iData[i];
-			}
-			return temp;
-		} else if (sData != null) {
-			temp = new float[sData.length];
-			for (int i = 0; i < sData.length; i++) {
-				temp[i] = sData[i];
-			}
-			return temp;
 		}
-		return null;
+		float[] view = viewAsFloat();
+		return view == null ? null : view.clone();
 	}
 
 	
 	/**
 	 * Converts the data to a double array if possible without loss. Otherwise
+	 * returns null. A converted array is new on each call and belongs to the
+	 * caller; use viewAsDouble() to read the data without copying.
 	 * 
 	 * @return
 	 */
 	public double[] getAsDouble() {
-		double[] temp;
 		if (dData != null) {
 			return dData;
-		} else if (fData != null) {
-			dData = new double[fData.length];
-			for (int i = 0; i < fData.length; i++) {
-				dData[i] = fData[i];
+		}
+		double[] view = viewAsDouble();
+		return view == null ? null : view.clone();
+	}
+
+	/**
+	 * Returns the data as an int array without copying, or null if it cannot
+	 * be converted without loss. This is the native array or a conversion
+	 * built once and shared by later calls, so it must not be modified.
+	 * 
+	 * @return
+	 */
+	public int[] viewAsInt() {
+		if (iData != null) {
+			return iData;
+		} else if (sData != null) {
+			if (iCache == null) {
+				int[] temp = new int[sData.length];
+				for (int i = 0; i < sData.length; i++) {
+					temp[i] = sData[i];
+				}
+				iCache = temp;
 			}
-			return dData;
-		} else if (iData != null) {
-			dData = new double[iData.length];
-			for (int i = 0; i < iData.length; i++) {
-				dData[i] = iData[i];
+			return iCache;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the data as a float array without copying, or null if it cannot
+	 * be converted without loss. This is the native array or a conversion
+	 * built once and shared by later calls, so it must not be modified.
+	 * 
+	 * @return
+	 */
+	public float[] viewAsFloat() {
+		if (fData != null) {
+			return fData;
+		} else if (fCache == null) {
+			if (iData != null) {
+				float[] temp = new float[iData.length];
+				for (int i = 0; i < iData.length; i++) {
+					temp[i] = iData[i];
+				}
+				fCache = temp;
+			} else if (sData != null) {
+				float[] temp = new float[sData.length];
+				for (int i = 0; i < sData.length; i++) {
+					temp[i] = sData[i];
+				}
+				fCache = temp;
 			}
+		}
+		return fCache;
+	}
+
+	/**
+	 * Returns the data as a double array without copying. This is the native
+	 * array or a conversion built once and shared by later calls, so it must
+	 * not be modified.
+	 * 
+	 * @return
+	 */
+	public double[] viewAsDouble() {
+		if (dData != null) {
 			return dData;
-		} else if (sData != null) {
-			dData = new double[sData.length];
-			for (int i = 0; i < sData.length; i++) {
-				dData[i] = sData[i];
+		} else if (dCache == null) {
+			if (fData != null) {
+				double[] temp = new double[fData.length];
+				for (int i = 0; i < fData.length; i++) {
+					temp[i] = fData[i];
+				}
+				dCache = temp;
+			} else if (iData != null) {
+				double[] temp = new double[iData.length];
+				for (int i = 0; i < iData.length; i++) {
+					temp[i] = iData[i];
+				}
+				dCache = temp;
+			} else if (sData != null) {
+				double[] temp = new double[sData.length];
+				for (int i = 0; i < sData.length; i++) {
+					temp[i] = sData[i];
+				}
+				dCache = temp;
 			}
-			return dData;
 		}
-		return null;
+		return dCache;
 	}
 
 	/**
@@ -180,4 +272,19 @@ public class DecompressedData implements B1000Types {
 	 */
 	protected double[] dData = null;
 
+	/**
+	 * holds the int conversion of short data, once viewed.
+	 */
+	private int[] iCache = null;
+
+	/**
+	 * holds the float conversion of integer data, once viewed.
+	 */
+	private float[] fCache = null;
+
+	/**
+	 * holds the double conversion of non-double data, once viewed.
+	 */
+	private double[] dCache = null;
+
 }// DecompressedData
@@ -0,0 +1,81 @@
+package edu.iris.dmc.seedcodec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decoder, and optionally encoder, for one SEED data encoding format as
+ * identified by its blockette 1000 encoding code.
+ * <p>
+ * Implementations are held by a {@link CodecRegistry} as singletons and are
+ * shared by every record of that encoding, so they must be stateless and
+ * safe for use from multiple threads.  Additional encodings are contributed
+ * by listing implementation classes, which need a public no-argument
+ * constructor, in
+ * <code>META-INF/services/edu.iris.dmc.seedcodec.SampleCodec</code>.
+ *
+ * @version 10/16/2026
+ */
+public interface SampleCodec {
+
+	/**
+	 * Return the blockette 1000 encoding code handled by this codec.
+	 * @return encoding code, 0 to 255
+	 */
+	int getType();
+
+	/**
+	 * Return the name of the encoding, as used by the data format
+	 * dictionary, for example "Steim1".
+	 * @return encoding name
+	 */
+	String getName();
+
+	/**
+	 * Return the java primitive the data decompresses to.
+	 * @return one of {@link B1000Types#SHORT}, {@link B1000Types#INTEGER},
+	 * {@link B1000Types#FLOAT} or {@link B1000Types#DOUBLE}
+	 */
+	int getDecompressedType();
+
+	/**
+	 * Decompress the data held between the position and limit of the buffer.
+	 * The buffer position is advanced past the bytes that were decoded.
+	 * @param b encoded data from position to limit
+	 * @param numSamples number of samples
+	 * @param swapBytes true if the data is in VAX/8086 word order
+	 * @return the decoded samples
+	 * @throws CodecException if the data cannot be decoded
+	 */
+	DecompressedData decode(ByteBuffer b, int numSamples, boolean swapBytes) throws CodecException;
+
+	/**
+	 * Return true if this codec can encode integer samples.
+	 * @return true if {@link #encode} is supported
+	 */
+	boolean canEncode();
+
+	/**
+	 * Encode as many samples as fit in the remaining space of the buffer,
+	 * starting at index <b>offset</b> of the provided array.  Encoded data
+	 * is always written in 68000/Sun word order, and the buffer position is
+	 * advanced past the bytes written.
+	 * @param samples the data points represented as signed integers
+	 * @param offset index in <b>samples</b> of the first value to encode
+	 * @param length the number of values available from <b>offset</b>
+	 * @param bias the value preceding the first sample, for difference
+	 * encodings, otherwise ignored
+	 * @param out destination for the encoded bytes
+	 * @return the number of samples encoded
+	 * @throws CodecException if the samples cannot be encoded
+	 * @throws UnsupportedCompressionType if this codec cannot encode
+	 */
+	int encode(int[] samples, int offset, int length, int bias, ByteBuffer out) throws CodecException;
+
+	/**
+	 * Return an upper bound on the number of bytes <b>numSamples</b>
+	 * samples occupy in this encoding, for sizing buffers and records.
+	 * @param numSamples number of samples
+	 * @return the worst case encoded size in bytes
+	 */
+	int estimateEncodedSize(int numSamples);
+}
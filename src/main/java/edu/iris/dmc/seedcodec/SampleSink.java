@@ -0,0 +1,32 @@
+package edu.iris.dmc.seedcodec;
+
+/**
+ * Receives decoded samples in order, a block at a time, in place of an
+ * output array.
+ * <p>
+ * Decoders pass blocks from a small scratch array that is reused for the
+ * next block, so a sink must consume or copy the values before returning
+ * and must not hold on to the array.  Integer encodings are delivered
+ * through {@link #accept(int[], int, int)} and floating point encodings
+ * through {@link #accept(double[], int, int)}.
+ *
+ * @version 10/16/2026
+ */
+public interface SampleSink {
+
+	/**
+	 * Consume a block of integer samples.
+	 * @param samples array holding the block
+	 * @param offset index in <b>samples</b> of the first value
+	 * @param length number of values in the block
+	 */
+	void accept(int[] samples, int offset, int length);
+
+	/**
+	 * Consume a block of floating point samples.
+	 * @param samples array holding the block
+	 * @param offset index in <b>samples</b> of the first value
+	 * @param length number of values in the block
+	 */
+	void accept(double[] samples, int offset, int length);
+}
@@ -0,0 +1,278 @@
+package edu.iris.dmc.seedcodec;
+
+import java.util.Arrays;
+
+/**
+ * A {@link SampleSink} that keeps running statistics of the samples passed
+ * to it instead of the samples themselves: count, minimum, maximum, sum and
+ * sum of squares, and optionally the minimum and maximum of every
+ * consecutive bucket of a fixed number of samples.
+ * <p>
+ * Buckets continue across calls, so feeding the records of a channel in
+ * time order with one instance yields the min/max envelope of the whole
+ * series, for example with one bucket per plot pixel.  Memory use is two
+ * values per bucket, whatever the number of samples.
+ *
+ * @version 10/16/2026
+ */
+public class SampleStatistics implements SampleSink {
+
+	/**
+	 * Create statistics without a bucket envelope.
+	 */
+	public SampleStatistics() {
+		this(0);
+	}
+
+	/**
+	 * Create statistics that also record the min and max of every
+	 * <b>bucketSize</b> consecutive samples.
+	 * @param bucketSize samples per bucket, 0 for no buckets
+	 * @throws IllegalArgumentException if <b>bucketSize</b> is negative
+	 */
+	public SampleStatistics(int bucketSize) {
+		if (bucketSize < 0) {
+			throw new IllegalArgumentException("bucket size must not be negative: " + bucketSize);
+		}
+		this.bucketSize = bucketSize;
+		if (bucketSize > 0) {
+			bucketMin = new double[16];
+			bucketMax = new double[16];
+		}
+	}
+
+	// *** public methods ***
+
+	public void accept(int[] samples, int offset, int length) {
+		int end = offset + length;
+		while (offset < end) {
+			int n = runLength(end - offset);
+			int lo = samples[offset];
+			int hi = lo;
+			long sum = 0;
+			double squares = 0;
+			for (int i = offset; i < offset + n; i++) {
+				int v = samples[i];
+				if (v < lo) {
+					lo = v;
+				} else if (v > hi) {
+					hi = v;
+				}
+				sum += v;
+				squares += (double) v * v;
+			}
+			intSum += sum;
+			sumOfSquares += squares;
+			add(n, lo, hi);
+			offset += n;
+		}
+	}
+
+	public void accept(double[] samples, int offset, int length) {
+		int end = offset + length;
+		while (offset < end) {
+			int n = runLength(end - offset);
+			double lo = samples[offset];
+			double hi = lo;
+			double sum = 0;
+			double squares = 0;
+			for (int i = offset; i < offset + n; i++) {
+				double v = samples[i];
+				if (v < lo) {
+					lo = v;
+				} else if (v > hi) {
+					hi = v;
+				}
+				sum += v;
+				squares += v * v;
+			}
+			doubleSum += sum;
+			sumOfSquares += squares;
+			add(n, lo, hi);
+			offset += n;
+		}
+	}
+
+	/**
+	 * Return the number of samples seen.
+	 * @return sample count
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Return the smallest sample seen, or NaN if there were none.
+	 * @return minimum value
+	 */
+	public double getMin() {
+		return (count > 0) ? min : Double.NaN;
+	}
+
+	/**
+	 * Return the largest sample seen, or NaN if there were none.
+	 * @return maximum value
+	 */
+	public double getMax() {
+		return (count > 0) ? max : Double.NaN;
+	}
+
+	/**
+	 * Return the sum of the samples seen.  Integer samples are summed
+	 * exactly.
+	 * @return sum of the samples
+	 */
+	public double getSum() {
+		return intSum + doubleSum;
+	}
+
+	/**
+	 * Return the sum of the squares of the samples seen.
+	 * @return sum of squares
+	 */
+	public double getSumOfSquares() {
+		return sumOfSquares;
+	}
+
+	/**
+	 * Return the mean of the samples seen, or NaN if there were none.
+	 * @return mean value
+	 */
+	public double getMean() {
+		return getSum() / count;
+	}
+
+	/**
+	 * Return the population variance of the samples seen, or NaN if there
+	 * were none.
+	 * @return variance
+	 */
+	public double getVariance() {
+		double mean = getMean();
+		return Math.max(0, sumOfSquares / count - mean * mean);
+	}
+
+	/**
+	 * Return the root mean square of the samples seen, or NaN if there were
+	 * none.
+	 * @return rms value
+	 */
+	public double getRms() {
+		return Math.sqrt(sumOfSquares / count);
+	}
+
+	/**
+	 * Return the number of samples per bucket, 0 if buckets are not kept.
+	 * @return bucket size
+	 */
+	public int getBucketSize() {
+		return bucketSize;
+	}
+
+	/**
+	 * Return the number of buckets holding samples.  The last bucket may be
+	 * partly filled.
+	 * @return bucket count
+	 */
+	public int getBucketCount() {
+		if (bucketSize == 0) {
+			return 0;
+		}
+		return (int) ((count + bucketSize - 1) / bucketSize);
+	}
+
+	/**
+	 * Return the smallest sample of a bucket.
+	 * @param bucket bucket index, from 0 to {@link #getBucketCount()} - 1
+	 * @return minimum value of the bucket
+	 * @throws IndexOutOfBoundsException if there is no such bucket
+	 */
+	public double getBucketMin(int bucket) {
+		checkBucket(bucket);
+		return bucketMin[bucket];
+	}
+
+	/**
+	 * Return the largest sample of a bucket.
+	 * @param bucket bucket index, from 0 to {@link #getBucketCount()} - 1
+	 * @return maximum value of the bucket
+	 * @throws IndexOutOfBoundsException if there is no such bucket
+	 */
+	public double getBucketMax(int bucket) {
+		checkBucket(bucket);
+		return bucketMax[bucket];
+	}
+
+	/**
+	 * Discard all samples seen, keeping the bucket size.
+	 */
+	public void reset() {
+		count = 0;
+		intSum = 0;
+		doubleSum = 0;
+		sumOfSquares = 0;
+	}
+
+	public String toString() {
+		return "count " + count + ", min " + getMin() + ", max " + getMax() + ", mean " + getMean();
+	}
+
+	// *** private methods ***
+
+	/**
+	 * Return how many of the <b>available</b> samples fit in the current
+	 * bucket.
+	 */
+	private int runLength(int available) {
+		if (bucketSize == 0) {
+			return available;
+		}
+		return (int) Math.min(available, bucketSize - count % bucketSize);
+	}
+
+	/**
+	 * Fold a run of <b>n</b> samples, all in the current bucket, into the
+	 * totals.
+	 */
+	private void add(int n, double lo, double hi) {
+		if (count == 0 || lo < min) {
+			min = lo;
+		}
+		if (count == 0 || hi > max) {
+			max = hi;
+		}
+		if (bucketSize > 0) {
+			int bucket = (int) (count / bucketSize);
+			if (count % bucketSize == 0) {
+				if (bucket == bucketMin.length) {
+					bucketMin = Arrays.copyOf(bucketMin, 2 * bucket);
+					bucketMax = Arrays.copyOf(bucketMax, 2 * bucket);
+				}
+				bucketMin[bucket] = lo;
+				bucketMax[bucket] = hi;
+			} else {
+				bucketMin[bucket] = Math.min(bucketMin[bucket], lo);
+				bucketMax[bucket] = Math.max(bucketMax[bucket], hi);
+			}
+		}
+		count += n;
+	}
+
+	private void checkBucket(int bucket) {
+		if (bucket < 0 || bucket >= getBucketCount()) {
+			throw new IndexOutOfBoundsException("bucket " + bucket + " of " + getBucketCount());
+		}
+	}
+
+	// *** instance variables ***
+
+	private final int bucketSize;  // samples per bucket, 0 for none
+	private long count;            // samples seen
+	private double min;            // smallest sample
+	private double max;            // largest sample
+	private long intSum;           // exact sum of integer samples
+	private double doubleSum;      // sum of floating point samples
+	private double sumOfSquares;   // sum of squared samples
+	private double[] bucketMin;    // min of each bucket
+	private double[] bucketMax;    // max of each bucket
+}
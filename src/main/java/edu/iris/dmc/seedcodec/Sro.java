@@ -1,25 +1,94 @@
 package edu.iris.dmc.seedcodec;
 
+import java.nio.ByteBuffer;
+
 public class Sro {
+
+	/*
+	 * left shift of the 12 bit mantissa for each 4 bit gain range code, 10
+	 * minus the code.  Codes above 10 are not defined by the format and keep
+	 * the wrapped shift counts they have always decoded with.
+	 */
+	private static final int[] GAIN_SHIFT = {10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0, 31, 30, 29, 28, 27};
+
 	public static int[] decode(byte[] b, int numSamples, boolean swapBytes) throws CodecException {
-		if (b.length < numSamples * 2) {
+		int[] out = new int[numSamples];
+		decode(b, 0, numSamples, swapBytes, out, 0);
+		return out;
+	}
+
+	/**
+	 * Decode samples starting at index <b>offset</b> of the byte array into
+	 * the provided array, starting at index <b>outOffset</b>. SRO words are
+	 * always read high byte first.
+	 */
+	public static int decode(byte[] b, int offset, int numSamples, boolean swapBytes,
+			int[] out, int outOffset) throws CodecException {
+		checkLength(b.length - offset, numSamples, out.length - outOffset);
+		for (int i = 0, lp = offset; i < numSamples; i++, lp += 2) {
+			out[outOffset + i] = decodeSample(b[lp], b[lp + 1]);
+		}
+		return numSamples;
+	}
+
+	/**
+	 * Decode samples from the remaining bytes of the buffer into the
+	 * provided array. The buffer position is left unchanged.
+	 */
+	public static int decode(ByteBuffer b, int numSamples, boolean swapBytes,
+			int[] out, int outOffset) throws CodecException {
+		checkLength(b.remaining(), numSamples, out.length - outOffset);
+		int lp = b.position();
+		for (int i = 0; i < numSamples; i++, lp += 2) {
+			out[outOffset + i] = decodeSample(b.get(lp), b.get(lp + 1));
+		}
+		return numSamples;
+	}
+
+	/**
+	 * Decode samples starting at index <b>offset</b> of the byte array into
+	 * the provided float array, with the gain range applied, starting at
+	 * index <b>outOffset</b>.
+	 */
+	public static int decode(byte[] b, int offset, int numSamples, boolean swapBytes,
+			float[] out, int outOffset) throws CodecException {
+		checkLength(b.length - offset, numSamples, out.length - outOffset);
+		for (int i = 0, lp = offset; i < numSamples; i++, lp += 2) {
+			out[outOffset + i] = decodeSample(b[lp], b[lp + 1]);
+		}
+		return numSamples;
+	}
+
+	/**
+	 * Decode samples from the remaining bytes of the buffer into the
+	 * provided float array, with the gain range applied. The buffer position
+	 * is left unchanged.
+	 */
+	public static int decode(ByteBuffer b, int numSamples, boolean swapBytes,
+			float[] out, int outOffset) throws CodecException {
+		checkLength(b.remaining(), numSamples, out.length - outOffset);
+		int lp = b.position();
+		for (int i = 0; i < numSamples; i++, lp += 2) {
+			out[outOffset + i] = decodeSample(b.get(lp), b.get(lp + 1));
+		}
+		return numSamples;
+	}
+
+	private static void checkLength(int available, int numSamples, int room) throws CodecException {
+		if (available < numSamples * 2) {
 			throw new CodecException("Not enough bytes for " + numSamples
 					+ " samples, need " + (2 * numSamples) + " but only have "
-					+ b.length);
+					+ available);
 		}
-		int[] out = new int[numSamples];
-		int i=0;
-		for (int lp = 0; lp < (numSamples * 2); lp += 2) {
-			int j, gr;
-			j = (b[lp] & 0x0F) << 8;
-			j |= (b[lp + 1] & 0xFF);
-			if (j >= 0x800)
-				j -= 4096;
-			gr = (b[lp] & 0xF0) >> 4;
-			j <<= (10 - gr);
-			out[i] = j;
-			i++;
+		if (room < numSamples) {
+			throw new CodecException("Not enough room for " + numSamples
+					+ " samples, only " + room + " available");
 		}
-		return out;
+	}
+
+	private static int decodeSample(byte hi, byte lo) {
+		/* sign extend the 12 bit mantissa, then shift by the gain range */
+		int j = (((hi & 0x0F) << 8) | (lo & 0xFF)) << 20 >> 20;
+		return j << GAIN_SHIFT[(hi & 0xF0) >> 4];
 	}
 }
@@ -0,0 +1,123 @@
+package edu.iris.dmc.seedcodec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The encodings built in to {@link Codec}, presented as registry entries.
+ * Decoding goes through the typed {@link Codec} methods, and the Steim and
+ * 32 bit integer formats can also be encoded.
+ *
+ * @version 10/16/2026
+ */
+class StandardCodec implements SampleCodec, B1000Types {
+
+	StandardCodec(int type, String name) {
+		this.type = type;
+		this.name = name;
+	}
+
+	/**
+	 * Create an entry for each of the standard encodings.
+	 */
+	static SampleCodec[] all() {
+		return new SampleCodec[] {
+			new StandardCodec(SHORT, "Int16Bit"),
+			new StandardCodec(INT24, "Int24Bit"),
+			new StandardCodec(INTEGER, "Int32Bit"),
+			new StandardCodec(FLOAT, "Float"),
+			new StandardCodec(DOUBLE, "DoubleFloat"),
+			new StandardCodec(STEIM1, "Steim1"),
+			new StandardCodec(STEIM2, "Steim2"),
+			new StandardCodec(USNSN, "USNSN"),
+			new StandardCodec(CDSN, "CDSN"),
+			new StandardCodec(SRO, "SRO"),
+			new StandardCodec(DWWSSN, "DWWSSN")
+		};
+	}
+
+	public int getType() {
+		return type;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getDecompressedType() {
+		try {
+			return CODEC.getDecompressedType(type);
+		} catch (UnsupportedCompressionType e) {
+			// only constructed for types the Codec knows
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public DecompressedData decode(ByteBuffer b, int numSamples, boolean swapBytes) throws CodecException {
+		return CODEC.decompress(type, b, numSamples, swapBytes);
+	}
+
+	public boolean canEncode() {
+		return type == STEIM1 || type == STEIM2 || type == INTEGER;
+	}
+
+	public int encode(int[] samples, int offset, int length, int bias, ByteBuffer out) throws CodecException {
+		switch (type) {
+			case STEIM1:
+			case STEIM2:
+				int frames = Math.min(out.remaining() / 64, 63);
+				SteimFrameBlock frameBlock = (type == STEIM1)
+						? Steim1.encode(samples, offset, length, frames, bias)
+						: Steim2.encode(samples, offset, length, frames, bias);
+				frameBlock.encodeInto(out);
+				return frameBlock.getNumSamples();
+			case INTEGER:
+				int count = Math.min(length, out.remaining() / 4);
+				ByteBuffer dst = out.duplicate().order(ByteOrder.BIG_ENDIAN);
+				dst.asIntBuffer().put(samples, offset, count);
+				out.position(out.position() + 4 * count);
+				return count;
+			default:
+				throw new UnsupportedCompressionType("Type " + type
+						+ " (" + name + ") cannot be encoded.");
+		}
+	}
+
+	public int estimateEncodedSize(int numSamples) {
+		if (numSamples <= 0) {
+			return 0;
+		}
+		switch (type) {
+			case SHORT:
+			case DWWSSN:
+			case CDSN:
+			case SRO:
+				return 2 * numSamples;
+			case INT24:
+				return 3 * numSamples;
+			case INTEGER:
+			case FLOAT:
+				return 4 * numSamples;
+			case DOUBLE:
+				return 8 * numSamples;
+			case STEIM1:
+			case STEIM2:
+				// at least one difference per data word: 13 in frame 0, 15 after
+				return 64 * (1 + (Math.max(0, numSamples - 13) + 14) / 15);
+			default:
+				// USNSN: header, 33 bytes per 8 differences at 32 bits, a back
+				// pointer per 7 frames, last frame count and reverse constant
+				int frames = (numSamples + 7) / 8;
+				return 6 + 33 * frames + (frames + 6) / 7 + 1 + 4;
+		}
+	}
+
+	public String toString() {
+		return name + " (" + type + ")";
+	}
+
+	private static final Codec CODEC = new Codec();  // stateless, shared
+
+	private final int type;    // blockette 1000 encoding code
+	private final String name; // data format dictionary name
+}
@@ -1,5 +1,8 @@
 package edu.iris.dmc.seedcodec;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 //import edu.iris.Fissures.seed.util.*;
 
 /**
@@ -27,6 +30,9 @@ package edu.iris.dmc.seedcodec;
 
 public class Steim1 {
 
+	/** most differences one frame can hold, four in each of 15 words */
+	private static final int FRAME_SAMPLES = 60;
+
 	/**
 	 *  Decode the indicated number of samples from the provided byte array and
 	 *  return an integer array of the decompressed values.  Being differencing
@@ -45,52 +51,292 @@ public class Steim1 {
 	 *  bytes.
 	 */
 	public static int[] decode(byte[] b, int numSamples, boolean swapBytes, int bias) throws SteimException {
-		// Decode Steim1 compression format from the provided byte array, which contains numSamples number
-		// of samples.  swapBytes is set to true if the value words are to be byte swapped.  bias represents
-		// a previous value which acts as a starting constant for continuing differences integration.  At the
-		// very start, bias is set to 0.
-		if (b.length % 64 != 0) {
-			throw new SteimException("encoded data length is not multiple of 64 bytes (" + b.length + ")"); 
-		}
 		int[] samples = new int[numSamples];
-		int[] tempSamples;
-		int numFrames = b.length / 64;
+		decode(b, 0, b.length, numSamples, swapBytes, bias, samples, 0);
+		return samples;
+	}
+
+	/**
+	 *  Decode the indicated number of samples from a region of the provided
+	 *  byte array directly into a caller-supplied integer array.  The 32-bit
+	 *  words of each frame are read in place and the running integration value
+	 *  is carried in a local, so no intermediate arrays are allocated.
+	 *  @param b input byte array containing the encoded frames
+	 *  @param offset index of the first byte of frame 0 in <b>b</b>
+	 *  @param length number of encoded bytes, must be a multiple of 64
+	 *  @param numSamples the number of samples to be decoded
+	 *  @param swapBytes if true, swap reverse the endian-ness of the elements of
+	 *  byte array <b>b</b>.
+	 *  @param bias the first difference value will be computed from this value.
+	 *  If set to 0, the method will attempt to use the X(0) constant instead.
+	 *  @param samples destination array for the decoded values
+	 *  @param samplesOffset index in <b>samples</b> of the first decoded value
+	 *  @return the number of samples decoded, always <b>numSamples</b>
+	 *  @throws SteimException - encoded data length is not multiple of 64
+	 *  bytes, or the frames hold fewer than <b>numSamples</b> samples.
+	 */
+	public static int decode(byte[] b, int offset, int length, int numSamples, boolean swapBytes, int bias,
+			int[] samples, int samplesOffset) throws SteimException {
+		ByteBuffer buf = ByteBuffer.wrap(b, offset, length);
+		buf.order(swapBytes ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+		return decodeFrames(buf, offset, length, numSamples, bias, samples, samplesOffset);
+	}
+
+	/**
+	 *  Decode the indicated number of samples from the remaining bytes of the
+	 *  provided buffer directly into a caller-supplied integer array.  The
+	 *  buffer position is left unchanged and its byte order takes the place of
+	 *  the <b>swapBytes</b> flag.
+	 *  @param buf buffer holding the encoded frames from position to limit
+	 *  @param numSamples the number of samples to be decoded
+	 *  @param bias the first difference value will be computed from this value.
+	 *  If set to 0, the method will attempt to use the X(0) constant instead.
+	 *  @param samples destination array for the decoded values
+	 *  @param samplesOffset index in <b>samples</b> of the first decoded value
+	 *  @return the number of samples decoded, always <b>numSamples</b>
+	 *  @throws SteimException - encoded data length is not multiple of 64
+	 *  bytes, or the frames hold fewer than <b>numSamples</b> samples.
+	 */
+	public static int decode(ByteBuffer buf, int numSamples, int bias, int[] samples, int samplesOffset)
+			throws SteimException {
+		return decodeFrames(buf, buf.position(), buf.remaining(), numSamples, bias, samples, samplesOffset);
+	}
+
+	/**
+	 *  Decode the indicated number of samples from the remaining bytes of the
+	 *  provided buffer and pass them to <b>sink</b> one frame at a time, so no
+	 *  array sized to the record is needed.  The buffer position is left
+	 *  unchanged and its byte order takes the place of the <b>swapBytes</b>
+	 *  flag.
+	 *  @param buf buffer holding the encoded frames from position to limit
+	 *  @param numSamples the number of samples to be decoded
+	 *  @param bias the first difference value will be computed from this value.
+	 *  If set to 0, the method will attempt to use the X(0) constant instead.
+	 *  @param sink receiver of the decoded values
+	 *  @return the number of samples decoded, always <b>numSamples</b>
+	 *  @throws SteimException - encoded data length is not multiple of 64
+	 *  bytes, or the frames hold fewer than <b>numSamples</b> samples, in
+	 *  which case the samples found have already been passed to <b>sink</b>.
+	 */
+	public static int decode(ByteBuffer buf, int numSamples, int bias, SampleSink sink) throws SteimException {
+		int offset = buf.position();
+		int length = buf.remaining();
+		if (length % 64 != 0) {
+			throw new SteimException("encoded data length is not multiple of 64 bytes (" + length + ")"); 
+		}
+		int numFrames = length / 64;
+		int[] block = new int[FRAME_SAMPLES];
 		int current = 0;
-		int start=0, end=0;
-		int firstData=0;
-		int lastValue = 0;
-
-		//System.err.println("DEBUG: number of samples: " + numSamples + ", number of frames: " + numFrames + ", byte array size: " + b.length);
-		for (int i=0; i< numFrames; i++ ) {
-			//System.err.println("DEBUG: start of frame " + i);
-			tempSamples = extractSamples(b, i*64, swapBytes);   // returns only differences except for frame 0
-			firstData = 0; // d(0) is byte 0 by default
-			if (i==0) {   // special case for first frame
-				lastValue = bias; // assign our X(-1)
-				// x0 and xn are in 1 and 2 spots
-				start = tempSamples[1];  // X(0) is byte 1 for frame 0
-				end = tempSamples[2];    // X(n) is byte 2 for frame 0
-				firstData = 3; // d(0) is byte 3 for frame 0
-				//System.err.println("DEBUG: frame " + i + ", bias = " + bias + ", x(0) = " + start + ", x(n) = " + end);
-				// if bias was zero, then we want the first sample to be X(0) constant
-				if (bias == 0) lastValue = start - tempSamples[3];  // X(-1) = X(0) - d(0)
+		int lastValue = initialValue(buf, offset, numFrames, bias);
+		for (int i=0; i<numFrames && current < numSamples; i++) {
+			int n = decodeFrame(buf, offset + i*64, (i == 0) ? 3 : 1, lastValue,
+					block, 0, Math.min(block.length, numSamples - current));
+			if (n > 0) {
+				sink.accept(block, 0, n);
+				lastValue = block[n-1];
+				current += n;
 			}
-			//System.err.print("DEBUG: ");
-			for (int j = firstData; j < tempSamples.length && current < numSamples; j++) {
-				samples[current] = lastValue + tempSamples[j];  // X(n) = X(n-1) + d(n)
-				lastValue = samples[current];
-				//System.err.print("d(" + (j-firstData) + ")" + tempSamples[j] + ", x(" + current + ")" + samples[current] + ";"); // DEBUG
-				current++;
+		}
+		if (current != numSamples) {
+			throw new SteimException("Number of samples decompressed doesn't match number in header: "
+					+ current + " != " + numSamples);
+		}
+		return numSamples;
+	}
+
+	/**
+	 *  Check the integrity of the provided byte array without decoding it into
+	 *  an array.  The differences are integrated from X(0) in a single running
+	 *  value, and the sample count and last value are compared with
+	 *  <b>numSamples</b> and the X(n) constant.
+	 *  @param b input byte array to be checked
+	 *  @param numSamples the number of samples the frames should hold
+	 *  @param swapBytes if true, swap reverse the endian-ness of the elements of
+	 *  byte array <b>b</b>.
+	 *  @return the outcome of the scan
+	 *  @throws SteimException - encoded data length is not multiple of 64
+	 *  bytes.
+	 */
+	public static SteimScan verify(byte[] b, int numSamples, boolean swapBytes) throws SteimException {
+		ByteBuffer buf = ByteBuffer.wrap(b);
+		buf.order(swapBytes ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+		return scanFrames(buf, 0, b.length, numSamples);
+	}
+
+	/**
+	 *  Check the integrity of the remaining bytes of the provided buffer
+	 *  without decoding them into an array.  The buffer position is left
+	 *  unchanged and its byte order takes the place of the <b>swapBytes</b>
+	 *  flag.
+	 *  @param buf buffer holding the encoded frames from position to limit
+	 *  @param numSamples the number of samples the frames should hold
+	 *  @return the outcome of the scan
+	 *  @throws SteimException - encoded data length is not multiple of 64
+	 *  bytes.
+	 */
+	public static SteimScan verify(ByteBuffer buf, int numSamples) throws SteimException {
+		return scanFrames(buf, buf.position(), buf.remaining(), numSamples);
+	}
+
+	/**
+	 *  Walk the frames found at absolute index <b>offset</b> of <b>buf</b> and
+	 *  integrate the differences straight into <b>samples</b>.
+	 */
+	private static int decodeFrames(ByteBuffer buf, int offset, int length, int numSamples, int bias,
+			int[] samples, int samplesOffset) throws SteimException {
+		if (length % 64 != 0) {
+			throw new SteimException("encoded data length is not multiple of 64 bytes (" + length + ")"); 
+		}
+		if (samplesOffset + numSamples > samples.length) {
+			throw new SteimException("destination array too small for " + numSamples + " samples at offset "
+					+ samplesOffset + " (" + samples.length + ")");
+		}
+		int numFrames = length / 64;
+		int current = samplesOffset;
+		int end = samplesOffset + numSamples;
+		int lastValue = initialValue(buf, offset, numFrames, bias);
+		for (int i=0; i<numFrames && current < end; i++) {
+			int firstWord = (i == 0) ? 3 : 1;  // X(0) and X(n) are words 1 and 2 of frame 0
+			int n = decodeFrame(buf, offset + i*64, firstWord, lastValue, samples, current, end - current);
+			if (n > 0) {
+				current += n;
+				lastValue = samples[current-1];
 			}
-			//System.err.println("DEBUG: end of frame " + i);
 		}  // end for each frame...
-        if (current != numSamples) {
-            throw new SteimException("Number of samples decompressed doesn't match number in header: "+current+" != "+numSamples);
-        }
-		return samples;
+		if (current != end) {
+			throw new SteimException("Number of samples decompressed doesn't match number in header: "
+					+ (current - samplesOffset) + " != " + numSamples);
+		}
+		return numSamples;
+	}
+
+	/**
+	 *  Return the value X(-1) the first difference is added to.
+	 */
+	private static int initialValue(ByteBuffer buf, int offset, int numFrames, int bias) {
+		// bias represents a previous value which acts as a starting constant for continuing differences
+		// integration.  At the very start, bias is set to 0.
+		if (bias == 0 && numFrames > 0) {
+			// if bias was zero, then we want the first sample to be X(0) constant
+			return buf.getInt(offset+4) - firstDifference(buf, offset);  // X(-1) = X(0) - d(0)
+		}
+		return bias;
+	}
+
+	/**
+	 *  Integrate the differences of the frame at absolute index <b>frame</b>
+	 *  of <b>buf</b>, starting from <b>lastValue</b> and word
+	 *  <b>firstWord</b>, into at most <b>max</b> elements of <b>samples</b>
+	 *  from index <b>current</b>.  Return the number of samples written.
+	 */
+	private static int decodeFrame(ByteBuffer buf, int frame, int firstWord, int lastValue,
+			int[] samples, int current, int max) {
+		return (int) (unpackFrame(buf, frame, firstWord, lastValue, samples, current, max, true) >>> 32);
+	}
+
+	/**
+	 *  Integrate at most <b>max</b> differences of the frame at absolute
+	 *  index <b>frame</b> of <b>buf</b>, starting from <b>lastValue</b> and
+	 *  word <b>firstWord</b>.  If <b>store</b> is set each value is written
+	 *  to <b>samples</b> from index <b>current</b>, otherwise the values are
+	 *  only accumulated and <b>samples</b> is not used.  Return the number
+	 *  of differences in the high word and the last value in the low word.
+	 */
+	private static long unpackFrame(ByteBuffer buf, int frame, int firstWord, int lastValue,
+			int[] samples, int current, int max, boolean store) {
+		int start = current;
+		int end = current + max;
+		int nibbles = buf.getInt(frame);
+		for (int w = firstWord; w < 16 && current < end; w++) {
+			int pos = frame + w*4;
+			switch ((nibbles >> (30 - w*2)) & 0x03) {
+				case 1:
+					// 4 one byte differences
+					for (int n=0; n<4 && current < end; n++) {
+						lastValue += buf.get(pos+n);
+						if (store) {
+							samples[current] = lastValue;
+						}
+						current++;
+					}
+					break;
+				case 2:
+					// 2 two byte differences, each value swapped on its own
+					lastValue += buf.getShort(pos);
+					if (store) {
+						samples[current] = lastValue;
+					}
+					current++;
+					if (current < end) {
+						lastValue += buf.getShort(pos+2);
+						if (store) {
+							samples[current] = lastValue;
+						}
+						current++;
+					}
+					break;
+				case 3:
+					// 1 four byte difference
+					lastValue += buf.getInt(pos);
+					if (store) {
+						samples[current] = lastValue;
+					}
+					current++;
+					break;
+				default:
+					// 0 means header info or an unused word
+			}
+		}
+		return ((long) (current - start) << 32) | (lastValue & 0xffffffffL);
+	}
+
+	/**
+	 *  Walk the frames found at absolute index <b>offset</b> of <b>buf</b> as
+	 *  decodeFrames does with a bias of 0, through the same unpackFrame, but
+	 *  keeping only the running value instead of storing samples.
+	 */
+	private static SteimScan scanFrames(ByteBuffer buf, int offset, int length, int numSamples)
+			throws SteimException {
+		if (length % 64 != 0) {
+			throw new SteimException("encoded data length is not multiple of 64 bytes (" + length + ")");
+		}
+		int numFrames = length / 64;
+		if (numFrames == 0) {
+			return new SteimScan(numSamples, 0, 0, 0, 0);
+		}
+		int count = 0;
+		int lastValue = initialValue(buf, offset, numFrames, 0);
+		for (int i=0; i<numFrames && count < numSamples; i++) {
+			long unpacked = unpackFrame(buf, offset + i*64, (i == 0) ? 3 : 1, lastValue,
+					null, 0, numSamples - count, false);
+			lastValue = (int) unpacked;
+			count += (int) (unpacked >>> 32);
+		}
+		return new SteimScan(numSamples, count, (count > 0) ? lastValue : 0,
+				buf.getInt(offset+4), buf.getInt(offset+8));
+	}
+
+	/**
+	 *  Return the first difference d(0) held in frame 0 at absolute index
+	 *  <b>offset</b> of <b>buf</b>, or 0 if the frame holds no differences.
+	 */
+	private static int firstDifference(ByteBuffer buf, int offset) {
+		int nibbles = buf.getInt(offset);
+		for (int w = 3; w < 16; w++) {
+			int pos = offset + w*4;
+			switch ((nibbles >> (30 - w*2)) & 0x03) {
+				case 1:
+					return buf.get(pos);
+				case 2:
+					return buf.getShort(pos);
+				case 3:
+					return buf.getInt(pos);
+				default:
+			}
+		}
+		return 0;
 	}
 
-	
 	/**
 	 * Abbreviated, zero-bias version of decode(). 
 	 * 
@@ -126,7 +372,30 @@ public class Steim1 {
 	* @throws SteimException cannot encode more than 63 frames
 	*/
 	public static SteimFrameBlock encode(int[] samples, int frames, int bias) throws SteimException {
-		if (samples.length == 0) {
+		return encode(samples, 0, samples.length, frames, bias);
+	}
+
+	/**
+	* Encode a run of integer values, starting at index <b>offset</b> of the
+	* provided array, into a Steim 1 compressed frame block.
+	* Encoding stops when the run is exhausted or the frames are full, whichever
+	* comes first; {@link SteimFrameBlock#getNumSamples()} tells how many values
+	* were consumed.  This allows a long sample array to be split over successive
+	* records without copying its tail.
+	* @param samples the data points represented as signed integers
+	* @param offset index in <b>samples</b> of the first value to encode
+	* @param length the number of values available from <b>offset</b>
+	* @param frames the number of Steim frames to use in the encoding
+	* @param bias offset for use as a constant for the first difference, otherwise
+	* set to 0
+	* @return SteimFrameBlock containing encoded byte array
+	* @throws SteimException samples array is zero size
+	* @throws SteimException number of frames is not a positive value
+	* @throws SteimException cannot encode more than 63 frames
+	*/
+	public static SteimFrameBlock encode(int[] samples, int offset, int length, int frames, int bias)
+			throws SteimException {
+		if (length == 0) {
 			throw new SteimException("samples array is zero size");
 		}
 		if (frames <= 0) {
@@ -138,6 +407,44 @@ public class Steim1 {
 		// all encoding will be contained within a frame block
 		// Steim encoding 1
 		SteimFrameBlock frameBlock = new SteimFrameBlock(frames,1);
+		encodeFrames(samples, offset, length, bias, frameBlock);
+		return frameBlock;
+	}
+
+	/**
+	* Encode as many values as fit in the provided frame block, starting at
+	* index <b>offset</b> of the provided array.  The block is
+	* {@link SteimFrameBlock#reset() reset} first, so a caller can encode record
+	* after record into the same frame storage and write each one out with
+	* {@link SteimFrameBlock#writeTo(byte[], int)}.
+	* @param samples the data points represented as signed integers
+	* @param offset index in <b>samples</b> of the first value to encode
+	* @param length the number of values available from <b>offset</b>
+	* @param bias offset for use as a constant for the first difference, otherwise
+	* set to 0
+	* @param frameBlock Steim 1 frame block to be filled
+	* @return the number of samples encoded
+	* @throws SteimException - the block is not a Steim 1 block, or there are
+	* no samples to encode
+	*/
+	public static int encode(int[] samples, int offset, int length, int bias, SteimFrameBlock frameBlock)
+			throws SteimException {
+		if (length == 0) {
+			throw new SteimException("samples array is zero size");
+		}
+		if (frameBlock.getSteimVersion() != 1) {
+			throw new SteimException("cannot Steim 1 encode into a Steim "
+					+ frameBlock.getSteimVersion() + " frame block");
+		}
+		frameBlock.reset();
+		encodeFrames(samples, offset, length, bias, frameBlock);
+		return frameBlock.getNumSamples();
+	}
+
+	/**
+	* Fill a newly created or reset frame block from the samples.
+	*/
+	private static void encodeFrames(int[] samples, int offset, int length, int bias, SteimFrameBlock frameBlock) {
 		//
 		// pass through the list of samples, and pass encoded words
 		// to frame block
@@ -148,28 +455,29 @@ public class Steim1 {
 		// and reverse integration constant X(N)
 		// ...reverse integration constant may need to be changed if 
 		// the frameBlock fills up.
-		frameBlock.addEncodedWord(samples[0],0,0);                // X(0) -- first sample value
-		frameBlock.addEncodedWord(samples[samples.length-1],0,0); // X(N) -- last sample value
+		frameBlock.addEncodedWord(samples[offset],0,0);            // X(0) -- first sample value
+		frameBlock.addEncodedWord(samples[offset+length-1],0,0);   // X(N) -- last sample value
 		//
 		// now begin looping over differences
-		int sampleIndex = 0;  // where we are in the sample array
+		int sampleIndex = offset;  // where we are in the sample array
+		int samplesEnd = offset + length;  // one past the last sample to encode
 		int[] diff = new int[4]; // store differences here
 		int diffCount = 0;  // how many sample diffs we put into current word
 		int maxSize = 0;    // the maximum diff value size encountered
 		int curSize = 0;    // size of diff value currently looked at
-		while(sampleIndex < samples.length) {
+		while(sampleIndex < samplesEnd) {
 			// look at the next (up to four) differences
 			// and assess the number that can be put into
 			// the upcoming word
 			diffCount = 0;
 			maxSize = 0;
 			for (int i=0; i<4; i++) {
-				if (sampleIndex+i < samples.length) {
+				if (sampleIndex+i < samplesEnd) {
 					// as long as there are still samples
 					// get next difference  X[i] - X[i-1]
-					if (sampleIndex+i == 0) {
+					if (sampleIndex+i == offset) {
 						// special case for d(0) = x(0) - x(-1).
-						diff[0] = samples[0] - bias;
+						diff[0] = samples[offset] - bias;
 					} else {
 						diff[i] = samples[sampleIndex+i] - samples[sampleIndex+i-1];
 					}
@@ -229,8 +537,6 @@ public class Steim1 {
 			// increment the sampleIndex by the diffCount
 			sampleIndex += diffCount;
 		} // end while next sample
-
-		return frameBlock;
 	}
 
 	/**
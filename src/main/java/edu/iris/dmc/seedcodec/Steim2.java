@@ -1,5 +1,8 @@
 package edu.iris.dmc.seedcodec;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 //import edu.iris.Fissures.seed.util.*;
 
 /**
@@ -29,6 +32,21 @@ package edu.iris.dmc.seedcodec;
 public class Steim2 {
 	public static java.io.PrintStream debug = null;
 
+	/** most differences one frame can hold, seven in each of 15 words */
+	private static final int FRAME_SAMPLES = 105;
+
+	/** number of differences computed ahead by the encoder at a time */
+	private static final int DIFF_CHUNK = 256;
+
+	/** bits per difference when packing 1 to 7 differences in a word */
+	private static final int[] PACK_BITS = { 0, 30, 15, 10, 8, 6, 5, 4 };
+
+	/** dnib sub-code, in the top two bits, when packing 1 to 7 differences */
+	private static final int[] PACK_SUBMASK = { 0, 1, 2, 3, 0, 0, 1, 2 };
+
+	/** W0 nibble when packing 1 to 7 differences */
+	private static final int[] PACK_NIBBLE = { 0, 2, 2, 2, 1, 3, 3, 3 };
+
 	/**
 	 * Decode the indicated number of samples from the provided byte array and
 	 * return an integer array of the decompressed values. Being differencing
@@ -52,65 +70,392 @@ public class Steim2 {
 	 *             - encoded data length is not multiple of 64 bytes.
 	 */
 	public static int[] decode(byte[] b, int numSamples, boolean swapBytes, int bias) throws SteimException {
-		if (b.length % 64 != 0) {
-			throw new SteimException("encoded data length is not multiple of 64 bytes (" + b.length + ")");
-		}
 		int[] samples = new int[numSamples];
-		int[] tempSamples;
-		int numFrames = b.length / 64;
+		decode(b, 0, b.length, numSamples, swapBytes, bias, samples, 0);
+		return samples;
+	}
+
+	/**
+	 * Decode the indicated number of samples from a region of the provided
+	 * byte array directly into a caller-supplied integer array. No per-frame
+	 * or per-record arrays are allocated, so a long run of records from the
+	 * same channel can be decoded back to back into one preallocated array.
+	 * 
+	 * @param b
+	 *            input byte array containing the encoded frames
+	 * @param offset
+	 *            index of the first byte of frame 0 in <b>b</b>
+	 * @param length
+	 *            number of encoded bytes, must be a multiple of 64
+	 * @param numSamples
+	 *            the number of samples to be decoded
+	 * @param swapBytes
+	 *            if true, swap reverse the endian-ness of the elements of byte
+	 *            array <b>b</b>.
+	 * @param bias
+	 *            the first difference value will be computed from this value.
+	 *            If set to 0, the method will attempt to use the X(0) constant
+	 *            instead.
+	 * @param samples
+	 *            destination array for the decoded values
+	 * @param samplesOffset
+	 *            index in <b>samples</b> of the first decoded value
+	 * @return the number of samples decoded, always <b>numSamples</b>
+	 * @throws SteimException
+	 *             - encoded data length is not multiple of 64 bytes, or the
+	 *             frames hold fewer than <b>numSamples</b> samples.
+	 */
+	public static int decode(byte[] b, int offset, int length, int numSamples, boolean swapBytes, int bias,
+			int[] samples, int samplesOffset) throws SteimException {
+		ByteBuffer buf = ByteBuffer.wrap(b, offset, length);
+		buf.order(swapBytes ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+		return decodeFrames(buf, offset, length, numSamples, bias, samples, samplesOffset);
+	}
+
+	/**
+	 * Decode the indicated number of samples from the remaining bytes of the
+	 * provided buffer directly into a caller-supplied integer array. The bytes
+	 * between the buffer's position and limit are read without changing the
+	 * position, and the buffer's byte order takes the place of the
+	 * <b>swapBytes</b> flag. Heap, direct and memory-mapped buffers are all
+	 * accepted.
+	 * 
+	 * @param buf
+	 *            buffer holding the encoded frames from position to limit
+	 * @param numSamples
+	 *            the number of samples to be decoded
+	 * @param bias
+	 *            the first difference value will be computed from this value.
+	 *            If set to 0, the method will attempt to use the X(0) constant
+	 *            instead.
+	 * @param samples
+	 *            destination array for the decoded values
+	 * @param samplesOffset
+	 *            index in <b>samples</b> of the first decoded value
+	 * @return the number of samples decoded, always <b>numSamples</b>
+	 * @throws SteimException
+	 *             - encoded data length is not multiple of 64 bytes, or the
+	 *             frames hold fewer than <b>numSamples</b> samples.
+	 */
+	public static int decode(ByteBuffer buf, int numSamples, int bias, int[] samples, int samplesOffset)
+			throws SteimException {
+		return decodeFrames(buf, buf.position(), buf.remaining(), numSamples, bias, samples, samplesOffset);
+	}
+
+	/**
+	 * Decode the indicated number of samples from the remaining bytes of the
+	 * provided buffer and pass them to <b>sink</b> one frame at a time, so no
+	 * array sized to the record is needed. The buffer position is left
+	 * unchanged and its byte order takes the place of the <b>swapBytes</b>
+	 * flag.
+	 * 
+	 * @param buf
+	 *            buffer holding the encoded frames from position to limit
+	 * @param numSamples
+	 *            the number of samples to be decoded
+	 * @param bias
+	 *            the first difference value will be computed from this value.
+	 *            If set to 0, the method will attempt to use the X(0) constant
+	 *            instead.
+	 * @param sink
+	 *            receiver of the decoded values
+	 * @return the number of samples decoded, always <b>numSamples</b>
+	 * @throws SteimException
+	 *             - encoded data length is not multiple of 64 bytes, or the
+	 *             frames hold fewer than <b>numSamples</b> samples, in which
+	 *             case the samples found have already been passed to
+	 *             <b>sink</b>.
+	 */
+	public static int decode(ByteBuffer buf, int numSamples, int bias, SampleSink sink) throws SteimException {
+		int offset = buf.position();
+		int length = buf.remaining();
+		if (length % 64 != 0) {
+			throw new SteimException("encoded data length is not multiple of 64 bytes (" + length + ")");
+		}
+		int numFrames = length / 64;
+		int[] block = new int[FRAME_SAMPLES];
 		int current = 0;
-		int start = 0, end = 0;
-		int firstData = 0;
-		int lastValue = 0;
+		int lastValue = initialValue(buf, offset, numFrames, bias);
+		for (int i = 0; i < numFrames && current < numSamples; i++) {
+			int n = decodeFrame(buf, offset + i * 64, (i == 0) ? 3 : 1, lastValue, block, 0,
+					Math.min(block.length, numSamples - current));
+			if (n > 0) {
+				sink.accept(block, 0, n);
+				lastValue = block[n - 1];
+				current += n;
+			}
+		}
+		if (current != numSamples) {
+			throw new SteimException("Number of samples decompressed doesn't match number in header: "
+					+ current + " != " + numSamples);
+		}
+		return numSamples;
+	}
+
+	/**
+	 * Check the integrity of the provided byte array without decoding it into
+	 * an array. The differences are integrated from X(0) in a single running
+	 * value, and the sample count and last value are compared with
+	 * <b>numSamples</b> and the X(n) constant.
+	 *
+	 * @param b
+	 *            input byte array to be checked
+	 * @param numSamples
+	 *            the number of samples the frames should hold
+	 * @param swapBytes
+	 *            if true, swap reverse the endian-ness of the elements of byte
+	 *            array <b>b</b>.
+	 * @return the outcome of the scan
+	 * @throws SteimException
+	 *             - encoded data length is not multiple of 64 bytes.
+	 */
+	public static SteimScan verify(byte[] b, int numSamples, boolean swapBytes) throws SteimException {
+		ByteBuffer buf = ByteBuffer.wrap(b);
+		buf.order(swapBytes ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+		return scanFrames(buf, 0, b.length, numSamples);
+	}
+
+	/**
+	 * Check the integrity of the remaining bytes of the provided buffer
+	 * without decoding them into an array. The buffer position is left
+	 * unchanged and its byte order takes the place of the <b>swapBytes</b>
+	 * flag.
+	 *
+	 * @param buf
+	 *            buffer holding the encoded frames from position to limit
+	 * @param numSamples
+	 *            the number of samples the frames should hold
+	 * @return the outcome of the scan
+	 * @throws SteimException
+	 *             - encoded data length is not multiple of 64 bytes.
+	 */
+	public static SteimScan verify(ByteBuffer buf, int numSamples) throws SteimException {
+		return scanFrames(buf, buf.position(), buf.remaining(), numSamples);
+	}
+
+	/**
+	 * Walk the frames found at absolute index <b>offset</b> of <b>buf</b> and
+	 * integrate the differences straight into <b>samples</b>.
+	 */
+	private static int decodeFrames(ByteBuffer buf, int offset, int length, int numSamples, int bias,
+			int[] samples, int samplesOffset) throws SteimException {
+		if (length % 64 != 0) {
+			throw new SteimException("encoded data length is not multiple of 64 bytes (" + length + ")");
+		}
+		if (samplesOffset + numSamples > samples.length) {
+			throw new SteimException("destination array too small for " + numSamples + " samples at offset "
+					+ samplesOffset + " (" + samples.length + ")");
+		}
+		int numFrames = length / 64;
+		int current = samplesOffset;
+		int end = samplesOffset + numSamples;
 
 		if (debug != null) {
 			debug.println("number of samples: " + numSamples + ", number of frames: " + numFrames
-					+ ", byte array size: " + b.length);
+					+ ", byte array size: " + length);
+			if (numFrames > 0) {
+				debug.println("frame 0, bias = " + bias + ", x(0) = " + buf.getInt(offset + 4) + ", x(n) = "
+						+ buf.getInt(offset + 8));
+			}
 		}
-		for (int i = 0; i < numFrames; i++) {
-			if (debug != null) {
-				debug.println("start of frame " + i);
+		int lastValue = initialValue(buf, offset, numFrames, bias);
+		for (int i = 0; i < numFrames && current < end; i++) {
+			// x0 and xn are in words 1 and 2 of frame 0
+			int firstWord = (i == 0) ? 3 : 1;
+			int n = decodeFrame(buf, offset + i * 64, firstWord, lastValue, samples, current, end - current);
+			if (n > 0) {
+				current += n;
+				lastValue = samples[current - 1];
 			}
-			tempSamples = extractSamples(b, i * 64, swapBytes); // returns only
-																// differences
-																// except for
-																// frame 0
-			firstData = 0; // d(0) is byte 0 by default
-			if (i == 0) { // special case for first frame
-				lastValue = bias; // assign our X(-1)
-				// x0 and xn are in 1 and 2 spots
-				start = tempSamples[1]; // X(0) is byte 1 for frame 0
-				end = tempSamples[2]; // X(n) is byte 2 for frame 0
-				firstData = 3; // d(0) is byte 3 for frame 0
-				if (debug != null) {
-					debug.println("frame " + i + ", bias = " + bias + ", x(0) = " + start + ", x(n) = " + end);
+		} // end for each frame...
+		if (current != end) {
+			throw new SteimException("Number of samples decompressed doesn't match number in header: "
+					+ (current - samplesOffset) + " != " + numSamples);
+		}
+		return numSamples;
+	}
+
+	/**
+	 * Return the value X(-1) the first difference is added to. If bias was
+	 * zero, then we want the first sample to be X(0), so X(-1) = X(0) - d(0).
+	 */
+	private static int initialValue(ByteBuffer buf, int offset, int numFrames, int bias) {
+		if (bias == 0 && numFrames > 0) {
+			return buf.getInt(offset + 4) - firstDifference(buf, offset);
+		}
+		return bias;
+	}
+
+	/**
+	 * Return the first difference d(0) held in frame 0 at absolute index
+	 * <b>offset</b> of <b>buf</b>, or 0 if the frame holds no differences.
+	 */
+	private static int firstDifference(ByteBuffer buf, int offset) {
+		int nibbles = buf.getInt(offset);
+		for (int w = 3; w < 16; w++) {
+			int pos = offset + w * 4;
+			int word;
+			switch ((nibbles >> (30 - w * 2)) & 0x03) {
+			case 1:
+				return buf.get(pos);
+			case 2:
+				word = buf.getInt(pos);
+				switch ((word >> 30) & 0x03) {
+				case 1:
+					return (word << 2) >> 2;
+				case 2:
+					return (word << 2) >> 17;
+				case 3:
+					return (word << 2) >> 22;
+				default:
+					continue;
+				}
+			case 3:
+				word = buf.getInt(pos);
+				switch ((word >> 30) & 0x03) {
+				case 0:
+					return (word << 2) >> 26;
+				case 1:
+					return (word << 2) >> 27;
+				case 2:
+					return (word << 4) >> 28;
+				default:
+					continue;
 				}
-				// if bias was zero, then we want the first sample to be X(0)
-				// constant
-				if (bias == 0)
-					lastValue = start - tempSamples[3]; // X(-1) = X(0) - d(0)
+			default:
 			}
-			for (int j = firstData; j < tempSamples.length && current < numSamples; j++) {
-				samples[current] = lastValue + tempSamples[j]; // X(n) = X(n-1)
-																// + d(n)
-				lastValue = samples[current];
-				if (debug != null) {
-					debug.print("d(" + (j - firstData) + ")" + tempSamples[j] + ", x(" + current + ")"
-							+ samples[current] + ";");
+		}
+		return 0;
+	}
+
+	/**
+	 * Integrate the differences of the frame at absolute index <b>frame</b> of
+	 * <b>buf</b>, starting from <b>lastValue</b> and word <b>firstWord</b>,
+	 * into at most <b>max</b> elements of <b>samples</b> from index
+	 * <b>current</b>. Return the number of samples written.
+	 */
+	private static int decodeFrame(ByteBuffer buf, int frame, int firstWord, int lastValue, int[] samples,
+			int current, int max) {
+		return (int) (unpackFrame(buf, frame, firstWord, lastValue, samples, current, max, true) >>> 32);
+	}
+
+	/**
+	 * Integrate at most <b>max</b> differences of the frame at absolute index
+	 * <b>frame</b> of <b>buf</b>, starting from <b>lastValue</b> and word
+	 * <b>firstWord</b>. If <b>store</b> is set each value is written to
+	 * <b>samples</b> from index <b>current</b>, otherwise the values are only
+	 * accumulated and <b>samples</b> is not used. Return the number of
+	 * differences in the high word and the last value in the low word.
+	 */
+	private static long unpackFrame(ByteBuffer buf, int frame, int firstWord, int lastValue, int[] samples,
+			int current, int max, boolean store) {
+		int start = current;
+		int end = current + max;
+		int nibbles = buf.getInt(frame);
+		for (int w = firstWord; w < 16 && current < end; w++) {
+			int pos = frame + w * 4;
+			int currNibble = (nibbles >> (30 - w * 2)) & 0x03;
+			int word;
+			int diffCount;
+			int bitSize;
+			int headerSize;
+			switch (currNibble) {
+			case 1:
+				// 4 one byte differences, never swapped
+				for (int n = 0; n < 4 && current < end; n++) {
+					lastValue += buf.get(pos + n);
+					if (store) {
+						samples[current] = lastValue;
+					}
+					current++;
 				}
-				current++;
+				continue;
+			case 2:
+				word = buf.getInt(pos);
+				switch ((word >> 30) & 0x03) {
+				case 1:
+					headerSize = 2;
+					diffCount = 1;
+					bitSize = 30;
+					break;
+				case 2:
+					headerSize = 2;
+					diffCount = 2;
+					bitSize = 15;
+					break;
+				case 3:
+					headerSize = 2;
+					diffCount = 3;
+					bitSize = 10;
+					break;
+				default:
+					continue;
+				}
+				break;
+			case 3:
+				word = buf.getInt(pos);
+				switch ((word >> 30) & 0x03) {
+				case 0:
+					headerSize = 2;
+					diffCount = 5;
+					bitSize = 6;
+					break;
+				case 1:
+					headerSize = 2;
+					diffCount = 6;
+					bitSize = 5;
+					break;
+				case 2:
+					headerSize = 4;
+					diffCount = 7;
+					bitSize = 4;
+					break;
+				default:
+					continue;
+				}
+				break;
+			default:
+				// 0 means header info or an unused word
+				continue;
 			}
-			if (debug != null) {
-				debug.println(": end of frame " + i);
+			int rightShift = 32 - bitSize;
+			for (int d = 0; d < diffCount && current < end; d++) {
+				lastValue += (word << (headerSize + d * bitSize)) >> rightShift;
+				if (store) {
+					samples[current] = lastValue;
+				}
+				current++;
 			}
-		} // end for each frame...
-		if (current != numSamples) {
-			throw new SteimException(
-					"Number of samples decompressed doesn't match number in header: " + current + " != " + numSamples);
 		}
-		return samples;
+		return ((long) (current - start) << 32) | (lastValue & 0xffffffffL);
 	}
-	
+
+	/**
+	 * Walk the frames found at absolute index <b>offset</b> of <b>buf</b> as
+	 * decodeFrames does with a bias of 0, through the same unpackFrame, but
+	 * keeping only the running value instead of storing samples.
+	 */
+	private static SteimScan scanFrames(ByteBuffer buf, int offset, int length, int numSamples)
+			throws SteimException {
+		if (length % 64 != 0) {
+			throw new SteimException("encoded data length is not multiple of 64 bytes (" + length + ")");
+		}
+		int numFrames = length / 64;
+		if (numFrames == 0) {
+			return new SteimScan(numSamples, 0, 0, 0, 0);
+		}
+		int count = 0;
+		int lastValue = initialValue(buf, offset, numFrames, 0);
+		for (int i = 0; i < numFrames && count < numSamples; i++) {
+			long unpacked = unpackFrame(buf, offset + i * 64, (i == 0) ? 3 : 1, lastValue,
+					null, 0, numSamples - count, false);
+			lastValue = (int) unpacked;
+			count += (int) (unpacked >>> 32);
+		}
+		return new SteimScan(numSamples, count, (count > 0) ? lastValue : 0, buf.getInt(offset + 4),
+				buf.getInt(offset + 8));
+	}
+
 	/**
 	 * Abbreviated, zero-bias version of decode().
 	 * 
@@ -194,7 +539,39 @@ public class Steim2 {
 	 *             cannot encode more than 63 frames
 	 */
 	public static SteimFrameBlock encode(int[] samples, int frames, int bias, int samplesLength) throws SteimException {
-		if (samplesLength == 0) {
+		return encode(samples, 0, samplesLength, frames, bias);
+	}
+
+	/**
+	 * Encode a run of integer values, starting at index <b>offset</b> of the
+	 * provided array, into a Steim 2 compressed frame block. Encoding stops
+	 * when the run is exhausted or the frames are full, whichever comes first;
+	 * {@link SteimFrameBlock#getNumSamples()} tells how many values were
+	 * consumed. This allows a long sample array to be split over successive
+	 * records without copying its tail.
+	 * 
+	 * @param samples
+	 *            the data points represented as signed integers
+	 * @param offset
+	 *            index in <b>samples</b> of the first value to encode
+	 * @param length
+	 *            the number of values available from <b>offset</b>
+	 * @param frames
+	 *            the number of Steim frames to use in the encoding
+	 * @param bias
+	 *            offset for use as a constant for the first difference,
+	 *            otherwise set to 0
+	 * @return SteimFrameBlock containing encoded byte array
+	 * @throws SteimException
+	 *             samples array is zero size
+	 * @throws SteimException
+	 *             number of frames is not a positive value
+	 * @throws SteimException
+	 *             cannot encode more than 63 frames
+	 */
+	public static SteimFrameBlock encode(int[] samples, int offset, int length, int frames, int bias)
+			throws SteimException {
+		if (length == 0) {
 			throw new SteimException("samples array is zero size");
 		}
 		if (frames <= 0) {
@@ -206,6 +583,52 @@ public class Steim2 {
 		// all encoding will be contained within a frame block
 		// Steim encoding 2
 		SteimFrameBlock frameBlock = new SteimFrameBlock(frames, 2);
+		encodeFrames(samples, offset, length, bias, frameBlock);
+		return frameBlock;
+	}
+
+	/**
+	 * Encode as many values as fit in the provided frame block, starting at
+	 * index <b>offset</b> of the provided array. The block is
+	 * {@link SteimFrameBlock#reset() reset} first, so a caller can encode
+	 * record after record into the same frame storage and write each one out
+	 * with {@link SteimFrameBlock#writeTo(byte[], int)}.
+	 * 
+	 * @param samples
+	 *            the data points represented as signed integers
+	 * @param offset
+	 *            index in <b>samples</b> of the first value to encode
+	 * @param length
+	 *            the number of values available from <b>offset</b>
+	 * @param bias
+	 *            offset for use as a constant for the first difference,
+	 *            otherwise set to 0
+	 * @param frameBlock
+	 *            Steim 2 frame block to be filled
+	 * @return the number of samples encoded
+	 * @throws SteimException
+	 *             the block is not a Steim 2 block, there are no samples to
+	 *             encode, or a difference does not fit in 30 bits
+	 */
+	public static int encode(int[] samples, int offset, int length, int bias, SteimFrameBlock frameBlock)
+			throws SteimException {
+		if (length == 0) {
+			throw new SteimException("samples array is zero size");
+		}
+		if (frameBlock.getSteimVersion() != 2) {
+			throw new SteimException("cannot Steim 2 encode into a Steim " + frameBlock.getSteimVersion()
+					+ " frame block");
+		}
+		frameBlock.reset();
+		encodeFrames(samples, offset, length, bias, frameBlock);
+		return frameBlock.getNumSamples();
+	}
+
+	/**
+	 * Fill a newly created or reset frame block from the samples.
+	 */
+	private static void encodeFrames(int[] samples, int offset, int length, int bias, SteimFrameBlock frameBlock)
+			throws SteimException {
 		//
 		// pass through the list of samples, and pass encoded words
 		// to frame block
@@ -216,102 +639,67 @@ public class Steim2 {
 		// and reverse integration constant X(N)
 		// ...reverse integration constant may need to be changed if
 		// the frameBlock fills up.
-		frameBlock.addEncodedWord(samples[0], 0, 0); // X(0) -- first sample
-														// value
-		frameBlock.addEncodedWord(samples[samplesLength - 1], 0, 0); // X(N) --
+		frameBlock.addEncodedWord(samples[offset], 0, 0); // X(0) -- first
+															// sample value
+		frameBlock.addEncodedWord(samples[offset + length - 1], 0, 0); // X(N) --
 																		// last
 																		// sample
 																		// value
 		//
-		// now begin looping over differences
-		int sampleIndex = 0; // where we are in the sample array
-		int[] diff = new int[7]; // store differences here
-		int[] minbits = new int[7]; // store min # bits required to represent
-									// diff here
-		int points_remaining; // the number of points remaining
-		while (sampleIndex < samplesLength) {
-			// look at the next (up to seven) differences
-			// and assess the number that can be put into
-			// the upcoming word
-			points_remaining = 0;
-			for (int i = 0; i < 7; i++) {
-				if (sampleIndex + i < samplesLength) {
-					// as long as there are still samples
-					// get next difference X[i] - X[i-1]
-					if (sampleIndex + i == 0) {
-						// special case for d(0) = x(0) - x(-1).
-						diff[0] = samples[0] - bias;
-					} else {
-						diff[i] = samples[sampleIndex + i] - samples[sampleIndex + i - 1];
-					}
-					// and increment the counter
-					minbits[i] = minBitsNeeded(diff[i]);
-					points_remaining++;
-				} else {
-					break; // no more samples, leave for loop
+		// differences and their signed bit widths are computed a chunk at a
+		// time, so that each one is evaluated once rather than once for every
+		// word whose look-ahead window it falls in
+		int[] diff = new int[DIFF_CHUNK]; // differences for samples chunkStart..
+		int[] width = new int[DIFF_CHUNK]; // bits needed for each difference
+		int chunkStart = offset;
+		int chunkEnd = offset; // one past the last sample in the chunk
+		int sampleIndex = offset; // where we are in the sample array
+		int samplesEnd = offset + length; // one past the last sample to encode
+		while (sampleIndex < samplesEnd) {
+			if (chunkEnd - sampleIndex < 7 && chunkEnd < samplesEnd) {
+				// refill the chunk starting at the current sample
+				chunkStart = sampleIndex;
+				chunkEnd = Math.min(samplesEnd, chunkStart + DIFF_CHUNK);
+				int prev = (chunkStart == offset) ? bias : samples[chunkStart - 1];
+				for (int k = chunkStart; k < chunkEnd; k++) {
+					// get next difference X[k] - X[k-1], d(0) = x(0) - x(-1)
+					int d = samples[k] - prev;
+					prev = samples[k];
+					diff[k - chunkStart] = d;
+					// bits needed for d as a signed value, 1 to 32
+					width[k - chunkStart] = 33 - Integer.numberOfLeadingZeros(d ^ (d >> 31));
 				}
-			} // end for (0..7)
-
+			}
 			// Determine the packing required for the next compressed word in
-			// the SteimFrame.
-			final int nbits = bitsForPack(minbits, points_remaining);
+			// the SteimFrame: the most differences that all fit in the bit
+			// width available for that many differences.
+			int base = sampleIndex - chunkStart;
+			int available = Math.min(7, chunkEnd - sampleIndex);
+			int ndiff = 0; // the number of differences
+			int maxWidth = 0;
+			while (ndiff < available) {
+				maxWidth = Math.max(maxWidth, width[base + ndiff]);
+				if (maxWidth > PACK_BITS[ndiff + 1]) {
+					break;
+				}
+				ndiff++;
+			}
+			if (ndiff == 0) {
+				// only a difference needing more than 30 bits fits nowhere
+				throw new SteimException("Unable to encode 32 bit difference in Steim2 format");
+			}
 
 			// generate the encoded word and the nibble value
-			final int ndiff; // the number of differences
-			final int bitmask;
-			final int submask;
-			final int nibble;
-			switch (nbits) {
-			case 4:
-				ndiff = 7;
-				bitmask = 0x0000000f;
-				submask = 0x02;
-				nibble = 3;
-				break;
-			case 5:
-				ndiff = 6;
-				bitmask = 0x0000001f;
-				submask = 0x01;
-				nibble = 3;
-				break;
-			case 6:
-				ndiff = 5;
-				bitmask = 0x0000003f;
-				submask = 0x00;
-				nibble = 3;
-				break;
-			case 8:
-				ndiff = 4;
-				bitmask = 0x000000ff;
-				submask = 0;
-				nibble = 1;
-				break;
-			case 10:
-				ndiff = 3;
-				bitmask = 0x000003ff;
-				submask = 0x03;
-				nibble = 2;
-				break;
-			case 15:
-				ndiff = 2;
-				bitmask = 0x00007fff;
-				submask = 0x02;
-				nibble = 2;
-				break;
-			case 30:
-				ndiff = 1;
-				bitmask = 0x3fffffff;
-				submask = 0x01;
-				nibble = 2;
-				break;
-			default:
-				throw new SteimException("Unable to encode " + nbits + " bit difference in Steim2 format");
+			final int nbits = PACK_BITS[ndiff];
+			final int bitmask = (1 << nbits) - 1;
+			int word = 0;
+			for (int i = 0; i < ndiff; i++) {
+				word = (word << nbits) | (diff[base + i] & bitmask);
 			}
-
-			final int word = steimPackWord(diff, nbits, ndiff, bitmask, submask);
+			word |= PACK_SUBMASK[ndiff] << 30;
 
 			// add the encoded word to the frame block
-			if (frameBlock.addEncodedWord(word, ndiff, nibble)) {
+			if (frameBlock.addEncodedWord(word, ndiff, PACK_NIBBLE[ndiff])) {
 				// frame block is full (but the value did get added)
 				// so modify reverse integration constant to be the very last
 				// value added
@@ -323,76 +711,6 @@ public class Steim2 {
 			// increment the sampleIndex by the number of differences
 			sampleIndex += ndiff;
 		} // end while next sample
-
-		return frameBlock;
-	}
-
-	private static int minBitsNeeded(int diff) {
-		int minbits = 0;
-		if (diff >= -8 && diff < 8)
-			minbits = 4;
-		else if (diff >= -16 && diff < 16)
-			minbits = 5;
-		else if (diff >= -32 && diff < 32)
-			minbits = 6;
-		else if (diff >= -128 && diff < 128)
-			minbits = 8;
-		else if (diff >= -512 && diff < 512)
-			minbits = 10;
-		else if (diff >= -16384 && diff < 16384)
-			minbits = 15;
-		else if (diff >= -536870912 && diff < 536870912)
-			minbits = 30;
-		else
-			minbits = 32;
-		return minbits;
-	}
-
-	private static int bitsForPack(int[] minbits, int points_remaining) {
-		if (points_remaining >= 7 && (minbits[0] <= 4) && (minbits[1] <= 4) && (minbits[2] <= 4) && (minbits[3] <= 4)
-				&& (minbits[4] <= 4) && (minbits[5] <= 4) && (minbits[6] <= 4))
-			return 4;
-		if (points_remaining >= 6 && (minbits[0] <= 5) && (minbits[1] <= 5) && (minbits[2] <= 5) && (minbits[3] <= 5)
-				&& (minbits[4] <= 5) && (minbits[5] <= 5))
-			return 5;
-		if (points_remaining >= 5 && (minbits[0] <= 6) && (minbits[1] <= 6) && (minbits[2] <= 6) && (minbits[3] <= 6)
-				&& (minbits[4] <= 6))
-			return 6;
-		if (points_remaining >= 4 && (minbits[0] <= 8) && (minbits[1] <= 8) && (minbits[2] <= 8) && (minbits[3] <= 8))
-			return 8;
-		if (points_remaining >= 3 && (minbits[0] <= 10) && (minbits[1] <= 10) && (minbits[2] <= 10))
-			return 10;
-		if (points_remaining >= 2 && (minbits[0] <= 15) && (minbits[1] <= 15))
-			return 15;
-		if (points_remaining >= 1 && (minbits[0] <= 30))
-			return 30;
-		return 32;
-	}
-
-	/**
-	 * Pack Steim2 compressed word with optional submask.
-	 * 
-	 * @param diff
-	 *            the differences
-	 * @param nbits
-	 *            the number of bits
-	 * @param ndiff
-	 *            the number of differences
-	 * @param bitmask
-	 *            the bit mask
-	 * @param submask
-	 *            the sub mask or 0 if none
-	 */
-	private static int steimPackWord(int[] diff, int nbits, int ndiff, int bitmask, int submask) {
-		int val = 0;
-		int i = 0;
-		for (i = 0; i < ndiff; i++) {
-			val = (val << nbits) | (diff[i] & bitmask);
-		}
-		if (submask != 0) {
-			val |= (submask << 30);
-		}
-		return val;
 	}
 
 	/**
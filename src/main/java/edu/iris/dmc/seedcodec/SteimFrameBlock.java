@@ -1,6 +1,10 @@
 package edu.iris.dmc.seedcodec;
 
 import java.io.*;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 
 /**
  * This class acts as a container to hold encoded bytes processed
@@ -10,6 +14,11 @@ import java.io.*;
  * of the data frames.
  * This class stores the Steim encoding, but is ignorant of the encoding
  * process itself...it's just for self-referencing.
+ * <p>
+ * A block can be {@link #reset() reset} and filled again by the Steim
+ * encoders, and its frames can be written straight into a record buffer
+ * with {@link #writeTo(byte[], int)} or {@link #encodeInto(ByteBuffer)},
+ * so an exporter can encode record after record without allocating.
  * @author Robert Casey (IRIS DMC)
  * @version 12/10/2001
  */
@@ -33,18 +42,14 @@ public class SteimFrameBlock {
 	 * (1,2,3).
 	 */
 	public SteimFrameBlock (int numFrames, int steimVersion) {
-		steimFrame = new SteimFrame[numFrames]; // array of frames
-		for (int i = 0; i < steimFrame.length; i++) {
-			// initialize the SteimFrame array
-			steimFrame[i] = new SteimFrame();
-		}
+		word = new int[numFrames * 16]; // words of all frames, frame after frame
 		this.numFrames = numFrames;
 		this.steimVersion = steimVersion;
 
 		// initialize the first frame properly
 		currentFrame = 0;            // sanity
 		addEncodingNibble(0); // first nibble always 00
-		this.steimFrame[currentFrame].pos++;  // increment position in frame to W1
+		pos++;  // increment position in frame to W1
 	}
 
 
@@ -73,20 +78,71 @@ public class SteimFrameBlock {
 	 * @throws IOException from called method(s)
 	 */
 	public byte[] getEncodedData () throws IOException {
-		// set up a byte array to write int words to
-		ByteArrayOutputStream encodedData = 
-			new ByteArrayOutputStream(numFrames * 64);
-		// set up interface to the array for writing the ints
-		DataOutputStream intSerializer = 
-			new DataOutputStream(encodedData);
-		for (int i = 0; i < numFrames; i++) {  // for each frame
-			for (int j = 0; j < 16; j++) {     // for each word
-				// write integer to byte stream
-				intSerializer.writeInt(steimFrame[i].word[j]);	
-			}
+		byte[] encodedData = new byte[numFrames * 64];
+		writeTo(encodedData, 0);
+		return encodedData;
+	}
+
+	/**
+	 * Write the compressed frames, in 68000/Sun word order, into the provided
+	 * array starting at index <b>offset</b>, such as the data section of a
+	 * record being built.
+	 * @param b destination array
+	 * @param offset index in <b>b</b> of the first byte of frame 0
+	 * @return the number of bytes written, 64 per frame
+	 * @throws IndexOutOfBoundsException if <b>b</b> cannot hold all frames
+	 * from <b>offset</b>
+	 */
+	public int writeTo (byte[] b, int offset) {
+		int length = numFrames * 64;
+		if (offset < 0 || offset + length > b.length) {
+			throw new IndexOutOfBoundsException("cannot write " + length + " bytes at offset " + offset
+					+ " of " + b.length);
 		}
+		for (int i = 0; i < word.length; i++) {
+			int w = word[i];
+			b[offset++] = (byte) (w >>> 24);
+			b[offset++] = (byte) (w >>> 16);
+			b[offset++] = (byte) (w >>> 8);
+			b[offset++] = (byte) w;
+		}
+		return length;
+	}
 
-		return encodedData.toByteArray(); // return byte stream as array
+	/**
+	 * Write the compressed frames, in 68000/Sun word order, at the position
+	 * of the provided buffer and advance its position past them.  The byte
+	 * order of the buffer is not used or changed.
+	 * @param out destination buffer
+	 * @return the number of bytes written, 64 per frame
+	 * @throws BufferOverflowException if the buffer has less room than the
+	 * frames need
+	 */
+	public int encodeInto (ByteBuffer out) {
+		int length = numFrames * 64;
+		if (out.remaining() < length) {
+			throw new BufferOverflowException();
+		}
+		if (out.hasArray()) {
+			writeTo(out.array(), out.arrayOffset() + out.position());
+		} else {
+			out.duplicate().order(ByteOrder.BIG_ENDIAN).asIntBuffer().put(word);
+		}
+		out.position(out.position() + length);
+		return length;
+	}
+
+	/**
+	 * Clear all frames so that this block can be filled again by the Steim
+	 * encoder of the same version, without reallocating its word storage.
+	 */
+	public void reset () {
+		Arrays.fill(word, 0);
+		numSamples = 0;
+		currentFrame = 0;
+		pos = 0;
+		addEncodingNibble(0); // first nibble always 00
+		pos++;  // increment position in frame to W1
 	}
 
 	/**
@@ -109,19 +165,19 @@ public class SteimFrameBlock {
 	 * calling app should not add any more to this object)
 	 */
 	protected boolean addEncodedWord (int word, int samples, int nibble) {
-		int pos = steimFrame[currentFrame].pos; // word position
-		steimFrame[currentFrame].word[pos] = word; // add word
+		this.word[currentFrame*16 + pos] = word; // add word
 		addEncodingNibble (nibble);                     // add nibble
 		numSamples += samples;
 		pos++;     // increment position in frame
 		if (pos > 15) {  // need next frame?
 			currentFrame++;
+			pos = 0;
 			if (currentFrame >= numFrames) {  // exceeded frame limit?
 				return true;  // block is full
 			}
 			addEncodingNibble(0); // first nibble always 00
+			pos++;  // increment position in frame
 		}
-		steimFrame[currentFrame].pos++;  // increment position in frame
 		return false;  // block is not yet full
 	}
 
@@ -133,7 +189,7 @@ public class SteimFrameBlock {
 	 * @param word integer value to be placed in X(N)
 	 */
 	protected void setXsubN (int word) {
-		steimFrame[0].word[2] = word;
+		this.word[2] = word;
 		return;
 	}
 
@@ -142,30 +198,18 @@ public class SteimFrameBlock {
 	* @param bitFlag a value 0 to 3 representing an encoding nibble
 	*/
 	private void addEncodingNibble (int bitFlag) {
-		int offset = steimFrame[currentFrame].pos; // W0 nibble offset - determines Cn in W0
-		int shift = (15 - offset)*2;  // how much to shift bitFlag
-		steimFrame[currentFrame].word[0] |= (bitFlag << shift);
+		int shift = (15 - pos)*2;  // W0 nibble offset - determines Cn in W0
+		word[currentFrame*16] |= (bitFlag << shift);
 		return;
 	}
 
 
-	// *** inner classes ***
-
-	/**
-	 * This represents a single Steim compression frame.  It stores values
-	 * as an int array and keeps track of it's current position in the frame.
-	 */
-	private class SteimFrame {
-		public int[] word = new int[16];  // 16 32-byte words
-		public int pos = 0;  // word position in frame (pos: 0 = W0, 1 = W1, etc...)
-	}
-
-
 	// *** instance variables ***
 
 	private int numFrames = 0;        // number of frames this object contains
 	private int numSamples = 0;      // number of samples represented
 	private int steimVersion = 0;    // Steim version number
 	private int currentFrame = 0;     // number of current frame being built
-	private SteimFrame[] steimFrame = null;  // array of frames;
+	private int pos = 0;              // word position in current frame (pos: 0 = W0, 1 = W1, etc...)
+	private int[] word = null;        // 16 32-bit words per frame, frame after frame
 }
@@ -0,0 +1,118 @@
+package edu.iris.dmc.seedcodec;
+
+/**
+ * Result of an integrity scan of a Steim1 or Steim2 data block, as returned
+ * by {@link Steim1#verify(byte[], int, boolean) Steim1.verify} and
+ * {@link Steim2#verify(byte[], int, boolean) Steim2.verify}.
+ * <p>
+ * A scan integrates the differences of every frame from the forward
+ * integration constant X(0), the same way decoding with a bias of 0 does,
+ * but keeps only the running value.  The block is intact when the frames
+ * hold the expected number of samples and the last integrated value equals
+ * the reverse integration constant X(n).
+ *
+ * @version 10/16/2026
+ */
+public class SteimScan {
+
+	SteimScan(int expectedSamples, int numSamples, int lastValue, int x0, int xn) {
+		this.expectedSamples = expectedSamples;
+		this.numSamples = numSamples;
+		this.lastValue = lastValue;
+		this.x0 = x0;
+		this.xn = xn;
+	}
+
+	// *** public methods ***
+
+	/**
+	 * Return the number of samples the scan was asked to integrate, usually
+	 * the sample count from the record header.
+	 * @return expected number of samples
+	 */
+	public int getExpectedSamples() {
+		return expectedSamples;
+	}
+
+	/**
+	 * Return the number of samples found in the frames, at most the expected
+	 * number.
+	 * @return number of samples integrated
+	 */
+	public int getNumSamples() {
+		return numSamples;
+	}
+
+	/**
+	 * Return the first sample value, which is X(0), or 0 if the frames hold
+	 * no samples.
+	 * @return first sample value
+	 */
+	public int getFirstValue() {
+		return (numSamples > 0) ? x0 : 0;
+	}
+
+	/**
+	 * Return the last integrated sample value, or 0 if the frames hold no
+	 * samples.
+	 * @return last sample value
+	 */
+	public int getLastValue() {
+		return lastValue;
+	}
+
+	/**
+	 * Return the forward integration constant X(0) stored in frame 0.
+	 * @return X(0)
+	 */
+	public int getForwardIntegrationConstant() {
+		return x0;
+	}
+
+	/**
+	 * Return the reverse integration constant X(n) stored in frame 0.
+	 * @return X(n)
+	 */
+	public int getReverseIntegrationConstant() {
+		return xn;
+	}
+
+	/**
+	 * Return true if the frames hold the expected number of samples.
+	 * @return true if the sample count matches
+	 */
+	public boolean isComplete() {
+		return numSamples == expectedSamples;
+	}
+
+	/**
+	 * Return true if the last integrated value equals X(n).
+	 * @return true if the reverse integration constant matches
+	 */
+	public boolean isReverseConstantValid() {
+		return numSamples > 0 && lastValue == xn;
+	}
+
+	/**
+	 * Return true if the sample count and the reverse integration constant
+	 * both match.  A block expected to hold no samples is valid when its
+	 * frames hold none.
+	 * @return true if the block passed the scan
+	 */
+	public boolean isValid() {
+		return isComplete() && (expectedSamples == 0 || lastValue == xn);
+	}
+
+	public String toString() {
+		return (isValid() ? "valid" : "invalid") + ": " + numSamples + " of " + expectedSamples
+				+ " samples, first " + getFirstValue() + ", last " + lastValue + ", x(n) " + xn;
+	}
+
+	// *** instance variables ***
+
+	private final int expectedSamples;  // samples asked for
+	private final int numSamples;       // samples found in the frames
+	private final int lastValue;        // last integrated value
+	private final int x0;               // forward integration constant
+	private final int xn;               // reverse integration constant
+}
@@ -0,0 +1,184 @@
+package edu.iris.dmc.seedcodec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Stateful decoder for a continuous series of Steim1 or Steim2 compressed
+ * data records from one channel.
+ * <p>
+ * The last decoded value X(n) of each record is carried over and handed to
+ * the next record as its bias X(-1), and every record is checked against its
+ * reverse integration constant.  Records whose first difference was not
+ * chained from the previous record (a gap, or a writer that used a zero bias)
+ * are re-anchored on their forward integration constant X(0), so the decoded
+ * values are always correct and {@link #isContinuous()} reports whether the
+ * difference chain was intact.
+ * <p>
+ * Call {@link #reset()} when switching to a different channel.
+ *
+ * @version 10/16/2026
+ */
+public class SteimStreamDecoder {
+
+	/**
+	 * Create a decoder for the indicated version of Steim compression.
+	 * @param steimVersion 1 or 2
+	 * @throws SteimException if the Steim version is not supported
+	 */
+	public SteimStreamDecoder(int steimVersion) throws SteimException {
+		if (steimVersion != 1 && steimVersion != 2) {
+			throw new SteimException("unsupported Steim version " + steimVersion);
+		}
+		this.steimVersion = steimVersion;
+	}
+
+	// *** public methods ***
+
+	/**
+	 * Decode the next record of the series from a region of the provided
+	 * byte array into a caller-supplied integer array.
+	 * @param b input byte array containing the encoded frames
+	 * @param offset index of the first byte of frame 0 in <b>b</b>
+	 * @param length number of encoded bytes, must be a multiple of 64
+	 * @param numSamples the number of samples in the record
+	 * @param swapBytes if true, swap reverse the endian-ness of the elements of
+	 * byte array <b>b</b>.
+	 * @param samples destination array for the decoded values
+	 * @param samplesOffset index in <b>samples</b> of the first decoded value
+	 * @return the number of samples decoded
+	 * @throws SteimException if the record is malformed or its last value does
+	 * not match the reverse integration constant X(n)
+	 */
+	public int decode(byte[] b, int offset, int length, int numSamples, boolean swapBytes,
+			int[] samples, int samplesOffset) throws SteimException {
+		ByteBuffer buf = ByteBuffer.wrap(b, offset, length);
+		buf.order(swapBytes ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+		return decode(buf, numSamples, samples, samplesOffset);
+	}
+
+	/**
+	 * Decode the next record of the series from the remaining bytes of the
+	 * provided buffer into a caller-supplied integer array.  The buffer
+	 * position is left unchanged and its byte order determines byte swapping.
+	 * @param buf buffer holding the encoded frames from position to limit
+	 * @param numSamples the number of samples in the record
+	 * @param samples destination array for the decoded values
+	 * @param samplesOffset index in <b>samples</b> of the first decoded value
+	 * @return the number of samples decoded
+	 * @throws SteimException if the record is malformed or its last value does
+	 * not match the reverse integration constant X(n)
+	 */
+	public int decode(ByteBuffer buf, int numSamples, int[] samples, int samplesOffset)
+			throws SteimException {
+		if (numSamples == 0) {
+			return 0;
+		}
+		if (buf.remaining() < 64) {
+			throw new SteimException("encoded data length is less than one frame (" + buf.remaining() + ")");
+		}
+		int bias = hasLastValue ? lastValue : 0;
+		if (steimVersion == 1) {
+			Steim1.decode(buf, numSamples, bias, samples, samplesOffset);
+		} else {
+			Steim2.decode(buf, numSamples, bias, samples, samplesOffset);
+		}
+		int start = buf.getInt(buf.position() + 4);  // X(0)
+		int end = buf.getInt(buf.position() + 8);    // X(n)
+		int correction = start - samples[samplesOffset];
+		continuous = (correction == 0);
+		if (correction != 0) {
+			// first difference was not chained from our bias, anchor on X(0)
+			for (int i = samplesOffset; i < samplesOffset + numSamples; i++) {
+				samples[i] += correction;
+			}
+		}
+		int last = samples[samplesOffset + numSamples - 1];
+		if (last != end) {
+			hasLastValue = false;
+			throw new SteimException("last decoded value " + last
+					+ " does not match reverse integration constant X(n) " + end);
+		}
+		lastValue = last;
+		hasLastValue = true;
+		return numSamples;
+	}
+
+	/**
+	 * Decode the next record of the series from the provided byte array and
+	 * return the values in a new integer array.
+	 * @param b input byte array to be decoded
+	 * @param numSamples the number of samples in the record
+	 * @param swapBytes if true, swap reverse the endian-ness of the elements of
+	 * byte array <b>b</b>.
+	 * @return int array of length <b>numSamples</b>.
+	 * @throws SteimException if the record is malformed or its last value does
+	 * not match the reverse integration constant X(n)
+	 */
+	public int[] decode(byte[] b, int numSamples, boolean swapBytes) throws SteimException {
+		int[] samples = new int[numSamples];
+		decode(b, 0, b.length, numSamples, swapBytes, samples, 0);
+		return samples;
+	}
+
+	/**
+	 * Return the last value decoded, to be used as the bias X(-1) of the
+	 * next record.
+	 * @return last decoded value, or 0 if no record has been decoded
+	 */
+	public int getLastValue() {
+		return lastValue;
+	}
+
+	/**
+	 * Set the value carried over from a previous record, such as when
+	 * resuming a series whose last sample is already known.
+	 * @param value the sample preceding the first value of the next record
+	 */
+	public void setLastValue(int value) {
+		lastValue = value;
+		hasLastValue = true;
+	}
+
+	/**
+	 * Return true if a value is being carried over from a previous record.
+	 * @return true if a record has been decoded since the last reset
+	 */
+	public boolean hasLastValue() {
+		return hasLastValue;
+	}
+
+	/**
+	 * Return true if the first difference of the most recently decoded record
+	 * chained from the last value of the record before it.
+	 * @return false if the most recent record had to be re-anchored on X(0)
+	 */
+	public boolean isContinuous() {
+		return continuous;
+	}
+
+	/**
+	 * Return the version of Steim compression decoded
+	 * @return integer value representing the Steim version (1,2)
+	 */
+	public int getSteimVersion() {
+		return steimVersion;
+	}
+
+	/**
+	 * Forget the carried over value, such as at the start of a new channel
+	 * or after a gap.
+	 */
+	public void reset() {
+		lastValue = 0;
+		hasLastValue = false;
+		continuous = true;
+	}
+
+	// *** instance variables ***
+
+	private int steimVersion = 0;        // Steim version number
+	private int lastValue = 0;           // X(n) of the previous record
+	private boolean hasLastValue = false; // true once a record has been decoded
+	private boolean continuous = true;   // d(0) of the last record chained from the bias
+}
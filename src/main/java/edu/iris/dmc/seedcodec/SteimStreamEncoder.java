@@ -0,0 +1,207 @@
+package edu.iris.dmc.seedcodec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stateful encoder that compresses a continuous series of integer samples
+ * from one channel into successive Steim1 or Steim2 frame blocks.
+ * <p>
+ * The last value encoded into each block is carried over as the bias X(-1)
+ * of the next block, so the first difference of every block after the first
+ * is a true sample-to-sample difference and the records chain for decoders
+ * that honor the bias.  The caller's sample array is walked by index and is
+ * never copied, and {@link #encodeRecords(int[], int, int, RecordHandler)}
+ * fills record after record from the same frame storage.
+ * <p>
+ * Call {@link #reset()} when switching to a different channel.
+ *
+ * @version 10/16/2026
+ */
+public class SteimStreamEncoder {
+
+	/**
+	 * Create an encoder for the indicated version of Steim compression that
+	 * fills the given number of 64-byte frames per block.
+	 * @param steimVersion 1 or 2
+	 * @param frames the number of Steim frames in each block, 1 to 63
+	 * @throws SteimException if the Steim version or the number of frames
+	 * is not supported
+	 */
+	public SteimStreamEncoder(int steimVersion, int frames) throws SteimException {
+		if (steimVersion != 1 && steimVersion != 2) {
+			throw new SteimException("unsupported Steim version " + steimVersion);
+		}
+		if (frames <= 0) {
+			throw new SteimException("number of frames is not a positive value");
+		}
+		if (frames > 63) {
+			throw new SteimException("cannot encode more than 63 frames, you asked for " + frames);
+		}
+		this.steimVersion = steimVersion;
+		this.frames = frames;
+	}
+
+	/**
+	 * Create an encoder whose blocks fill the data section of fixed-size
+	 * records of the given length.
+	 * @param steimVersion 1 or 2
+	 * @param recordLength the logical record length in bytes
+	 * @param dataOffset the byte offset of the data section in each record,
+	 * which should be a multiple of 64
+	 * @throws SteimException if the Steim version is not supported or the
+	 * data section cannot hold a frame
+	 */
+	public SteimStreamEncoder(int steimVersion, int recordLength, int dataOffset) throws SteimException {
+		this(steimVersion, Math.min((recordLength - dataOffset) / 64, 63));
+	}
+
+	// *** public methods ***
+
+	/**
+	 * Encode as many values as fit in one block, starting at index
+	 * <b>offset</b> of the provided array.  The number of values consumed
+	 * is given by {@link SteimFrameBlock#getNumSamples()} of the returned
+	 * block, and the last of them becomes the bias of the next call.
+	 * @param samples the data points represented as signed integers
+	 * @param offset index in <b>samples</b> of the first value to encode
+	 * @param length the number of values available from <b>offset</b>
+	 * @return SteimFrameBlock containing encoded byte array
+	 * @throws SteimException from the Steim encoder
+	 */
+	public SteimFrameBlock encode(int[] samples, int offset, int length) throws SteimException {
+		SteimFrameBlock frameBlock;
+		if (steimVersion == 1) {
+			frameBlock = Steim1.encode(samples, offset, length, frames, lastValue);
+		} else {
+			frameBlock = Steim2.encode(samples, offset, length, frames, lastValue);
+		}
+		lastValue = samples[offset + frameBlock.getNumSamples() - 1];
+		return frameBlock;
+	}
+
+	/**
+	 * Encode a run of values, starting at index <b>offset</b> of the provided
+	 * array, into as many blocks as are needed to hold all of them.
+	 * @param samples the data points represented as signed integers
+	 * @param offset index in <b>samples</b> of the first value to encode
+	 * @param length the number of values to encode
+	 * @return list of SteimFrameBlocks, in sample order
+	 * @throws SteimException from the Steim encoder
+	 */
+	public List<SteimFrameBlock> encodeAll(int[] samples, int offset, int length) throws SteimException {
+		List<SteimFrameBlock> blocks = new ArrayList<SteimFrameBlock>();
+		int end = offset + length;
+		while (offset < end) {
+			SteimFrameBlock frameBlock = encode(samples, offset, end - offset);
+			blocks.add(frameBlock);
+			offset += frameBlock.getNumSamples();
+		}
+		return blocks;
+	}
+
+	/**
+	 * Encode a run of values, starting at index <b>offset</b> of the provided
+	 * array, into consecutive full records in one linear pass.  A single
+	 * frame block is reused for every record, so <b>handler</b> must consume
+	 * the block (typically by writing its encoded data out) before returning.
+	 * @param samples the data points represented as signed integers
+	 * @param offset index in <b>samples</b> of the first value to encode
+	 * @param length the number of values to encode
+	 * @param handler receives each filled block with the index of its first
+	 * sample and the number of samples it consumed
+	 * @return the number of records produced
+	 * @throws SteimException from the Steim encoder
+	 * @throws IOException from the handler
+	 */
+	public int encodeRecords(int[] samples, int offset, int length, RecordHandler handler)
+			throws SteimException, IOException {
+		if (recordBlock == null) {
+			recordBlock = new SteimFrameBlock(frames, steimVersion);
+		}
+		int records = 0;
+		int end = offset + length;
+		while (offset < end) {
+			if (steimVersion == 1) {
+				Steim1.encode(samples, offset, end - offset, lastValue, recordBlock);
+			} else {
+				Steim2.encode(samples, offset, end - offset, lastValue, recordBlock);
+			}
+			int numSamples = recordBlock.getNumSamples();
+			lastValue = samples[offset + numSamples - 1];
+			handler.record(recordBlock, offset, numSamples);
+			offset += numSamples;
+			records++;
+		}
+		return records;
+	}
+
+	/**
+	 * Return the last value encoded, which will be the bias X(-1) of the
+	 * next block.
+	 * @return last encoded value, or the bias set by {@link #setLastValue(int)}
+	 */
+	public int getLastValue() {
+		return lastValue;
+	}
+
+	/**
+	 * Set the value carried over from a previous record, such as when
+	 * appending to a series whose last sample is already known.
+	 * @param value the sample preceding the next value to be encoded
+	 */
+	public void setLastValue(int value) {
+		lastValue = value;
+	}
+
+	/**
+	 * Return the number of frames in each encoded block
+	 * @return integer value indicating number of frames
+	 */
+	public int getNumFrames() {
+		return frames;
+	}
+
+	/**
+	 * Return the version of Steim compression used
+	 * @return integer value representing the Steim version (1,2)
+	 */
+	public int getSteimVersion() {
+		return steimVersion;
+	}
+
+	/**
+	 * Forget the carried over value, such as at the start of a new channel
+	 * or after a gap.
+	 */
+	public void reset() {
+		lastValue = 0;
+	}
+
+	// *** inner classes ***
+
+	/**
+	 * Receives the frame blocks produced by
+	 * {@link SteimStreamEncoder#encodeRecords(int[], int, int, RecordHandler)}.
+	 */
+	public interface RecordHandler {
+		/**
+		 * Accept the next filled frame block.  The block is reused for the
+		 * following record once this method returns.
+		 * @param frameBlock the encoded frames for one record
+		 * @param sampleOffset index in the sample array of the first value
+		 * in this block
+		 * @param numSamples the number of samples consumed by this block
+		 * @throws IOException if the block could not be written
+		 */
+		void record(SteimFrameBlock frameBlock, int sampleOffset, int numSamples) throws IOException;
+	}
+
+	// *** instance variables ***
+
+	private int steimVersion = 0;  // Steim version number
+	private int frames = 0;        // number of frames per block
+	private int lastValue = 0;     // X(n) of the previous block, bias of the next
+	private SteimFrameBlock recordBlock = null;  // reused by encodeRecords
+}
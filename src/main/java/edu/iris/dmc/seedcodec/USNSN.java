@@ -6,479 +6,258 @@
 
 package edu.iris.dmc.seedcodec;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
+/**
+ * Decoder for the US National Seismic Network (NSN) compression, SEED data
+ * encoding format 15.
+ * <p>
+ * A compressed record starts with a 32 bit forward integration constant and
+ * a 16 bit count of the first differences that follow.  The differences are
+ * packed in frames, each led by a key byte whose two 4 bit halves select the
+ * width and count of the two data fields of the frame.  Every seventh frame,
+ * and the last frame of the record, is followed by a one byte back pointer
+ * to the previous one.  The last record of a series also carries the number
+ * of samples in its last frame and, in its final four bytes, the reverse
+ * integration constant.
+ * <p>
+ * Decoding walks the record with primitive state only: nothing is allocated
+ * per record, and the input bytes are never modified, even when they are
+ * byte swapped.
+ */
 public class USNSN {
 
+    /**
+     * Decode the indicated number of samples from the provided byte array.
+     * @param b input byte array to be decoded
+     * @param numSamples the number of samples that can be decoded from array
+     * <b>b</b>
+     * @param swapBytes if true, the record was written as VAX/8086 order 32
+     * bit words.  The array is not modified.
+     * @param bias unused, each USNSN record carries its own forward
+     * integration constant
+     * @return int array of length <b>numSamples</b>.
+     * @throws CodecException if the record is malformed or fails one of its
+     * integrity checks
+     */
     public static int[] decode(byte[] b,
                                int numSamples,
                                boolean swapBytes,
                                int bias) throws CodecException {
-        if (true) {
-            throw new CodecException("USNSN decompression is not yet implemented.");
-        }
-        int error;
-
-        int[] decomp = new int[numSamples];
-
-        byte tmp;
-        if (swapBytes) {
-            for (int i = 0; i < b.length; i += 4) {
-                tmp = b[i];
-                b[i] = b[i+3];
-                b[i+4] = tmp;
-                tmp = b[i+1];
-                b[i+1] = b[i+2];
-                b[i+2] = tmp;
-            }
-        }
-
-        IntHolder eod = new IntHolder();
-        IntHolder overflow = new IntHolder();
-        IntHolder n = new IntHolder(-1);
-
-        error = dcmprs(numSamples,
-                       n,
-                       decomp,
-                       eod,
-                       overflow,
-                       b);
-
-        return decomp;
+        int[] samples = new int[numSamples];
+        decode(b, 0, b.length, numSamples, swapBytes, samples, 0);
+        return samples;
     }
 
-    /* ------------------------------------------------------------------------- */
-    public static final int NBK = 4096;
-    public static final int  NST = 7;
-
-    static boolean prnt = true;
-    static int ipt,nct,ifr,iovr,ldcmprs;
-    static int npt;
-
-    static int[][] nib = {{4, 4, 4, 6, 6, 8, 8,10,10,12,14,16,20,24,28,32},
-        {4, 8,12, 4, 8, 4, 8, 4, 8, 4, 4, 4, 4, 4, 4, 4},
-        {2, 4, 6, 3, 6, 4, 8, 5,10, 6, 7, 8,10,12,14,16}};
-
-
-    public static final int[] mask = {0x00000003,0x0000000F,0x0000003F,0x000000FF,
-            0x000003FF,0x00000FFF,0x00003FFF,0x0000FFFF,
-            0x0003FFFF,0x000FFFFF,0x003FFFFF,0x00FFFFFF,
-            0x03FFFFFF,0x0FFFFFFF,0x3FFFFFFF,0xFFFFFFFF};
-    public static final int[] isgn = {0x00000002,0x00000008,0x00000020,0x00000080,
-            0x00000200,0x00000800,0x00002000,0x00008000,
-            0x00020000,0x00080000,0x00200000,0x00800000,
-            0x02000000,0x08000000,0x20000000,0x80000000};
-    public static final int[] msgn = {0xFFFFFFFC,0xFFFFFFF0,0xFFFFFFC0,0xFFFFFF00,
-            0xFFFFFC00,0xFFFFF000,0xFFFFC000,0xFFFF0000,
-            0xFFFC0000,0xFFF00000,0xFFC00000,0xFF000000,
-            0xFC000000,0xF0000000,0xC0000000,0x00000000};
-
-
     /**
-     Dcmprs decompresses a series previously compressed by cmprs and
-     cmfin.  On each call to dcmprs, one compression record, provided in
-     icmp[], is decompressed into output array idat[max].  On the first
-     call, n must be set less than 0.  On successive calls, n will be the
-     maintained by dcmprs to be the C array index of the last point
-     decompressed (the number of points decompressed into idat so far
-     minus one).  Eod will be set to 1 if the entire time series has
-     been finished (0 otherwise).  Ovr will be set to 1 if more series
-     was available than would fit into idat (0 otherwise).
+     * Decode the indicated number of samples from a region of the provided
+     * byte array into a caller-supplied integer array.
+     * @param b input byte array containing the compressed record
+     * @param offset index of the first byte of the record in <b>b</b>
+     * @param length number of bytes in the record
+     * @param numSamples the number of samples in the record
+     * @param swapBytes if true, the record was written as VAX/8086 order 32
+     * bit words.  The array is not modified.
+     * @param samples destination array for the decoded values
+     * @param samplesOffset index in <b>samples</b> of the first decoded value
+     * @return the number of samples decoded
+     * @throws CodecException if the record is malformed or fails one of its
+     * integrity checks
      */
-    static int dcmprs(int maxx, IntHolder n, int[] idat, IntHolder eod, IntHolder ovr, byte[] icmp) throws CodecException {
-        int ln,j,lm;
-        int ia0 = 0;
-        IntHolder fin = new IntHolder();
-        IntHolder nn = new IntHolder();
-
-        /* Get the forward integration contstant and the number of samples in the
-         record.  Initialize internal variables. */
-        ipt = 1;
-        ia0 = gnibleOne(icmp,ipt,32,1,1);
-        npt = gnibleOne(icmp,ipt,16,1,0);
-        ifr = 0;
-        ipt = NST;
-        nct = ipt-1;
-        int id0 = ia0;
-        iovr = 0;
-        ldcmprs = 1;
-
-        if(n.getVal() < 0) {
-            /* If this is the first record, set the first data point to be the
-             forward integration constant. */
-            n.setVal(0);
-            idat[n.getVal()] = ia0;
-        }
-        else
-            /* If this is not the first record, check the internal consistency of
-             the new forward integration constant. */
-            if(idat[n.getVal()] != ia0) {
-                if(prnt)
-                    System.err.println("########## ia0 mismatch ########## idat="+idat[n.getVal()]+" ia0="+ia0);
-                ldcmprs = 0;
-            }
-        lm = n.getVal()+npt;
-
-        for(;;) {
-            /* Unpack each frame in turn. */
-            ifr = ifr+1;
-            int[] tmp = unpacknsn(maxx-n.getVal()-1,nn,fin,ovr,eod,icmp, id0);
-            System.arraycopy(tmp, 0, idat, n.getVal()+1, tmp.length);
-            /* Reset id0 for next time. */
-            id0 = tmp[tmp.length-1];
-            /* If we were in danger of an integer overflow clean up and get out. */
-            if(iovr != 0) {
-                ln = (lm <= maxx) ? lm : maxx;
-                for(j = n.getVal()+1; j < ln; j++) idat[j] = 0;
-                n.setVal(ln-1);
-                fin.setVal(1);
-            }
-            else
-                n.setVal( n.getVal()+nn.getVal()+1);
-            /* Bail out if the output buffer is full or if this was the last frame. */
-            if(maxx-n.getVal() <= 1) ovr.setVal(1);
-            if(ovr.getVal() != 0 || fin.getVal() != 0) return(ldcmprs);
-        }
+    public static int decode(byte[] b, int offset, int length, int numSamples, boolean swapBytes,
+            int[] samples, int samplesOffset) throws CodecException {
+        ByteBuffer buf = ByteBuffer.wrap(b, offset, length);
+        buf.order(swapBytes ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        return decode(buf, numSamples, samples, samplesOffset);
     }
 
-
     /**
-     Subroutine unpacknsn unpacks data out of compression frame ifr into
-     array idat[max].  On return, idat will contain n+1 decompressed data
-     points.  If the series ended during the compression frame, fin will
-     be set to nonzero.  If there was more data in the compression frame
-     than will fit into idat, ovr will be set to nonzero.  If this is the
-     last frame of the time series, eod will be set to nonzero.
-     * id0 is that integration constant or last sample of previous frame.
+     * Decode the indicated number of samples from the record held between
+     * the position and limit of the buffer into a caller-supplied integer
+     * array.  The buffer position is left unchanged, and a little-endian
+     * buffer is read as VAX/8086 order 32 bit words.
+     * <p>
+     * The forward integration constant is the value preceding the first
+     * difference of the record.  The first record of a series, whose header
+     * sample count is one more than its number of differences, also yields
+     * that constant as its first sample.
+     * @param buf buffer holding the compressed record from position to limit
+     * @param numSamples the number of samples in the record
+     * @param samples destination array for the decoded values
+     * @param samplesOffset index in <b>samples</b> of the first decoded value
+     * @return the number of samples decoded
+     * @throws CodecException if the record is malformed or fails one of its
+     * integrity checks
      */
-    static int[] unpacknsn(int maxx, IntHolder n, IntHolder fin, IntHolder ovr, IntHolder eod, byte[] icmp, int id0) throws CodecException {
-        int[] key = new int[2];
-        int ict,lpt,ian;
-        int js,kpt,j,jb,ln;
-        int[] idat = new int[maxx];
-
-        /* Initialize output flags. */
-        fin.setVal(0);
-        ovr.setVal(0);
-        eod.setVal(0);
-
-        /* Unpack the frame key fields. */
-        gnible(icmp,key,ipt,4,2,2,0);
-
-        /* If the integration constant is over 2**30 or we are using 32-bit
-         differences we better bail. */
-        if(id0 >= 1073741824 || key[0] >= 15 || key[1] >= 15) {
-            if(prnt)
-                System.err.println("## impending integer overflow ## id0="+id0+" keys="+key[0]+" "+key[1]+" ipt="+ipt);
-            ldcmprs = -1;
-            iovr = 1;
-            throw new CodecException("impending integer overflow ## id0="+id0+" keys="+key[0]+" "+key[1]+" ipt="+ipt);
+    public static int decode(ByteBuffer buf, int numSamples, int[] samples, int samplesOffset)
+            throws CodecException {
+        if (numSamples == 0) {
+            return 0;
         }
-
-        /* Initialize some counters. */
-        js = 0;
-        kpt = 0;
-
-        /* Loop over the data fields in the frame. */
-        for(j=0; j<2; j++) {
-            /* Bail out if the output buffer is full. */
-            if(js >= maxx) {
-                ovr.setVal(1);
-                break;
-            }
-            jb = key[j];
-            /* Set the number of samples to unpack to get to the end of the data
-             field, the end of the samples in the record, or the end of the
-             output buffer, whichever comes first. */
-            ln = (nib[1][jb] <= maxx-js) ? nib[1][jb] : maxx-js;
-            ln = (ln <= npt) ? ln : npt;
-            /* Unpack the data. */
-            int[] tmp = new int[ln];
-            gnible(icmp,tmp,ipt,nib[0][jb],ln,nib[1][jb],1);
-            System.arraycopy(tmp, 0, idat, js, ln);
-            /* Update pointers and counters. */
-            js = js+ln;
-            npt = npt-ln;
-            kpt = kpt+ln;
-            /* End of the record trap. */
-            if(npt <= 0) {
-                fin.setVal(1);
-                if(j < 1) ipt = ipt+nib[2][0];
-                break;
-            }
+        int base = buf.position();
+        int length = buf.remaining();
+        int swap = (buf.order() == ByteOrder.LITTLE_ENDIAN) ? 3 : 0;
+        if (length < NST + 1) {
+            throw new CodecException("USNSN record of " + length + " bytes is shorter than its header");
         }
-
-        /* Fiddle the record buffer pointer so that trailer information may be
-         found. */
-        n.setVal(js-1);
-
-        /* Integrate the first differences to recover the input time series. */
-        if(n.getVal() >= 0) {
-            idat[0] = idat[0]+id0;
-            if(n.getVal() >= 1) {
-                for(j=1; j<=n.getVal(); j++)  {
-                    /*
-                     if (idat[j] == 0)
-                     {
-                     printf("cnter=%d\n", cnter);
-                     }
-                     cnter++;
-                     */
-
-                    idat[j] = idat[j]+idat[j-1];
-                    /* printf("cnter=%d - sample=%d\n", cnter, idat[j]); */
-
-                }
-
-            }
+        if (swap != 0 && length % 4 != 0) {
+            throw new CodecException("byte swapped USNSN record length is not a multiple of 4 bytes ("
+                    + length + ")");
         }
-
-
-        if(ovr.getVal() != 0 || (ifr%7 != 0 && fin.getVal() ==0)) return idat;
-
-        /* Check the end of block back pointer. */
-        nct = ipt-nct;
-        ict = gnibleOne(icmp,ipt,8,1,0);
-        if(ict != nct) {
-            if(prnt)
-                System.err.println("########## nct mismatch ########## ict="+ict+" nct="+nct+" ipt="+ipt);
-            if(ldcmprs!=-1) ldcmprs = -4;
+        if (samplesOffset + numSamples > samples.length) {
+            throw new CodecException("destination array too small for " + numSamples
+                    + " samples at offset " + samplesOffset + " (" + samples.length + ")");
         }
-        nct = ipt-1;
-        if(fin.getVal() == 0 || ipt > NBK-4) return idat;
-        lpt = gnibleOne(icmp,ipt,8,1,0);
-        if(lpt == 0) return idat;
 
-        /* For the last record of the series, check consistency. */
-        eod.setVal(1);
-        /* Check that the number of samples in the last frame is as expected. */
-        if(kpt != lpt) {
-            if(prnt)
-                System.err.println("########## kpt mismatch ########## kpt="+kpt+" lpt="+lpt+" ipt="+ipt);
-            if(ldcmprs>=0) ldcmprs = -5;
+        int ia0 = readBits(buf, base, swap, 0, 32);           // forward integration constant
+        int npt = readBits(buf, base, swap, 4, 16) & 0xffff;  // number of differences
+        if (numSamples > npt + 1) {
+            throw new CodecException("Number of samples in header " + numSamples
+                    + " exceeds the " + npt + " differences in the USNSN record");
         }
-        ipt = NBK-3;
-        ian = gnibleOne(icmp,ipt,32,1,1);
-        /* Check that the reverse integration constant is as expected. */
-        if(idat[n.getVal()] != ian) {
-            if(prnt)
-                System.err.println("########## ian mismatch ########## ian="+ian+" idat[n]="+idat[n.getVal()]);
-            if(ldcmprs>=0) ldcmprs = -6;
+        int current = samplesOffset;
+        int end = samplesOffset + numSamples;
+        if (numSamples == npt + 1) {
+            // first record of a series, lead with the integration constant
+            samples[current++] = ia0;
         }
-        return idat;
-    }
-
-
-    /**
-     Gnible gets 1 nibble of length nb bits from byte array
-     ib beginning at byte ib[ns] and returns it.
-     No bits are disturbed in ib.  If sgn != 0, high order bits in ia
-     are sign extended from the sign bit of the nibble.  If sgn == 0,
-     the nibble is taken to be unsigned and high order bits in ia are
-     cleared.  Ns is updated to point to the next unprocessed byte in ib
-     assuming that nrun nibbles had been processed (rather than n).  Note
-     that even length nibbles up to 32-bits work except for 30-bits.
-     */
-    static int gnibleOne(byte[] ib, int ns, int nb, int nrun, int sgn) {
-        int[] out = new int[1];
-        gnible(ib, out, ns, nb, 1, nrun, sgn);
-        return out[0];
-    }
 
-    /**
-     Gnible gets n consecutive nibbles of length nb bits from byte array
-     ib beginning at byte ib[ns] and puts them into integer*4 array ia[].
-     No bits are disturbed in ib.  If sgn != 0, high order bits in ia
-     are sign extended from the sign bit of the nibble.  If sgn == 0,
-     the nibble is taken to be unsigned and high order bits in ia are
-     cleared.  Ns is updated to point to the next unprocessed byte in ib
-     assuming that nrun nibbles had been processed (rather than n).  Note
-     that even length nibbles up to 32-bits work except for 30-bits.
-     */
-    static void gnible(byte[] ib,int[] ia, int ns, int nb, int n, int nrun, int sgn) {
-        byte[] ja = new byte[4];
-        int ka;
-        int kb,isw,mb,mbe,krun,kshf,ishf,ke,npt;
-        int k,i,j;
-
-        /* Initialize some constants. */
-        ka = 0;
-        kb = nb/2-1;
-        isw = (kb%4)+1;
-        mb = 4-(kb+5-isw)/4;
-        npt = ns+(nrun*nb)/8;
-        ns -= 1;   /* Bump ns down for the C array indexing convention. */
-
-        switch (isw) {
-            case 1:   /* 2, 10, 18, and 26-bit nibbles */
-
-            case 2:   /* 4, 12, 20, and 28-bit nibbles */
-                if (isw == 1) {
-                    krun = 4;
-                } else {
-                    krun = 2;
+        int last = ia0;
+        int remaining = npt;       // differences left in the record
+        int pos = NST - 1;         // byte index of the next frame key
+        int mark = NST - 2;        // byte index the next back pointer points to
+        int frame = 0;
+        for (;;) {
+            frame++;
+            if (pos >= length) {
+                throw new CodecException("USNSN record ended with " + remaining
+                        + " of " + npt + " differences left");
+            }
+            int key = buf.get(base + (pos ^ swap)) & 0xff;
+            pos++;
+            int frameCount = 0;
+            boolean fin = false;
+            for (int j = 0; j < 2; j++) {
+                int k = (j == 0) ? key >>> 4 : key & 0x0f;
+                int bits = nib[0][k];
+                int fieldBytes = nib[2][k];
+                int ln = Math.min(nib[1][k], remaining);
+                if (pos + fieldBytes > length) {
+                    throw new CodecException("USNSN frame " + frame + " runs past the end of the record");
                 }
-                kshf = 2*isw;
-                /* Take the data in groups of krun. */
-                for(k = 0; k < n; k = k+krun) {
-                    ishf = 8;
-                    ke = (k+krun-1<n)?k+krun-1:n-1;
-
-                    /* Unpack each word in this group. */
-
-                    for(i = k; i <= ke; i++) {
-
-                        /* Copy the bytes in this nibble. */
-
-                        ns -= 1;
-                        for(j = mb; j <= 3; j++)  {
-                            ja[j] = ib[++(ns)];
-                        }
-
-                        /* Shift the nibble into place. */
-
-                        ishf = ishf-kshf;
-                        ka = ka>>ishf;
-
-                        /* Extend or clear the sign bits as needed. */
-
-                        if((ka&isgn[kb])!=0 & sgn!=0)
-                            ia[i] = (ka|msgn[kb]);
-                        else
-                            ia[i] = (ka&mask[kb]);
-                        /*
-                         if (ia[i] == 0)
-                         printf("found it - cnter=%d\n", cnter);
-
-                         cnter++;
-                         */
-
+                // unpack the field as a big-endian bit stream, integrating as we go
+                int kb = bits / 2 - 1;
+                long acc = 0;
+                int accBits = 0;
+                int p = pos;
+                for (int n = 0; n < ln; n++) {
+                    while (accBits < bits) {
+                        acc = (acc << 8) | (buf.get(base + (p++ ^ swap)) & 0xff);
+                        accBits += 8;
+                    }
+                    accBits -= bits;
+                    int d = (int) (acc >>> accBits);
+                    acc &= (1L << accBits) - 1;
+                    d = ((d & isgn[kb]) != 0) ? (d | msgn[kb]) : (d & mask[kb]);
+                    last += d;
+                    if (current < end) {
+                        samples[current++] = last;
                     }
-
-                    /* Each group ends on a byte boundary, so adjust ns. */
-
-                    ns += 1;
                 }
-                break;
-
-            case 3:   /* 6, 14, 22, and 30-bit nibbles */
-                kshf = 2*isw;
-                /* Take the data in groups of 4. */
-                for(k = 0; k < n; k = k+4) {
-                    ishf = 8;
-                    ke = (k+3<n)?k+3:n-1;
-                    /* Unpack each word in this group. */
-                    for(i = k; i <= ke; i++) {
-                        ishf = ishf-kshf;
-                        if(ishf < 0)
-                            /* In this case, the second and third words of the group take an extra byte. */
-                        {
-                            mbe = mb-1;
-                            ishf = ishf+8;
-                        }
-                        else mbe=mb;
-                        /* Copy the bytes in this nibble. */
-                        ns -= 1;
-                        for(j = mbe; j <= 3; j++) ja[j] = ib[++(ns)];
-                        /* Shift the nibble into place. */
-                        ka = ka>>ishf;
-                        /* Extend or clear the sign bits as needed. */
-
-                        if((ka&isgn[kb])!=0 & sgn!=0)
-                            ia[i] = (ka|msgn[kb]);
-                        else
-                            ia[i] = (ka&mask[kb]);
-                        /*
-                         if (ia[i] == 0)
-                         printf("found it cnter=%d\n", cnter);
-
-                         cnter++;
-                         */
-
-
+                pos += fieldBytes;
+                remaining -= ln;
+                frameCount += ln;
+                if (remaining <= 0) {
+                    fin = true;
+                    if (j == 0) {
+                        // skip the empty second field
+                        pos += nib[2][0];
                     }
-                    /* Each group ends on a byte boundary, so adjust ns. */
-                    ns += 1;
+                    break;
                 }
+            }
+            if (!fin && current >= end) {
+                // the caller asked for fewer samples than the record holds
                 break;
+            }
+            if (!fin && frame % 7 != 0) {
+                continue;
+            }
 
-            case 4:   /* 8, 16, 24, and 32-bit nibbles */
-                ns -= 1;
-                /* Loop over each input word. */
-                for(i = 0; i < n; i++) {
-                    for(j = mb; j <= 3; j++) ja[j] = ib[++(ns)];
-                    /* Extend or clear the sign bits as needed. */
-                    if((ka&isgn[kb])!=0 & sgn!=0) ia[i] = (ka|msgn[kb]);
-                    else                          ia[i] = (ka&mask[kb]);
-                    /*
-                     if (ia[i] == 0)
-                     printf("found it - cnter=%d\n", cnter);
-
-                     cnter++;
-                     */
-
-
-                }
+            // check the back pointer to the previous one
+            if (pos >= length) {
+                throw new CodecException("USNSN record ended before back pointer of frame " + frame);
+            }
+            int ict = buf.get(base + (pos ^ swap)) & 0xff;
+            if (ict != pos - mark) {
+                throw new CodecException("NCT mismatch in USNSN frame " + frame + ", back pointer "
+                        + ict + " but expected " + (pos - mark));
+            }
+            mark = pos;
+            pos++;
+            if (!fin) {
+                continue;
+            }
+            if (pos > length - 5) {
+                break;
+            }
+            int lpt = buf.get(base + (pos ^ swap)) & 0xff;
+            if (lpt == 0) {
+                // not the last record of the series
                 break;
+            }
+            // last record of the series
+            if (frameCount != lpt) {
+                throw new CodecException("KPT mismatch in USNSN record, " + frameCount
+                        + " samples in last frame but expected " + lpt);
+            }
+            int ian = readBits(buf, base, swap, length - 4, 32);
+            if (last != ian) {
+                throw new CodecException("IAN mismatch in USNSN record, last decoded value " + last
+                        + " does not match reverse integration constant " + ian);
+            }
+            break;
         }
-        /* Adjust ns back to the FORTRAN convention. */
-        ns = npt;
-
-        return;
-    }
-
-
-    /**
-     Dcmpbr toggles the print flag controlling Dcmprs diagnostic output.
-     */
-    static void dcmpbr() {
-        if(prnt) prnt = false;
-        else prnt = true;
-        return;
+        return current - samplesOffset;
     }
 
     /**
-     Dcmper prints out a Dcmprs diagnostic based on the status flag returned
-     by Dcmprs.
+     * Read a big-endian value of up to 32 bits starting at byte <b>pos</b>
+     * of the record, where <b>swap</b> is 3 for VAX/8086 order words and 0
+     * otherwise.
      */
-    static void dcmper(int ierr) throws CodecException {
-        switch (ierr) {
-            case  1:                /* Success. */
-                break;
-            case  0:
-                throw new CodecException("IA0 mismatch in Dcmprs.");
-            case -1:
-                throw new CodecException("Integer overflow in Dcmprs.");
-            case -4:
-                throw new CodecException("NCT mismatch in Dcmprs.");
-            case -5:
-                throw new CodecException("KPT mismatch in Dcmprs.");
-            case -6:
-                throw new CodecException("IAN mismatch in Dcmprs.");
-            default:
-                throw new CodecException("Unknown error in Dcmprs ("+ierr+").");
+    private static int readBits(ByteBuffer buf, int base, int swap, int pos, int bits) {
+        int value = 0;
+        for (int i = 0; i < bits / 8; i++) {
+            value = (value << 8) | (buf.get(base + ((pos + i) ^ swap)) & 0xff);
         }
-        return;
+        return value;
     }
 
-    static class IntHolder {
-        public IntHolder(int val) {
-            this.val = val;
-        }
-
-        public IntHolder() {
-            this(0);
-        }
+    /* ------------------------------------------------------------------------- */
+    /** nominal size of a compressed block */
+    public static final int NBK = 4096;
+    /** 1-based byte index of the first frame key, following the 6 byte header */
+    public static final int  NST = 7;
 
-        int val;
+    /** per frame key: bits per difference, differences per field, and bytes per field */
+    static final int[][] nib = {{4, 4, 4, 6, 6, 8, 8,10,10,12,14,16,20,24,28,32},
+        {4, 8,12, 4, 8, 4, 8, 4, 8, 4, 4, 4, 4, 4, 4, 4},
+        {2, 4, 6, 3, 6, 4, 8, 5,10, 6, 7, 8,10,12,14,16}};
 
-        public void setVal(int val) {
-            this.val = val;
-        }
 
-        public int getVal() {
-            return val;
-        }
-    }
+    public static final int[] mask = {0x00000003,0x0000000F,0x0000003F,0x000000FF,
+            0x000003FF,0x00000FFF,0x00003FFF,0x0000FFFF,
+            0x0003FFFF,0x000FFFFF,0x003FFFFF,0x00FFFFFF,
+            0x03FFFFFF,0x0FFFFFFF,0x3FFFFFFF,0xFFFFFFFF};
+    public static final int[] isgn = {0x00000002,0x00000008,0x00000020,0x00000080,
+            0x00000200,0x00000800,0x00002000,0x00008000,
+            0x00020000,0x00080000,0x00200000,0x00800000,
+            0x02000000,0x08000000,0x20000000,0x80000000};
+    public static final int[] msgn = {0xFFFFFFFC,0xFFFFFFF0,0xFFFFFFC0,0xFFFFFF00,
+            0xFFFFFC00,0xFFFFF000,0xFFFFC000,0xFFFF0000,
+            0xFFFC0000,0xFFF00000,0xFFC00000,0xFF000000,
+            0xFC000000,0xF0000000,0xC0000000,0x00000000};
 
 }
-
@@ -1,5 +1,9 @@
 package edu.iris.dmc.seedcodec;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
 /**
  * Generic class providing static methods for converting between integer numbers
  * and byte arrays.
@@ -23,7 +27,7 @@ public class Utility  {
 	 */
 	public static short bytesToShort(byte a, byte b, boolean swapBytes) {
 		if (swapBytes) {
-			return (short)((a & 0xff) + (b & 0xff) << 8);
+			return (short)(((b & 0xff) << 8) | (a & 0xff));
 		} else {
 			return (short)(((a & 0xff) << 8) + (b & 0xff));
 		}
@@ -190,6 +194,115 @@ public class Utility  {
 	}
 
 
+	// bulk conversion of byte buffers to primitive arrays
+
+	/**
+	 * Convert <b>count</b> 16-bit values, starting at the position of
+	 * <b>b</b>, into <b>out</b>.  Byte order is resolved once for the whole
+	 * run and the values are moved with a single bulk get.  The position of
+	 * <b>b</b> is not changed.
+	 * @param b source bytes
+	 * @param swapBytes if true, values are in VAX/8086 (little-endian) order
+	 * @param out destination array
+	 * @param outOffset index in <b>out</b> of the first value
+	 * @param count number of values to convert
+	 */
+	public static void bytesToShorts(ByteBuffer b, boolean swapBytes, short[] out, int outOffset, int count) {
+		order(b, swapBytes).asShortBuffer().get(out, outOffset, count);
+	}
+
+	/**
+	 * Convert <b>count</b> 16-bit values, starting at the position of
+	 * <b>b</b>, into <b>out</b> as 32-bit ints, with sign extension.  The
+	 * position of <b>b</b> is not changed.
+	 * @param b source bytes
+	 * @param swapBytes if true, values are in VAX/8086 (little-endian) order
+	 * @param out destination array
+	 * @param outOffset index in <b>out</b> of the first value
+	 * @param count number of values to convert
+	 */
+	public static void shortBytesToInts(ByteBuffer b, boolean swapBytes, int[] out, int outOffset, int count) {
+		ShortBuffer src = order(b, swapBytes).asShortBuffer();
+		for (int i = 0; i < count; i++) {
+			out[outOffset + i] = src.get(i);
+		}
+	}
+
+	/**
+	 * Convert <b>count</b> 24-bit values, starting at the position of
+	 * <b>b</b>, into <b>out</b> as 32-bit ints, with sign extension.  The
+	 * byte order test is made once, outside of the conversion loop.  The
+	 * position of <b>b</b> is not changed.
+	 * @param b source bytes
+	 * @param swapBytes if true, values are in <b>c,b,a</b> order
+	 * @param out destination array
+	 * @param outOffset index in <b>out</b> of the first value
+	 * @param count number of values to convert
+	 */
+	public static void int24BytesToInts(ByteBuffer b, boolean swapBytes, int[] out, int outOffset, int count) {
+		int pos = b.position();
+		if (swapBytes) {
+			for (int i = 0; i < count; i++, pos += 3) {
+				out[outOffset + i] = (b.get(pos) & 0xff) + ((b.get(pos + 1) & 0xff) << 8) + (b.get(pos + 2) << 16);
+			}
+		} else {
+			for (int i = 0; i < count; i++, pos += 3) {
+				out[outOffset + i] = (b.get(pos) << 16) + ((b.get(pos + 1) & 0xff) << 8) + (b.get(pos + 2) & 0xff);
+			}
+		}
+	}
+
+	/**
+	 * Convert <b>count</b> 32-bit values, starting at the position of
+	 * <b>b</b>, into <b>out</b> with a single bulk get.  The position of
+	 * <b>b</b> is not changed.
+	 * @param b source bytes
+	 * @param swapBytes if true, values are in VAX/8086 (little-endian) order
+	 * @param out destination array
+	 * @param outOffset index in <b>out</b> of the first value
+	 * @param count number of values to convert
+	 */
+	public static void bytesToInts(ByteBuffer b, boolean swapBytes, int[] out, int outOffset, int count) {
+		order(b, swapBytes).asIntBuffer().get(out, outOffset, count);
+	}
+
+	/**
+	 * Convert <b>count</b> IEEE 32-bit floats, starting at the position of
+	 * <b>b</b>, into <b>out</b> with a single bulk get.  The position of
+	 * <b>b</b> is not changed.
+	 * @param b source bytes
+	 * @param swapBytes if true, values are in VAX/8086 (little-endian) order
+	 * @param out destination array
+	 * @param outOffset index in <b>out</b> of the first value
+	 * @param count number of values to convert
+	 */
+	public static void bytesToFloats(ByteBuffer b, boolean swapBytes, float[] out, int outOffset, int count) {
+		order(b, swapBytes).asFloatBuffer().get(out, outOffset, count);
+	}
+
+	/**
+	 * Convert <b>count</b> IEEE 64-bit doubles, starting at the position of
+	 * <b>b</b>, into <b>out</b> with a single bulk get.  The position of
+	 * <b>b</b> is not changed.
+	 * @param b source bytes
+	 * @param swapBytes if true, values are in VAX/8086 (little-endian) order
+	 * @param out destination array
+	 * @param outOffset index in <b>out</b> of the first value
+	 * @param count number of values to convert
+	 */
+	public static void bytesToDoubles(ByteBuffer b, boolean swapBytes, double[] out, int outOffset, int count) {
+		order(b, swapBytes).asDoubleBuffer().get(out, outOffset, count);
+	}
+
+	/**
+	 * Return a view of the remaining bytes of <b>b</b> in the byte order
+	 * indicated by <b>swapBytes</b>, leaving <b>b</b> itself untouched.
+	 */
+	private static ByteBuffer order(ByteBuffer b, boolean swapBytes) {
+		return b.slice().order(swapBytes ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+	}
+
+
 	// miscellaneous utilities
 
 	/**
@@ -0,0 +1,165 @@
+package edu.iris.Fissures.seed.builder;
+
+import static org.junit.Assert.*;
+
+import edu.iris.Fissures.seed.container.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import org.junit.Test;
+
+public class FsdhMatcherTest {
+
+	/**
+	 * Known headers: quality, station, location, channel, network, year,
+	 * day, hour, number of samples, and whether the binary fields are in
+	 * VAX/8086 word order.
+	 */
+	private static final Object[][] HEADERS = {
+		{'D', "ANMO", "00", "BHZ", "IU", 2020, 100, 12, 100, false},
+		{'R', "COLA", "10", "LHZ", "II", 2020, 101, 0, 5000, false},
+		{'D', "ANMO", "", "BHN", "IU", 2019, 365, 23, 250, true},
+		{'Q', "TUC", "00", "BHZ", "XX", 2020, 100, 0, 1000, false},
+		{'M', "KIP", "00", "HHZ", "IU", 2020, 99, 6, 0, true},
+		{'D', "A1", "01", "BH1", "G", 2020, 100, 23, 1001, false},
+	};
+
+	/**
+	 * Filters as lists of key and value pairs.
+	 */
+	private static final String[][] FILTERS = {
+		{"station", "ANMO"},
+		{"station", "A*"},
+		{"station", "TUC", "station", "KIP"},
+		{"location", "00"},
+		{"location", "  "},
+		{"channel", "BH?"},
+		{"channel", "BHZ", "channel", "LHZ"},
+		{"network", "IU"},
+		{"network", "I*"},
+		{"quality", "D"},
+		{"quality", "R", "quality", "Q"},
+		{"start_time", "2020,100,00:00:00.0000", "end_time", "2020,100,23:59:59.9999"},
+		{"start_time", "2019,365,23:00:00.0000", "end_time", "2020,099,06:00:00.0000"},
+		{"min_sample", "0", "max_sample", "1000"},
+		{"station", "ANMO", "channel", "BHZ", "network", "IU", "quality", "D"},
+	};
+
+	@Test
+	public void rejectsTheRecordsQualifyRejects () throws Exception {
+		int rejected = 0;
+		for (String[] params : FILTERS) {
+			SeedBuilderFilter filter = filter(params);
+			for (Object[] h : HEADERS) {
+				byte[] record = header(h);
+				for (float version : new float[] {2.2F, 2.4F}) {
+					String what = Arrays.toString(params) + " " + Arrays.toString(h) + " " + version;
+					int result = filter.getFsdhMatcher().match(record, 8, (char) record[6], version >= 2.3);
+					assertNotEquals(what, FsdhMatcher.UNKNOWN, result);
+					boolean qualified = filter.qualify(parse(record, version));
+					assertEquals(what, qualified, result == FsdhMatcher.ACCEPT);
+					if (!qualified) rejected++;
+				}
+			}
+		}
+		assertTrue(rejected > 0);
+	}
+
+	@Test
+	public void testsEachField () throws Exception {
+		byte[] anmo = header(HEADERS[0]);
+		assertEquals(FsdhMatcher.ACCEPT, match(anmo, "station", "ANMO"));
+		assertEquals(FsdhMatcher.REJECT, match(anmo, "station", "COLA"));
+		assertEquals(FsdhMatcher.REJECT, match(anmo, "location", "10"));
+		assertEquals(FsdhMatcher.REJECT, match(anmo, "channel", "LH?"));
+		assertEquals(FsdhMatcher.REJECT, match(anmo, "network", "II"));
+		assertEquals(FsdhMatcher.REJECT, match(anmo, "quality", "R"));
+		assertEquals(FsdhMatcher.REJECT, match(anmo,
+				"start_time", "2020,100,12:00:00.0001", "end_time", "2020,101,00:00:00.0000"));
+		assertEquals(FsdhMatcher.ACCEPT, match(anmo,
+				"start_time", "2020,100,12:00:00.0000", "end_time", "2020,100,12:00:00.0000"));
+		assertEquals(FsdhMatcher.REJECT, match(anmo, "min_sample", "101", "max_sample", "200"));
+		// the swapped header reads the same
+		byte[] swapped = header(HEADERS[2]);
+		assertEquals(FsdhMatcher.ACCEPT, match(swapped,
+				"start_time", "2019,365,23:00:00.0000", "end_time", "2019,365,23:00:00.0000"));
+		assertEquals(FsdhMatcher.REJECT, match(swapped, "min_sample", "251", "max_sample", "300"));
+	}
+
+	@Test
+	public void leavesFieldsThatDoNotReadBackUnknown () throws Exception {
+		byte[] record = header(new Object[] {'D', "anmo", "00", "BHZ", "IU", 2020, 100, 12, 100, false});
+		assertEquals(FsdhMatcher.UNKNOWN, match(record, "station", "ANMO"));
+		record[6] = 'd';
+		assertEquals(FsdhMatcher.UNKNOWN, match(record, "quality", "D"));
+	}
+
+	@Test
+	public void builderPassesOverRejectedHeaders () throws Exception {
+		SeedObjectBuilder builder = new SeedObjectBuilder();
+		builder.registerFilter(filter(new String[] {"station", "COLA"}));
+		builder.registerFilter(filter(new String[] {"channel", "HHZ"}));
+		for (Object[] h : HEADERS) {
+			byte[] record = header(h);
+			boolean wanted = h[1].equals("COLA") || h[3].equals("HHZ");
+			assertEquals(Arrays.toString(h), !wanted, builder.isFsdhFiltered(record, 8, (char) record[6]));
+		}
+	}
+
+	private static int match (byte[] record, String... params) {
+		return filter(params).getFsdhMatcher().match(record, 8, (char) record[6], true);
+	}
+
+	private static SeedBuilderFilter filter (String[] params) {
+		SeedBuilderFilter filter = new SeedBuilderFilter();
+		for (int i = 0; i < params.length; i += 2) filter.addParameter(params[i], params[i + 1]);
+		return filter;
+	}
+
+	/**
+	 * Build the FSDH blockette, leaving out the blockette 1000, which
+	 * versions before 2.3 do not have.
+	 */
+	private static Blockette parse (byte[] record, float version) throws Exception {
+		return SeedObjectBuilder.parseDataRecord(record, 0, 48, version)[0];
+	}
+
+	/**
+	 * Return a data record of just a FSDH and a blockette 1000, with no
+	 * data section.
+	 */
+	private static byte[] header (Object[] h) {
+		boolean swap = (Boolean) h[9];
+		byte[] record = new byte[64];
+		ascii(record, 0, 6, "000001");
+		record[6] = (byte) (char) (Character) h[0];
+		record[7] = ' ';
+		ascii(record, 8, 5, (String) h[1]);
+		ascii(record, 13, 2, (String) h[2]);
+		ascii(record, 15, 3, (String) h[3]);
+		ascii(record, 18, 2, (String) h[4]);
+		putWord(record, 20, (Integer) h[5], swap);
+		putWord(record, 22, (Integer) h[6], swap);
+		record[24] = (byte) (int) (Integer) h[7];
+		putWord(record, 30, (Integer) h[8], swap);
+		putWord(record, 32, 20, swap);
+		putWord(record, 34, 1, swap);
+		record[39] = 1;
+		putWord(record, 46, 48, swap);
+		putWord(record, 48, 1000, swap);
+		record[52] = 11;
+		record[53] = (byte) (swap ? 0 : 1);
+		record[54] = 9;
+		return record;
+	}
+
+	private static void ascii (byte[] record, int offset, int length, String value) {
+		byte[] b = value.getBytes(StandardCharsets.US_ASCII);
+		for (int i = 0; i < length; i++) record[offset + i] = (i < b.length) ? b[i] : (byte) ' ';
+	}
+
+	private static void putWord (byte[] record, int offset, int value, boolean swap) {
+		record[offset + (swap ? 1 : 0)] = (byte) (value >> 8);
+		record[offset + (swap ? 0 : 1)] = (byte) value;
+	}
+}
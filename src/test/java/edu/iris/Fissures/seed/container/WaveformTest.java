@@ -0,0 +1,133 @@
+package edu.iris.Fissures.seed.container;
+
+import static org.junit.Assert.*;
+
+import edu.iris.dmc.seedcodec.*;
+
+import org.junit.Test;
+
+public class WaveformTest {
+
+	@Test
+	public void continuousDecodeCarriesLastValue() throws Exception {
+		int[] samples = TestSeries.randomWalk(3000, 11);
+		SteimStreamEncoder encoder = new SteimStreamEncoder(2, 7);
+		SteimStreamDecoder decoder = new SteimStreamDecoder(2);
+		int offset = 0;
+		while (offset < samples.length) {
+			SteimFrameBlock block = encoder.encode(samples, offset, samples.length - offset);
+			Waveform waveform = new Waveform(block.getEncodedData(), 0, block.getNumSamples(), "Steim2", false);
+			int[] decoded = waveform.getDecodedIntegers(decoder);
+			assertTrue(decoder.isContinuous());
+			for (int i = 0; i < decoded.length; i++) {
+				assertEquals(samples[offset + i], decoded[i]);
+			}
+			offset += decoded.length;
+			assertEquals(samples[offset - 1], decoder.getLastValue());
+		}
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void biasDecodeChecksReverseIntegrationConstant() throws Exception {
+		int[] samples = TestSeries.randomWalk(400, 5);
+		SteimFrameBlock block = Steim1.encode(samples, 0, samples.length, 7, 42);
+		byte[] data = block.getEncodedData();
+		Waveform waveform = new Waveform(data, 0, block.getNumSamples(), "Steim1", false);
+		int[] decoded = waveform.getDecodedIntegers(42);
+		for (int i = 0; i < decoded.length; i++) {
+			assertEquals(samples[i], decoded[i]);
+		}
+		data[11] ^= 1;  // corrupt X(n)
+		try {
+			new Waveform(data, 0, block.getNumSamples(), "Steim1", false).getDecodedIntegers(42);
+			fail("expected a SteimException");
+		} catch (SteimException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void repackageSeriesByOffset() throws Exception {
+		int[] samples = TestSeries.randomWalk(5000, 3);
+		SteimStreamDecoder decoder = new SteimStreamDecoder(1);
+		int offset = 0;
+		int bias = 0;
+		int records = 0;
+		while (offset < samples.length) {
+			Waveform waveform = new Waveform(samples, offset, samples.length - offset, 448, "Steim1", bias);
+			int n = waveform.getNumSamples();
+			assertTrue(n > 0);
+			int[] decoded = waveform.getDecodedIntegers(decoder);
+			assertTrue(decoder.isContinuous());
+			for (int i = 0; i < n; i++) {
+				assertEquals(samples[offset + i], decoded[i]);
+			}
+			offset += n;
+			bias = samples[offset - 1];
+			records++;
+		}
+		assertEquals(samples.length, offset);
+		assertTrue(records > 1);
+	}
+
+	@Test
+	public void repackageInt32ByOffset() throws Exception {
+		int[] samples = TestSeries.randomWalk(100, 9);
+		Waveform waveform = new Waveform(samples, 10, 90, 160, "Int32Bit", 0);
+		assertEquals(40, waveform.getNumSamples());
+		assertEquals(160, waveform.getEncodedBytes().length);
+		int[] decoded = waveform.getDecodedIntegers();
+		for (int i = 0; i < 40; i++) {
+			assertEquals(samples[10 + i], decoded[i]);
+		}
+	}
+
+	@Test
+	public void writeEncodedBytesMatchesEncoder() throws Exception {
+		int[] samples = TestSeries.randomWalk(2000, 17);
+		Waveform waveform = new Waveform(samples, 0, samples.length, 448, "Steim2", 0);
+		byte[] expected = Steim2.encode(samples, 0, samples.length, 7, 0).getEncodedData();
+		assertEquals(448, waveform.getEncodedLength());
+		byte[] record = new byte[512];
+		assertEquals(448, waveform.writeEncodedBytes(record, 64));
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], record[64 + i]);
+		}
+		assertArrayEquals(expected, waveform.getEncodedBytes());
+	}
+
+	@Test
+	public void reencodeReusesOneWaveform() throws Exception {
+		int[] samples = TestSeries.randomWalk(5000, 19);
+		Waveform waveform = null;
+		Waveform firstCopy = null;
+		int[] firstDecoded = null;
+		SteimStreamDecoder decoder = new SteimStreamDecoder(1);
+		byte[] record = new byte[512];
+		int offset = 0;
+		int bias = 0;
+		while (offset < samples.length) {
+			int n;
+			if (waveform == null) {
+				waveform = new Waveform(samples, offset, samples.length - offset, 448, "Steim1", bias);
+				n = waveform.getNumSamples();
+				firstCopy = new Waveform(waveform);
+				firstDecoded = firstCopy.getDecodedIntegers();
+			} else {
+				n = waveform.encode(samples, offset, samples.length - offset, 448, "Steim1", bias);
+			}
+			int length = waveform.writeEncodedBytes(record, 64);
+			int[] decoded = new int[n];
+			decoder.decode(record, 64, length, n, false, decoded, 0);
+			for (int i = 0; i < n; i++) {
+				assertEquals(samples[offset + i], decoded[i]);
+			}
+			offset += n;
+			bias = samples[offset - 1];
+		}
+		// a copy taken before re-encoding keeps its own data
+		assertArrayEquals(firstDecoded, firstCopy.getDecodedIntegers());
+		assertEquals(samples[0], firstDecoded[0]);
+	}
+}
@@ -0,0 +1,161 @@
+package edu.iris.Fissures.seed.director;
+
+import static org.junit.Assert.*;
+
+import edu.iris.Fissures.seed.builder.*;
+import edu.iris.Fissures.seed.container.*;
+import edu.iris.dmc.seedcodec.TestSeries;
+import edu.iris.Fissures.seed.exception.*;
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.Test;
+
+public class ImportDirectorTest {
+
+    @Test
+    public void everyKindOfInputReadsTheSameRecords () throws Exception {
+        byte[] volume = TestRecords.volume(TestRecords.mixedRecords(40));
+        Path file = Files.createTempFile("import", ".mseed");
+        try {
+            Files.write(file, volume);
+            Collector fromStream = new Collector();
+            SeedStreamImportDirector director = new SeedStreamImportDirector(fromStream);
+            director.open(new ByteArrayInputStream(volume));
+            while (director.read(true)) { }
+            director.close();
+            assertEquals(40, fromStream.records.size());
+
+            Collector fromPath = new Collector();
+            director = new SeedStreamImportDirector(fromPath);
+            director.open(file);
+            while (director.read(true)) { }
+            director.close();
+            assertEquals(fromStream.records, fromPath.records);
+
+            Collector fromChannel = new Collector();
+            director = new SeedStreamImportDirector(fromChannel);
+            FileChannel channel = FileChannel.open(file);
+            try {
+                director.open(channel);
+                while (director.read(true)) { }
+                director.close();
+                assertTrue("a caller's channel is left open", channel.isOpen());
+            } finally {
+                channel.close();
+            }
+            assertEquals(fromStream.records, fromChannel.records);
+
+            Collector fromStreamChannel = new Collector();
+            director = new SeedStreamImportDirector(fromStreamChannel);
+            director.open(Channels.newChannel(new ByteArrayInputStream(volume)));
+            while (director.read(true)) { }
+            director.close();
+            assertEquals(fromStream.records, fromStreamChannel.records);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void closeReleasesAFileOpenedFromAPath () throws Exception {
+        Path file = Files.createTempFile("import", ".mseed");
+        try {
+            Files.write(file, TestRecords.volume(TestRecords.mixedRecords(3)));
+            SeedStreamImportDirector director = new SeedStreamImportDirector(new Collector());
+            director.open(file);
+            assertTrue(director.read(true));
+            director.close();
+            director.close();  // closing again is harmless
+            try {
+                director.read(true);
+                fail("expected a SeedInputException");
+            } catch (SeedInputException e) {
+                // expected
+            }
+        } finally {
+            Files.delete(file);  // fails on some systems while the file is mapped open
+        }
+    }
+
+    @Test
+    public void shorterRecordsAfterALongOneAreNotMerged () throws Exception {
+        // no blockette 1000: one 4096 byte record, then 512 byte records,
+        // whose encoding is set by the station headers
+        int[] samples = TestSeries.randomWalk(20000, 7);
+        List<byte[]> headers = TestRecords.stationHeaders(1);
+        List<byte[]> records = new ArrayList<byte[]>();
+        int offset = 0;
+        for (int i = 0; i < 11; i++) {
+            byte[] record = TestRecords.record((i == 0) ? 4096 : 512, false, i + 4, 'D', "ANMO", "00",
+                    "BHZ", "IU", 2020, 100, i, samples, offset, samples.length - offset);
+            offset += TestRecords.numSamples(record);
+            records.add(record);
+        }
+        final List<Integer> numSamples = new ArrayList<Integer>();
+        final List<Integer> decoded = new ArrayList<Integer>();
+        SeedStreamImportDirector director = new SeedStreamImportDirector(new RecordListener() {
+            public void onControlBlockette (Blockette blockette) {
+            }
+            public void onDataRecord (Blockette fsdh, List<Blockette> dataBlockettes, Waveform waveform)
+                    throws Exception {
+                numSamples.add(Integer.valueOf(fsdh.toString(9)));
+                assertEquals("Steim2", waveform.getEncoding());
+                for (int value : waveform.getDecodedIntegers()) decoded.add(value);
+            }
+        });
+        List<byte[]> volume = new ArrayList<byte[]>(headers);
+        volume.addAll(records);
+        director.open(new ByteArrayInputStream(TestRecords.volume(volume)));
+        while (director.read(true)) { }
+        director.close();
+        assertEquals(records.size(), numSamples.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(TestRecords.numSamples(records.get(i)), numSamples.get(i).intValue());
+        }
+        assertEquals(offset, decoded.size());
+        for (int i = 0; i < offset; i++) assertEquals(samples[i], decoded.get(i).intValue());
+    }
+
+    @Test
+    public void streamedWaveformsTakeTheirEncodingFromBlockette1000 () throws Exception {
+        int[] samples = TestSeries.randomWalk(4000, 9);
+        List<byte[]> records = new ArrayList<byte[]>();
+        int offset = 0;
+        for (int i = 0; i < 5; i++) {
+            byte[] record = TestRecords.record(i + 1, 'D', "COLA", "00", "BHZ", "IU", 2020, 100, i,
+                    samples, offset, samples.length - offset);
+            offset += TestRecords.numSamples(record);
+            records.add(record);
+        }
+        final List<Waveform> waveforms = new ArrayList<Waveform>();
+        SeedStreamImportDirector director = new SeedStreamImportDirector(new RecordListener() {
+            public void onControlBlockette (Blockette blockette) {
+            }
+            public void onDataRecord (Blockette fsdh, List<Blockette> dataBlockettes, Waveform waveform) {
+                waveforms.add(waveform);
+            }
+        });
+        director.open(new ByteArrayInputStream(TestRecords.volume(records)));
+        while (director.read(true)) { }
+        director.close();
+        assertEquals(records.size(), waveforms.size());
+        int index = 0;
+        for (Waveform waveform : waveforms) {
+            assertEquals("Steim2", waveform.getEncoding());
+            for (int value : waveform.getDecodedIntegers()) assertEquals(samples[index++], value);
+        }
+        assertEquals(offset, index);
+    }
+
+    static class Collector implements RecordListener {
+        final List<String> records = new ArrayList<String>();
+        public void onControlBlockette (Blockette blockette) {
+        }
+        public void onDataRecord (Blockette fsdh, List<Blockette> dataBlockettes, Waveform waveform) throws Exception {
+            records.add(TestRecords.describe(fsdh, dataBlockettes));
+        }
+    }
+}
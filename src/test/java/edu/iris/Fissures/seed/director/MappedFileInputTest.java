@@ -0,0 +1,80 @@
+package edu.iris.Fissures.seed.director;
+
+import static org.junit.Assert.*;
+
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.Test;
+
+public class MappedFileInputTest {
+
+    // smaller than a record and not a multiple of the record length
+    private static final int WINDOW = 700;
+
+    @Test
+    public void readsAcrossWindowBoundaries () throws Exception {
+        byte[] volume = TestRecords.volume(TestRecords.mixedRecords(10));
+        Path file = Files.createTempFile("mapped", ".mseed");
+        try {
+            Files.write(file, volume);
+            for (int start : new int[] {0, 100}) {
+                FileChannel channel = FileChannel.open(file);
+                try {
+                    channel.position(start);
+                    MappedFileInput input = new MappedFileInput(channel, WINDOW);
+                    assertEquals(volume.length - start, input.remaining());
+                    byte[] read = new byte[volume.length - start];
+                    int off = 0;
+                    int[] lengths = {512, 333, 1, 1400, 699, 701};
+                    for (int i = 0; off < read.length; i++) {
+                        int n = input.read(read, off, Math.min(lengths[i % lengths.length], read.length - off));
+                        assertTrue(n > 0);
+                        off += n;
+                        assertEquals(start + off, input.position());
+                        assertEquals(volume.length - start - off, input.remaining());
+                    }
+                    assertArrayEquals(Arrays.copyOfRange(volume, start, volume.length), read);
+                    assertEquals(0, input.remaining());
+                    assertEquals(0, input.read(new byte[16], 0, 16));  // end of file
+                    input.close();
+                    assertTrue("the channel is left open", channel.isOpen());
+                } finally {
+                    channel.close();
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void fillsAReadBufferRecordByRecord () throws Exception {
+        List<byte[]> records = TestRecords.mixedRecords(10);
+        Path file = Files.createTempFile("mapped", ".mseed");
+        try {
+            Files.write(file, TestRecords.volume(records));
+            FileChannel channel = FileChannel.open(file);
+            try {
+                MappedFileInput input = new MappedFileInput(channel, WINDOW);
+                ReadBuffer buffer = new ReadBuffer(2 * TestRecords.RECORD_LENGTH, TestRecords.RECORD_LENGTH + 64);
+                for (byte[] record : records) {
+                    buffer.fill(input);
+                    assertTrue(buffer.length() >= record.length);
+                    assertArrayEquals(record, Arrays.copyOfRange(buffer.array(), buffer.offset(),
+                            buffer.offset() + record.length));
+                    buffer.shift(record.length);
+                }
+                buffer.fill(input);
+                assertTrue(buffer.reachedEOF());
+                assertEquals(0, buffer.length());
+                assertEquals(0, input.remaining());
+            } finally {
+                channel.close();
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package edu.iris.Fissures.seed.director;
+
+import static org.junit.Assert.*;
+
+import edu.iris.Fissures.seed.container.*;
+import edu.iris.dmc.seedcodec.TestSeries;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class MiniSeedPublisherTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void shutdown () {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void publishesTheRecordsOfAStreamChannel () throws Exception {
+        List<byte[]> records = TestRecords.mixedRecords(50);
+        byte[] volume = TestRecords.volume(records);
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(volume));
+        Collector collector = new Collector(7);
+        new MiniSeedPublisher(channel, executor).subscribe(collector);
+        assertTrue(collector.done.await(30, TimeUnit.SECONDS));
+        assertNull(collector.error);
+        assertEquals(imported(volume), collector.records);
+        assertTrue("a caller's channel is left open", channel.isOpen());
+    }
+
+    @Test
+    public void publishesTheRecordsOfAFile () throws Exception {
+        byte[] volume = TestRecords.volume(TestRecords.mixedRecords(20));
+        Path file = Files.createTempFile("publish", ".mseed");
+        try {
+            Files.write(file, volume);
+            Collector collector = new Collector(Long.MAX_VALUE);
+            new MiniSeedPublisher(file, executor).subscribe(collector);
+            assertTrue(collector.done.await(30, TimeUnit.SECONDS));
+            assertNull(collector.error);
+            assertEquals(imported(volume), collector.records);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void publishesDecodableRecords () throws Exception {
+        int count = 20;
+        List<byte[]> records = TestRecords.mixedRecords(count);
+        byte[] volume = TestRecords.volume(records);
+        int[] samples = TestSeries.randomWalk(count * 800, 3);  // the samples mixedRecords() encodes
+        Collector collector = new Collector(Long.MAX_VALUE);
+        new MiniSeedPublisher(Channels.newChannel(new ByteArrayInputStream(volume)), executor).subscribe(collector);
+        assertTrue(collector.done.await(30, TimeUnit.SECONDS));
+        assertNull(collector.error);
+        assertEquals(count, collector.published.size());
+        int index = 0;
+        for (MiniSeedRecord record : collector.published) {
+            Waveform waveform = record.getWaveform();
+            assertEquals("Steim2", waveform.getEncoding());
+            for (int value : waveform.getDecodedIntegers()) assertEquals(samples[index++], value);
+        }
+        int total = 0;
+        for (byte[] record : records) total += TestRecords.numSamples(record);
+        assertEquals(total, index);
+    }
+
+    @Test
+    public void readsNoFurtherThanTheDemand () throws Exception {
+        EndlessChannel channel = new EndlessChannel();
+        Manual subscriber = new Manual();
+        new MiniSeedPublisher(channel, executor).subscribe(subscriber);
+        subscriber.subscription.request(5);
+        idle();
+        assertEquals(5, subscriber.received.size());
+        long read = channel.bytesRead;
+        assertTrue("read " + read + " bytes", read > 0 && read <= READ_AHEAD);
+        idle();
+        assertEquals("reading stopped with the demand", read, channel.bytesRead);
+
+        subscriber.subscription.request(300);
+        idle();
+        assertEquals(305, subscriber.received.size());
+        assertTrue(channel.bytesRead <= 305 * TestRecords.RECORD_LENGTH + READ_AHEAD);
+        assertFalse(subscriber.ended);
+    }
+
+    @Test
+    public void cancelStopsReadingAndClosesTheInput () throws Exception {
+        Path file = Files.createTempFile("publish", ".mseed");
+        try {
+            Files.write(file, TestRecords.volume(TestRecords.mixedRecords(400)));
+            Manual subscriber = new Manual();
+            new MiniSeedPublisher(file, executor).subscribe(subscriber);
+            subscriber.subscription.request(3);
+            idle();
+            assertEquals(3, subscriber.received.size());
+            if (CAN_LIST_OPEN_FILES) assertTrue(isOpen(file));
+            subscriber.subscription.cancel();
+            subscriber.subscription.request(10);
+            idle();
+            assertEquals(3, subscriber.received.size());
+            assertFalse("no onComplete or onError follows a cancel", subscriber.ended);
+            if (CAN_LIST_OPEN_FILES) assertFalse(isOpen(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void nonPositiveRequestIsAnError () throws Exception {
+        EndlessChannel channel = new EndlessChannel();
+        Manual subscriber = new Manual();
+        new MiniSeedPublisher(channel, executor).subscribe(subscriber);
+        subscriber.subscription.request(0);
+        idle();
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(subscriber.received.isEmpty());
+        subscriber.subscription.request(5);
+        idle();
+        assertTrue("nothing follows onError", subscriber.received.isEmpty());
+    }
+
+    @Test
+    public void readsTheFilesOfADirectoryInNameOrder () throws Exception {
+        Path dir = Files.createTempDirectory("publish");
+        String[] names = {"b.mseed", "c.mseed", "a.mseed"};
+        try {
+            for (String name : names) {
+                String station = "ST" + name.substring(0, 1).toUpperCase();
+                List<byte[]> records = new ArrayList<byte[]>();
+                int[] samples = TestSeries.randomWalk(1000, name.charAt(0));
+                for (int i = 0; i < 2; i++) {
+                    records.add(TestRecords.record(i + 1, 'D', station, "00", "BHZ", "IU", 2020, 100, i,
+                            samples, i * 100, 100));
+                }
+                Files.write(dir.resolve(name), TestRecords.volume(records));
+            }
+            Files.createDirectory(dir.resolve("0.sub"));  // not read
+            Collector collector = new Collector(1);
+            new MiniSeedPublisher(dir, executor).subscribe(collector);
+            assertTrue(collector.done.await(30, TimeUnit.SECONDS));
+            assertNull(collector.error);
+            List<String> stations = new ArrayList<String>();
+            for (MiniSeedRecord record : collector.published) stations.add(record.getFsdh().toString(4));
+            assertEquals(Arrays.asList("STA", "STA", "STB", "STB", "STC", "STC"), stations);
+        } finally {
+            Files.delete(dir.resolve("0.sub"));
+            for (String name : names) Files.delete(dir.resolve(name));
+            Files.delete(dir);
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void requiresAnExecutor () {
+        new MiniSeedPublisher(Paths.get("."), null);
+    }
+
+    /** the most bytes a director reads ahead: its buffer of two records of the maximum length */
+    private static final int READ_AHEAD = 2 * 65536;
+
+    /**
+     * Wait for the tasks of the single threaded executor to run, so that
+     * calls made before this have taken effect.
+     */
+    private void idle () throws Exception {
+        for (int i = 0; i < 3; i++) executor.submit(new Runnable() {
+            public void run () {
+            }
+        }).get(30, TimeUnit.SECONDS);
+    }
+
+    /** open files are listed on Linux only */
+    private static final boolean CAN_LIST_OPEN_FILES = Files.isDirectory(Paths.get("/proc/self/fd"));
+
+    /**
+     * Return true if this process holds <b>file</b> open.
+     */
+    private static boolean isOpen (Path file) throws IOException {
+        DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get("/proc/self/fd"));
+        try {
+            for (Path fd : stream) {
+                try {
+                    if (Files.readSymbolicLink(fd).equals(file.toRealPath())) return true;
+                } catch (IOException e) {
+                    // closed while listing
+                }
+            }
+        } finally {
+            stream.close();
+        }
+        return false;
+    }
+
+    /**
+     * Return the records read from <b>volume</b> by a director directly.
+     */
+    private static List<String> imported (byte[] volume) throws Exception {
+        ImportDirectorTest.Collector collector = new ImportDirectorTest.Collector();
+        SeedStreamImportDirector director = new SeedStreamImportDirector(collector);
+        director.open(new ByteArrayInputStream(volume));
+        while (director.read(true)) { }
+        director.close();
+        return collector.records;
+    }
+
+    /**
+     * Requests records a batch at a time, requesting the next batch once
+     * the last has arrived.
+     */
+    static class Collector implements SeedFlow.Subscriber<MiniSeedRecord> {
+
+        Collector (long batch) {
+            this.batch = batch;
+        }
+
+        public void onSubscribe (SeedFlow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(batch);
+        }
+
+        public void onNext (MiniSeedRecord record) {
+            published.add(record);
+            try {
+                records.add(TestRecords.describe(record.getFsdh(), record.getDataBlockettes()));
+            } catch (Exception e) {
+                error = e;
+                subscription.cancel();
+                done.countDown();
+                return;
+            }
+            if (++received == batch) {
+                received = 0;
+                subscription.request(batch);
+            }
+        }
+
+        public void onError (Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        public void onComplete () {
+            done.countDown();
+        }
+
+        final List<String> records = new ArrayList<String>();
+        final List<MiniSeedRecord> published = new ArrayList<MiniSeedRecord>();
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Throwable error = null;
+        private final long batch;
+        private long received = 0;
+        private SeedFlow.Subscription subscription;
+    }
+
+    /**
+     * Leaves requests to the test, recording what it receives.
+     */
+    static class Manual implements SeedFlow.Subscriber<MiniSeedRecord> {
+
+        public void onSubscribe (SeedFlow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        public void onNext (MiniSeedRecord record) {
+            received.add(record);
+        }
+
+        public void onError (Throwable throwable) {
+            error = throwable;
+            ended = true;
+        }
+
+        public void onComplete () {
+            ended = true;
+        }
+
+        final List<MiniSeedRecord> received = Collections.synchronizedList(new ArrayList<MiniSeedRecord>());
+        volatile SeedFlow.Subscription subscription;
+        volatile Throwable error = null;
+        volatile boolean ended = false;
+    }
+
+    /**
+     * A channel of data records that never ends, counting the bytes read
+     * from it.
+     */
+    static class EndlessChannel implements ReadableByteChannel {
+
+        public int read (ByteBuffer dst) throws IOException {
+            int n = 0;
+            while (dst.hasRemaining()) {
+                if (record == null || position == record.length) {
+                    try {
+                        record = TestRecords.record(++sequence, 'D', "ANMO", "00", "BHZ", "IU", 2020, 100,
+                                sequence % 24, samples, 0, samples.length);
+                    } catch (Exception e) {
+                        throw new IOException(e);
+                    }
+                    position = 0;
+                }
+                int length = Math.min(dst.remaining(), record.length - position);
+                dst.put(record, position, length);
+                position += length;
+                n += length;
+            }
+            bytesRead += n;
+            return n;
+        }
+
+        public boolean isOpen () {
+            return true;
+        }
+
+        public void close () {
+        }
+
+        volatile long bytesRead = 0;
+        private final int[] samples = TestSeries.randomWalk(200, 5);
+        private byte[] record = null;
+        private int position = 0;
+        private int sequence = 0;
+    }
+}
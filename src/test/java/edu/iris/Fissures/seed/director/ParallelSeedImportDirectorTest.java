@@ -0,0 +1,91 @@
+package edu.iris.Fissures.seed.director;
+
+import static org.junit.Assert.*;
+
+import edu.iris.Fissures.seed.builder.*;
+import edu.iris.Fissures.seed.container.*;
+import java.io.*;
+import java.util.*;
+
+import org.junit.Test;
+
+public class ParallelSeedImportDirectorTest {
+
+    @Test
+    public void parallelImportBuildsWhatSerialImportBuilds () throws Exception {
+        byte[] volume = TestRecords.volume(TestRecords.mixedRecords(100));
+        List<String> serial = importSerially(volume);
+        assertEquals(200, serial.size());  // an FSDH and a blockette 1000 each
+        ParallelSeedImportDirector director = null;
+        for (int window : new int[] {1, 7, 64}) {
+            Recorder recorder = new Recorder();
+            director = new ParallelSeedImportDirector(recorder, 3);
+            director.setWindow(window);
+            try {
+                read(director, volume);
+            } finally {
+                director.shutdown();
+            }
+            assertEquals("window " + window, serial, recorder.built);
+        }
+    }
+
+    @Test
+    public void recordsFramedAheadOfAVersionChangeAreParsedAgain () throws Exception {
+        List<byte[]> records = new ArrayList<byte[]>();
+        records.add(TestRecords.volumeHeader(1, "02.3"));
+        records.addAll(TestRecords.mixedRecords(2, 30));
+        byte[] volume = TestRecords.volume(records);
+        List<String> serial = importSerially(volume);
+
+        // the window takes in every data record before the header is built,
+        // so the workers parse them all as the default version
+        Recorder recorder = new Recorder();
+        ParallelSeedImportDirector director = new ParallelSeedImportDirector(recorder, 2);
+        director.setWindow(64);
+        try {
+            read(director, volume);
+        } finally {
+            director.shutdown();
+        }
+        assertEquals(2.4F, BlocketteFactory.getDefaultVersion(), 0F);
+        assertEquals(serial, recorder.built);
+        assertEquals(30, recorder.dataVersions.size());
+        for (float version : recorder.dataVersions) assertEquals(2.3F, version, 0F);
+    }
+
+    private static List<String> importSerially (byte[] volume) throws Exception {
+        Recorder recorder = new Recorder();
+        read(new SeedImportDirector(recorder), volume);
+        return recorder.built;
+    }
+
+    private static void read (ImportDirector director, byte[] volume) throws Exception {
+        director.open(new ByteArrayInputStream(volume));
+        while (director.read(true)) { }
+        director.close();
+    }
+
+    /**
+     * Records each object stored, with the decoded samples of data records.
+     */
+    static class Recorder extends SeedObjectBuilder {
+        final List<String> built = new ArrayList<String>();
+        final List<Float> dataVersions = new ArrayList<Float>();
+
+        public int store () throws Exception {
+            if (currentObject instanceof Blockette) {
+                Blockette blockette = (Blockette) currentObject;
+                if (blockette.getType() == 999) {
+                    dataVersions.add(blockette.getVersion());
+                    // stored ahead of its blockette 1000, so the encoding is not yet known
+                    if (blockette.getWaveform() != null) blockette.getWaveform().setEncoding("Steim2");
+                    built.add(TestRecords.describe(blockette, Collections.<Blockette>emptyList()));
+                } else {
+                    built.add(blockette.toString());
+                }
+            }
+            return super.store();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package edu.iris.Fissures.seed.director;
+
+import edu.iris.Fissures.seed.container.*;
+import edu.iris.dmc.seedcodec.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Builds miniSEED data records, by default 512 bytes of a Fixed Section of
+ * Data Header and blockette 1000 followed by seven Steim2 frames, for tests.
+ */
+class TestRecords {
+
+    static final int RECORD_LENGTH = 512;
+
+    /**
+     * Return a data record of as many of the <b>length</b> samples at
+     * <b>offset</b> as fit, the count of which is in FSDH bytes 30 and 31.
+     */
+    static byte[] record (int sequence, char quality, String station, String location, String channel,
+            String network, int year, int day, int hour, int[] samples, int offset, int length)
+            throws Exception {
+        return record(RECORD_LENGTH, true, sequence, quality, station, location, channel, network,
+                year, day, hour, samples, offset, length);
+    }
+
+    /**
+     * Return a data record of <b>recordLength</b> bytes, a power of two, like
+     * record() but without blockette 1000 unless <b>blockette1000</b> is set.
+     */
+    static byte[] record (int recordLength, boolean blockette1000, int sequence, char quality,
+            String station, String location, String channel, String network, int year, int day,
+            int hour, int[] samples, int offset, int length) throws Exception {
+        byte[] record = new byte[recordLength];
+        ascii(record, 0, 6, String.format("%06d", sequence));
+        record[6] = (byte) quality;
+        record[7] = ' ';
+        ascii(record, 8, 5, station);
+        ascii(record, 13, 2, location);
+        ascii(record, 15, 3, channel);
+        ascii(record, 18, 2, network);
+        putShort(record, 20, year);
+        putShort(record, 22, day);
+        record[24] = (byte) hour;
+        record[25] = 0;  // minute
+        record[26] = 0;  // second
+        putShort(record, 28, 0);  // 0.0001 s
+        putShort(record, 32, 20);  // 20 samples per second
+        putShort(record, 34, 1);
+        putShort(record, 44, 64);  // beginning of data
+        if (blockette1000) {
+            record[39] = 1;  // blockettes that follow
+            putShort(record, 46, 48);  // first blockette
+            putShort(record, 48, 1000);
+            putShort(record, 50, 0);  // no next blockette
+            record[52] = B1000Types.STEIM2;
+            record[53] = 1;  // big endian
+            record[54] = (byte) Integer.numberOfTrailingZeros(recordLength);
+        }
+        SteimFrameBlock block = Steim2.encode(samples, offset, length, recordLength / 64 - 1, 0);
+        block.writeTo(record, 64);
+        putShort(record, 30, block.getNumSamples());
+        return record;
+    }
+
+    /**
+     * Return a volume header record holding a blockette 10 that sets SEED
+     * version <b>version</b>, such as "02.3", and 4096 byte records, the
+     * length of the record itself.
+     */
+    static byte[] volumeHeader (int sequence, String version) {
+        String body = version + "12" + "2020,100~" + "2020,102~" + "2026,289~" + "TEST ORG~" + "LABEL~";
+        String header = String.format("%06dV 010%04d", sequence, 7 + body.length()) + body;
+        byte[] record = new byte[4096];
+        ascii(record, 0, record.length, header);
+        return record;
+    }
+
+    /**
+     * Return a volume header record, an abbreviation dictionary record with
+     * a blockette 30 for Steim2 as data format 1, and a station record whose
+     * blockettes 50 and 52 give channel IU.ANMO.00.BHZ that format from the
+     * start of 2020, numbered from <b>firstSequence</b>.
+     */
+    static List<byte[]> stationHeaders (int firstSequence) {
+        StringBuilder keys = new StringBuilder();
+        for (int i = 0; i < 14; i++) keys.append("F1 P4 W4 D C2 R1 P8 W4 D C2~");
+        String b30 = blockette(30, "Steim2 Integer Compression Format~" + "0001" + "050" + "14" + keys);
+        String b50 = blockette(50, "ANMO " + "+34.945900" + "-106.457200" + "+1850.0" + "0001" + "000"
+                + "Albuquerque~" + "000" + "3210" + "10" + "2020,001~" + "~" + "N" + "IU");
+        String b52 = blockette(52, "00" + "BHZ" + "0000" + "000" + "~" + "000" + "000" + "+34.945900"
+                + "-106.457200" + "+1850.0" + "100.0" + "000.0" + "-90.0" + "0001" + "09" + "2.0000E01"
+                + "0.0000E00" + "0000" + "CG~" + "2020,001~" + "~" + "N");
+        List<byte[]> records = new ArrayList<byte[]>();
+        records.add(volumeHeader(firstSequence, "02.3"));
+        records.add(controlHeader(firstSequence + 1, 'A', b30));
+        records.add(controlHeader(firstSequence + 2, 'S', b50 + b52));
+        return records;
+    }
+
+    /**
+     * Return the number of samples of a record built by record().
+     */
+    static int numSamples (byte[] record) {
+        return ((record[30] & 0xff) << 8) | (record[31] & 0xff);
+    }
+
+    /**
+     * Return the concatenation of <b>records</b>.
+     */
+    static byte[] volume (List<byte[]> records) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] record : records) out.write(record, 0, record.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * Return a volume of <b>count</b> records over two stations, three
+     * channels and the D and R qualities, spread over two days.
+     */
+    static List<byte[]> mixedRecords (int count) throws Exception {
+        return mixedRecords(1, count);
+    }
+
+    /**
+     * Return mixedRecords(count) numbered from <b>firstSequence</b>.
+     */
+    static List<byte[]> mixedRecords (int firstSequence, int count) throws Exception {
+        String[] stations = {"ANMO", "COLA"};
+        String[] channels = {"BHZ", "BHN", "LHZ"};
+        int[] samples = TestSeries.randomWalk(count * 800, 3);
+        List<byte[]> records = new ArrayList<byte[]>();
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            byte[] record = record(firstSequence + i, (i % 4 == 3) ? 'R' : 'D', stations[i % 2], "00",
+                    channels[i % 3], "IU", 2020, 100 + (i % 2), i % 24, samples, offset, samples.length - offset);
+            offset += numSamples(record);
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Return a one line summary of a data record built by a director: its
+     * FSDH and data blockettes as strings, its encoding and its decoded
+     * samples.  Field 2 of the FSDH blockette, the time it was made, is left
+     * out.
+     */
+    static String describe (Blockette fsdh, List<Blockette> dataBlockettes) throws Exception {
+        StringBuilder sb = new StringBuilder(fsdh.toString().replaceFirst("^(999\\|[^|]*\\|)[^|]*", "$1"));
+        for (Blockette blk : dataBlockettes) sb.append(" | ").append(blk.toString());
+        Waveform waveform = fsdh.getWaveform();
+        if (waveform != null) {
+            sb.append(" | ").append(waveform.getEncoding());
+            sb.append(" | ").append(Arrays.toString(waveform.getDecodedIntegers()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Return a 4096 byte control header record of type <b>type</b> holding
+     * <b>blockettes</b>.
+     */
+    private static byte[] controlHeader (int sequence, char type, String blockettes) {
+        byte[] record = new byte[4096];
+        ascii(record, 0, record.length, String.format("%06d%c ", sequence, type) + blockettes);
+        return record;
+    }
+
+    /**
+     * Return a control header blockette of type <b>type</b>, its length
+     * field followed by <b>fields</b>.
+     */
+    private static String blockette (int type, String fields) {
+        return String.format("%03d%04d", type, 7 + fields.length()) + fields;
+    }
+
+    private static void ascii (byte[] record, int offset, int length, String value) {
+        byte[] b = value.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < length; i++) record[offset + i] = (i < b.length) ? b[i] : (byte) ' ';
+    }
+
+    private static void putShort (byte[] record, int offset, int value) {
+        record[offset] = (byte) (value >> 8);
+        record[offset + 1] = (byte) value;
+    }
+}
@@ -0,0 +1,63 @@
+package edu.iris.dmc.seedcodec;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class BatchDecoderTest {
+
+	@Test
+	public void decodesRecordsInOrder() throws Exception {
+		int[] samples = TestSeries.randomWalk(6000, 13);
+		List<BatchDecoder.Record> records = new ArrayList<BatchDecoder.Record>();
+		int offset = 0;
+		int bias = 0;
+		while (offset < samples.length - 100) {
+			SteimFrameBlock block = Steim2.encode(samples, offset, samples.length - 100 - offset, 7, bias);
+			records.add(new BatchDecoder.Record(block.getEncodedData(), 0, 448, B1000Types.STEIM2,
+					block.getNumSamples(), false));
+			offset += block.getNumSamples();
+			bias = samples[offset - 1];
+		}
+		ByteBuffer tail = ByteBuffer.allocate(400);
+		tail.asIntBuffer().put(samples, offset, 100);
+		records.add(new BatchDecoder.Record(tail, B1000Types.INTEGER, 100, false));
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			BatchDecoder decoder = new BatchDecoder(pool);
+			decoder.setSplitThreshold(1);
+			assertArrayEquals(samples, decoder.decode(records));
+			int[] out = new int[samples.length + 2];
+			assertEquals(samples.length, decoder.decode(records, out, 2));
+			assertEquals(samples[0], out[2]);
+			assertEquals(samples[samples.length - 1], out[out.length - 1]);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void unknownEncodingFailsWithRecordIndex() throws Exception {
+		List<BatchDecoder.Record> records = new ArrayList<BatchDecoder.Record>();
+		records.add(new BatchDecoder.Record(new byte[] {0, 0, 0, 1, 0, 0, 0, 2}, 0, 8, B1000Types.INTEGER, 2, false));
+		records.add(new BatchDecoder.Record(new byte[8], 0, 8, 200, 2, false));
+		ForkJoinPool pool = new ForkJoinPool(2);
+		int[] out = {-1, -1, -1, -1};
+		try {
+			new BatchDecoder(pool).decode(records, out, 0);
+			fail("expected a CodecException");
+		} catch (CodecException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("record 1 of batch"));
+			assertTrue(e.getCause() instanceof UnsupportedCompressionType);
+			// the batch failed before record 0 was decoded
+			assertArrayEquals(new int[] {-1, -1, -1, -1}, out);
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package edu.iris.dmc.seedcodec;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class CodecRegistryTest {
+
+	@Test
+	public void registeredCodecReplacesStandardCode() throws Exception {
+		CodecRegistry registry = CodecRegistry.getDefault();
+		SampleCodec standard = registry.get(B1000Types.INTEGER);
+		registry.register(new ConstantCodec(B1000Types.INTEGER, "Int32Bit"));
+		try {
+			Codec codec = new Codec();
+			byte[] data = new byte[12];
+			assertArrayEquals(new int[] {7, 7, 7},
+					codec.decompress(B1000Types.INTEGER, data, 3, false).getAsInt());
+			int[] out = new int[4];
+			assertEquals(3, codec.decompress(B1000Types.INTEGER, ByteBuffer.wrap(data), 3, false, out, 1));
+			assertArrayEquals(new int[] {0, 7, 7, 7}, out);
+			final int[] sum = new int[1];
+			codec.decompress(B1000Types.INTEGER, ByteBuffer.wrap(data), 3, false, new SampleSink() {
+				public void accept(int[] samples, int offset, int length) {
+					for (int i = offset; i < offset + length; i++) {
+						sum[0] += samples[i];
+					}
+				}
+				public void accept(double[] samples, int offset, int length) {
+					fail("int data expected");
+				}
+			});
+			assertEquals(21, sum[0]);
+		} finally {
+			registry.register(standard);
+		}
+		assertTrue(registry.get(B1000Types.INTEGER) instanceof StandardCodec);
+		byte[] one = {0, 0, 0, 1};
+		assertArrayEquals(new int[] {1}, new Codec().decompress(B1000Types.INTEGER, one, 1, false).getAsInt());
+	}
+
+	@Test(expected = UnsupportedCompressionType.class)
+	public void unknownCodeIsUnsupported() throws Exception {
+		new Codec().decompress(200, new byte[8], 1, false);
+	}
+
+	/**
+	 * Decodes every sample to 7.
+	 */
+	private static class ConstantCodec implements SampleCodec {
+		ConstantCodec(int type, String name) {
+			this.type = type;
+			this.name = name;
+		}
+		public int getType() {
+			return type;
+		}
+		public String getName() {
+			return name;
+		}
+		public int getDecompressedType() {
+			return B1000Types.INTEGER;
+		}
+		public DecompressedData decode(ByteBuffer b, int numSamples, boolean swapBytes) {
+			int[] samples = new int[numSamples];
+			Arrays.fill(samples, 7);
+			b.position(b.limit());
+			return new DecompressedData(samples);
+		}
+		public boolean canEncode() {
+			return false;
+		}
+		public int encode(int[] samples, int offset, int length, int bias, ByteBuffer out) throws CodecException {
+			throw new UnsupportedCompressionType(name + " cannot be encoded");
+		}
+		public int estimateEncodedSize(int numSamples) {
+			return 4 * numSamples;
+		}
+		private final int type;
+		private final String name;
+	}
+}
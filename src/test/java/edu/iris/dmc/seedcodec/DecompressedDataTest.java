@@ -0,0 +1,43 @@
+package edu.iris.dmc.seedcodec;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class DecompressedDataTest {
+
+	@Test
+	public void conversionsAreCopies() {
+		DecompressedData data = new DecompressedData(new int[] {1, -2, 3});
+		double[] first = data.getAsDouble();
+		first[0] = 99;
+		double[] second = data.getAsDouble();
+		assertNotSame(first, second);
+		assertEquals(1.0, second[0], 0.0);
+		float[] floats = data.getAsFloat();
+		floats[1] = 99;
+		assertEquals(-2.0f, data.getAsFloat()[1], 0.0f);
+		assertEquals(DecompressedData.INTEGER, data.getType());
+	}
+
+	@Test
+	public void shortAsIntIsACopy() {
+		DecompressedData data = new DecompressedData(new short[] {5, -6});
+		int[] ints = data.getAsInt();
+		ints[0] = 0;
+		assertArrayEquals(new int[] {5, -6}, data.getAsInt());
+	}
+
+	@Test
+	public void viewsAreNativeOrShared() {
+		int[] ints = {1, 2, 3};
+		DecompressedData data = new DecompressedData(ints);
+		assertSame(ints, data.viewAsInt());
+		assertSame(data.viewAsDouble(), data.viewAsDouble());
+		assertSame(data.viewAsFloat(), data.viewAsFloat());
+		assertArrayEquals(new double[] {1, 2, 3}, data.viewAsDouble(), 0.0);
+		double[] doubles = {0.5};
+		assertSame(doubles, new DecompressedData(doubles).viewAsDouble());
+		assertNull(new DecompressedData(doubles).viewAsInt());
+	}
+}
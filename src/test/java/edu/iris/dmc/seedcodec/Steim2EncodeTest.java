@@ -0,0 +1,211 @@
+package edu.iris.dmc.seedcodec;
+
+import static org.junit.Assert.*;
+
+
+import org.junit.Test;
+
+/**
+ * Checks Steim2 encoding against frames recorded from the encoder as it was
+ * before its packing was made table driven, which must be reproduced byte
+ * for byte.
+ */
+public class Steim2EncodeTest {
+
+	@Test
+	public void width4() throws Exception {
+		check(widthSeries(4, 30), 1, 0, 30,
+				"03fe000000000007fffffff1878787878878787887878787887878788003fff800000000000000000000000000000000" +
+				"00000000000000000000000000000000");
+	}
+
+	@Test
+	public void width5() throws Exception {
+		check(widthSeries(5, 30), 1, 0, 30,
+				"03ff00000000000ffffffff15f07c1f05f07c1f05f07c1f05f07c1f05f07c1f000000000000000000000000000000000" +
+				"00000000000000000000000000000000");
+	}
+
+	@Test
+	public void width6() throws Exception {
+		check(widthSeries(6, 30), 1, 0, 30,
+				"03ffc0000000001ffffffff11f81f81f207e07e01f81f81f207e07e01f81f81f207e07e0000000000000000000000000" +
+				"00000000000000000000000000000000");
+	}
+
+	@Test
+	public void width8() throws Exception {
+		check(widthSeries(8, 30), 1, 0, 30,
+				"015558000000007ffffffff17f807f807f807f807f807f807f807f807f807f807f807f807f807f80803fff8000000000" +
+				"00000000000000000000000000000000");
+	}
+
+	@Test
+	public void width10() throws Exception {
+		check(widthSeries(10, 30), 1, 0, 30,
+				"02aaaa80000001fffffffff1dff801ffe007fe00dff801ffe007fe00dff801ffe007fe00dff801ffe007fe00dff801ff" +
+				"e007fe00000000000000000000000000");
+	}
+
+	@Test
+	public void width15() throws Exception {
+		check(widthSeries(15, 30), 2, 0, 30,
+				"02aaaaaa00003ffffffffff19fffc0009fffc0009fffc0009fffc0009fffc0009fffc0009fffc0009fffc0009fffc000" +
+				"9fffc0009fffc0009fffc0009fffc000280000009fffc0009fffc0000000000000000000000000000000000000000000" +
+				"0000000000000000000000000000000000000000000000000000000000000000");
+	}
+
+	@Test
+	public void width16() throws Exception {
+		check(widthSeries(16, 30), 3, 0, 30,
+				"02aaaaaa00007ffffffffff140007fff7fff800040007fff7fff800040007fff7fff800040007fff7fff800040007fff" +
+				"7fff800040007fff7fff800040007fff2aaaaaaa7fff800040007fff7fff800040007fff7fff800040007fff7fff8000" +
+				"40007fff7fff800040007fff7fff800040007fff7fff800040007fff7fff80002800000040007fff7fff800000000000" +
+				"000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000");
+	}
+
+	@Test
+	public void width30() throws Exception {
+		check(widthSeries(30, 30), 3, 0, 30,
+				"02aaaaaa1ffffffffffffff15fffffff600000005fffffff600000005fffffff600000005fffffff600000005fffffff" +
+				"600000005fffffff600000005fffffff2aaaaaaa600000005fffffff600000005fffffff600000005fffffff60000000" +
+				"5fffffff600000005fffffff600000005fffffff600000005fffffff60000000280000005fffffff6000000000000000" +
+				"000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000");
+	}
+
+	@Test
+	public void mixedWidths() throws Exception {
+		check(mixedWidths(72), 3, 0, 72,
+				"036aaaab00000007a000c4a44f83c1f01fe01f80c7fe01ffbf0001ffa0003fff7fffc00040007fff7fff800040007fff" +
+				"600000005fffffff600000004f83c1f01aaaaada1fe01f80c7fe01ffbf0001ffa0003fff7fffc00040007fff7fff8000" +
+				"40007fff600000005fffffff600000004f83c1f01fe01f80c7fe01ffbf0001ff2aaa8000a0003fff7fffc00040007fff" +
+				"7fff800040007fff600000005fffffff6000000000000000000000000000000000000000000000000000000000000000");
+	}
+
+	@Test
+	public void longSeries() throws Exception {
+		check(TestSeries.randomWalk(320, 8), 13, 0, 320,
+				"02a6aaaa0000000ffffb6efc8007fc1eba067f3ab6e2f9ea031bfd027ffcf81e400000657ff840b4400067ef7ffbfdf7" +
+				"c3945f2f400632577ffd93e7400122ec2aa6aaaa8077000ebec9b3a47ffe8489800b80004005109b01efd0fc7ffffffe" +
+				"40007afa7fff60edbedc0007ca439fffbdbd00484007da4dbea3ffe0bfff836b2aaaaaaabe3dffff8010f85987327f95" +
+				"ffd6c1b64000362b40008c9c4000dab38000fc4e81c9800d80087ffc7ffcdee8cc6fffff7ffe04cbbfc3264f86d38000" +
+				"2aaaaaaa7fffffff7fff677d80007e1a7ffda13abfc480198ecf7ff24001cc25c1b0bc1b40011e28bfff006340014c80" +
+				"7fff14ffb3567fff400062a3b0f180402aaaaaaa843b00157fffffff4000759a4003a63e7ffffffc40009ead4001ac2a" +
+				"4001daf67ffffffd7ffd42a3bffdfac7400056fcbffd7ad67fffdab57ffea8e72aaaaaaa925941eb80648669bfff0a04" +
+				"ab48ffff7fff1e88b27c005f400041057ffe75a98000773c4001014afffffee6bffe3195bffffffc7fff0d4b4000006e" +
+				"2aaaa9aa40016de74003f572ffffdffc7ffbbc934001911ac0000c037fff313ae1df8c027ff8a8a4f5a15ff3feff0cb0" +
+				"bffffff3a02affff801fa5c0b00371652aaaaaaabfffffffa2e484b78004009b7fff6047bad501e1a023fe4092f77fff" +
+				"88584c4080fbf525872b0002fcacb00080b1b5e27ffffffe4000d05282027fff2aaaaaea7ffe2591bffffdda40011b0b" +
+				"c1e0a01f7ffe83d3c01ff8aabe33147c400001e57fff585a8000000d85e2800001f40bbcfffe90db907a80007ffdfd93" +
+				"2aaaaaaa8a958cfe7fffffff40018fa07fff81b4a5557011400000024000772fbffe11e64001584fbc4c02527ffe7a19" +
+				"c040040f7ffff7d47fffbf78bfff61ac2aaaaaaa7fff57b97ffd945580067eb940009898bec2801ebef707dd7fff087b" +
+				"7fffffa97fff3b514000074f7ffb433d4006bbd1400001b64000720a4000dc062aaaaaaa876ff57140015de040000a36" +
+				"4003a0d8c0043c018001e2b1801580008adeff0dc0d007f9be607ff58000e132aa0f006ba4a6ffc2ffff3fc77fffbd27" +
+				"2aaaaa809e217ff1f4cf08018064741fbffffccb80f1003a7fffbcb4bffe00057ffff8f4400090d7bf87893db2980010" +
+				"bffff4ca000000000000000000000000");
+	}
+
+	@Test
+	public void longSeriesWithBias() throws Exception {
+		check(TestSeries.randomWalk(320, 8), 13, -1234, 320,
+				"02a6aaaa0000000ffffb6efc8270fc1eba067f3ab6e2f9ea031bfd027ffcf81e400000657ff840b4400067ef7ffbfdf7" +
+				"c3945f2f400632577ffd93e7400122ec2aa6aaaa8077000ebec9b3a47ffe8489800b80004005109b01efd0fc7ffffffe" +
+				"40007afa7fff60edbedc0007ca439fffbdbd00484007da4dbea3ffe0bfff836b2aaaaaaabe3dffff8010f85987327f95" +
+				"ffd6c1b64000362b40008c9c4000dab38000fc4e81c9800d80087ffc7ffcdee8cc6fffff7ffe04cbbfc3264f86d38000" +
+				"2aaaaaaa7fffffff7fff677d80007e1a7ffda13abfc480198ecf7ff24001cc25c1b0bc1b40011e28bfff006340014c80" +
+				"7fff14ffb3567fff400062a3b0f180402aaaaaaa843b00157fffffff4000759a4003a63e7ffffffc40009ead4001ac2a" +
+				"4001daf67ffffffd7ffd42a3bffdfac7400056fcbffd7ad67fffdab57ffea8e72aaaaaaa925941eb80648669bfff0a04" +
+				"ab48ffff7fff1e88b27c005f400041057ffe75a98000773c4001014afffffee6bffe3195bffffffc7fff0d4b4000006e" +
+				"2aaaa9aa40016de74003f572ffffdffc7ffbbc934001911ac0000c037fff313ae1df8c027ff8a8a4f5a15ff3feff0cb0" +
+				"bffffff3a02affff801fa5c0b00371652aaaaaaabfffffffa2e484b78004009b7fff6047bad501e1a023fe4092f77fff" +
+				"88584c4080fbf525872b0002fcacb00080b1b5e27ffffffe4000d05282027fff2aaaaaea7ffe2591bffffdda40011b0b" +
+				"c1e0a01f7ffe83d3c01ff8aabe33147c400001e57fff585a8000000d85e2800001f40bbcfffe90db907a80007ffdfd93" +
+				"2aaaaaaa8a958cfe7fffffff40018fa07fff81b4a5557011400000024000772fbffe11e64001584fbc4c02527ffe7a19" +
+				"c040040f7ffff7d47fffbf78bfff61ac2aaaaaaa7fff57b97ffd945580067eb940009898bec2801ebef707dd7fff087b" +
+				"7fffffa97fff3b514000074f7ffb433d4006bbd1400001b64000720a4000dc062aaaaaaa876ff57140015de040000a36" +
+				"4003a0d8c0043c018001e2b1801580008adeff0dc0d007f9be607ff58000e132aa0f006ba4a6ffc2ffff3fc77fffbd27" +
+				"2aaaaa809e217ff1f4cf08018064741fbffffccb80f1003a7fffbcb4bffe00057ffff8f4400090d7bf87893db2980010" +
+				"bffff4ca000000000000000000000000");
+	}
+
+	@Test
+	public void fullBlock() throws Exception {
+		// more samples than the frames hold
+		check(TestSeries.randomWalk(320, 8), 3, 0, 75,
+				"02a6aaaa0000000ffffe94b58007fc1eba067f3ab6e2f9ea031bfd027ffcf81e400000657ff840b4400067ef7ffbfdf7" +
+				"c3945f2f400632577ffd93e7400122ec2aa6aaaa8077000ebec9b3a47ffe8489800b80004005109b01efd0fc7ffffffe" +
+				"40007afa7fff60edbedc0007ca439fffbdbd00484007da4dbea3ffe0bfff836b2aaaaaaabe3dffff8010f85987327f95" +
+				"ffd6c1b64000362b40008c9c4000dab38000fc4e81c9800d80087ffc7ffcdee8cc6fffff7ffe04cbbfc3264f86d38000");
+	}
+
+	@Test
+	public void lastFrameFilledExactly() throws Exception {
+		// 13 words of frame 0 and 15 of frame 1, four 8 bit differences each
+		byte[] b = check(exactFill(), 2, 0, 112,
+				"01555555000000640000023064a664a664a664a664a664a664a664a664a664a664a664a664a664a664a664a664a664a6" +
+				"64a664a664a664a664a664a664a664a61555555564a664a664a664a664a664a664a664a664a664a664a664a664a664a6" +
+				"64a664a664a664a664a664a664a664a664a664a664a664a664a664a664a664a6");
+		assertTrue(b[b.length - 1] != 0);
+	}
+
+	// helpers
+
+	private static byte[] check(int[] samples, int frames, int bias, int numSamples, String expected)
+			throws Exception {
+		SteimFrameBlock block = Steim2.encode(samples, frames, bias);
+		assertEquals(numSamples, block.getNumSamples());
+		byte[] b = block.getEncodedData();
+		assertEquals(expected, hex(b));
+		return b;
+	}
+
+	/**
+	 * Return differences alternating between the largest and smallest values
+	 * of <b>bits</b> bits.
+	 */
+	private static int[] widthSeries(int bits, int length) {
+		int[] samples = new int[length];
+		int value = 0;
+		for (int i = 0; i < length; i++) {
+			value += (i % 2 == 0) ? (1 << (bits - 1)) - 1 : -(1 << (bits - 1));
+			samples[i] = value;
+		}
+		return samples;
+	}
+
+	/**
+	 * Return extreme differences whose width changes every three samples.
+	 */
+	private static int[] mixedWidths(int length) {
+		int[] widths = {4, 5, 6, 8, 10, 15, 16, 30};
+		int[] samples = new int[length];
+		int value = 0;
+		for (int i = 0; i < length; i++) {
+			int bits = widths[(i / 3) % widths.length];
+			value += (i % 2 == 0) ? (1 << (bits - 1)) - 1 : -(1 << (bits - 1));
+			samples[i] = value;
+		}
+		return samples;
+	}
+
+	/**
+	 * Return 112 samples whose differences all take 8 bits.
+	 */
+	private static int[] exactFill() {
+		int[] samples = new int[112];
+		int value = 0;
+		for (int i = 0; i < samples.length; i++) {
+			value += (i % 2 == 0) ? 100 : -90;
+			samples[i] = value;
+		}
+		return samples;
+	}
+
+	private static String hex(byte[] b) {
+		StringBuilder sb = new StringBuilder();
+		for (byte x : b) {
+			sb.append(String.format("%02x", x & 0xff));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,97 @@
+package edu.iris.dmc.seedcodec;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Round trip of a continuous series through SteimStreamEncoder and
+ * SteimStreamDecoder across record boundaries.
+ */
+public class SteimStreamTest {
+
+	@Test
+	public void steim1RoundTripAcrossRecords() throws Exception {
+		roundTrip(1);
+	}
+
+	@Test
+	public void steim2RoundTripAcrossRecords() throws Exception {
+		roundTrip(2);
+	}
+
+	@Test
+	public void wrongReverseIntegrationConstantIsRejected() throws Exception {
+		int[] samples = TestSeries.randomWalk(2000, 7);
+		List<Integer> counts = new ArrayList<Integer>();
+		List<byte[]> records = encodeRecords(1, 7, samples, counts);
+		byte[] bad = records.get(1);
+		bad[11] ^= 1;  // X(n) is bytes 8 to 11 of frame 0
+		SteimStreamDecoder decoder = new SteimStreamDecoder(1);
+		decoder.decode(records.get(0), counts.get(0), false);
+		assertEquals(samples[counts.get(0) - 1], decoder.getLastValue());
+		try {
+			decoder.decode(bad, counts.get(1), false);
+			fail("expected a SteimException");
+		} catch (SteimException e) {
+			assertFalse(decoder.hasLastValue());
+		}
+	}
+
+	@Test
+	public void unchainedRecordIsAnchoredOnFirstValue() throws Exception {
+		int[] samples = TestSeries.randomWalk(500, 3);
+		SteimFrameBlock block = Steim2.encode(samples, 0, samples.length, 7, 12345);
+		SteimStreamDecoder decoder = new SteimStreamDecoder(2);
+		decoder.setLastValue(-99);  // not the bias the record was encoded with
+		int[] decoded = decoder.decode(block.getEncodedData(), block.getNumSamples(), false);
+		assertFalse(decoder.isContinuous());
+		assertEquals(samples[block.getNumSamples() - 1], decoder.getLastValue());
+		for (int i = 0; i < decoded.length; i++) {
+			assertEquals(samples[i], decoded[i]);
+		}
+	}
+
+	// helpers
+
+	private static void roundTrip(int steimVersion) throws Exception {
+		int[] samples = TestSeries.randomWalk(5000, 7);
+		final List<Integer> counts = new ArrayList<Integer>();
+		List<byte[]> records = encodeRecords(steimVersion, 7, samples, counts);
+		assertTrue("expected several records", records.size() > 2);
+		SteimStreamDecoder decoder = new SteimStreamDecoder(steimVersion);
+		int[] decoded = new int[samples.length];
+		int offset = 0;
+		for (int i = 0; i < records.size(); i++) {
+			int n = counts.get(i);
+			decoder.decode(records.get(i), 0, records.get(i).length, n, false, decoded, offset);
+			offset += n;
+			assertTrue("record " + i + " not continuous", decoder.isContinuous());
+			assertEquals(samples[offset - 1], decoder.getLastValue());
+		}
+		assertEquals(samples.length, offset);
+		assertArrayEquals(samples, decoded);
+	}
+
+	private static List<byte[]> encodeRecords(int steimVersion, int frames, int[] samples) throws Exception {
+		return encodeRecords(steimVersion, frames, samples, new ArrayList<Integer>());
+	}
+
+	private static List<byte[]> encodeRecords(int steimVersion, int frames, int[] samples,
+			final List<Integer> counts) throws Exception {
+		final List<byte[]> records = new ArrayList<byte[]>();
+		SteimStreamEncoder encoder = new SteimStreamEncoder(steimVersion, frames);
+		encoder.encodeRecords(samples, 0, samples.length, new SteimStreamEncoder.RecordHandler() {
+			public void record(SteimFrameBlock frameBlock, int sampleOffset, int numSamples) throws IOException {
+				records.add(frameBlock.getEncodedData());
+				counts.add(numSamples);
+			}
+		});
+		assertEquals(samples[samples.length - 1], encoder.getLastValue());
+		return records;
+	}
+}
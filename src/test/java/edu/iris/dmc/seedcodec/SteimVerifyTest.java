@@ -0,0 +1,97 @@
+package edu.iris.dmc.seedcodec;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class SteimVerifyTest {
+
+	@Test
+	public void steim1ValidBlock() throws Exception {
+		checkValid(Steim1.encode(TestSeries.randomWalk(800, 21), 0, 800, 7, 0));
+	}
+
+	@Test
+	public void steim2ValidBlock() throws Exception {
+		checkValid(Steim2.encode(TestSeries.randomWalk(800, 21), 0, 800, 7, 0));
+	}
+
+	@Test
+	public void steim1WrongReverseConstant() throws Exception {
+		checkWrongReverseConstant(Steim1.encode(TestSeries.randomWalk(800, 22), 0, 800, 7, 0));
+	}
+
+	@Test
+	public void steim2WrongReverseConstant() throws Exception {
+		checkWrongReverseConstant(Steim2.encode(TestSeries.randomWalk(800, 22), 0, 800, 7, 0));
+	}
+
+	@Test
+	public void steim1ShortSampleCount() throws Exception {
+		checkShortCount(Steim1.encode(TestSeries.randomWalk(100, 23), 0, 100, 7, 0));
+	}
+
+	@Test
+	public void steim2ShortSampleCount() throws Exception {
+		checkShortCount(Steim2.encode(TestSeries.randomWalk(100, 23), 0, 100, 7, 0));
+	}
+
+	// helpers
+
+	private static SteimScan verify(SteimFrameBlock block, byte[] b, int numSamples) throws SteimException {
+		return block.getSteimVersion() == 1
+				? Steim1.verify(b, numSamples, false)
+				: Steim2.verify(b, numSamples, false);
+	}
+
+	private static int[] decode(SteimFrameBlock block, byte[] b, int numSamples) throws SteimException {
+		return block.getSteimVersion() == 1
+				? Steim1.decode(b, numSamples, false)
+				: Steim2.decode(b, numSamples, false);
+	}
+
+	private static void checkValid(SteimFrameBlock block) throws Exception {
+		byte[] b = block.getEncodedData();
+		int n = block.getNumSamples();
+		int[] decoded = decode(block, b, n);
+		SteimScan scan = verify(block, b, n);
+		assertTrue(scan.toString(), scan.isValid());
+		assertEquals(n, scan.getNumSamples());
+		assertEquals(decoded[0], scan.getFirstValue());
+		assertEquals(decoded[n - 1], scan.getLastValue());
+		assertEquals(decoded[n - 1], scan.getReverseIntegrationConstant());
+		// the buffer form agrees and leaves the position alone
+		ByteBuffer buf = ByteBuffer.wrap(b);
+		SteimScan bufScan = block.getSteimVersion() == 1 ? Steim1.verify(buf, n) : Steim2.verify(buf, n);
+		assertTrue(bufScan.isValid());
+		assertEquals(0, buf.position());
+	}
+
+	private static void checkWrongReverseConstant(SteimFrameBlock block) throws Exception {
+		byte[] b = block.getEncodedData();
+		int n = block.getNumSamples();
+		b[11] ^= 1;  // X(n) is bytes 8 to 11 of frame 0
+		SteimScan scan = verify(block, b, n);
+		assertTrue(scan.isComplete());
+		assertFalse(scan.isReverseConstantValid());
+		assertFalse(scan.isValid());
+		assertEquals(decode(block, b, n)[n - 1], scan.getLastValue());
+	}
+
+	private static void checkShortCount(SteimFrameBlock block) throws Exception {
+		byte[] b = block.getEncodedData();
+		int n = block.getNumSamples();
+		assertEquals(100, n);
+		SteimScan scan = verify(block, b, n + 5);
+		assertFalse(scan.isComplete());
+		assertFalse(scan.isValid());
+		assertEquals(n, scan.getNumSamples());
+		assertEquals(n + 5, scan.getExpectedSamples());
+		// a header count below what the frames hold stops early
+		SteimScan partial = verify(block, b, n - 10);
+		assertTrue(partial.isComplete());
+		assertFalse(partial.isValid());
+	}
+}
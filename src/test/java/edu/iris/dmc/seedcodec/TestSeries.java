@@ -0,0 +1,35 @@
+package edu.iris.dmc.seedcodec;
+
+import java.util.Random;
+
+/**
+ * Builds reproducible sample series for tests.
+ */
+public final class TestSeries {
+
+	private TestSeries() {
+	}
+
+	/**
+	 * Return a random walk whose steps are up to 2^19 in size.
+	 */
+	public static int[] randomWalk(int length, long seed) {
+		return randomWalk(length, seed, 20);
+	}
+
+	/**
+	 * Return a random walk with steps of varying size, each up to 2^n for an
+	 * n below <b>bits</b>, which is at most 30.
+	 */
+	public static int[] randomWalk(int length, long seed, int bits) {
+		Random random = new Random(seed);
+		int[] samples = new int[length];
+		int value = 0;
+		for (int i = 0; i < length; i++) {
+			int width = 1 << random.nextInt(bits);
+			value += random.nextInt(2 * width) - width;
+			samples[i] = value;
+		}
+		return samples;
+	}
+}
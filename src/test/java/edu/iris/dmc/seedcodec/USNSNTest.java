@@ -0,0 +1,200 @@
+package edu.iris.dmc.seedcodec;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class USNSNTest {
+
+	@Test
+	public void firstAndLastRecordBigEndian() throws Exception {
+		checkFirstAndLastRecord(ByteOrder.BIG_ENDIAN);
+	}
+
+	@Test
+	public void firstAndLastRecordLittleEndian() throws Exception {
+		checkFirstAndLastRecord(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	@Test
+	public void middleRecordBigEndian() throws Exception {
+		checkMiddleRecord(ByteOrder.BIG_ENDIAN);
+	}
+
+	@Test
+	public void middleRecordLittleEndian() throws Exception {
+		checkMiddleRecord(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	@Test
+	public void partialDecodeBigEndian() throws Exception {
+		checkPartialDecode(ByteOrder.BIG_ENDIAN);
+	}
+
+	@Test
+	public void partialDecodeLittleEndian() throws Exception {
+		checkPartialDecode(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	@Test
+	public void corruptBackPointer() throws Exception {
+		int[] samples = TestSeries.randomWalk(300, 32, 30);
+		Encoded record = encode(samples, 2048, true);
+		assertTrue(record.frames > 7);
+		record.bytes[record.firstBackPointer] ^= 1;
+		try {
+			USNSN.decode(swap(record.bytes, ByteOrder.LITTLE_ENDIAN), samples.length, true, 0);
+			fail("expected a CodecException");
+		} catch (CodecException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("NCT mismatch"));
+		}
+	}
+
+	@Test
+	public void corruptReverseIntegrationConstant() throws Exception {
+		int[] samples = TestSeries.randomWalk(300, 33, 30);
+		byte[] b = encode(samples, 2048, true).bytes;
+		b[b.length - 1] ^= 1;  // low byte of the big-endian IAN
+		try {
+			USNSN.decode(b, samples.length, false, 0);
+			fail("expected a CodecException");
+		} catch (CodecException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("IAN mismatch"));
+		}
+	}
+
+	// helpers
+
+	private static void checkFirstAndLastRecord(ByteOrder order) throws Exception {
+		int[] samples = TestSeries.randomWalk(300, 30, 30);
+		Encoded record = encode(samples, 2048, true);
+		byte[] b = swap(record.bytes, order);
+		// npt + 1 samples: the forward integration constant leads
+		int[] decoded = USNSN.decode(b, samples.length, order == ByteOrder.LITTLE_ENDIAN, 0);
+		assertArrayEquals(samples, decoded);
+		// the buffer form agrees, at an offset, and leaves the position alone
+		ByteBuffer buf = ByteBuffer.wrap(b).order(order);
+		int[] out = new int[samples.length + 5];
+		assertEquals(samples.length, USNSN.decode(buf, samples.length, out, 5));
+		assertArrayEquals(samples, Arrays.copyOfRange(out, 5, out.length));
+		assertEquals(0, buf.position());
+	}
+
+	private static void checkMiddleRecord(ByteOrder order) throws Exception {
+		int[] samples = TestSeries.randomWalk(250, 31, 30);
+		byte[] b = swap(encode(samples, 2048, false).bytes, order);
+		// npt samples: the record continues a series and ends with no KPT or IAN
+		int[] decoded = USNSN.decode(b, samples.length - 1, order == ByteOrder.LITTLE_ENDIAN, 0);
+		assertArrayEquals(Arrays.copyOfRange(samples, 1, samples.length), decoded);
+	}
+
+	private static void checkPartialDecode(ByteOrder order) throws Exception {
+		int[] samples = TestSeries.randomWalk(300, 34, 30);
+		byte[] b = swap(encode(samples, 2048, true).bytes, order);
+		for (int n : new int[] {1, 30, 31, 57, 200}) {
+			int[] decoded = USNSN.decode(b, n, order == ByteOrder.LITTLE_ENDIAN, 0);
+			assertArrayEquals("numSamples " + n, Arrays.copyOfRange(samples, 1, n + 1), decoded);
+		}
+	}
+
+	private static class Encoded {
+		byte[] bytes;
+		int frames;
+		int firstBackPointer;
+	}
+
+	/**
+	 * Compress all of the samples, samples[0] being the forward integration
+	 * constant, into a big-endian record of <b>length</b> bytes, choosing
+	 * for each field the narrowest key that holds its differences.  Only
+	 * the last record of a series carries KPT and IAN.
+	 */
+	private static Encoded encode(int[] samples, int length, boolean last) {
+		Encoded record = new Encoded();
+		byte[] b = new byte[length];
+		int bit = 48;
+		int mark = USNSN.NST - 2;
+		int index = 1;
+		int frame = 0;
+		while (index < samples.length) {
+			frame++;
+			int keyPos = bit >> 3;
+			bit += 8;
+			int frameCount = 0;
+			int key = 0;
+			for (int j = 0; j < 2; j++) {
+				int k = key(samples, index);
+				int count = Math.min(USNSN.nib[1][k], samples.length - index);
+				for (int i = 0; i < count; i++, index++) {
+					putBits(b, bit + i * USNSN.nib[0][k], samples[index] - samples[index - 1], USNSN.nib[0][k]);
+				}
+				bit += 8 * USNSN.nib[2][k];
+				frameCount += count;
+				key = (key << 4) | k;
+			}
+			b[keyPos] = (byte) key;
+			boolean fin = index >= samples.length;
+			if (fin || frame % 7 == 0) {
+				if (record.firstBackPointer == 0) {
+					record.firstBackPointer = bit >> 3;
+				}
+				b[bit >> 3] = (byte) ((bit >> 3) - mark);
+				mark = bit >> 3;
+				bit += 8;
+				if (fin && last) {
+					b[bit >> 3] = (byte) frameCount;
+				}
+			}
+		}
+		assertTrue("record too short for the samples", (bit >> 3) + 5 <= length);
+		putBits(b, 0, samples[0], 32);
+		putBits(b, 32, samples.length - 1, 16);
+		if (last) {
+			putBits(b, (length - 4) * 8, samples[samples.length - 1], 32);
+		}
+		record.bytes = b;
+		record.frames = frame;
+		return record;
+	}
+
+	/** narrowest key whose field holds the next differences */
+	private static int key(int[] samples, int index) {
+		for (int k = 0; k < 15; k++) {
+			int count = Math.min(USNSN.nib[1][k], samples.length - index);
+			long range = 1L << (USNSN.nib[0][k] - 1);
+			boolean fits = true;
+			for (int i = 0; i < count && fits; i++) {
+				int d = samples[index + i] - samples[index + i - 1];
+				fits = (d >= -range && d < range);
+			}
+			if (fits) {
+				return k;
+			}
+		}
+		return 15;
+	}
+
+	/** write the low <b>bits</b> of a value MSB first at a bit offset */
+	private static void putBits(byte[] b, int bit, int value, int bits) {
+		for (int i = bits - 1; i >= 0; i--, bit++) {
+			if (((value >>> i) & 1) != 0) {
+				b[bit >> 3] |= (byte) (0x80 >>> (bit & 7));
+			}
+		}
+	}
+
+	/** return a copy of a big-endian record in the given word order */
+	private static byte[] swap(byte[] b, ByteOrder order) {
+		ByteBuffer out = ByteBuffer.wrap(b.clone());
+		if (order == ByteOrder.LITTLE_ENDIAN) {
+			for (int i = 0; i < b.length; i += 4) {
+				out.putInt(i, Integer.reverseBytes(out.getInt(i)));
+			}
+		}
+		return out.array();
+	}
+}
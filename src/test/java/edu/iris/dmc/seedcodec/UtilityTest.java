@@ -0,0 +1,36 @@
+package edu.iris.dmc.seedcodec;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class UtilityTest {
+
+	@Test
+	public void bytesToShortMatchesBulkConversion() {
+		byte[] b = new byte[512];
+		for (int i = 0; i < b.length; i++) {
+			b[i] = (byte) (i * 37 + 11);
+		}
+		b[0] = (byte) 0xff;
+		b[1] = (byte) 0x80;
+		for (int swap = 0; swap < 2; swap++) {
+			boolean swapBytes = swap == 1;
+			short[] bulk = new short[b.length / 2];
+			Utility.bytesToShorts(ByteBuffer.wrap(b), swapBytes, bulk, 0, bulk.length);
+			for (int i = 0; i < bulk.length; i++) {
+				assertEquals("swap " + swapBytes + " at " + i, bulk[i],
+						Utility.bytesToShort(b[2 * i], b[2 * i + 1], swapBytes));
+			}
+		}
+	}
+
+	@Test
+	public void bytesToShortSwapped() {
+		assertEquals((short) 0x1234, Utility.bytesToShort((byte) 0x34, (byte) 0x12, true));
+		assertEquals((short) 0x1234, Utility.bytesToShort((byte) 0x12, (byte) 0x34, false));
+		assertEquals((short) -2, Utility.bytesToShort((byte) 0xfe, (byte) 0xff, true));
+	}
+}